@@ -0,0 +1,202 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import com.google.common.base.MoreObjects;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The parsed arguments of a command.
+ * <p>
+ * Arguments starting with {@code --} are options. An option is followed by its value, unless it is a flag like {@code --header}
+ * (see {@link #parse(List, Set)}). All other arguments are positional. {@code --} ends the options, so all following arguments are positional.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class Arguments
+{
+    /**
+     * The values of the options, by name without the leading {@code --}. Flags have the value {@code "true"}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Map<String, String> options;
+
+    /**
+     * The positional arguments.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final List<String> positional;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param options    The values of the options.
+     * @param positional The positional arguments.
+     * @since 0.2.4
+     */
+    private Arguments(@NotNull Map<String, String> options, @NotNull List<String> positional)
+    {
+        this.options = Collections.unmodifiableMap(options);
+        this.positional = Collections.unmodifiableList(positional);
+    }
+
+    /**
+     * Parses arguments.
+     *
+     * @param arguments The arguments.
+     * @param flags     The names of the options that do not take a value.
+     * @return The parsed arguments.
+     * @throws IllegalArgumentException If an option is missing its value.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static Arguments parse(@NotNull List<String> arguments, @NotNull Set<String> flags)
+    {
+        checkNotNull(arguments);
+        checkNotNull(flags);
+        Map<String, String> options = new HashMap<>();
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < arguments.size(); i++)
+        {
+            String argument = arguments.get(i);
+            if (argument.equals("--"))
+            {
+                positional.addAll(arguments.subList(i + 1, arguments.size()));
+                break;
+            }
+            if (!argument.startsWith("--") || argument.length() == 2)
+            {
+                positional.add(argument);
+                continue;
+            }
+            String name = argument.substring(2);
+            if (flags.contains(name))
+                options.put(name, "true");
+            else
+            {
+                if (i + 1 >= arguments.size())
+                    throw new IllegalArgumentException("Missing value of option --" + name);
+                options.put(name, arguments.get(++i));
+            }
+        }
+        return new Arguments(options, positional);
+    }
+
+    /**
+     * Gets the value of an option.
+     *
+     * @param name The name of the option.
+     * @return The value. {@code null} if the option was not specified.
+     * @since 0.2.4
+     */
+    @Nullable
+    public String get(@NotNull String name)
+    {
+        return options.get(name);
+    }
+
+    /**
+     * Gets the value of an option.
+     *
+     * @param name         The name of the option.
+     * @param defaultValue The value to return if the option was not specified.
+     * @return The value.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String get(@NotNull String name, @NotNull String defaultValue)
+    {
+        String value = options.get(name);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Gets the value of an option that has to be a positive integer.
+     *
+     * @param name         The name of the option.
+     * @param defaultValue The value to return if the option was not specified.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is not a positive integer.
+     * @since 0.2.4
+     */
+    public int getPositiveInt(@NotNull String name, int defaultValue)
+    {
+        String value = options.get(name);
+        if (value == null)
+            return defaultValue;
+        try
+        {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0)
+                return parsed;
+        } catch (NumberFormatException ignored)
+        {
+        }
+        throw new IllegalArgumentException("Option --" + name + " has to be a positive integer: " + value);
+    }
+
+    /**
+     * Returns whether a flag was specified.
+     *
+     * @param name The name of the flag.
+     * @return Whether the flag was specified.
+     * @since 0.2.4
+     */
+    public boolean has(@NotNull String name)
+    {
+        return options.containsKey(name);
+    }
+
+    /**
+     * Gets the positional arguments.
+     *
+     * @return An unmodifiable list of the positional arguments.
+     * @since 0.2.4
+     */
+    @NotNull
+    public List<String> getPositional()
+    {
+        return positional;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("options", options)
+                          .add("positional", positional)
+                          .toString();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.repository.VocabRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Measures the throughput of form lookups against the repository.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+final class BenchCommand extends Command
+{
+    /**
+     * Constructs a new instance.
+     *
+     * @since 0.2.4
+     */
+    BenchCommand()
+    {
+        super("bench", "bench [--queries <n>] [--batch <size>] [--seed <seed>]\n" +
+                       "Looks up random forms of up to <n> (default 1000) nouns of the repository, first one query per form, then\n" +
+                       "<size> (default 1000) forms per query. Prints mode, queries, results, milliseconds and queries per second.");
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void run(@NotNull KayonContext context, @NotNull Arguments arguments, @NotNull BufferedReader in, @NotNull PrintWriter out)
+            throws Exception
+    {
+        int queries = arguments.getPositiveInt("queries", 1000);
+        int batchSize = arguments.getPositiveInt("batch", 1000);
+        @Nullable
+        String seed = arguments.get("seed");
+        Random random = seed == null ? new Random() : new Random(seed.hashCode());
+        VocabRepository repository = context.getRepository();
+
+        List<String> forms;
+        try (Stream<Noun> nouns = repository.streamAll())
+        {
+            forms = nouns.limit(queries)
+                         .map(noun -> noun.getForm(NounForm.values().get(random.nextInt(NounForm.values().size()))))
+                         .filter(form -> form != null && !form.isEmpty())
+                         .collect(Collectors.toList());
+        }
+        if (forms.isEmpty())
+            throw new IllegalArgumentException("The repository does not contain any declinable nouns (see the generate command)");
+
+        long results = 0;
+        long start = System.nanoTime();
+        LinkedBlockingQueue<Noun> queue = new LinkedBlockingQueue<>();
+        for (String form : forms)
+        {
+            repository.queryNouns(form, queue);
+            results += queue.size();
+            queue.clear();
+        }
+        print(out, "single", forms.size(), results, System.nanoTime() - start);
+
+        results = 0;
+        start = System.nanoTime();
+        for (int from = 0; from < forms.size(); from += batchSize)
+            for (List<Noun> nouns : repository.queryNounsBatch(forms.subList(from, Math.min(forms.size(), from + batchSize))).values())
+                results += nouns.size();
+        print(out, "batch", forms.size(), results, System.nanoTime() - start);
+    }
+
+    /**
+     * Prints a result row.
+     *
+     * @param out     Standard output.
+     * @param mode    The name of the measurement.
+     * @param queries The number of forms looked up.
+     * @param results The number of nouns found.
+     * @param nanos   The elapsed time in nanoseconds.
+     * @since 0.2.4
+     */
+    private static void print(@NotNull PrintWriter out, @NotNull String mode, int queries, long results, long nanos)
+    {
+        out.println(mode + '\t' + queries + '\t' + results + '\t' + nanos / 1000000 + '\t' +
+                    String.format(Locale.ROOT, "%.0f", nanos <= 0 ? 0 : queries * 1e9 / nanos));
+        out.flush();
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import cf.kayon.core.DeclensionRegistry;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.NounDeclension;
+import com.google.common.collect.ImmutableSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+
+/**
+ * A subcommand of the command line tool.
+ * <p>
+ * Commands read their input from their positional arguments or, if there are none, line by line from standard input, and write their results
+ * to standard output as they go, so arbitrarily large inputs can be piped through them.
+ * Invalid arguments are reported by throwing an {@link IllegalArgumentException}.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+public abstract class Command
+{
+    /**
+     * The name of the command.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final String name;
+
+    /**
+     * The usage description.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final String usage;
+
+    /**
+     * The names of the options of this command that do not take a value.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final ImmutableSet<String> flags;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param name  The name of the command.
+     * @param usage The usage description: The syntax on the first line, followed by an explanation.
+     * @param flags The names of the options of this command that do not take a value.
+     * @since 0.2.4
+     */
+    protected Command(@NotNull String name, @NotNull String usage, @NotNull String... flags)
+    {
+        checkNotEmpty(name);
+        checkNotEmpty(usage);
+        this.name = name;
+        this.usage = usage;
+        this.flags = ImmutableSet.copyOf(flags);
+    }
+
+    /**
+     * Gets the name of the command.
+     *
+     * @return The name.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Gets the usage description.
+     *
+     * @return The usage description.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String getUsage()
+    {
+        return usage;
+    }
+
+    /**
+     * Gets the names of the options of this command that do not take a value.
+     *
+     * @return The names of the flags.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Set<String> getFlags()
+    {
+        return flags;
+    }
+
+    /**
+     * Runs the command.
+     *
+     * @param context   The context, connected to the configured database.
+     * @param arguments The arguments of the command.
+     * @param in        Standard input.
+     * @param out       Standard output.
+     * @throws IllegalArgumentException If the arguments or the input are invalid.
+     * @throws Exception                If the command failed.
+     * @since 0.2.4
+     */
+    public abstract void run(@NotNull KayonContext context, @NotNull Arguments arguments, @NotNull BufferedReader in, @NotNull PrintWriter out)
+            throws Exception;
+
+    /**
+     * Gets the input of a command: Its positional arguments or, if there are none, the non-empty lines of standard input.
+     * The lines are read lazily.
+     *
+     * @param arguments The arguments of the command.
+     * @param in        Standard input.
+     * @return The input, trimmed.
+     * @since 0.2.4
+     */
+    @NotNull
+    protected static Iterator<String> input(@NotNull Arguments arguments, @NotNull BufferedReader in)
+    {
+        if (!arguments.getPositional().isEmpty())
+            return arguments.getPositional().iterator();
+        return in.lines().map(String::trim).filter(line -> !line.isEmpty()).iterator();
+    }
+
+    /**
+     * Resolves a noun declension by its simple or fully qualified class name.
+     *
+     * @param name The name.
+     * @return The noun declension.
+     * @throws IllegalArgumentException If no such noun declension is registered.
+     * @since 0.2.4
+     */
+    @NotNull
+    protected static NounDeclension nounDeclension(@NotNull String name)
+    {
+        @Nullable
+        NounDeclension nounDeclension = DeclensionRegistry.nounDeclensionForName(name);
+        if (nounDeclension != null)
+            return nounDeclension;
+        for (NounDeclension candidate : DeclensionRegistry.getNounDeclensions())
+            if (candidate.getClass().getSimpleName().equalsIgnoreCase(name))
+                return candidate;
+        throw new IllegalArgumentException("Unknown declension: " + name);
+    }
+
+    /**
+     * Parses the name of an enum constant, ignoring case.
+     *
+     * @param type The enum type.
+     * @param name The name.
+     * @param <E>  The enum type.
+     * @return The constant.
+     * @throws IllegalArgumentException If there is no such constant.
+     * @since 0.2.4
+     */
+    @NotNull
+    protected static <E extends Enum<E>> E parseEnum(@NotNull Class<E> type, @NotNull String name)
+    {
+        try
+        {
+            return Enum.valueOf(type, name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName().toLowerCase(Locale.ROOT) + ": " + name, e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.paradigm.NounSpec;
+import cf.kayon.core.paradigm.ParadigmTable;
+import cf.kayon.core.paradigm.Paradigms;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Declines nouns without storing them, a batch at a time in parallel.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+final class DeclineCommand extends Command
+{
+    /**
+     * Constructs a new instance.
+     *
+     * @since 0.2.4
+     */
+    DeclineCommand()
+    {
+        super("decline", "decline [--declension <name>] [--gender <gender>] [--batch <size>] [--header] [<root word>...]\n" +
+                         "Declines the root words (or the lines of standard input). Input lines may specify gender and declension after the\n" +
+                         "root word, separated by whitespace; otherwise the options are used.\n" +
+                         "Prints the root word followed by the forms in the order NomSi, GenSi, ..., VocPl, separated by tabs.",
+              "header");
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void run(@NotNull KayonContext context, @NotNull Arguments arguments, @NotNull BufferedReader in, @NotNull PrintWriter out)
+            throws Exception
+    {
+        int batchSize = arguments.getPositiveInt("batch", 1000);
+        @Nullable
+        String defaultGender = arguments.get("gender");
+        @Nullable
+        String defaultDeclension = arguments.get("declension");
+        if (arguments.has("header"))
+        {
+            out.print("rootWord");
+            for (NounForm nounForm : NounForm.values())
+                out.print("\t" + nounForm);
+            out.println();
+        }
+
+        List<NounSpec> batch = new ArrayList<>(batchSize);
+        for (Iterator<String> input = input(arguments, in); input.hasNext(); )
+        {
+            String[] fields = input.next().split("\\s+");
+            String gender = fields.length > 1 ? fields[1] : defaultGender;
+            String declension = fields.length > 2 ? fields[2] : defaultDeclension;
+            if (gender == null || declension == null)
+                throw new IllegalArgumentException("No gender or declension specified for " + fields[0]);
+            NounDeclension nounDeclension = nounDeclension(declension);
+            batch.add(new NounSpec(nounDeclension, parseEnum(Gender.class, gender), fields[0]));
+            if (batch.size() == batchSize)
+                decline(batch, out);
+        }
+        decline(batch, out);
+    }
+
+    /**
+     * Declines a batch of nouns and prints the results.
+     *
+     * @param batch The nouns. Cleared afterwards.
+     * @param out   Standard output.
+     * @since 0.2.4
+     */
+    private static void decline(@NotNull List<NounSpec> batch, @NotNull PrintWriter out)
+    {
+        if (batch.isEmpty())
+            return;
+        ParadigmTable<NounForm> table = Paradigms.declineNouns(batch, ForkJoinPool.commonPool());
+        StringBuilder row = new StringBuilder();
+        for (int entry = 0; entry < table.size(); entry++)
+        {
+            row.setLength(0);
+            row.append(batch.get(entry).getRootWord());
+            for (int formOrdinal = 0; formOrdinal < table.getWidth(); formOrdinal++)
+            {
+                @Nullable
+                String form = table.get(entry, formOrdinal);
+                row.append('\t').append(form == null ? "" : form);
+            }
+            out.println(row);
+        }
+        batch.clear();
+    }
+}
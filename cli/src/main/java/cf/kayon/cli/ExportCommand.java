@@ -0,0 +1,69 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.io.ExportStatistics;
+import cf.kayon.core.io.ParadigmExporter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports the paradigms of all nouns in the repository to a CSV or JSONL file.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+final class ExportCommand extends Command
+{
+    /**
+     * Constructs a new instance.
+     *
+     * @since 0.2.4
+     */
+    ExportCommand()
+    {
+        super("export", "export [--format csv|jsonl] <file>\n" +
+                        "Exports all forms of all nouns (see ParadigmExporter). The format defaults to the file extension.\n" +
+                        "Prints the statistics.");
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void run(@NotNull KayonContext context, @NotNull Arguments arguments, @NotNull BufferedReader in, @NotNull PrintWriter out)
+            throws Exception
+    {
+        if (arguments.getPositional().size() != 1)
+            throw new IllegalArgumentException("Expected exactly one file");
+        Path target = Paths.get(arguments.getPositional().get(0));
+        ExportStatistics statistics = new ParadigmExporter(context).export(context.getRepository(), target,
+                                                                           ImportCommand.formatOf(arguments, target), null);
+        out.println("items\t" + statistics.getItems());
+        out.println("rows\t" + statistics.getRows());
+        out.println("bytes\t" + statistics.getBytes());
+        out.println("millis\t" + statistics.getElapsed(TimeUnit.MILLISECONDS));
+    }
+}
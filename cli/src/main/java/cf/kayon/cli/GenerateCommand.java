@@ -0,0 +1,72 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.SyntheticNounGenerator;
+import com.google.common.primitives.Longs;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.util.SplittableRandom;
+
+/**
+ * Generates random nouns and saves them to the repository, for example to build databases for benchmarks.
+ *
+ * @author Ruben Anders
+ * @see SyntheticNounGenerator
+ * @since 0.2.4
+ */
+final class GenerateCommand extends Command
+{
+    /**
+     * Constructs a new instance.
+     *
+     * @since 0.2.4
+     */
+    GenerateCommand()
+    {
+        super("generate", "generate [--count <n>] [--seed <seed>] [--batch <size>] [--threads <n>]\n" +
+                          "Saves <count> (default 1000) random nouns with Latin-like root words and realistic genders and declensions,\n" +
+                          "<size> (default generator.batchSize) nouns per transaction, generated by <n> (default generator.threads)\n" +
+                          "threads. The same seed and batch size always generate the same nouns. Prints the number of nouns saved.");
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void run(@NotNull KayonContext context, @NotNull Arguments arguments, @NotNull BufferedReader in, @NotNull PrintWriter out)
+            throws Exception
+    {
+        int count = arguments.getPositiveInt("count", 1000);
+        int batchSize = arguments.getPositiveInt("batch", context.getConfig().getInt("generator.batchSize"));
+        int threads = arguments.get("threads") == null ? context.getConfig().getInt("generator.threads") : arguments.getPositiveInt("threads", 1);
+        @Nullable
+        String seed = arguments.get("seed");
+        Long numericSeed = seed == null ? null : Longs.tryParse(seed);
+        if (numericSeed == null)
+            numericSeed = seed == null ? new SplittableRandom().nextLong() : seed.hashCode();
+
+        SyntheticNounGenerator generator = new SyntheticNounGenerator(context, batchSize, threads);
+        out.println(generator.generate(context.getRepository(), count, numericSeed, null));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.io.ExportFormat;
+import cf.kayon.core.io.ImportStatistics;
+import cf.kayon.core.io.LexiconImporter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports nouns from a CSV or JSONL file into the repository.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+final class ImportCommand extends Command
+{
+    /**
+     * Constructs a new instance.
+     *
+     * @since 0.2.4
+     */
+    ImportCommand()
+    {
+        super("import", "import [--format csv|jsonl] [--checkpoint <file>] <file>\n" +
+                        "Imports the nouns of the file (see LexiconImporter). The format defaults to the file extension.\n" +
+                        "With a checkpoint file, an interrupted import continues where it stopped when run again.\n" +
+                        "Prints the statistics and the first problems.");
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void run(@NotNull KayonContext context, @NotNull Arguments arguments, @NotNull BufferedReader in, @NotNull PrintWriter out)
+            throws Exception
+    {
+        if (arguments.getPositional().size() != 1)
+            throw new IllegalArgumentException("Expected exactly one file");
+        Path source = Paths.get(arguments.getPositional().get(0));
+        @Nullable
+        String checkpoint = arguments.get("checkpoint");
+        ImportStatistics statistics = new LexiconImporter(context).importFile(context.getRepository(), source, formatOf(arguments, source),
+                                                                             checkpoint == null ? null : Paths.get(checkpoint), null);
+        out.println("lines\t" + statistics.getLines());
+        out.println("items\t" + statistics.getItems());
+        out.println("rejected\t" + statistics.getRejected());
+        out.println("millis\t" + statistics.getElapsed(TimeUnit.MILLISECONDS));
+        for (String problem : statistics.getProblems())
+            out.println("problem\t" + problem);
+    }
+
+    /**
+     * Gets the format of a file from the {@code --format} option or the file extension.
+     *
+     * @param arguments The arguments.
+     * @param file      The file.
+     * @return The format.
+     * @throws IllegalArgumentException If the format is unknown.
+     * @since 0.2.4
+     */
+    @NotNull
+    static ExportFormat formatOf(@NotNull Arguments arguments, @NotNull Path file)
+    {
+        @Nullable
+        String format = arguments.get("format");
+        if (format != null)
+            return parseEnum(ExportFormat.class, format);
+        return file.getFileName().toString().toLowerCase().endsWith(".jsonl") ? ExportFormat.JSONL : ExportFormat.CSV;
+    }
+}
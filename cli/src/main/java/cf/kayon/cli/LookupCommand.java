@@ -0,0 +1,107 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import cf.kayon.core.Case;
+import cf.kayon.core.Count;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.noun.NounForm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up nouns by their forms, resolving a whole batch of forms with a single query.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+final class LookupCommand extends Command
+{
+    /**
+     * Constructs a new instance.
+     *
+     * @since 0.2.4
+     */
+    LookupCommand()
+    {
+        super("lookup", "lookup [--batch <size>] [<form>...]\n" +
+                        "Looks up the nouns having any of the forms (or the lines of standard input), ignoring special characters.\n" +
+                        "Prints form, UUID, root word, gender, declension and nominative singular of every match, separated by tabs.\n" +
+                        "Forms without a match are printed alone.");
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void run(@NotNull KayonContext context, @NotNull Arguments arguments, @NotNull BufferedReader in, @NotNull PrintWriter out)
+            throws Exception
+    {
+        int batchSize = arguments.getPositiveInt("batch", 1000);
+        List<String> batch = new ArrayList<>(batchSize);
+        for (Iterator<String> input = input(arguments, in); input.hasNext(); )
+        {
+            batch.add(input.next());
+            if (batch.size() == batchSize)
+                lookup(context, batch, out);
+        }
+        lookup(context, batch, out);
+    }
+
+    /**
+     * Looks up a batch of forms and prints the results.
+     *
+     * @param context The context.
+     * @param batch   The forms. Cleared afterwards.
+     * @param out     Standard output.
+     * @throws Exception If the query failed.
+     * @since 0.2.4
+     */
+    private static void lookup(@NotNull KayonContext context, @NotNull List<String> batch, @NotNull PrintWriter out) throws Exception
+    {
+        if (batch.isEmpty())
+            return;
+        Map<String, List<Noun>> results = context.getRepository().queryNounsBatch(batch);
+        for (String form : batch)
+        {
+            List<Noun> nouns = results.get(form);
+            if (nouns.isEmpty())
+                out.println(form);
+            for (Noun noun : nouns)
+            {
+                @Nullable
+                NounDeclension nounDeclension = noun.getNounDeclension();
+                @Nullable
+                String nominative = noun.getForm(NounForm.of(Case.NOMINATIVE, Count.SINGULAR));
+                out.println(form + '\t' + noun.getUuid() + '\t' + noun.getRootWord() + '\t' + noun.getGender() + '\t' +
+                            (nounDeclension == null ? "" : nounDeclension.getClass().getSimpleName()) + '\t' + (nominative == null ? "" : nominative));
+            }
+        }
+        batch.clear();
+    }
+}
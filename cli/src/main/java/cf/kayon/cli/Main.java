@@ -0,0 +1,216 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.repository.UncheckedRepositoryException;
+import cf.kayon.core.util.ConfigurationUtil;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigParseOptions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The entry point of the headless command line tool.
+ * <p>
+ * Usage: {@code kayon [--config <file>] <command> [<arguments>]}. Without {@code --config}, the configuration is loaded from the file
+ * {@code Kayon} (with any extension supported by Typesafe Config) in the working directory, falling back to the defaults, like the GUI does.
+ * <p>
+ * Exit codes: {@code 0} on success, {@code 1} if the command failed and {@code 2} if the arguments were invalid.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+public final class Main
+{
+    static
+    {
+        // Must happen before the first logger is created: log to standard error, so standard output only contains results
+        if (System.getProperty("logback.configurationFile") == null)
+            System.setProperty("logback.configurationFile", "logback-cli.xml");
+    }
+
+    /**
+     * The available commands, by name.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final ImmutableMap<String, Command> COMMANDS;
+
+    static
+    {
+        ImmutableMap.Builder<String, Command> builder = ImmutableMap.builder();
+        for (Command command : Arrays.asList(new LookupCommand(), new DeclineCommand(), new ImportCommand(), new ExportCommand(),
+                                             new GenerateCommand(), new BenchCommand(), new WorkloadCommand()))
+            builder.put(command.getName(), command);
+        COMMANDS = builder.build();
+    }
+
+    /**
+     * A private constructor that always fails to prevent instantiation.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private Main()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Runs the command line tool and exits with its exit code.
+     *
+     * @param args The command line arguments.
+     * @since 0.2.4
+     */
+    public static void main(String[] args)
+    {
+        System.exit(run(args, System.in, System.out, System.err));
+    }
+
+    /**
+     * Runs the command line tool.
+     *
+     * @param args The command line arguments.
+     * @param in   Standard input.
+     * @param out  Standard output.
+     * @param err  Standard error.
+     * @return The exit code.
+     * @since 0.2.4
+     */
+    public static int run(@NotNull String[] args, @NotNull InputStream in, @NotNull OutputStream out, @NotNull PrintStream err)
+    {
+        List<String> arguments = Arrays.asList(args);
+        @Nullable
+        String configFile = null;
+        if (arguments.size() >= 2 && arguments.get(0).equals("--config"))
+        {
+            configFile = arguments.get(1);
+            arguments = arguments.subList(2, arguments.size());
+        }
+        if (arguments.isEmpty() || arguments.get(0).equals("help") || arguments.get(0).equals("--help"))
+        {
+            printUsage(err);
+            return arguments.isEmpty() ? 2 : 0;
+        }
+        @Nullable
+        Command command = COMMANDS.get(arguments.get(0));
+        if (command == null)
+        {
+            err.println("Unknown command: " + arguments.get(0));
+            printUsage(err);
+            return 2;
+        }
+
+        PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16));
+        try
+        {
+            Arguments commandArguments = Arguments.parse(arguments.subList(1, arguments.size()), command.getFlags());
+            Config config = loadConfig(configFile);
+            try (Connection connection = connectToDatabase(config);
+                 KayonContext context = new KayonContext(connection, config))
+            {
+                context.getNounSQLFactory().setupDatabaseForNouns();
+                context.getNounSQLFactory().compileStatements();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+                command.run(context, commandArguments, reader, writer);
+            }
+            return 0;
+        } catch (IllegalArgumentException e)
+        {
+            writer.flush();
+            err.println(command.getName() + ": " + e.getMessage());
+            err.println("Usage: kayon " + command.getUsage());
+            return 2;
+        } catch (UncheckedIOException | UncheckedRepositoryException e)
+        {
+            writer.flush();
+            err.println(command.getName() + " failed: " + e.getCause());
+            return 1;
+        } catch (Exception e)
+        {
+            writer.flush();
+            err.println(command.getName() + " failed: " + e);
+            return 1;
+        } finally
+        {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Prints the usage of all commands.
+     *
+     * @param err Standard error.
+     * @since 0.2.4
+     */
+    private static void printUsage(@NotNull PrintStream err)
+    {
+        err.println("Usage: kayon [--config <file>] <command> [<arguments>]");
+        err.println();
+        err.println("Commands:");
+        for (Command command : COMMANDS.values())
+        {
+            err.println();
+            err.println("  " + command.getUsage().replace("\n", "\n    "));
+        }
+    }
+
+    /**
+     * Loads the configuration.
+     *
+     * @param configFile The configuration file or {@code null} to use the file {@code Kayon} in the working directory.
+     * @return The configuration, with the defaults of {@code reference.conf} as fallback.
+     * @throws com.typesafe.config.ConfigException If the specified configuration file does not exist or is invalid.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static Config loadConfig(@Nullable String configFile)
+    {
+        if (configFile == null)
+            return ConfigFactory.load(ConfigFactory.parseFileAnySyntax(new File("Kayon")));
+        return ConfigFactory.load(ConfigFactory.parseFileAnySyntax(new File(configFile), ConfigParseOptions.defaults().setAllowMissing(false)));
+    }
+
+    /**
+     * Connects to the configured database.
+     *
+     * @param config The configuration.
+     * @return A new connection.
+     * @throws SQLException If the connection could not be established.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static Connection connectToDatabase(@NotNull Config config) throws SQLException
+    {
+        return DriverManager.getConnection(config.getString("database.url"),
+                                           ConfigurationUtil.toProperties(config.getConfig("database.info").entrySet()));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.repository.WorkloadSimulator;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Longs;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Runs concurrent readers and writers against the repository and prints their throughput and latency percentiles.
+ *
+ * @author Ruben Anders
+ * @see WorkloadSimulator
+ * @since 0.2.4
+ */
+final class WorkloadCommand extends Command
+{
+    /**
+     * The settings of the {@code workload} config section that can be overridden, by option.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final Map<String, String> OPTIONS = ImmutableMap.<String, String>builder()
+            .put("readers", "readers")
+            .put("writers", "writers")
+            .put("duration", "duration")
+            .put("warmup", "warmup")
+            .put("root-ratio", "rootQueryRatio")
+            .put("insert-ratio", "insertRatio")
+            .put("zipf", "zipfExponent")
+            .put("nouns", "nouns")
+            .build();
+
+    /**
+     * Constructs a new instance.
+     *
+     * @since 0.2.4
+     */
+    WorkloadCommand()
+    {
+        super("workload", "workload [--readers <n>] [--writers <n>] [--duration <time>] [--warmup <time>] [--root-ratio <ratio>]\n" +
+                          "[--insert-ratio <ratio>] [--zipf <exponent>] [--nouns <n>] [--seed <seed>]\n" +
+                          "Queries forms and root words from <readers> threads while <writers> threads edit and insert nouns, for\n" +
+                          "<duration> (like 30s) after a <warmup>. Defaults are taken from the workload section of the config.\n" +
+                          "Prints the throughput and latency percentiles of every operation. MODIFIES THE DATABASE, use a copy.");
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void run(@NotNull KayonContext context, @NotNull Arguments arguments, @NotNull BufferedReader in, @NotNull PrintWriter out)
+            throws Exception
+    {
+        Config settings = context.getConfig().getConfig("workload");
+        for (Map.Entry<String, String> option : OPTIONS.entrySet())
+        {
+            @Nullable
+            String value = arguments.get(option.getKey());
+            if (value != null) // converted and checked by the simulator, like values of the config file
+                settings = settings.withValue(option.getValue(), ConfigValueFactory.fromAnyRef(value, "option --" + option.getKey()));
+        }
+        @Nullable
+        String seed = arguments.get("seed");
+        Long numericSeed = seed == null ? null : Longs.tryParse(seed);
+        if (numericSeed == null)
+            numericSeed = seed == null ? new SplittableRandom().nextLong() : seed.hashCode();
+
+        out.print(new WorkloadSimulator(context, context.getRepository(), settings).run(numericSeed));
+        out.flush();
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.cli;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class MainTest
+{
+    private Path directory;
+
+    private Path config;
+
+    private String out;
+
+    private String err;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        directory = Files.createTempDirectory("kayon-cli");
+        config = directory.resolve("test.conf");
+        String url = "jdbc:h2:" + directory.resolve("database").toAbsolutePath().toString().replace('\\', '/');
+        Files.write(config, Collections.singletonList("database.url: \"" + url + "\""), StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        try (Stream<Path> files = Files.list(directory))
+        {
+            for (Object file : files.toArray())
+                Files.delete((Path) file);
+        }
+        Files.delete(directory);
+    }
+
+    private int run(String input, String... args)
+    {
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+        String[] allArgs = new String[args.length + 2];
+        allArgs[0] = "--config";
+        allArgs[1] = config.toString();
+        System.arraycopy(args, 0, allArgs, 2, args.length);
+        int exitCode = Main.run(allArgs, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), outBytes,
+                                new PrintStream(errBytes, true));
+        out = new String(outBytes.toByteArray(), StandardCharsets.UTF_8);
+        err = new String(errBytes.toByteArray(), StandardCharsets.UTF_8);
+        return exitCode;
+    }
+
+    private List<String> outLines()
+    {
+        return Arrays.asList(out.split("\n"));
+    }
+
+    @Test
+    public void testDecline()
+    {
+        assertEquals(err, 0, run("serv\nancill FEMININE ANounDeclension\n", "decline", "--gender", "masculine", "--declension", "ONounDeclension",
+                                 "--header"));
+        List<String> lines = outLines();
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("rootWord\tNomSi\tGenSi"));
+        assertTrue(lines.get(1).startsWith("serv\tservus\tservī\t"));
+        assertTrue(lines.get(2).startsWith("ancill\tancilla\tancillae\t"));
+    }
+
+    @Test
+    public void testImportLookupExport() throws Exception
+    {
+        Path source = directory.resolve("source.jsonl");
+        Files.write(source, Arrays.asList("{\"gender\":\"MASCULINE\",\"declension\":\"ONounDeclension\",\"rootWord\":\"serv\"}",
+                                          "{\"gender\":\"FEMININE\",\"declension\":\"ANounDeclension\",\"rootWord\":\"ancill\"}"),
+                    StandardCharsets.UTF_8);
+        assertEquals(err, 0, run("", "import", source.toString()));
+        assertTrue(out, out.contains("items\t2"));
+
+        assertEquals(err, 0, run("servo\nnihil\n", "lookup"));
+        List<String> lines = outLines();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0), lines.get(0).matches("servo\t[0-9a-f-]{36}\tserv\tMASCULINE\tONounDeclension\tservus"));
+        assertEquals("nihil", lines.get(1));
+
+        Path target = directory.resolve("target.csv");
+        assertEquals(err, 0, run("", "export", target.toString()));
+        assertTrue(out.contains("rows\t24"));
+        assertEquals(25, Files.readAllLines(target, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    public void testGenerateBenchAndWorkload()
+    {
+        assertEquals(err, 0, run("", "generate", "--count", "30", "--seed", "kayon", "--batch", "7"));
+        assertEquals("30", out.trim());
+        assertEquals(err, 0, run("", "bench", "--queries", "10", "--batch", "4"));
+        List<String> lines = outLines();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("single\t"));
+        assertTrue(lines.get(1).startsWith("batch\t"));
+
+        assertEquals(err, 0, run("", "workload", "--readers", "1", "--writers", "1", "--duration", "200ms", "--warmup", "0s", "--seed", "1"));
+        assertTrue(out, out.contains("1 readers, 1 writers"));
+        assertTrue(out, out.contains("form_query"));
+        assertTrue(out, out.contains("insert"));
+    }
+
+    @Test
+    public void testUsageErrors()
+    {
+        assertEquals(2, run("", "frobnicate"));
+        assertTrue(err.contains("Unknown command"));
+        assertEquals(2, run("", "lookup", "--batch", "zero"));
+        assertTrue(err.contains("positive integer"));
+        assertEquals(2, run("serv\n", "decline"));
+        assertTrue(err.contains("No gender or declension"));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core;
+
+import cf.kayon.core.adjective.AdjectiveDeclension;
+import cf.kayon.core.noun.NounDeclension;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Provides {@link NounDeclension}s and {@link AdjectiveDeclension}s to the {@link DeclensionRegistry}.
+ * <p>
+ * Implementations are discovered using a {@link java.util.ServiceLoader}. To register a provider, its fully qualified class name has to be listed in
+ * a {@code META-INF/services/cf.kayon.core.DeclensionProvider} resource file and the provider class has to have a public no-argument constructor.
+ * <p>
+ * Every declension is mapped to an ID that is persisted in databases instead of the declension's class name.
+ * Once a declension has been given an ID, that ID must never change or be reused. IDs are shared amongst all providers, so different providers
+ * must not use the same ID for the same kind of declension.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public interface DeclensionProvider
+{
+    /**
+     * Returns the noun declensions provided by this provider, mapped by their IDs.
+     *
+     * @return A map of noun declensions. Never {@code null}, but may be empty.
+     * @since 0.2.4
+     */
+    @NotNull
+    Map<Byte, NounDeclension> getNounDeclensions();
+
+    /**
+     * Returns the adjective declensions provided by this provider, mapped by their IDs.
+     *
+     * @return A map of adjective declensions. Never {@code null}, but may be empty.
+     * @since 0.2.4
+     */
+    @NotNull
+    Map<Byte, AdjectiveDeclension> getAdjectiveDeclensions();
+}
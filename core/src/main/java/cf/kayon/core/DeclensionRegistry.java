@@ -0,0 +1,242 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core;
+
+import cf.kayon.core.adjective.AdjectiveDeclension;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.util.Tested;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Maps all known declensions to their persistent IDs.
+ * <p>
+ * The declensions are discovered once (at the first use of this class) by loading all {@link DeclensionProvider}s using a {@link ServiceLoader}.
+ * Resolving a declension by its ID or class name afterwards is a plain map lookup and does not require any reflection.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public class DeclensionRegistry
+{
+    /**
+     * A private constructor to prevent instantiation of this class.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private DeclensionRegistry()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Holds the lookup tables. Loaded lazily by the class loader on first access.
+     *
+     * @since 0.2.4
+     */
+    @Immutable
+    private static final class Tables
+    {
+        @NotNull
+        static final ImmutableSortedMap<Byte, NounDeclension> nounDeclensionsById;
+
+        @NotNull
+        static final ImmutableMap<NounDeclension, Byte> idsByNounDeclension;
+
+        @NotNull
+        static final ImmutableMap<String, NounDeclension> nounDeclensionsByName;
+
+        @NotNull
+        static final ImmutableSortedMap<Byte, AdjectiveDeclension> adjectiveDeclensionsById;
+
+        @NotNull
+        static final ImmutableMap<AdjectiveDeclension, Byte> idsByAdjectiveDeclension;
+
+        static
+        {
+            Map<Byte, NounDeclension> nouns = new HashMap<>();
+            Map<Byte, AdjectiveDeclension> adjectives = new HashMap<>();
+            for (DeclensionProvider provider : ServiceLoader.load(DeclensionProvider.class, DeclensionRegistry.class.getClassLoader()))
+            {
+                putAllUnique(nouns, provider.getNounDeclensions(), provider);
+                putAllUnique(adjectives, provider.getAdjectiveDeclensions(), provider);
+            }
+
+            nounDeclensionsById = ImmutableSortedMap.copyOf(nouns);
+            adjectiveDeclensionsById = ImmutableSortedMap.copyOf(adjectives);
+
+            ImmutableMap.Builder<NounDeclension, Byte> nounIds = ImmutableMap.builder();
+            ImmutableMap.Builder<String, NounDeclension> nounNames = ImmutableMap.builder();
+            nounDeclensionsById.forEach((id, declension) -> {
+                nounIds.put(declension, id);
+                nounNames.put(declension.getClass().getName(), declension);
+            });
+            idsByNounDeclension = nounIds.build();
+            nounDeclensionsByName = nounNames.build();
+
+            ImmutableMap.Builder<AdjectiveDeclension, Byte> adjectiveIds = ImmutableMap.builder();
+            adjectiveDeclensionsById.forEach((id, declension) -> adjectiveIds.put(declension, id));
+            idsByAdjectiveDeclension = adjectiveIds.build();
+        }
+
+        /**
+         * Puts all entries of a provided map into a target map, failing if an ID is already taken.
+         *
+         * @param target   The map to put into.
+         * @param source   The provided map.
+         * @param provider The provider of the source map (used for the error message).
+         * @param <T>      The type of declension.
+         * @throws IllegalStateException If an ID is already taken by another declension.
+         * @since 0.2.4
+         */
+        private static <T> void putAllUnique(@NotNull Map<Byte, T> target, @NotNull Map<Byte, ? extends T> source, @NotNull DeclensionProvider provider)
+        {
+            source.forEach((id, declension) -> {
+                checkNotNull(id);
+                checkNotNull(declension);
+                T previous = target.putIfAbsent(id, declension);
+                if (previous != null && previous != declension)
+                    throw new IllegalStateException("Declension ID " + id + " provided by " + provider.getClass().getName() + " is already taken by " +
+                                                    previous.getClass().getName());
+            });
+        }
+    }
+
+    /**
+     * Gets the noun declension registered with the specified ID.
+     *
+     * @param id The ID.
+     * @return The noun declension. {@code null} if no noun declension is registered with that ID.
+     * @since 0.2.4
+     */
+    @Nullable
+    @Tested("cf.kayon.core.DeclensionRegistryTest.testNounDeclensionIds")
+    public static NounDeclension nounDeclensionForId(byte id)
+    {
+        return Tables.nounDeclensionsById.get(id);
+    }
+
+    /**
+     * Gets the ID of a noun declension.
+     *
+     * @param nounDeclension The noun declension.
+     * @return The ID.
+     * @throws NullPointerException     If {@code nounDeclension} is {@code null}.
+     * @throws IllegalArgumentException If {@code nounDeclension} is not registered.
+     * @since 0.2.4
+     */
+    @Tested("cf.kayon.core.DeclensionRegistryTest.testNounDeclensionIds")
+    @Tested("cf.kayon.core.DeclensionRegistryTest.testUnregistered")
+    public static byte idForNounDeclension(@NotNull NounDeclension nounDeclension)
+    {
+        checkNotNull(nounDeclension);
+        Byte id = Tables.idsByNounDeclension.get(nounDeclension);
+        if (id == null)
+            throw new IllegalArgumentException("Noun declension " + nounDeclension.getClass().getName() + " is not registered");
+        return id;
+    }
+
+    /**
+     * Gets a registered noun declension by its fully qualified class name.
+     *
+     * @param className The name of the class.
+     * @return The noun declension. {@code null} if the class name was {@code null} or no noun declension of that class is registered.
+     * @since 0.2.4
+     */
+    @Nullable
+    @Contract("null -> null")
+    @Tested("cf.kayon.core.DeclensionRegistryTest.testNounDeclensionForName")
+    public static NounDeclension nounDeclensionForName(@Nullable @NonNls String className)
+    {
+        if (className == null)
+            return null;
+        return Tables.nounDeclensionsByName.get(className);
+    }
+
+    /**
+     * Returns all registered noun declensions, ordered by their IDs.
+     *
+     * @return An immutable list of noun declensions.
+     * @since 0.2.4
+     */
+    @NotNull
+    @Tested("cf.kayon.core.DeclensionRegistryTest.testNounDeclensionIds")
+    public static List<NounDeclension> getNounDeclensions()
+    {
+        return ImmutableList.copyOf(Tables.nounDeclensionsById.values());
+    }
+
+    /**
+     * Gets the adjective declension registered with the specified ID.
+     *
+     * @param id The ID.
+     * @return The adjective declension. {@code null} if no adjective declension is registered with that ID.
+     * @since 0.2.4
+     */
+    @Nullable
+    @Tested("cf.kayon.core.DeclensionRegistryTest.testAdjectiveDeclensionIds")
+    public static AdjectiveDeclension adjectiveDeclensionForId(byte id)
+    {
+        return Tables.adjectiveDeclensionsById.get(id);
+    }
+
+    /**
+     * Gets the ID of an adjective declension.
+     *
+     * @param adjectiveDeclension The adjective declension.
+     * @return The ID.
+     * @throws NullPointerException     If {@code adjectiveDeclension} is {@code null}.
+     * @throws IllegalArgumentException If {@code adjectiveDeclension} is not registered.
+     * @since 0.2.4
+     */
+    @Tested("cf.kayon.core.DeclensionRegistryTest.testAdjectiveDeclensionIds")
+    public static byte idForAdjectiveDeclension(@NotNull AdjectiveDeclension adjectiveDeclension)
+    {
+        checkNotNull(adjectiveDeclension);
+        Byte id = Tables.idsByAdjectiveDeclension.get(adjectiveDeclension);
+        if (id == null)
+            throw new IllegalArgumentException("Adjective declension " + adjectiveDeclension.getClass().getName() + " is not registered");
+        return id;
+    }
+
+    /**
+     * Returns all registered adjective declensions, ordered by their IDs.
+     *
+     * @return An immutable list of adjective declensions.
+     * @since 0.2.4
+     */
+    @NotNull
+    @Tested("cf.kayon.core.DeclensionRegistryTest.testAdjectiveDeclensionIds")
+    public static List<AdjectiveDeclension> getAdjectiveDeclensions()
+    {
+        return ImmutableList.copyOf(Tables.adjectiveDeclensionsById.values());
+    }
+}
@@ -18,6 +18,9 @@
 
 package cf.kayon.core;
 
+import cf.kayon.core.metrics.Metrics;
+import cf.kayon.core.repository.VocabRepository;
+import cf.kayon.core.repository.VocabRepositoryUtil;
 import cf.kayon.core.sql.NounSQLFactory;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
@@ -42,7 +45,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * @since 0.2.0
  */
 @Immutable
-public class KayonContext
+public class KayonContext implements AutoCloseable
 {
     /**
      * Provides a static final Pattern for matching newline characters (CR {@code \r} and LF {@code \n}).
@@ -76,6 +79,22 @@ public class KayonContext
     @NotNull
     private final NounSQLFactory nounSQLFactory;
 
+    /**
+     * The repository configured by {@code repository.type}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final VocabRepository repository;
+
+    /**
+     * The metrics configured by the {@code metrics} section of the config.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Metrics metrics;
+
     /**
      * The version as written in {@code /src/main/resources/version}.
      *
@@ -128,7 +147,9 @@ public class KayonContext
         checkNotNull(config);
         this.connection = connection;
         this.config = config;
+        this.metrics = new Metrics(config); // before the components registering metrics
         this.nounSQLFactory = new NounSQLFactory(this);
+        this.repository = VocabRepositoryUtil.create(this);
     }
 
     /**
@@ -202,4 +223,41 @@ public class KayonContext
     {
         return nounSQLFactory;
     }
+
+    /**
+     * Gets the metrics configured by the {@code metrics} section of the config (see {@link Metrics#Metrics(Config)}).
+     *
+     * @return The metrics.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Metrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Releases the resources of this context: Stops logging the metrics and unregisters their MBean (see {@link Metrics#close()}).
+     * <p>
+     * The connection is not closed, as it is owned by the creator of this context.
+     *
+     * @since 0.2.4
+     */
+    @Override
+    public void close()
+    {
+        metrics.close();
+    }
+
+    /**
+     * Gets the repository configured by {@code repository.type} (see {@link VocabRepositoryUtil#create(KayonContext)}).
+     *
+     * @return The repository.
+     * @since 0.2.4
+     */
+    @NotNull
+    public VocabRepository getRepository()
+    {
+        return repository;
+    }
 }
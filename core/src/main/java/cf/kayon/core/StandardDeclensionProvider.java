@@ -0,0 +1,92 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core;
+
+import cf.kayon.core.adjective.AdjectiveDeclension;
+import cf.kayon.core.adjective.impl.*;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.noun.impl.*;
+import com.google.common.collect.ImmutableMap;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Provides all declensions shipped with Kayon (all of {@link cf.kayon.core.noun.impl} and {@link cf.kayon.core.adjective.impl}).
+ * <p>
+ * The IDs of these declensions are persisted in databases and must never change.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public class StandardDeclensionProvider implements DeclensionProvider
+{
+    /**
+     * The noun declensions, mapped by their IDs.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final Map<Byte, NounDeclension> NOUN_DECLENSIONS = ImmutableMap.<Byte, NounDeclension>builder()
+            .put((byte) 1, ANounDeclension.getInstance())
+            .put((byte) 2, ONounDeclension.getInstance())
+            .put((byte) 3, ORNounDeclension.getInstance())
+            .put((byte) 4, ConsonantNounDeclension.getInstance())
+            .put((byte) 5, INounDeclension.getInstance())
+            .put((byte) 6, MixedNounDeclension.getInstance())
+            .put((byte) 7, UNounDeclension.getInstance())
+            .put((byte) 8, ENounDeclension.getInstance())
+            .build();
+
+    /**
+     * The adjective declensions, mapped by their IDs.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final Map<Byte, AdjectiveDeclension> ADJECTIVE_DECLENSIONS = ImmutableMap.<Byte, AdjectiveDeclension>builder()
+            .put((byte) 1, OAAdjectiveDeclension.getInstance())
+            .put((byte) 2, ORAAdjectiveDeclension.getInstance())
+            .put((byte) 3, IOneEndAdjectiveDeclension.getInstance())
+            .put((byte) 4, ITwoEndAdjectiveDeclension.getInstance())
+            .put((byte) 5, IThreeEndAdjectiveDeclension.getInstance())
+            .build();
+
+    /**
+     * @since 0.2.4
+     */
+    @NotNull
+    @Override
+    public Map<Byte, NounDeclension> getNounDeclensions()
+    {
+        return NOUN_DECLENSIONS;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @NotNull
+    @Override
+    public Map<Byte, AdjectiveDeclension> getAdjectiveDeclensions()
+    {
+        return ADJECTIVE_DECLENSIONS;
+    }
+}
@@ -18,8 +18,10 @@
 
 package cf.kayon.core;
 
+import cf.kayon.core.util.Tested;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
 import net.jcip.annotations.GuardedBy;
 import net.jcip.annotations.ThreadSafe;
 import org.jetbrains.annotations.NotNull;
@@ -76,6 +78,67 @@ public class StandardVocab extends Contexed implements Vocab
     @GuardedBy("uuidLock")
     private UUID uuid;
 
+    /**
+     * The property changes collected by the currently running {@link #runEdit(Runnable) edit transaction}, keyed by property name.
+     * <p>
+     * Each value holds the old value from before the transaction (index 0) and the latest new value (index 1).
+     * {@code null} if no edit transaction is running.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("this")
+    @Nullable
+    private Map<String, Object[]> pendingChanges;
+
+    /**
+     * The nesting depth of the currently running edit transactions. {@code 0} if no edit transaction is running.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("this")
+    private int editDepth;
+
+    /**
+     * The names of the properties that have changed since this StandardVocab has last been {@link #markClean() marked clean}, mapped to the
+     * {@link #modifications number} of their latest change.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("dirtyProperties")
+    @NotNull
+    private final Map<String, Long> dirtyProperties = new HashMap<>();
+
+    /**
+     * The number of property changes of this StandardVocab, used to tell which changes a {@link CleanState} includes.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("dirtyProperties")
+    private long modifications;
+
+    /**
+     * A copy of the translations at the time this StandardVocab has last been {@link #markClean() marked clean}.
+     * {@code null} if this StandardVocab has never been marked clean.
+     * <p>
+     * Translations are modified through the live map returned by {@link #getTranslations()}, which does not fire any events,
+     * so changes are detected by comparing against this copy.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("dirtyProperties")
+    @Nullable
+    private Map<Locale, String> cleanTranslations;
+
+    // since 0.2.4
+    {
+        changeSupport.addPropertyChangeListener(evt -> {
+            synchronized (dirtyProperties)
+            {
+                dirtyProperties.put(evt.getPropertyName(), ++modifications);
+            }
+        });
+    }
+
     /**
      * Instantiates a new StandardVocab.
      * <p>
@@ -196,7 +259,7 @@ public class StandardVocab extends Contexed implements Vocab
                 throw new IllegalStateException("UUID has already been initialized!");
             this.uuid = uuid;
         }
-        getPropertyChangeSupport().firePropertyChange("uuid", null, uuid);
+        firePropertyChange("uuid", null, uuid);
     }
 
     /**
@@ -251,6 +314,117 @@ public class StandardVocab extends Contexed implements Vocab
         return null;
     }
 
+    /**
+     * Marks this StandardVocab as clean, meaning that its current state equals its persisted state.
+     * <p>
+     * Called by persistence code after this StandardVocab has been loaded from or saved to a database.
+     *
+     * @since 0.2.4
+     */
+    @Tested("cf.kayon.core.StandardVocabTest.testDirtyTracking")
+    public void markClean()
+    {
+        markClean(captureCleanState());
+    }
+
+    /**
+     * Captures the current state of this StandardVocab, to be {@link #markClean(CleanState) marked clean} once it has been persisted.
+     * <p>
+     * Called by persistence code when writing this StandardVocab, if the write only becomes effective later (like when a transaction commits).
+     *
+     * @return The current state.
+     * @since 0.2.4
+     */
+    @NotNull
+    @Tested("cf.kayon.core.StandardVocabTest.testDeferredMarkClean")
+    public CleanState captureCleanState()
+    {
+        synchronized (dirtyProperties)
+        {
+            //noinspection NestedSynchronizedStatement
+            synchronized (translations)
+            {
+                return new CleanState(modifications, new HashMap<>(translations));
+            }
+        }
+    }
+
+    /**
+     * Marks a captured state of this StandardVocab as clean, meaning that it equals its persisted state.
+     * <p>
+     * Properties that have changed after the state has been captured stay dirty. The UUID is considered persisted, as it can only be initialized
+     * once and is written by every save.
+     *
+     * @param state The state, as captured by {@link #captureCleanState()} on this StandardVocab.
+     * @throws NullPointerException If {@code state} is {@code null}.
+     * @since 0.2.4
+     */
+    @Tested("cf.kayon.core.StandardVocabTest.testDeferredMarkClean")
+    public void markClean(@NotNull CleanState state)
+    {
+        checkNotNull(state);
+        synchronized (dirtyProperties)
+        {
+            dirtyProperties.values().removeIf(modification -> modification <= state.modifications);
+            dirtyProperties.remove("uuid");
+            cleanTranslations = state.translations;
+        }
+    }
+
+    /**
+     * Returns whether this StandardVocab has been {@link #markClean() marked clean} at least once, meaning it has a persisted state.
+     *
+     * @return Whether this StandardVocab is persistent.
+     * @since 0.2.4
+     */
+    @Tested("cf.kayon.core.StandardVocabTest.testDirtyTracking")
+    public boolean isPersistent()
+    {
+        synchronized (dirtyProperties)
+        {
+            return cleanTranslations != null;
+        }
+    }
+
+    /**
+     * Returns the names of the properties that have changed since this StandardVocab has last been {@link #markClean() marked clean}.
+     * <p>
+     * The names are the property names of the fired {@link java.beans.PropertyChangeEvent}s. Additionally, {@code translations} is contained if the
+     * translations differ from the ones at the time this StandardVocab was marked clean.
+     *
+     * @return An immutable set of property names.
+     * @since 0.2.4
+     */
+    @NotNull
+    @Tested("cf.kayon.core.StandardVocabTest.testDirtyTracking")
+    public Set<String> getDirtyProperties()
+    {
+        synchronized (dirtyProperties)
+        {
+            //noinspection NestedSynchronizedStatement
+            synchronized (translations)
+            {
+                if (cleanTranslations != null && !cleanTranslations.equals(translations))
+                    return ImmutableSet.<String>builder().addAll(dirtyProperties.keySet()).add("translations").build();
+            }
+            return ImmutableSet.copyOf(dirtyProperties.keySet());
+        }
+    }
+
+    /**
+     * Returns whether this StandardVocab has to be saved to get its persisted state up to date.
+     * <p>
+     * This is the case if it is not {@link #isPersistent() persistent} or if any {@link #getDirtyProperties() property has changed}.
+     *
+     * @return Whether this StandardVocab is dirty.
+     * @since 0.2.4
+     */
+    @Tested("cf.kayon.core.StandardVocabTest.testDirtyTracking")
+    public boolean isDirty()
+    {
+        return !isPersistent() || !getDirtyProperties().isEmpty();
+    }
+
     /**
      * Add a PropertyChangeListener to the listener list.
      * The listener is registered for all properties.
@@ -362,6 +536,139 @@ public class StandardVocab extends Contexed implements Vocab
         }
     }
 
+    /**
+     * Reports a bound property change to the listeners of this StandardVocab.
+     * <p>
+     * If an {@link #runEdit(Runnable) edit transaction} is running, the change is not fired immediately. Instead, it is merged with any earlier change
+     * of the same property within that transaction and fired once the outermost transaction has finished.
+     * <p>
+     * Classes extending this class should fire all of their property changes through this method.
+     *
+     * @param propertyName The name of the property that was changed.
+     * @param oldValue     The old value of the property.
+     * @param newValue     The new value of the property.
+     * @since 0.2.4
+     */
+    protected void firePropertyChange(@NotNull String propertyName, @Nullable Object oldValue, @Nullable Object newValue)
+    {
+        synchronized (this)
+        {
+            if (pendingChanges != null)
+            {
+                Object[] pending = pendingChanges.get(propertyName);
+                if (pending != null)
+                    pending[1] = newValue;
+                else
+                    pendingChanges.put(propertyName, new Object[]{oldValue, newValue});
+                return;
+            }
+        }
+        getPropertyChangeSupport().firePropertyChange(propertyName, oldValue, newValue);
+    }
+
+    /**
+     * Returns whether an {@link #runEdit(Runnable) edit transaction} is currently running on this StandardVocab.
+     *
+     * @return Whether an edit transaction is running.
+     * @since 0.2.4
+     */
+    protected synchronized boolean isEditing()
+    {
+        return editDepth > 0;
+    }
+
+    /**
+     * Runs an edit transaction on this StandardVocab.
+     * <p>
+     * The action is run whilst holding the lock of this object, so no other thread can observe or modify this vocab in between the single changes.
+     * All property changes reported by {@link #firePropertyChange(String, Object, Object)} during the action are coalesced: After {@link #commitEdit()}
+     * has been called, one event per property is fired, carrying the value from before the transaction and the final value.
+     * Properties that end up at their original value do not fire at all.
+     * <p>
+     * Transactions may be nested. Only the outermost transaction commits and fires the events.
+     * <p>
+     * If the action throws, the changes it has made so far are kept: The transaction is still committed and the events of these changes are still
+     * fired, so listeners (like the dirty tracking) do not miss them. Like the events of the setters, they are fired whilst holding the lock of this object,
+     * so they are delivered in the order of the changes.
+     *
+     * @param action The action performing the changes.
+     * @throws NullPointerException If {@code action} is {@code null}.
+     * @since 0.2.4
+     */
+    protected synchronized void runEdit(@NotNull Runnable action)
+    {
+        checkNotNull(action);
+        if (editDepth++ == 0)
+            pendingChanges = new LinkedHashMap<>();
+        try
+        {
+            action.run();
+        } finally
+        {
+            if (editDepth == 1)
+            {
+                try
+                {
+                    commitEdit();
+                } finally
+                {
+                    Map<String, Object[]> changes = pendingChanges;
+                    pendingChanges = null;
+                    editDepth--;
+                    for (Map.Entry<String, Object[]> change : changes.entrySet())
+                    {
+                        Object[] values = change.getValue();
+                        if (!Objects.equal(values[0], values[1]))
+                            getPropertyChangeSupport().firePropertyChange(change.getKey(), values[0], values[1]);
+                    }
+                }
+            } else
+                editDepth--;
+        }
+    }
+
+    /**
+     * Called when the outermost {@link #runEdit(Runnable) edit transaction} has finished running its action, right before the coalesced events are fired.
+     * <p>
+     * Classes extending this class can override this method to perform work that was deferred during the transaction (like declining forms).
+     * Property changes reported from within this method are coalesced into the events of the transaction as well.
+     * <p>
+     * The default implementation does nothing.
+     *
+     * @since 0.2.4
+     */
+    protected void commitEdit() {}
+
+    /**
+     * A state of a StandardVocab captured by {@link #captureCleanState()}.
+     *
+     * @author Ruben Anders
+     * @since 0.2.4
+     */
+    public static final class CleanState
+    {
+        /**
+         * The number of property changes up to the state.
+         *
+         * @since 0.2.4
+         */
+        private final long modifications;
+
+        /**
+         * A copy of the translations at the state.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final Map<Locale, String> translations;
+
+        private CleanState(long modifications, @NotNull Map<Locale, String> translations)
+        {
+            this.modifications = modifications;
+            this.translations = translations;
+        }
+    }
+
     /**
      * @since 0.2.0
      */
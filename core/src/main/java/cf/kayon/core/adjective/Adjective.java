@@ -19,6 +19,9 @@
 package cf.kayon.core.adjective;
 
 import cf.kayon.core.*;
+import cf.kayon.core.metrics.FlightRecorderEvent;
+import cf.kayon.core.metrics.FlightRecorderEvents;
+import cf.kayon.core.metrics.Timer;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
 import net.jcip.annotations.GuardedBy;
@@ -30,6 +33,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static cf.kayon.core.util.StringUtil.checkNotEmpty;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -146,18 +150,18 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
      */
     @GuardedBy("this")
     private volatile boolean allowsSuperlative = true;
+
+    /**
+     * Whether the declined forms have to be declined again once the currently running edit transaction commits.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("this")
+    private boolean declinePending;
     //endregion
 
     //region Constructors
 
-    // since 0.0.1
-    {
-        addPropertyChangeListener(evt -> {
-            String propertyName = evt.getPropertyName();
-            if (propertyName.endsWith("_defined") || propertyName.equals("adjectiveDeclension") || propertyName.equals("rootWord") || propertyName.endsWith("_allowed"))
-                _declineIntoBuffer();
-        });
-    }
 
     /**
      * Constructs a new Adjective.
@@ -237,7 +241,8 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
         checkNotEmpty(rootWord);
         String oldValue = this.rootWord;
         this.rootWord = rootWord;
-        getPropertyChangeSupport().firePropertyChange("rootWord", oldValue, rootWord);
+        invalidateDeclinedForms();
+        firePropertyChange("rootWord", oldValue, rootWord);
     }
 
     /**
@@ -262,7 +267,8 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
     {
         AdjectiveDeclension oldValue = this.adjectiveDeclension;
         this.adjectiveDeclension = adjectiveDeclension;
-        getPropertyChangeSupport().firePropertyChange("adjectiveDeclension", oldValue, adjectiveDeclension);
+        invalidateDeclinedForms();
+        firePropertyChange("adjectiveDeclension", oldValue, adjectiveDeclension);
     }
 
     /**
@@ -289,7 +295,8 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
     {
         boolean oldValue = this.allowsPositive;
         this.allowsPositive = allowsPositive;
-        getPropertyChangeSupport().firePropertyChange("POSTIVE_allowed", oldValue, allowsPositive);
+        invalidateDeclinedForms();
+        firePropertyChange("POSTIVE_allowed", oldValue, allowsPositive);
     }
 
     /**
@@ -316,7 +323,8 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
     {
         boolean oldValue = this.allowsComparative;
         this.allowsComparative = allowsComparative;
-        getPropertyChangeSupport().firePropertyChange("COMPARATIVE_allowed", oldValue, allowsComparative);
+        invalidateDeclinedForms();
+        firePropertyChange("COMPARATIVE_allowed", oldValue, allowsComparative);
     }
 
     /**
@@ -343,7 +351,8 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
     {
         boolean oldValue = this.allowsSuperlative;
         this.allowsSuperlative = allowsSuperlative;
-        getPropertyChangeSupport().firePropertyChange("SUPERLATIVE_allowed", oldValue, allowsSuperlative);
+        invalidateDeclinedForms();
+        firePropertyChange("SUPERLATIVE_allowed", oldValue, allowsSuperlative);
     }
 
     /**
@@ -417,7 +426,7 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
      * @since 0.0.1
      */
     @CaseHandling(CaseHandling.CaseType.LOWERCASE_ONLY)
-    public void setDefinedForm(@NotNull AdjectiveForm adjectiveForm, @Nullable String form)
+    public synchronized void setDefinedForm(@NotNull AdjectiveForm adjectiveForm, @Nullable String form)
     {
         requireAllowedComparisonDegree(adjectiveForm);
         checkNotNull(adjectiveForm);
@@ -433,7 +442,8 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
         String propertyName = adjectiveForm.getPropertyName("defined");
 
         definedForms.put(adjectiveForm, form);
-        getPropertyChangeSupport().firePropertyChange(propertyName, oldForm, form);
+        invalidateDeclinedForms();
+        firePropertyChange(propertyName, oldForm, form);
     }
 
     /**
@@ -507,7 +517,9 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
         requireAllowedComparisonDegree(adjectiveForm);
         checkNotNull(adjectiveForm);
 
-        getPropertyChangeSupport().firePropertyChange(adjectiveForm.getPropertyName("defined"), definedForms.remove(adjectiveForm), null);
+        String oldForm = definedForms.remove(adjectiveForm);
+        invalidateDeclinedForms();
+        firePropertyChange(adjectiveForm.getPropertyName("defined"), oldForm, null);
     }
 
     /**
@@ -553,17 +565,68 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
         if (form == null || form.isEmpty())
         {
             declinedForms.remove(adjectiveForm);
-            getPropertyChangeSupport().firePropertyChange(propertyName, oldForm, null);
+            firePropertyChange(propertyName, oldForm, null);
         } else
         {
             declinedForms.put(adjectiveForm, form);
-            getPropertyChangeSupport().firePropertyChange(propertyName, oldForm, form);
+            firePropertyChange(propertyName, oldForm, form);
         }
     }
     //endregion
 
     /**
-     * Declines all forms into the buffer. Called by the property change listener.
+     * Called if a declined form changing property has changed.
+     * <p>
+     * If an edit transaction is running, declining is deferred until the transaction commits. Otherwise, the forms are declined right away.
+     *
+     * @since 0.2.4
+     */
+    private synchronized void invalidateDeclinedForms()
+    {
+        if (isEditing())
+            declinePending = true;
+        else
+            _declineIntoBuffer();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Declines the forms of this adjective if a declined form changing property has changed during the transaction.
+     *
+     * @since 0.2.4
+     */
+    @Override
+    protected synchronized void commitEdit()
+    {
+        if (declinePending)
+        {
+            declinePending = false;
+            _declineIntoBuffer();
+        }
+    }
+
+    /**
+     * Edits this adjective atomically.
+     * <p>
+     * All changes made by the editor are applied while holding the lock of this adjective. The declined forms are only declined once after the editor
+     * has finished, and listeners are notified once per changed property afterwards (with the value from before the edit as the old value).
+     * Properties that have been changed back to their original value are not reported at all.
+     * <p>
+     * Edits may be nested; only the outermost edit fires events.
+     *
+     * @param editor The editor to apply to this adjective.
+     * @throws NullPointerException If {@code editor} is {@code null}.
+     * @since 0.2.4
+     */
+    public void edit(@NotNull Consumer<? super Adjective> editor)
+    {
+        checkNotNull(editor);
+        runEdit(() -> editor.accept(this));
+    }
+
+    /**
+     * Declines all forms into the buffer. Called if a declined form changing property has changed.
      * <p>
      * All declining logic is lowercase-supporting only.
      *
@@ -572,6 +635,9 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
     @CaseHandling(CaseHandling.CaseType.LOWERCASE_ONLY)
     private synchronized void _declineIntoBuffer()
     {
+        Timer timer = getContext().getMetrics().timer("adjective.decline");
+        long start = timer.start();
+        FlightRecorderEvent event = FlightRecorderEvents.DECLINE.begin();
         if (this.adjectiveDeclension == null)
         { // Properly invoke all change listeners
             for (AdjectiveForm adjectiveForm : AdjectiveForm.values())
@@ -602,6 +668,12 @@ public class Adjective extends StandardVocab implements DeepCopyable<Adjective>
                 if (!declinedForms.containsKey(adjectiveForm))
                     putDeclinedForm(adjectiveForm, this.adjectiveDeclension.decline(adjectiveForm, rootWord));
             } catch (FormingException ignored) {} // null will reside
+        timer.stop(start);
+        if (event.isEnabled())
+            event.set("vocab", "adjective")
+                 .set("rootWord", rootWord)
+                 .set("declension", adjectiveDeclension != null ? adjectiveDeclension.getClass().getSimpleName() : null)
+                 .commit();
     }
 
     /**
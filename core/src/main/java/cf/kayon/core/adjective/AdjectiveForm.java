@@ -120,6 +120,12 @@ public class AdjectiveForm
      */
     @NotNull
     private final String propertyName;
+    /**
+     * The index of this AdjectiveForm in {@link #values()}.
+     *
+     * @since 0.2.4
+     */
+    private final int ordinal;
 
     /**
      * Constructs a new AdjectiveForm.
@@ -142,6 +148,8 @@ public class AdjectiveForm
         this.count = count;
         this.gender = gender;
         this.propertyName = comparisonDegree + "_" + caze + "_" + count + "_" + gender + "_";
+        this.ordinal = ((comparisonDegree.ordinal() * Count.values().length + count.ordinal()) * Gender.values().length + gender.ordinal())
+                       * Case.values().length + caze.ordinal();
     }
 
     /**
@@ -191,6 +199,20 @@ public class AdjectiveForm
         return allValues;
     }
 
+    /**
+     * Returns the index of this AdjectiveForm in the list returned by {@link #values()}.
+     * <p>
+     * The index is stable as long as no comparison degrees, counts, genders or cases are added, so it may be used as a compact persistent key.
+     *
+     * @return The index, in the range {@code 0} to {@code values().size() - 1}.
+     * @since 0.2.4
+     */
+    @Contract(pure = true)
+    public int ordinal()
+    {
+        return ordinal;
+    }
+
     @Override
     public boolean equals(Object o)
     {
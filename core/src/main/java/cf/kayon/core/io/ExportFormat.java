@@ -0,0 +1,231 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.io;
+
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.noun.NounForm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * The file formats supported by the {@link ParadigmExporter}.
+ * <p>
+ * Both formats write one row per form of a noun with the columns {@code uuid}, {@code rootWord}, {@code gender}, {@code declension}
+ * (the simple class name of the NounDeclension, empty if there is none), {@code case}, {@code count}, {@code form} and {@code defined}
+ * ({@code true} if the form is defined, {@code false} if it is declined). Forms that neither are defined nor could be declined are skipped.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+public enum ExportFormat
+{
+    /**
+     * Comma-separated values as specified by RFC 4180, with a header line. Values containing commas, quotes or line breaks are quoted.
+     *
+     * @since 0.2.4
+     */
+    CSV
+            {
+                @Override
+                @NotNull
+                String header()
+                {
+                    return "uuid,rootWord,gender,declension,case,count,form,defined\r\n";
+                }
+
+                @Override
+                void appendRow(@NotNull StringBuilder builder, @NotNull UUID uuid, @NotNull String rootWord, @NotNull String gender,
+                               @NotNull String declension, @NotNull NounForm nounForm, @NotNull String form, boolean defined)
+                {
+                    builder.append(uuid).append(',');
+                    appendCsvValue(builder, rootWord).append(',');
+                    builder.append(gender).append(',');
+                    appendCsvValue(builder, declension).append(',');
+                    builder.append(nounForm.getCase()).append(',').append(nounForm.getCount()).append(',');
+                    appendCsvValue(builder, form).append(',');
+                    builder.append(defined).append("\r\n");
+                }
+            },
+
+    /**
+     * JSON Lines: One JSON object per line, without a header.
+     *
+     * @since 0.2.4
+     */
+    JSONL
+            {
+                @Override
+                @NotNull
+                String header()
+                {
+                    return "";
+                }
+
+                @Override
+                void appendRow(@NotNull StringBuilder builder, @NotNull UUID uuid, @NotNull String rootWord, @NotNull String gender,
+                               @NotNull String declension, @NotNull NounForm nounForm, @NotNull String form, boolean defined)
+                {
+                    builder.append("{\"uuid\":\"").append(uuid).append("\",\"rootWord\":");
+                    appendJsonString(builder, rootWord).append(",\"gender\":\"").append(gender).append("\",\"declension\":");
+                    appendJsonString(builder, declension).append(",\"case\":\"").append(nounForm.getCase())
+                                                         .append("\",\"count\":\"").append(nounForm.getCount()).append("\",\"form\":");
+                    appendJsonString(builder, form).append(",\"defined\":").append(defined).append("}\n");
+                }
+            };
+
+    /**
+     * Gets the text written before the first row.
+     *
+     * @return The header. May be empty.
+     * @since 0.2.4
+     */
+    @NotNull
+    abstract String header();
+
+    /**
+     * Appends a single row.
+     *
+     * @param builder    The builder to append to.
+     * @param uuid       The UUID of the noun.
+     * @param rootWord   The root word of the noun.
+     * @param gender     The gender of the noun.
+     * @param declension The name of the NounDeclension of the noun.
+     * @param nounForm   The form type.
+     * @param form       The form.
+     * @param defined    Whether the form is defined.
+     * @since 0.2.4
+     */
+    abstract void appendRow(@NotNull StringBuilder builder, @NotNull UUID uuid, @NotNull String rootWord, @NotNull String gender,
+                            @NotNull String declension, @NotNull NounForm nounForm, @NotNull String form, boolean defined);
+
+    /**
+     * Appends all rows of a noun.
+     * <p>
+     * Synchronizes on the noun while reading it.
+     *
+     * @param builder The builder to append to.
+     * @param noun    The noun. Must have a UUID.
+     * @return The number of rows appended.
+     * @since 0.2.4
+     */
+    int appendRows(@NotNull StringBuilder builder, @NotNull Noun noun)
+    {
+        int rows = 0;
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (noun)
+        {
+            UUID uuid = noun.getUuid();
+            if (uuid == null)
+                throw new IllegalArgumentException("Noun has no UUID: " + noun);
+            String rootWord = noun.getRootWord();
+            String gender = noun.getGender().name();
+            @Nullable
+            NounDeclension nounDeclension = noun.getNounDeclension();
+            String declension = nounDeclension == null ? "" : nounDeclension.getClass().getSimpleName();
+            for (NounForm nounForm : NounForm.values())
+            {
+                @Nullable
+                String definedForm = noun.getDefinedForm(nounForm);
+                @Nullable
+                String form = definedForm != null ? definedForm : noun.getDeclinedForm(nounForm);
+                if (form != null)
+                {
+                    appendRow(builder, uuid, rootWord, gender, declension, nounForm, form, definedForm != null);
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Appends a CSV value, quoting it if necessary.
+     *
+     * @param builder The builder.
+     * @param value   The value.
+     * @return The builder.
+     * @since 0.2.4
+     */
+    @NotNull
+    static StringBuilder appendCsvValue(@NotNull StringBuilder builder, @NotNull String value)
+    {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++)
+        {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote)
+            return builder.append(value);
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '"')
+                builder.append('"');
+            builder.append(c);
+        }
+        return builder.append('"');
+    }
+
+    /**
+     * Appends a JSON string literal.
+     *
+     * @param builder The builder.
+     * @param value   The value.
+     * @return The builder.
+     * @since 0.2.4
+     */
+    @NotNull
+    static StringBuilder appendJsonString(@NotNull StringBuilder builder, @NotNull String value)
+    {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                        builder.append(String.format("\\u%04x", (int) c));
+                    else
+                        builder.append(c);
+            }
+        }
+        return builder.append('"');
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.io;
+
+import com.google.common.base.MoreObjects;
+import net.jcip.annotations.Immutable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics about a running or finished bulk operation.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class ExportStatistics
+{
+    /**
+     * The number of vocab items processed.
+     *
+     * @since 0.2.4
+     */
+    private final long items;
+
+    /**
+     * The number of rows written.
+     *
+     * @since 0.2.4
+     */
+    private final long rows;
+
+    /**
+     * The number of bytes written.
+     *
+     * @since 0.2.4
+     */
+    private final long bytes;
+
+    /**
+     * The elapsed time in nanoseconds.
+     *
+     * @since 0.2.4
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param items        The number of vocab items processed.
+     * @param rows         The number of rows written.
+     * @param bytes        The number of bytes written.
+     * @param elapsedNanos The elapsed time in nanoseconds.
+     * @since 0.2.4
+     */
+    public ExportStatistics(long items, long rows, long bytes, long elapsedNanos)
+    {
+        this.items = items;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of vocab items processed.
+     *
+     * @return The number of items.
+     * @since 0.2.4
+     */
+    public long getItems()
+    {
+        return items;
+    }
+
+    /**
+     * Gets the number of rows written.
+     *
+     * @return The number of rows.
+     * @since 0.2.4
+     */
+    public long getRows()
+    {
+        return rows;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return The number of bytes.
+     * @since 0.2.4
+     */
+    public long getBytes()
+    {
+        return bytes;
+    }
+
+    /**
+     * Gets the elapsed time.
+     *
+     * @param unit The unit to convert the time to.
+     * @return The elapsed time.
+     * @since 0.2.4
+     */
+    public long getElapsed(TimeUnit unit)
+    {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the average throughput.
+     *
+     * @return The rows written per second. {@code 0} if no time has elapsed.
+     * @since 0.2.4
+     */
+    public double getRowsPerSecond()
+    {
+        return elapsedNanos <= 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("items", items)
+                          .add("rows", rows)
+                          .add("bytes", bytes)
+                          .add("elapsedMillis", getElapsed(TimeUnit.MILLISECONDS))
+                          .add("rowsPerSecond", String.format("%.0f", getRowsPerSecond()))
+                          .toString();
+    }
+}
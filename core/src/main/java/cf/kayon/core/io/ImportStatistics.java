@@ -0,0 +1,164 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.io;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics about a running or finished import.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class ImportStatistics
+{
+    /**
+     * The number of lines of the source file consumed, including lines consumed by earlier, interrupted runs.
+     *
+     * @since 0.2.4
+     */
+    private final long lines;
+
+    /**
+     * The number of vocab items imported.
+     *
+     * @since 0.2.4
+     */
+    private final long items;
+
+    /**
+     * The number of records rejected.
+     *
+     * @since 0.2.4
+     */
+    private final long rejected;
+
+    /**
+     * The elapsed time of this run in nanoseconds.
+     *
+     * @since 0.2.4
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Descriptions of the first problems encountered in this run.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final List<String> problems;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param lines        The number of lines of the source file consumed.
+     * @param items        The number of vocab items imported.
+     * @param rejected     The number of records rejected.
+     * @param elapsedNanos The elapsed time of this run in nanoseconds.
+     * @param problems     Descriptions of the first problems encountered in this run.
+     * @since 0.2.4
+     */
+    public ImportStatistics(long lines, long items, long rejected, long elapsedNanos, @NotNull List<String> problems)
+    {
+        this.lines = lines;
+        this.items = items;
+        this.rejected = rejected;
+        this.elapsedNanos = elapsedNanos;
+        this.problems = ImmutableList.copyOf(problems);
+    }
+
+    /**
+     * Gets the number of lines of the source file consumed, including lines consumed by earlier, interrupted runs.
+     *
+     * @return The number of lines.
+     * @since 0.2.4
+     */
+    public long getLines()
+    {
+        return lines;
+    }
+
+    /**
+     * Gets the number of vocab items imported, including items imported by earlier, interrupted runs.
+     *
+     * @return The number of items.
+     * @since 0.2.4
+     */
+    public long getItems()
+    {
+        return items;
+    }
+
+    /**
+     * Gets the number of records rejected, including records rejected by earlier, interrupted runs.
+     *
+     * @return The number of rejected records.
+     * @since 0.2.4
+     */
+    public long getRejected()
+    {
+        return rejected;
+    }
+
+    /**
+     * Gets the elapsed time of this run.
+     *
+     * @param unit The unit to convert the time to.
+     * @return The elapsed time.
+     * @since 0.2.4
+     */
+    public long getElapsed(TimeUnit unit)
+    {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets descriptions of the first problems encountered in this run, like {@code "line 17: Unknown gender: X"}.
+     *
+     * @return An immutable list of problems.
+     * @since 0.2.4
+     */
+    @NotNull
+    public List<String> getProblems()
+    {
+        return problems;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("lines", lines)
+                          .add("items", items)
+                          .add("rejected", rejected)
+                          .add("elapsedMillis", getElapsed(TimeUnit.MILLISECONDS))
+                          .add("problems", problems.size())
+                          .toString();
+    }
+}
@@ -0,0 +1,739 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.io;
+
+import cf.kayon.core.*;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.repository.RepositoryException;
+import cf.kayon.core.repository.UncheckedRepositoryException;
+import cf.kayon.core.repository.VocabRepository;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Imports nouns from files in the formats written by the {@link ParadigmExporter}.
+ * <p>
+ * Every line (CSV) or object (JSONL) is a row with the following columns, all of them optional unless stated otherwise:
+ * <ul>
+ * <li>{@code uuid}: Consecutive rows with the same UUID describe the same noun. Rows without a UUID each describe a noun of their own,
+ * which gets a UUID derived from its root word, gender and declension, so importing the same file twice does not create duplicates.</li>
+ * <li>{@code gender} (required): The name of a {@link Gender}.</li>
+ * <li>{@code declension}: The (simple or fully qualified) class name of a NounDeclension registered in the {@link DeclensionRegistry}.
+ * If it is missing, the declension is inferred from the declined forms of the noun; nouns whose declension cannot be inferred are rejected.</li>
+ * <li>{@code rootWord}: If it is missing, it is {@link NounDeclension#determineRootWord(NounForm, Gender, String) determined} from the form.</li>
+ * <li>{@code case}, {@code count}, {@code form}: A form of the noun. Unless the row is defined, the form is validated against the declension.</li>
+ * <li>{@code defined}: {@code true} if the form is a defined form.</li>
+ * <li>{@code translation.<language tag>}: A translation, like {@code translation.de}.</li>
+ * </ul>
+ * Only the first row of a noun is consulted for the UUID, gender, declension, root word and translations.
+ * <p>
+ * The file is read sequentially in batches of {@code import.batchSize} lines. The lines of a batch are parsed and turned into nouns in parallel,
+ * then the nouns are saved with a single {@link VocabRepository#saveAll(Collection)} call (a single transaction for SQL repositories).
+ * Rows that cannot be imported are counted and reported, but do not stop the import.
+ * <p>
+ * If a checkpoint file is specified, the number of consumed lines is written to it after every saved batch. If the import is interrupted,
+ * running it again with the same checkpoint file resumes after the last saved batch. The checkpoint is deleted when the import completes.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class LexiconImporter extends Contexed
+{
+    /**
+     * The maximum number of problem descriptions collected in the {@link ImportStatistics}.
+     *
+     * @since 0.2.4
+     */
+    private static final int MAX_PROBLEMS = 100;
+
+    /**
+     * The prefix of translation columns.
+     *
+     * @since 0.2.4
+     */
+    private static final String TRANSLATION_PREFIX = "translation.";
+
+    /**
+     * The number of lines read at once.
+     *
+     * @since 0.2.4
+     */
+    private final int batchSize;
+
+    /**
+     * Constructs a new instance.
+     * <p>
+     * The batch size is retrieved from the {@code import.batchSize} setting of the config of the context at construct time.
+     *
+     * @param context The {@link KayonContext} for this instance.
+     * @since 0.2.4
+     */
+    public LexiconImporter(@NotNull KayonContext context)
+    {
+        super(context);
+        batchSize = context.getConfig().getInt("import.batchSize");
+    }
+
+    /**
+     * Imports a file into a repository.
+     *
+     * @param repository The repository to import into.
+     * @param source     The file to import.
+     * @param format     The format of the file.
+     * @param checkpoint The checkpoint file. May be {@code null} to import without checkpoints.
+     * @param progress   Receives the statistics after every batch. May be {@code null}.
+     * @return The statistics of the finished import.
+     * @throws IOException                   If the source could not be read, the checkpoint could not be written or the checkpoint belongs
+     *                                       to a different version of the source.
+     * @throws RepositoryException           If a batch could not be saved. The checkpoint reflects the last saved batch.
+     * @throws UnsupportedOperationException If the repository is read-only.
+     * @throws NullPointerException          If {@code repository}, {@code source} or {@code format} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public ImportStatistics importFile(@NotNull VocabRepository repository, @NotNull Path source, @NotNull ExportFormat format,
+                                       @Nullable Path checkpoint, @Nullable Consumer<? super ImportStatistics> progress)
+            throws IOException, RepositoryException
+    {
+        checkNotNull(repository);
+        checkNotNull(source);
+        checkNotNull(format);
+        if (repository.isReadOnly())
+            throw new UnsupportedOperationException("Cannot import into a read-only repository");
+        long start = System.nanoTime();
+        Checkpoint state = checkpoint != null && Files.exists(checkpoint) ? Checkpoint.load(checkpoint, source) : new Checkpoint(source);
+        List<String> problems = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(source), StandardCharsets.UTF_8), 1 << 16))
+        {
+            long lineNumber = 0;
+            @Nullable
+            List<String> header = null;
+            if (format == ExportFormat.CSV)
+            {
+                String headerLine = reader.readLine();
+                if (headerLine == null)
+                    return new ImportStatistics(0, 0, 0, System.nanoTime() - start, problems);
+                header = LineParser.parseCsvLine(headerLine);
+                lineNumber++;
+            }
+            while (lineNumber < state.lines && reader.readLine() != null)
+                lineNumber++;
+
+            List<Row> pending = new ArrayList<>();
+            boolean endOfFile = false;
+            while (!endOfFile)
+            {
+                List<Line> lines = new ArrayList<>(batchSize);
+                while (lines.size() < batchSize)
+                {
+                    String text = reader.readLine();
+                    if (text == null)
+                    {
+                        endOfFile = true;
+                        break;
+                    }
+                    lineNumber++;
+                    if (!text.trim().isEmpty())
+                        lines.add(new Line(lineNumber, text));
+                }
+
+                @Nullable
+                List<String> finalHeader = header;
+                List<Row> rows = new ArrayList<>(pending);
+                rows.addAll(lines.parallelStream().map(line -> parseRow(line, format, finalHeader)).collect(Collectors.toList()));
+                List<List<Row>> groups = groupByUuid(rows);
+                pending.clear();
+                if (!endOfFile && !groups.isEmpty())
+                    pending.addAll(groups.remove(groups.size() - 1)); // the rows of the last noun may continue in the next batch
+
+                List<Object> results = groups.parallelStream().map(this::buildNounOrProblem).collect(Collectors.toList());
+                List<Noun> nouns = new ArrayList<>(results.size());
+                for (Object result : results)
+                {
+                    if (result instanceof Noun)
+                        nouns.add((Noun) result);
+                    else
+                    {
+                        state.rejected++;
+                        if (problems.size() < MAX_PROBLEMS)
+                            problems.add((String) result);
+                    }
+                }
+                try
+                {
+                    repository.saveAll(nouns);
+                } catch (UncheckedRepositoryException e)
+                {
+                    throw e.getCause();
+                }
+                state.items += nouns.size();
+                state.lines = pending.isEmpty() ? lineNumber : pending.get(0).line - 1;
+                if (checkpoint != null && !endOfFile)
+                    state.store(checkpoint);
+                if (progress != null)
+                    progress.accept(new ImportStatistics(state.lines, state.items, state.rejected, System.nanoTime() - start, problems));
+            }
+        }
+        if (checkpoint != null)
+            Files.deleteIfExists(checkpoint);
+        return new ImportStatistics(state.lines, state.items, state.rejected, System.nanoTime() - start, problems);
+    }
+
+    /**
+     * Parses a line into a row.
+     *
+     * @param line   The line.
+     * @param format The format.
+     * @param header The CSV header or {@code null} for JSONL.
+     * @return The row. If the line could not be parsed, the row holds the problem instead of any fields.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static Row parseRow(@NotNull Line line, @NotNull ExportFormat format, @Nullable List<String> header)
+    {
+        try
+        {
+            Map<String, String> fields;
+            if (format == ExportFormat.CSV)
+            {
+                assert header != null;
+                List<String> values = LineParser.parseCsvLine(line.text);
+                if (values.size() != header.size())
+                    throw new IllegalArgumentException("Expected " + header.size() + " values, but got " + values.size());
+                fields = new HashMap<>();
+                for (int i = 0; i < values.size(); i++)
+                    if (!values.get(i).isEmpty())
+                        fields.put(header.get(i), values.get(i));
+            } else
+                fields = LineParser.parseJsonObject(line.text);
+            return new Row(line.number, fields, null);
+        } catch (IllegalArgumentException e)
+        {
+            return new Row(line.number, Collections.emptyMap(), "line " + line.number + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Groups consecutive rows with the same UUID. Rows without a UUID and rows that could not be parsed form groups of their own.
+     *
+     * @param rows The rows.
+     * @return The groups, in the order of the rows.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static List<List<Row>> groupByUuid(@NotNull List<Row> rows)
+    {
+        List<List<Row>> groups = new ArrayList<>();
+        @Nullable
+        String previousUuid = null;
+        for (Row row : rows)
+        {
+            @Nullable
+            String uuid = row.problem == null ? row.fields.get("uuid") : null;
+            if (uuid != null && uuid.equals(previousUuid))
+                groups.get(groups.size() - 1).add(row);
+            else
+                groups.add(new ArrayList<>(Collections.singletonList(row)));
+            previousUuid = uuid;
+        }
+        return groups;
+    }
+
+    /**
+     * Builds the noun described by a group of rows.
+     *
+     * @param group The rows.
+     * @return The noun or a description of the problem that prevented building it.
+     * @since 0.2.4
+     */
+    @NotNull
+    private Object buildNounOrProblem(@NotNull List<Row> group)
+    {
+        Row first = group.get(0);
+        if (first.problem != null)
+            return first.problem;
+        try
+        {
+            return buildNoun(group);
+        } catch (IllegalArgumentException e)
+        {
+            return "line " + first.line + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * Builds the noun described by a group of rows.
+     *
+     * @param group The rows.
+     * @return The noun.
+     * @throws IllegalArgumentException If the rows do not describe a valid noun.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    private Noun buildNoun(@NotNull List<Row> group)
+    {
+        Row first = group.get(0);
+        String genderName = first.fields.get("gender");
+        if (genderName == null)
+            throw new IllegalArgumentException("Missing gender");
+        Gender gender = parseEnum(Gender.class, genderName, "gender");
+        @Nullable
+        NounDeclension nounDeclension = first.fields.containsKey("declension") ? resolveDeclension(first.fields.get("declension")) : null;
+        @Nullable
+        String rootWord = first.fields.get("rootWord");
+
+        List<Row> declinedRows = group.stream().filter(row -> row.hasForm() && !row.isDefined()).collect(Collectors.toList());
+
+        if (rootWord == null)
+        {
+            if (declinedRows.isEmpty())
+                throw new IllegalArgumentException("Missing root word and no declined form to determine it from");
+            Row basis = declinedRows.get(0);
+            NounForm nounForm = basis.nounForm();
+            String form = basis.fields.get("form").toLowerCase();
+            if (nounDeclension != null)
+                rootWord = determineRootWord(nounDeclension, nounForm, gender, form);
+            else
+            {
+                for (NounDeclension candidate : DeclensionRegistry.getNounDeclensions())
+                {
+                    if (!candidate.allowsGender(gender))
+                        continue;
+                    @Nullable
+                    String candidateRoot = determineRootWord(candidate, nounForm, gender, form);
+                    if (candidateRoot != null && declinesTo(candidate, gender, candidateRoot, declinedRows))
+                    {
+                        nounDeclension = candidate;
+                        rootWord = candidateRoot;
+                        break;
+                    }
+                }
+                if (rootWord == null)
+                    throw new IllegalArgumentException("Could not infer declension of " + basis.fields.get("form"));
+            }
+            if (rootWord == null)
+                throw new IllegalArgumentException("Could not determine root word of " + basis.fields.get("form"));
+        } else if (nounDeclension == null && !declinedRows.isEmpty())
+        {
+            for (NounDeclension candidate : DeclensionRegistry.getNounDeclensions())
+            {
+                if (candidate.allowsGender(gender) && declinesTo(candidate, gender, rootWord, declinedRows))
+                {
+                    nounDeclension = candidate;
+                    break;
+                }
+            }
+            if (nounDeclension == null)
+                throw new IllegalArgumentException("Could not infer declension of root word " + rootWord);
+        }
+
+        Noun noun = new Noun(getContext(), nounDeclension, gender, rootWord);
+        String uuid = first.fields.get("uuid");
+        try
+        {
+            noun.initializeUuid(uuid != null ? UUID.fromString(uuid) : derivedUuid(rootWord, gender, nounDeclension));
+        } catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Invalid UUID: " + uuid, e);
+        }
+        for (Map.Entry<String, String> field : first.fields.entrySet())
+            if (field.getKey().startsWith(TRANSLATION_PREFIX))
+                noun.getTranslations().put(Locale.forLanguageTag(field.getKey().substring(TRANSLATION_PREFIX.length())), field.getValue());
+
+        for (Row row : group)
+        {
+            if (!row.hasForm())
+                continue;
+            NounForm nounForm = row.nounForm();
+            String form = row.fields.get("form");
+            if (row.isDefined())
+                noun.setDefinedForm(nounForm, form);
+            else
+            {
+                @Nullable
+                String declinedForm = noun.getDeclinedForm(nounForm);
+                if (!form.equalsIgnoreCase(declinedForm))
+                    throw new IllegalArgumentException("Form " + form + " (" + nounForm + ") does not match declined form " + declinedForm);
+            }
+        }
+        return noun;
+    }
+
+    /**
+     * Resolves a NounDeclension by its simple or fully qualified class name.
+     *
+     * @param name The name.
+     * @return The NounDeclension.
+     * @throws IllegalArgumentException If no such NounDeclension is registered.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static NounDeclension resolveDeclension(@NotNull String name)
+    {
+        @Nullable
+        NounDeclension nounDeclension = DeclensionRegistry.nounDeclensionForName(name);
+        if (nounDeclension != null)
+            return nounDeclension;
+        for (NounDeclension candidate : DeclensionRegistry.getNounDeclensions())
+            if (candidate.getClass().getSimpleName().equals(name))
+                return candidate;
+        throw new IllegalArgumentException("Unknown declension: " + name);
+    }
+
+    /**
+     * Determines a root word, returning {@code null} instead of throwing a {@link FormingException}.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private static String determineRootWord(@NotNull NounDeclension nounDeclension, @NotNull NounForm nounForm, @NotNull Gender gender, @NotNull String form)
+    {
+        try
+        {
+            return nounDeclension.determineRootWord(nounForm, gender, form);
+        } catch (FormingException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Declines a form, returning {@code null} instead of throwing a {@link FormingException}.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private static String declineOrNull(@NotNull NounDeclension nounDeclension, @NotNull NounForm nounForm, @NotNull Gender gender, @NotNull String rootWord)
+    {
+        try
+        {
+            return nounDeclension.decline(nounForm, gender, rootWord);
+        } catch (FormingException | IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether a NounDeclension declines a root word to the forms of all specified rows, ignoring case.
+     *
+     * @param nounDeclension The NounDeclension.
+     * @param gender         The gender.
+     * @param rootWord       The root word.
+     * @param rows           The rows holding declined forms.
+     * @return Whether all forms match.
+     * @since 0.2.4
+     */
+    private static boolean declinesTo(@NotNull NounDeclension nounDeclension, @NotNull Gender gender, @NotNull String rootWord, @NotNull List<Row> rows)
+    {
+        for (Row row : rows)
+            if (!row.fields.get("form").equalsIgnoreCase(declineOrNull(nounDeclension, row.nounForm(), gender, rootWord)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Derives a stable UUID for a noun without an explicit UUID.
+     *
+     * @param rootWord       The root word.
+     * @param gender         The gender.
+     * @param nounDeclension The NounDeclension.
+     * @return A name-based UUID.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static UUID derivedUuid(@NotNull String rootWord, @NotNull Gender gender, @Nullable NounDeclension nounDeclension)
+    {
+        String name = "noun:" + rootWord + ':' + gender + ':' + (nounDeclension == null ? "" : nounDeclension.getClass().getName());
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses the name of an enum constant, ignoring case.
+     *
+     * @param type   The enum type.
+     * @param name   The name.
+     * @param column The column name for the error message.
+     * @param <E>    The enum type.
+     * @return The constant.
+     * @throws IllegalArgumentException If there is no such constant.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static <E extends Enum<E>> E parseEnum(@NotNull Class<E> type, @NotNull String name, @NotNull String column)
+    {
+        try
+        {
+            return Enum.valueOf(type, name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("Unknown " + column + ": " + name, e);
+        }
+    }
+
+    /**
+     * A non-empty line of the source file.
+     *
+     * @since 0.2.4
+     */
+    private static final class Line
+    {
+        /**
+         * The line number, starting at 1.
+         *
+         * @since 0.2.4
+         */
+        final long number;
+
+        /**
+         * The text of the line.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        final String text;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param number The line number.
+         * @param text   The text of the line.
+         * @since 0.2.4
+         */
+        Line(long number, @NotNull String text)
+        {
+            this.number = number;
+            this.text = text;
+        }
+    }
+
+    /**
+     * A parsed line.
+     *
+     * @since 0.2.4
+     */
+    private static final class Row
+    {
+        /**
+         * The line number.
+         *
+         * @since 0.2.4
+         */
+        final long line;
+
+        /**
+         * The non-empty values, by column name.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        final Map<String, String> fields;
+
+        /**
+         * The description of the problem that prevented parsing the line. {@code null} if the line was parsed.
+         *
+         * @since 0.2.4
+         */
+        @Nullable
+        final String problem;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param line    The line number.
+         * @param fields  The values.
+         * @param problem The problem.
+         * @since 0.2.4
+         */
+        Row(long line, @NotNull Map<String, String> fields, @Nullable String problem)
+        {
+            this.line = line;
+            this.fields = fields;
+            this.problem = problem;
+        }
+
+        /**
+         * Returns whether this row describes a form.
+         *
+         * @return Whether the row has a form, case and count.
+         * @since 0.2.4
+         */
+        boolean hasForm()
+        {
+            return fields.containsKey("form") && fields.containsKey("case") && fields.containsKey("count");
+        }
+
+        /**
+         * Returns whether the form of this row is defined.
+         *
+         * @return Whether the form is defined.
+         * @since 0.2.4
+         */
+        boolean isDefined()
+        {
+            return Boolean.parseBoolean(fields.get("defined"));
+        }
+
+        /**
+         * Gets the NounForm of this row.
+         *
+         * @return The NounForm.
+         * @throws IllegalArgumentException If the case or count is unknown.
+         * @since 0.2.4
+         */
+        @NotNull
+        NounForm nounForm()
+        {
+            return NounForm.of(parseEnum(Case.class, fields.get("case"), "case"), parseEnum(Count.class, fields.get("count"), "count"));
+        }
+    }
+
+    /**
+     * The progress of an import, as stored in a checkpoint file.
+     *
+     * @since 0.2.4
+     */
+    private static final class Checkpoint
+    {
+        /**
+         * The size of the source file.
+         *
+         * @since 0.2.4
+         */
+        final long sourceSize;
+
+        /**
+         * The last modification time of the source file in milliseconds.
+         *
+         * @since 0.2.4
+         */
+        final long sourceModified;
+
+        /**
+         * The number of lines consumed.
+         *
+         * @since 0.2.4
+         */
+        long lines;
+
+        /**
+         * The number of items imported.
+         *
+         * @since 0.2.4
+         */
+        long items;
+
+        /**
+         * The number of records rejected.
+         *
+         * @since 0.2.4
+         */
+        long rejected;
+
+        /**
+         * Constructs a new checkpoint at the start of a source file.
+         *
+         * @param source The source file.
+         * @throws IOException If the attributes of the source file could not be read.
+         * @since 0.2.4
+         */
+        Checkpoint(@NotNull Path source) throws IOException
+        {
+            sourceSize = Files.size(source);
+            sourceModified = Files.getLastModifiedTime(source).toMillis();
+        }
+
+        /**
+         * Loads a checkpoint file.
+         *
+         * @param checkpoint The checkpoint file.
+         * @param source     The source file.
+         * @return The checkpoint.
+         * @throws IOException If the checkpoint could not be read or does not belong to the current version of the source file.
+         * @since 0.2.4
+         */
+        @NotNull
+        static Checkpoint load(@NotNull Path checkpoint, @NotNull Path source) throws IOException
+        {
+            Checkpoint state = new Checkpoint(source);
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8))
+            {
+                properties.load(reader);
+            }
+            try
+            {
+                if (Long.parseLong(properties.getProperty("sourceSize")) != state.sourceSize ||
+                    Long.parseLong(properties.getProperty("sourceModified")) != state.sourceModified)
+                    throw new IOException("Checkpoint " + checkpoint + " belongs to a different version of " + source);
+                state.lines = Long.parseLong(properties.getProperty("lines"));
+                state.items = Long.parseLong(properties.getProperty("items"));
+                state.rejected = Long.parseLong(properties.getProperty("rejected"));
+            } catch (NumberFormatException e)
+            {
+                throw new IOException("Corrupt checkpoint " + checkpoint, e);
+            }
+            return state;
+        }
+
+        /**
+         * Atomically replaces a checkpoint file with this checkpoint.
+         *
+         * @param checkpoint The checkpoint file.
+         * @throws IOException If the checkpoint could not be written.
+         * @since 0.2.4
+         */
+        void store(@NotNull Path checkpoint) throws IOException
+        {
+            Properties properties = new Properties();
+            properties.setProperty("sourceSize", Long.toString(sourceSize));
+            properties.setProperty("sourceModified", Long.toString(sourceModified));
+            properties.setProperty("lines", Long.toString(lines));
+            properties.setProperty("items", Long.toString(items));
+            properties.setProperty("rejected", Long.toString(rejected));
+            Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))
+            {
+                properties.store(writer, "Kayon import checkpoint");
+            }
+            try
+            {
+                Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.io;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses single lines of the formats written by the {@link ParadigmExporter}.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+final class LineParser
+{
+    /**
+     * A private constructor to prevent instantiation of this class.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private LineParser()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Splits a CSV line into its values.
+     * <p>
+     * Quoted values may contain commas and escaped quotes ({@code ""}), but no line breaks.
+     *
+     * @param line The line, without the line terminator.
+     * @return The values.
+     * @throws IllegalArgumentException If a quoted value is not terminated or followed by anything but a comma.
+     * @since 0.2.4
+     */
+    @NotNull
+    static List<String> parseCsvLine(@NotNull String line)
+    {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        int i = 0;
+        while (true)
+        {
+            value.setLength(0);
+            if (i < line.length() && line.charAt(i) == '"')
+            {
+                i++;
+                while (true)
+                {
+                    if (i >= line.length())
+                        throw new IllegalArgumentException("Unterminated quoted value");
+                    char c = line.charAt(i++);
+                    if (c == '"')
+                    {
+                        if (i < line.length() && line.charAt(i) == '"')
+                        {
+                            value.append('"');
+                            i++;
+                        } else
+                            break;
+                    } else
+                        value.append(c);
+                }
+                if (i < line.length() && line.charAt(i) != ',')
+                    throw new IllegalArgumentException("Unexpected character after quoted value at index " + i);
+            } else
+            {
+                while (i < line.length() && line.charAt(i) != ',')
+                    value.append(line.charAt(i++));
+            }
+            values.add(value.toString());
+            if (i >= line.length())
+                return values;
+            i++; // skip comma
+        }
+    }
+
+    /**
+     * Parses a JSON object whose values are strings, numbers, booleans or {@code null}.
+     * <p>
+     * Nested objects and arrays are not supported. Numbers and booleans are returned as their literal text, {@code null} values are omitted.
+     *
+     * @param line The line.
+     * @return The members of the object.
+     * @throws IllegalArgumentException If the line is not a flat JSON object.
+     * @since 0.2.4
+     */
+    @NotNull
+    static Map<String, String> parseJsonObject(@NotNull String line)
+    {
+        JsonReader reader = new JsonReader(line);
+        Map<String, String> members = new HashMap<>();
+        reader.skipWhitespace();
+        reader.expect('{');
+        reader.skipWhitespace();
+        if (reader.peek() == '}')
+            reader.position++;
+        else
+            while (true)
+            {
+                reader.skipWhitespace();
+                String key = reader.readString();
+                reader.skipWhitespace();
+                reader.expect(':');
+                reader.skipWhitespace();
+                @Nullable
+                String value = reader.readValue();
+                if (value != null)
+                    members.put(key, value);
+                reader.skipWhitespace();
+                char c = reader.next();
+                if (c == '}')
+                    break;
+                if (c != ',')
+                    throw new IllegalArgumentException("Expected ',' or '}' at index " + (reader.position - 1));
+            }
+        reader.skipWhitespace();
+        if (reader.position != line.length())
+            throw new IllegalArgumentException("Unexpected characters after JSON object at index " + reader.position);
+        return members;
+    }
+
+    /**
+     * A cursor over the characters of a JSON text.
+     *
+     * @since 0.2.4
+     */
+    private static final class JsonReader
+    {
+        /**
+         * The text.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final String text;
+
+        /**
+         * The index of the next character.
+         *
+         * @since 0.2.4
+         */
+        private int position;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param text The text.
+         * @since 0.2.4
+         */
+        JsonReader(@NotNull String text)
+        {
+            this.text = text;
+        }
+
+        /**
+         * Gets the next character without consuming it.
+         *
+         * @return The next character.
+         * @throws IllegalArgumentException If the end of the text has been reached.
+         * @since 0.2.4
+         */
+        char peek()
+        {
+            if (position >= text.length())
+                throw new IllegalArgumentException("Unexpected end of JSON object");
+            return text.charAt(position);
+        }
+
+        /**
+         * Consumes the next character.
+         *
+         * @return The character.
+         * @throws IllegalArgumentException If the end of the text has been reached.
+         * @since 0.2.4
+         */
+        char next()
+        {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        /**
+         * Consumes the next character, which has to be the specified one.
+         *
+         * @param expected The expected character.
+         * @throws IllegalArgumentException If the next character is a different one.
+         * @since 0.2.4
+         */
+        void expect(char expected)
+        {
+            if (next() != expected)
+                throw new IllegalArgumentException("Expected '" + expected + "' at index " + (position - 1));
+        }
+
+        /**
+         * Skips whitespace.
+         *
+         * @since 0.2.4
+         */
+        void skipWhitespace()
+        {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position)))
+                position++;
+        }
+
+        /**
+         * Reads a string, number, boolean or {@code null} value.
+         *
+         * @return The value. {@code null} for the literal {@code null}.
+         * @throws IllegalArgumentException If there is no valid value.
+         * @since 0.2.4
+         */
+        @Nullable
+        String readValue()
+        {
+            if (peek() == '"')
+                return readString();
+            int start = position;
+            while (position < text.length() && ",}] \t".indexOf(text.charAt(position)) < 0)
+                position++;
+            String literal = text.substring(start, position);
+            if (literal.equals("null"))
+                return null;
+            if (literal.equals("true") || literal.equals("false") || literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?"))
+                return literal;
+            throw new IllegalArgumentException("Invalid JSON value at index " + start + ": " + literal);
+        }
+
+        /**
+         * Reads a string literal.
+         *
+         * @return The string.
+         * @throws IllegalArgumentException If there is no valid string literal.
+         * @since 0.2.4
+         */
+        @NotNull
+        String readString()
+        {
+            expect('"');
+            StringBuilder builder = new StringBuilder();
+            while (true)
+            {
+                char c = next();
+                if (c == '"')
+                    return builder.toString();
+                if (c != '\\')
+                {
+                    builder.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped)
+                {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        builder.append(escaped);
+                        break;
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length())
+                            throw new IllegalArgumentException("Invalid unicode escape at index " + position);
+                        try
+                        {
+                            builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e)
+                        {
+                            throw new IllegalArgumentException("Invalid unicode escape at index " + position, e);
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Invalid escape at index " + (position - 1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.io;
+
+import cf.kayon.core.Contexed;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.repository.RepositoryException;
+import cf.kayon.core.repository.UncheckedRepositoryException;
+import cf.kayon.core.repository.VocabRepository;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Exports every form of every noun of a {@link VocabRepository} to a file.
+ * <p>
+ * The nouns are read from {@link VocabRepository#streamAll()} in batches of {@code export.batchSize} nouns. The rows of a batch are rendered
+ * in parallel and then encoded into a direct buffer of {@code export.bufferSize} bytes which is written to a {@link FileChannel} whenever it is full.
+ * Only one batch is held in memory at a time, so the memory needed does not depend on the size of the repository.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class ParadigmExporter extends Contexed
+{
+    /**
+     * The number of nouns rendered at once.
+     *
+     * @since 0.2.4
+     */
+    private final int batchSize;
+
+    /**
+     * The size of the write buffer in bytes.
+     *
+     * @since 0.2.4
+     */
+    private final int bufferSize;
+
+    /**
+     * Constructs a new instance.
+     * <p>
+     * The batch and buffer sizes are retrieved from the {@code export} section of the config of the context at construct time.
+     *
+     * @param context The {@link KayonContext} for this instance.
+     * @since 0.2.4
+     */
+    public ParadigmExporter(@NotNull KayonContext context)
+    {
+        super(context);
+        batchSize = context.getConfig().getInt("export.batchSize");
+        bufferSize = context.getConfig().getBytes("export.bufferSize").intValue();
+    }
+
+    /**
+     * Exports all nouns of a repository.
+     * <p>
+     * If the file already exists, it is overwritten.
+     *
+     * @param repository The repository to export.
+     * @param path       The file to write.
+     * @param format     The format to write.
+     * @param progress   Receives the statistics after every batch. May be {@code null}.
+     * @return The statistics of the finished export.
+     * @throws IOException          If the file could not be written.
+     * @throws RepositoryException  If the nouns could not be read.
+     * @throws NullPointerException If {@code repository}, {@code path} or {@code format} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public ExportStatistics export(@NotNull VocabRepository repository, @NotNull Path path, @NotNull ExportFormat format,
+                                   @Nullable Consumer<? super ExportStatistics> progress) throws IOException, RepositoryException
+    {
+        checkNotNull(repository);
+        checkNotNull(path);
+        checkNotNull(format);
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             Stream<Noun> nouns = repository.streamAll())
+        {
+            ChannelEncoder encoder = new ChannelEncoder(channel, bufferSize);
+            encoder.write(format.header());
+            long items = 0, rows = 0;
+            List<Noun> batch = new ArrayList<>(batchSize);
+            for (Iterator<Noun> iterator = nouns.iterator(); iterator.hasNext(); )
+            {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize || !iterator.hasNext())
+                {
+                    for (RenderedNoun rendered : render(batch, format))
+                    {
+                        encoder.write(rendered.text);
+                        rows += rendered.rows;
+                    }
+                    items += batch.size();
+                    batch.clear();
+                    if (progress != null)
+                        progress.accept(new ExportStatistics(items, rows, encoder.getBytesWritten(), System.nanoTime() - start));
+                }
+            }
+            encoder.finish();
+            return new ExportStatistics(items, rows, encoder.getBytesWritten(), System.nanoTime() - start);
+        } catch (UncheckedRepositoryException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Renders the rows of a batch of nouns in parallel.
+     *
+     * @param batch  The nouns.
+     * @param format The format.
+     * @return The rendered rows of each noun, in the order of the batch.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static List<RenderedNoun> render(@NotNull List<Noun> batch, @NotNull ExportFormat format)
+    {
+        return batch.parallelStream().map(noun -> {
+            StringBuilder builder = new StringBuilder(1024);
+            int rows = format.appendRows(builder, noun);
+            return new RenderedNoun(builder.toString(), rows);
+        }).collect(Collectors.toList());
+    }
+
+    /**
+     * The rendered rows of a noun.
+     *
+     * @since 0.2.4
+     */
+    private static final class RenderedNoun
+    {
+        /**
+         * The text of the rows.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        final String text;
+
+        /**
+         * The number of rows.
+         *
+         * @since 0.2.4
+         */
+        final int rows;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param text The text of the rows.
+         * @param rows The number of rows.
+         * @since 0.2.4
+         */
+        RenderedNoun(@NotNull String text, int rows)
+        {
+            this.text = text;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Encodes text as UTF-8 into a direct buffer and writes the buffer to a channel whenever it is full.
+     *
+     * @since 0.2.4
+     */
+    private static final class ChannelEncoder
+    {
+        /**
+         * The channel to write to.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final FileChannel channel;
+
+        /**
+         * The buffer.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final ByteBuffer buffer;
+
+        /**
+         * The encoder.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+        /**
+         * The number of bytes written to the channel.
+         *
+         * @since 0.2.4
+         */
+        private long bytesWritten;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param channel    The channel to write to.
+         * @param bufferSize The size of the buffer.
+         * @since 0.2.4
+         */
+        ChannelEncoder(@NotNull FileChannel channel, int bufferSize)
+        {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        /**
+         * Encodes text into the buffer, writing the buffer to the channel when it is full.
+         *
+         * @param text The text.
+         * @throws IOException If the text could not be encoded or written.
+         * @since 0.2.4
+         */
+        void write(@NotNull String text) throws IOException
+        {
+            CharBuffer chars = CharBuffer.wrap(text);
+            while (true)
+            {
+                CoderResult result = encoder.encode(chars, buffer, false);
+                if (result.isOverflow())
+                    drain();
+                else if (result.isUnderflow())
+                    break;
+                else
+                    result.throwException();
+            }
+        }
+
+        /**
+         * Finishes encoding and writes the remaining buffer to the channel.
+         *
+         * @throws IOException If the text could not be encoded or written.
+         * @since 0.2.4
+         */
+        void finish() throws IOException
+        {
+            CoderResult result = encoder.encode(CharBuffer.allocate(0), buffer, true);
+            if (result.isError())
+                result.throwException();
+            while (encoder.flush(buffer).isOverflow())
+                drain();
+            drain();
+        }
+
+        /**
+         * Writes the buffer to the channel and clears it.
+         *
+         * @throws IOException If the buffer could not be written.
+         * @since 0.2.4
+         */
+        private void drain() throws IOException
+        {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                bytesWritten += channel.write(buffer);
+            buffer.clear();
+        }
+
+        /**
+         * Gets the number of bytes written to the channel.
+         *
+         * @return The number of bytes.
+         * @since 0.2.4
+         */
+        long getBytesWritten()
+        {
+            return bytesWritten + buffer.position();
+        }
+    }
+}
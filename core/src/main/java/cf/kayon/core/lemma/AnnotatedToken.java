@@ -0,0 +1,103 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.lemma;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A {@link Token} together with its possible readings.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class AnnotatedToken
+{
+    /**
+     * The token.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Token token;
+
+    /**
+     * The candidates.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final ImmutableList<Candidate> candidates;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param token      The token.
+     * @param candidates The candidates.
+     * @since 0.2.4
+     */
+    AnnotatedToken(@NotNull Token token, @NotNull List<Candidate> candidates)
+    {
+        this.token = checkNotNull(token);
+        this.candidates = ImmutableList.copyOf(candidates);
+    }
+
+    /**
+     * Gets the token.
+     *
+     * @return The token.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Token getToken()
+    {
+        return token;
+    }
+
+    /**
+     * Gets the possible readings of the token.
+     *
+     * @return The candidates. Empty if the token is unknown.
+     * @since 0.2.4
+     */
+    @NotNull
+    public List<Candidate> getCandidates()
+    {
+        return candidates;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("token", token)
+                          .add("candidates", candidates)
+                          .toString();
+    }
+}
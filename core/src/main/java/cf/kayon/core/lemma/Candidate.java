@@ -0,0 +1,221 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.lemma;
+
+import cf.kayon.core.Case;
+import cf.kayon.core.Count;
+import cf.kayon.core.Gender;
+import cf.kayon.core.Vocab;
+import cf.kayon.core.adjective.Adjective;
+import cf.kayon.core.adjective.AdjectiveForm;
+import cf.kayon.core.adjective.ComparisonDegree;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import com.google.common.base.MoreObjects;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A possible reading of a {@link Token}: A word and the form of it the token may be.
+ * <p>
+ * Exactly one of {@link #getNounForm()} and {@link #getAdjectiveForm()} is non-null, depending on whether the word is a noun or an adjective.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class Candidate
+{
+    /**
+     * The word.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Vocab vocab;
+
+    /**
+     * The dictionary form of the word.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final String lemma;
+
+    /**
+     * The NounForm if the word is a noun.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final NounForm nounForm;
+
+    /**
+     * The AdjectiveForm if the word is an adjective.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final AdjectiveForm adjectiveForm;
+
+    /**
+     * Constructs a new instance for a noun.
+     *
+     * @param noun     The noun.
+     * @param lemma    The dictionary form of the noun.
+     * @param nounForm The form.
+     * @since 0.2.4
+     */
+    Candidate(@NotNull Noun noun, @NotNull String lemma, @NotNull NounForm nounForm)
+    {
+        this.vocab = checkNotNull(noun);
+        this.lemma = checkNotNull(lemma);
+        this.nounForm = checkNotNull(nounForm);
+        this.adjectiveForm = null;
+    }
+
+    /**
+     * Constructs a new instance for an adjective.
+     *
+     * @param adjective     The adjective.
+     * @param lemma         The dictionary form of the adjective.
+     * @param adjectiveForm The form.
+     * @since 0.2.4
+     */
+    Candidate(@NotNull Adjective adjective, @NotNull String lemma, @NotNull AdjectiveForm adjectiveForm)
+    {
+        this.vocab = checkNotNull(adjective);
+        this.lemma = checkNotNull(lemma);
+        this.nounForm = null;
+        this.adjectiveForm = checkNotNull(adjectiveForm);
+    }
+
+    /**
+     * Gets the dictionary form of a noun: Its nominative singular or, if it has none, its root word.
+     *
+     * @param noun The noun.
+     * @return The dictionary form.
+     * @since 0.2.4
+     */
+    @NotNull
+    static String lemmaOf(@NotNull Noun noun)
+    {
+        @Nullable
+        String form = noun.getForm(NounForm.of(Case.NOMINATIVE, Count.SINGULAR));
+        return form != null ? form : noun.getRootWord();
+    }
+
+    /**
+     * Gets the dictionary form of an adjective: Its positive masculine nominative singular or, if it has none, its root word.
+     *
+     * @param adjective The adjective.
+     * @return The dictionary form.
+     * @since 0.2.4
+     */
+    @NotNull
+    static String lemmaOf(@NotNull Adjective adjective)
+    {
+        AdjectiveForm adjectiveForm = AdjectiveForm.of(ComparisonDegree.POSITIVE, Count.SINGULAR, Gender.MASCULINE, Case.NOMINATIVE);
+        @Nullable
+        String form = adjective.getDefinedForm(adjectiveForm);
+        if (form == null)
+            form = adjective.getDeclinedForm(adjectiveForm);
+        return form != null ? form : adjective.getRootWord();
+    }
+
+    /**
+     * Gets the word.
+     * <p>
+     * The word is shared by all candidates of the same annotation run that refer to it and must not be modified.
+     *
+     * @return The {@link Noun} or {@link Adjective}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Vocab getVocab()
+    {
+        return vocab;
+    }
+
+    /**
+     * Gets the dictionary form of the word.
+     *
+     * @return The nominative singular of nouns and the positive masculine nominative singular of adjectives.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String getLemma()
+    {
+        return lemma;
+    }
+
+    /**
+     * Gets the NounForm.
+     *
+     * @return The NounForm. {@code null} if the word is not a noun.
+     * @since 0.2.4
+     */
+    @Nullable
+    public NounForm getNounForm()
+    {
+        return nounForm;
+    }
+
+    /**
+     * Gets the AdjectiveForm.
+     *
+     * @return The AdjectiveForm. {@code null} if the word is not an adjective.
+     * @since 0.2.4
+     */
+    @Nullable
+    public AdjectiveForm getAdjectiveForm()
+    {
+        return adjectiveForm;
+    }
+
+    /**
+     * Gets a short name of the form, like {@code NomSi} for nouns or {@code POSITIVE_NOMINATIVE_SINGULAR_MASCULINE} for adjectives.
+     *
+     * @return The name of the form.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String getFormName()
+    {
+        if (nounForm != null)
+            return nounForm.toString();
+        assert adjectiveForm != null;
+        return adjectiveForm.getComparisonDegree() + "_" + adjectiveForm.getCase() + "_" + adjectiveForm.getCount() + "_" + adjectiveForm.getGender();
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("lemma", lemma)
+                          .add("form", getFormName())
+                          .toString();
+    }
+}
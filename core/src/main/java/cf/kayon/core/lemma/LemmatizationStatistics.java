@@ -0,0 +1,150 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.lemma;
+
+import com.google.common.base.MoreObjects;
+import net.jcip.annotations.Immutable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics about a finished lemmatization.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class LemmatizationStatistics
+{
+    /**
+     * The number of lines read.
+     *
+     * @since 0.2.4
+     */
+    private final long lines;
+
+    /**
+     * The number of tokens annotated.
+     *
+     * @since 0.2.4
+     */
+    private final long tokens;
+
+    /**
+     * The number of tokens with at least one candidate.
+     *
+     * @since 0.2.4
+     */
+    private final long knownTokens;
+
+    /**
+     * The elapsed time in nanoseconds.
+     *
+     * @since 0.2.4
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param lines        The number of lines read.
+     * @param tokens       The number of tokens annotated.
+     * @param knownTokens  The number of tokens with at least one candidate.
+     * @param elapsedNanos The elapsed time in nanoseconds.
+     * @since 0.2.4
+     */
+    public LemmatizationStatistics(long lines, long tokens, long knownTokens, long elapsedNanos)
+    {
+        this.lines = lines;
+        this.tokens = tokens;
+        this.knownTokens = knownTokens;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the number of lines read.
+     *
+     * @return The number of lines.
+     * @since 0.2.4
+     */
+    public long getLines()
+    {
+        return lines;
+    }
+
+    /**
+     * Gets the number of tokens annotated.
+     *
+     * @return The number of tokens.
+     * @since 0.2.4
+     */
+    public long getTokens()
+    {
+        return tokens;
+    }
+
+    /**
+     * Gets the number of tokens with at least one candidate.
+     *
+     * @return The number of known tokens.
+     * @since 0.2.4
+     */
+    public long getKnownTokens()
+    {
+        return knownTokens;
+    }
+
+    /**
+     * Gets the elapsed time.
+     *
+     * @param unit The unit to convert the time to.
+     * @return The elapsed time.
+     * @since 0.2.4
+     */
+    public long getElapsed(TimeUnit unit)
+    {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the average throughput.
+     *
+     * @return The tokens annotated per second. {@code 0} if no time has elapsed.
+     * @since 0.2.4
+     */
+    public double getTokensPerSecond()
+    {
+        return elapsedNanos <= 0 ? 0 : tokens * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("lines", lines)
+                          .add("tokens", tokens)
+                          .add("knownTokens", knownTokens)
+                          .add("elapsedMillis", getElapsed(TimeUnit.MILLISECONDS))
+                          .add("tokensPerSecond", String.format("%.0f", getTokensPerSecond()))
+                          .toString();
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.lemma;
+
+import cf.kayon.core.CaseHandling;
+import cf.kayon.core.Contexed;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.adjective.Adjective;
+import cf.kayon.core.adjective.AdjectiveForm;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.repository.FormAutomaton;
+import cf.kayon.core.repository.RepositoryException;
+import cf.kayon.core.repository.UncheckedRepositoryException;
+import cf.kayon.core.repository.VocabRepository;
+import cf.kayon.core.util.StringUtil;
+import com.google.common.collect.ImmutableList;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Annotates the tokens of Latin texts with the nouns and adjectives they may be forms of.
+ * <p>
+ * Nouns are looked up in a {@link VocabRepository} with one {@link VocabRepository#queryNounsBatch(Collection) batch query} per chunk of text.
+ * Adjectives are not stored in repositories, so they are passed to the constructor and looked up in a {@link FormAutomaton}.
+ * Like all form queries, special characters are ignored when matching, so {@code rosa} finds both {@code rosa} and {@code rosā}.
+ * <p>
+ * Large texts are {@link #lemmatize(BufferedReader, Consumer, Executor) lemmatized} in chunks of {@code lemmatizer.chunkLines} lines that are
+ * annotated in parallel. At most {@code lemmatizer.chunksInFlight} chunks are held in memory at once, and the annotated tokens are delivered in
+ * the order of the text.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class Lemmatizer extends Contexed
+{
+    /**
+     * The repository to look up nouns in.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final VocabRepository repository;
+
+    /**
+     * Copies of the adjectives, indexed by their entry ID in {@link #adjectiveForms}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final ImmutableList<Adjective> adjectives;
+
+    /**
+     * The dictionary forms of {@link #adjectives}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final ImmutableList<String> adjectiveLemmas;
+
+    /**
+     * The forms of all {@link #adjectives}. {@code null} if there are no adjectives.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final FormAutomaton adjectiveForms;
+
+    /**
+     * The number of lines per chunk.
+     *
+     * @since 0.2.4
+     */
+    private final int chunkLines;
+
+    /**
+     * The maximum number of chunks being annotated or waiting to be delivered at once.
+     *
+     * @since 0.2.4
+     */
+    private final int chunksInFlight;
+
+    /**
+     * Constructs a new instance looking up nouns in the {@link KayonContext#getRepository() repository of the context} and no adjectives.
+     *
+     * @param context The {@link KayonContext} for this instance.
+     * @since 0.2.4
+     */
+    public Lemmatizer(@NotNull KayonContext context)
+    {
+        this(context, context.getRepository(), Collections.emptyList());
+    }
+
+    /**
+     * Constructs a new instance.
+     * <p>
+     * The chunk settings are retrieved from the {@code lemmatizer} section of the config of the context at construct time.
+     *
+     * @param context    The {@link KayonContext} for this instance.
+     * @param repository The repository to look up nouns in.
+     * @param adjectives The adjectives to look up. They are copied, so later modifications do not affect this instance.
+     * @throws NullPointerException If any of the arguments or any of the adjectives is {@code null}.
+     * @since 0.2.4
+     */
+    public Lemmatizer(@NotNull KayonContext context, @NotNull VocabRepository repository, @NotNull Collection<? extends Adjective> adjectives)
+    {
+        super(context);
+        this.repository = checkNotNull(repository);
+        ImmutableList.Builder<Adjective> adjectiveBuilder = ImmutableList.builder();
+        ImmutableList.Builder<String> lemmaBuilder = ImmutableList.builder();
+        FormAutomaton.Builder automatonBuilder = new FormAutomaton.Builder();
+        int entry = 0;
+        for (Adjective adjective : adjectives)
+        {
+            Adjective copy = adjective.copyDeep();
+            adjectiveBuilder.add(copy);
+            lemmaBuilder.add(Candidate.lemmaOf(copy));
+            automatonBuilder.addAdjective(entry++, copy);
+        }
+        this.adjectives = adjectiveBuilder.build();
+        this.adjectiveLemmas = lemmaBuilder.build();
+        this.adjectiveForms = entry == 0 ? null : automatonBuilder.build();
+        chunkLines = context.getConfig().getInt("lemmatizer.chunkLines");
+        int configuredChunksInFlight = context.getConfig().getInt("lemmatizer.chunksInFlight");
+        chunksInFlight = configuredChunksInFlight > 0 ? configuredChunksInFlight : 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Annotates tokens.
+     *
+     * @param tokens The tokens.
+     * @return The annotated tokens, in the same order.
+     * @throws RepositoryException  If looking up the nouns failed.
+     * @throws InterruptedException If the lookup was interrupted.
+     * @throws NullPointerException If {@code tokens} or any of its elements is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public List<AnnotatedToken> annotate(@NotNull List<Token> tokens) throws RepositoryException, InterruptedException
+    {
+        checkNotNull(tokens);
+        Set<String> forms = new LinkedHashSet<>();
+        for (Token token : tokens)
+            forms.add(token.getText().toLowerCase());
+        Map<String, List<Noun>> nouns = repository.queryNounsBatch(forms);
+        Map<Noun, String> nounLemmas = new IdentityHashMap<>();
+
+        Map<String, List<Candidate>> candidatesByForm = new HashMap<>(forms.size() * 2);
+        for (String form : forms)
+        {
+            List<Candidate> candidates = new ArrayList<>();
+            Pattern pattern = Pattern.compile(StringUtil.anySpecialRegex(form));
+            for (Noun noun : nouns.get(form))
+            {
+                String lemma = nounLemmas.computeIfAbsent(noun, Candidate::lemmaOf);
+                for (NounForm nounForm : NounForm.values())
+                {
+                    @Nullable
+                    String nounFormString = noun.getForm(nounForm);
+                    if (nounFormString != null && pattern.matcher(nounFormString.toLowerCase()).matches())
+                        candidates.add(new Candidate(noun, lemma, nounForm));
+                }
+            }
+            if (adjectiveForms != null)
+            {
+                for (int output : adjectiveForms.lookupIgnoringSpecialChars(form))
+                {
+                    int entry = FormAutomaton.entryOf(output);
+                    AdjectiveForm adjectiveForm = AdjectiveForm.values().get(FormAutomaton.formOrdinalOf(output));
+                    candidates.add(new Candidate(adjectives.get(entry), adjectiveLemmas.get(entry), adjectiveForm));
+                }
+            }
+            candidatesByForm.put(form, candidates);
+        }
+
+        List<AnnotatedToken> annotated = new ArrayList<>(tokens.size());
+        for (Token token : tokens)
+            annotated.add(new AnnotatedToken(token, candidatesByForm.get(token.getText().toLowerCase())));
+        return annotated;
+    }
+
+    /**
+     * Annotates all tokens of a text.
+     *
+     * @param text The text. May contain multiple lines.
+     * @return The annotated tokens, in the order of the text.
+     * @throws RepositoryException  If looking up the nouns failed.
+     * @throws InterruptedException If the lookup was interrupted.
+     * @throws NullPointerException If {@code text} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public List<AnnotatedToken> annotate(@NotNull String text) throws RepositoryException, InterruptedException
+    {
+        checkNotNull(text);
+        List<Token> tokens = new ArrayList<>();
+        long lineNumber = 0;
+        for (String line : text.split("\r\n|\r|\n", -1))
+            tokens.addAll(Tokenizer.tokenize(line, ++lineNumber));
+        return annotate(tokens);
+    }
+
+    /**
+     * Lemmatizes a text, annotating chunks of it in parallel.
+     * <p>
+     * The source is read on the calling thread, which also delivers the annotated tokens to the sink, in the order of the text.
+     * The chunks are annotated by the executor.
+     *
+     * @param source   The text.
+     * @param sink     Receives every annotated token.
+     * @param executor Annotates the chunks.
+     * @return The statistics of the lemmatization.
+     * @throws IOException          If the source could not be read.
+     * @throws RepositoryException  If looking up the nouns failed.
+     * @throws InterruptedException If the calling thread was interrupted while waiting for a chunk.
+     * @throws NullPointerException If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public LemmatizationStatistics lemmatize(@NotNull BufferedReader source, @NotNull Consumer<? super AnnotatedToken> sink, @NotNull Executor executor)
+            throws IOException, RepositoryException, InterruptedException
+    {
+        checkNotNull(source);
+        checkNotNull(sink);
+        checkNotNull(executor);
+        long start = System.nanoTime();
+        long lineNumber = 0, tokenCount = 0, knownTokenCount = 0;
+        Deque<CompletableFuture<List<AnnotatedToken>>> inFlight = new ArrayDeque<>(chunksInFlight);
+        try
+        {
+            boolean endOfText = false;
+            while (!endOfText || !inFlight.isEmpty())
+            {
+                if (!endOfText && inFlight.size() < chunksInFlight)
+                {
+                    List<String> lines = new ArrayList<>(chunkLines);
+                    String line;
+                    while (lines.size() < chunkLines && (line = source.readLine()) != null)
+                        lines.add(line);
+                    endOfText = lines.size() < chunkLines;
+                    if (!lines.isEmpty())
+                    {
+                        long firstLine = lineNumber + 1;
+                        inFlight.addLast(CompletableFuture.supplyAsync(() -> annotateChunk(lines, firstLine), executor));
+                    }
+                    lineNumber += lines.size();
+                    continue;
+                }
+                for (AnnotatedToken annotatedToken : await(inFlight.removeFirst()))
+                {
+                    sink.accept(annotatedToken);
+                    tokenCount++;
+                    if (!annotatedToken.getCandidates().isEmpty())
+                        knownTokenCount++;
+                }
+            }
+        } finally
+        {
+            for (CompletableFuture<List<AnnotatedToken>> future : inFlight)
+                future.cancel(false);
+        }
+        return new LemmatizationStatistics(lineNumber, tokenCount, knownTokenCount, System.nanoTime() - start);
+    }
+
+    /**
+     * Lemmatizes a text file using the {@link ForkJoinPool#commonPool() common pool}.
+     * <p>
+     * The target file is written in UTF-8 with one line per token and the tab-separated columns line number, column, token and candidates.
+     * The candidates are separated by {@code ;} and consist of the lemma and the {@link Candidate#getFormName() form name},
+     * separated by a space, like {@code servus NomSi}.
+     *
+     * @param source The text file, in UTF-8.
+     * @param target The file to write the annotated tokens to. If it exists, it is overwritten.
+     * @return The statistics of the lemmatization.
+     * @throws IOException          If the source could not be read or the target could not be written.
+     * @throws RepositoryException  If looking up the nouns failed.
+     * @throws InterruptedException If the calling thread was interrupted while waiting for a chunk.
+     * @throws NullPointerException If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public LemmatizationStatistics lemmatize(@NotNull Path source, @NotNull Path target) throws IOException, RepositoryException, InterruptedException
+    {
+        checkNotNull(source);
+        checkNotNull(target);
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8);
+             Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8))
+        {
+            StringBuilder row = new StringBuilder();
+            return lemmatize(reader, annotatedToken -> {
+                row.setLength(0);
+                appendRow(row, annotatedToken);
+                try
+                {
+                    writer.write(row.toString());
+                } catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }, ForkJoinPool.commonPool());
+        } catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Appends the row of an annotated token, as written by {@link #lemmatize(Path, Path)}.
+     *
+     * @param row            The builder to append to.
+     * @param annotatedToken The annotated token.
+     * @since 0.2.4
+     */
+    static void appendRow(@NotNull StringBuilder row, @NotNull AnnotatedToken annotatedToken)
+    {
+        Token token = annotatedToken.getToken();
+        row.append(token.getLine()).append('\t').append(token.getColumn()).append('\t').append(token.getText()).append('\t');
+        boolean first = true;
+        for (Candidate candidate : annotatedToken.getCandidates())
+        {
+            if (!first)
+                row.append(';');
+            row.append(candidate.getLemma()).append(' ').append(candidate.getFormName());
+            first = false;
+        }
+        row.append('\n');
+    }
+
+    /**
+     * Tokenizes and annotates a chunk of lines.
+     *
+     * @param lines     The lines.
+     * @param firstLine The number of the first line.
+     * @return The annotated tokens.
+     * @throws UncheckedRepositoryException If looking up the nouns failed.
+     * @throws CompletionException          If the lookup was interrupted.
+     * @since 0.2.4
+     */
+    @NotNull
+    private List<AnnotatedToken> annotateChunk(@NotNull List<String> lines, long firstLine)
+    {
+        List<Token> tokens = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++)
+            tokens.addAll(Tokenizer.tokenize(lines.get(i), firstLine + i));
+        try
+        {
+            return annotate(tokens);
+        } catch (RepositoryException e)
+        {
+            throw new UncheckedRepositoryException(e);
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Waits for an annotated chunk.
+     *
+     * @param future The future of the chunk.
+     * @return The annotated tokens of the chunk.
+     * @throws RepositoryException  If looking up the nouns failed.
+     * @throws InterruptedException If the calling thread was interrupted or the lookup was interrupted.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static List<AnnotatedToken> await(@NotNull CompletableFuture<List<AnnotatedToken>> future) throws RepositoryException, InterruptedException
+    {
+        try
+        {
+            return future.get();
+        } catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null)
+                cause = cause.getCause();
+            if (cause instanceof UncheckedRepositoryException)
+                throw ((UncheckedRepositoryException) cause).getCause();
+            if (cause instanceof InterruptedException)
+                throw (InterruptedException) cause;
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.lemma;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+
+/**
+ * A word of a text.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class Token
+{
+    /**
+     * The number of the line the token is in, starting at 1.
+     *
+     * @since 0.2.4
+     */
+    private final long line;
+
+    /**
+     * The index of the first character of the token in its line.
+     *
+     * @since 0.2.4
+     */
+    private final int column;
+
+    /**
+     * The text of the token.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final String text;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param line   The number of the line the token is in.
+     * @param column The index of the first character of the token in its line.
+     * @param text   The text of the token.
+     * @throws NullPointerException     If {@code text} is {@code null}.
+     * @throws IllegalArgumentException If {@code text} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    public Token(long line, int column, @NotNull String text)
+    {
+        checkNotEmpty(text);
+        this.line = line;
+        this.column = column;
+        this.text = text;
+    }
+
+    /**
+     * Gets the number of the line the token is in.
+     *
+     * @return The line number, starting at 1.
+     * @since 0.2.4
+     */
+    public long getLine()
+    {
+        return line;
+    }
+
+    /**
+     * Gets the index of the first character of the token in its line.
+     *
+     * @return The column, starting at 0.
+     * @since 0.2.4
+     */
+    public int getColumn()
+    {
+        return column;
+    }
+
+    /**
+     * Gets the text of the token.
+     * <p>
+     * Combining macrons and breves are composed with their base characters, so the text only contains the special characters
+     * known to {@link cf.kayon.core.util.StringUtil}.
+     *
+     * @return The text.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String getText()
+    {
+        return text;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (!(o instanceof Token)) return false;
+        Token token = (Token) o;
+        return line == token.line &&
+               column == token.column &&
+               Objects.equal(text, token.text);
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(line, column, text);
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("line", line)
+                          .add("column", column)
+                          .add("text", text)
+                          .toString();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.lemma;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Splits text into {@link Token}s.
+ * <p>
+ * A token is a maximal sequence of letters. Combining macrons and breves ({@code U+0304} and {@code U+0306}) following a letter
+ * belong to the token and are composed with the letter, so {@code "servō"} becomes {@code "servō"}.
+ * All other characters (whitespace, punctuation, digits) separate tokens.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+public final class Tokenizer
+{
+    /**
+     * The combining macron.
+     *
+     * @since 0.2.4
+     */
+    private static final char COMBINING_MACRON = 0x0304;
+
+    /**
+     * The combining breve.
+     *
+     * @since 0.2.4
+     */
+    private static final char COMBINING_BREVE = 0x0306;
+
+    /**
+     * A private constructor that always fails to prevent instantiation.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private Tokenizer()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Splits a line into tokens.
+     *
+     * @param line       The text of the line, without line terminator.
+     * @param lineNumber The number of the line, stored in the tokens.
+     * @return The tokens, in the order they appear in the line.
+     * @throws NullPointerException If {@code line} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static List<Token> tokenize(@NotNull String line, long lineNumber)
+    {
+        checkNotNull(line);
+        List<Token> tokens = new ArrayList<>();
+        int start = -1;
+        boolean combining = false;
+        for (int i = 0; i <= line.length(); i++)
+        {
+            char current = i < line.length() ? line.charAt(i) : ' ';
+            if (Character.isLetter(current))
+            {
+                if (start < 0)
+                    start = i;
+            } else if (start >= 0 && (current == COMBINING_MACRON || current == COMBINING_BREVE))
+            {
+                combining = true;
+            } else if (start >= 0)
+            {
+                String text = line.substring(start, i);
+                tokens.add(new Token(lineNumber, start, combining ? Normalizer.normalize(text, Normalizer.Form.NFC) : text));
+                start = -1;
+                combining = false;
+            }
+        }
+        return tokens;
+    }
+}
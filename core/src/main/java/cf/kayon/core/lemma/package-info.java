@@ -0,0 +1,26 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Contains a pipeline for lemmatizing Latin texts: {@link cf.kayon.core.lemma.Tokenizer tokenizing} them and annotating every token with the
+ * words and forms it may be an instance of.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+package cf.kayon.core.lemma;
@@ -0,0 +1,114 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.metrics;
+
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events, like rows read from the database.
+ * <p>
+ * Counters of {@link Metrics#isEnabled() disabled} metrics do not count anything.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public final class Counter implements Metric
+{
+    /**
+     * The counter of disabled metrics.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    static final Counter DISABLED = new Counter(false);
+
+    /**
+     * Whether this counter counts.
+     *
+     * @since 0.2.4
+     */
+    private final boolean enabled;
+
+    /**
+     * The count.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param enabled Whether the counter counts.
+     * @since 0.2.4
+     */
+    Counter(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Increments the count by one.
+     *
+     * @since 0.2.4
+     */
+    public void increment()
+    {
+        if (enabled)
+            count.increment();
+    }
+
+    /**
+     * Adds to the count.
+     *
+     * @param delta The number to add.
+     * @since 0.2.4
+     */
+    public void add(long delta)
+    {
+        if (enabled)
+            count.add(delta);
+    }
+
+    /**
+     * Gets the count.
+     *
+     * @return The count.
+     * @since 0.2.4
+     */
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void snapshot(@NotNull String name, @NotNull Map<String, Number> into)
+    {
+        into.put(name, getCount());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cf.kayon.core.metrics;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An event of the JDK Flight Recorder, begun by {@link FlightRecorderEventType#begin()}.
+ * <p>
+ * An event is used by a single thread: its fields are set while or after the recorded operation runs, then it is {@link #commit()
+ * committed} exactly once.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@NotThreadSafe
+public final class FlightRecorderEvent
+{
+    /**
+     * The event of event types that are not recorded. Does nothing.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    static final FlightRecorderEvent DISABLED = new FlightRecorderEvent(null, null);
+
+    /**
+     * The type of this event.
+     * <p>
+     * {@code null} for the {@link #DISABLED} event.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final FlightRecorderEventType type;
+
+    /**
+     * The {@code jdk.jfr.Event}.
+     * <p>
+     * {@code null} for the {@link #DISABLED} event.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final Object event;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param type  The type of the event.
+     * @param event The begun {@code jdk.jfr.Event}.
+     * @since 0.2.4
+     */
+    FlightRecorderEvent(@Nullable FlightRecorderEventType type, @Nullable Object event)
+    {
+        this.type = type;
+        this.event = event;
+    }
+
+    /**
+     * Returns whether this event is recorded.
+     * <p>
+     * Callers may check this before computing expensive field values.
+     *
+     * @return Whether this event is recorded.
+     * @since 0.2.4
+     */
+    public boolean isEnabled()
+    {
+        return event != null;
+    }
+
+    /**
+     * Sets a field of this event.
+     *
+     * @param fieldName The name of the field.
+     * @param value     The value. Must match the type of the field; {@code null} is allowed for {@code String} fields.
+     * @return This event.
+     * @throws NullPointerException     If {@code fieldName} is {@code null}.
+     * @throws IllegalArgumentException If this event is enabled and its type has no field of the specified name.
+     * @since 0.2.4
+     */
+    @NotNull
+    public FlightRecorderEvent set(@NotNull String fieldName, @Nullable Object value)
+    {
+        checkNotNull(fieldName);
+        if (event != null)
+        {
+            int index = type.indexOf(fieldName);
+            try
+            {
+                FlightRecorderEventType.Jfr.SET.invoke(event, index, value);
+            } catch (Throwable ignored) {} // A lost field is not worth failing the recorded operation
+        }
+        return this;
+    }
+
+    /**
+     * Ends this event and writes it to the running recordings, if it took at least the threshold of its type.
+     *
+     * @since 0.2.4
+     */
+    public void commit()
+    {
+        if (event != null)
+            try
+            {
+                FlightRecorderEventType.Jfr.COMMIT.invoke(event);
+            } catch (Throwable ignored) {} // A lost event is not worth failing the recorded operation
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cf.kayon.core.metrics;
+
+import com.google.common.collect.ImmutableList;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A custom event type of the JDK Flight Recorder.
+ * <p>
+ * Kayon is compiled for Java 8, which has no public Flight Recorder API. The event type is therefore defined at runtime through
+ * {@code jdk.jfr.EventFactory}, which is looked up reflectively. On runtimes without it, and while no recording has the event type
+ * enabled, {@link #begin()} returns a shared event that does nothing, so instrumented code costs next to nothing.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * FlightRecorderEvent event = FlightRecorderEvents.QUERY.begin();
+ * ...
+ * event.set("rowsReturned", returned).commit();
+ * }</pre>
+ * Besides the specified fields, every event records its start time, duration and thread.
+ *
+ * @author Ruben Anders
+ * @see FlightRecorderEvents
+ * @since 0.2.4
+ */
+@ThreadSafe
+public final class FlightRecorderEventType
+{
+    @NotNull
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlightRecorderEventType.class);
+
+    /**
+     * The category of all Kayon events in recordings.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final String CATEGORY = "Kayon";
+
+    /**
+     * The name of this event type, like {@code kayon.Query}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final String name;
+
+    /**
+     * The names of the fields of this event type, in order.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final List<String> fieldNames;
+
+    /**
+     * The {@code jdk.jfr.EventFactory} of this event type.
+     * <p>
+     * {@code null} if the Flight Recorder is not available.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final Object factory;
+
+    /**
+     * The {@code jdk.jfr.EventType} of this event type.
+     * <p>
+     * {@code null} if the Flight Recorder is not available.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final Object eventType;
+
+    /**
+     * Defines a new event type.
+     * <p>
+     * Events of this type are only committed if they took at least {@code threshold}, which should be set for events occurring many
+     * times per operation.
+     *
+     * @param name       The name, like {@code kayon.Query}.
+     * @param label      The human-readable name, like {@code Query}.
+     * @param threshold  The minimum duration of committed events, like {@code 1 ms}. {@code 0 ns} to commit all events.
+     * @param fieldNames The names of the fields.
+     * @param fieldTypes The types of the fields, in the order of {@code fieldNames}. Must be {@code String}, {@code long} or {@code int}.
+     * @throws NullPointerException     If any of the arguments or any of their elements is {@code null}.
+     * @throws IllegalArgumentException If {@code name}, {@code label} or {@code threshold} is {@link String#isEmpty() empty}
+     *                                  or {@code fieldNames} and {@code fieldTypes} differ in length.
+     * @since 0.2.4
+     */
+    public FlightRecorderEventType(@NotNull String name, @NotNull String label, @NotNull String threshold, @NotNull String[] fieldNames,
+                                   @NotNull Class<?>[] fieldTypes)
+    {
+        checkNotEmpty(name);
+        checkNotEmpty(label);
+        checkNotEmpty(threshold);
+        checkNotNull(fieldNames);
+        checkNotNull(fieldTypes);
+        checkArgument(fieldNames.length == fieldTypes.length, "fieldNames and fieldTypes differ in length");
+        this.name = name;
+        this.fieldNames = ImmutableList.copyOf(fieldNames);
+        for (Class<?> fieldType : fieldTypes)
+            checkArgument(fieldType == String.class || fieldType == long.class || fieldType == int.class, "Unsupported field type " + fieldType);
+
+        Object factory = null;
+        Object eventType = null;
+        if (Jfr.AVAILABLE)
+            try
+            {
+                List<Object> annotations = new ArrayList<>();
+                annotations.add(Jfr.annotation("jdk.jfr.Name", name));
+                annotations.add(Jfr.annotation("jdk.jfr.Label", label));
+                annotations.add(Jfr.annotation("jdk.jfr.Category", new String[]{ CATEGORY }));
+                annotations.add(Jfr.annotation("jdk.jfr.Threshold", threshold));
+                annotations.add(Jfr.annotation("jdk.jfr.StackTrace", false));
+                List<Object> fields = new ArrayList<>();
+                for (int i = 0; i < fieldNames.length; i++)
+                    fields.add(Jfr.VALUE_DESCRIPTOR.invoke(fieldTypes[i], fieldNames[i]));
+                factory = Jfr.CREATE.invoke(annotations, fields);
+                eventType = Jfr.GET_EVENT_TYPE.invoke(factory);
+            } catch (Throwable e)
+            {
+                LOGGER.debug("Could not define Flight Recorder event " + name, e);
+                factory = null;
+                eventType = null;
+            }
+        this.factory = factory;
+        this.eventType = eventType;
+    }
+
+    /**
+     * Gets the name of this event type.
+     *
+     * @return The name.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Returns whether the Flight Recorder is available and this event type was defined.
+     *
+     * @return Whether events of this type can be recorded at all.
+     * @since 0.2.4
+     */
+    public boolean isAvailable()
+    {
+        return factory != null;
+    }
+
+    /**
+     * Returns whether any running recording has this event type enabled.
+     *
+     * @return Whether events of this type are currently recorded.
+     * @since 0.2.4
+     */
+    public boolean isEnabled()
+    {
+        if (eventType == null)
+            return false;
+        try
+        {
+            return (boolean) Jfr.IS_ENABLED.invoke(eventType);
+        } catch (Throwable e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Begins an event of this type, starting its duration.
+     *
+     * @return The event. Does nothing if this event type is not {@link #isEnabled() enabled}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public FlightRecorderEvent begin()
+    {
+        if (!isEnabled())
+            return FlightRecorderEvent.DISABLED;
+        try
+        {
+            Object event = Jfr.NEW_EVENT.invoke(factory);
+            Jfr.BEGIN.invoke(event);
+            return new FlightRecorderEvent(this, event);
+        } catch (Throwable e)
+        {
+            LOGGER.debug("Could not begin Flight Recorder event " + name, e);
+            return FlightRecorderEvent.DISABLED;
+        }
+    }
+
+    /**
+     * Gets the index of a field.
+     *
+     * @param fieldName The name of the field.
+     * @return The index.
+     * @throws IllegalArgumentException If this event type has no field of the specified name.
+     * @since 0.2.4
+     */
+    int indexOf(@NotNull String fieldName)
+    {
+        int index = fieldNames.indexOf(fieldName);
+        checkArgument(index >= 0, "Event " + name + " has no field " + fieldName);
+        return index;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FlightRecorderEventType{" +
+               "name='" + name + '\'' +
+               ", fieldNames=" + fieldNames +
+               ", available=" + isAvailable() +
+               '}';
+    }
+
+    /**
+     * The reflectively looked up Flight Recorder API.
+     *
+     * @author Ruben Anders
+     * @since 0.2.4
+     */
+    static final class Jfr
+    {
+        /**
+         * Whether the Flight Recorder API is available.
+         *
+         * @since 0.2.4
+         */
+        static final boolean AVAILABLE;
+
+        /*
+         * The handles are null if the API is not available.
+         */
+        static final MethodHandle ANNOTATION_ELEMENT;
+        static final MethodHandle VALUE_DESCRIPTOR;
+        static final MethodHandle CREATE;
+        static final MethodHandle GET_EVENT_TYPE;
+        static final MethodHandle IS_ENABLED;
+        static final MethodHandle NEW_EVENT;
+        static final MethodHandle BEGIN;
+        static final MethodHandle SET;
+        static final MethodHandle COMMIT;
+
+        static
+        {
+            MethodHandle annotationElement = null, valueDescriptor = null, create = null, getEventType = null, isEnabled = null,
+                    newEvent = null, begin = null, set = null, commit = null;
+            boolean available;
+            try
+            {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+                Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+                Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+                Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+                Class<?> eventClass = Class.forName("jdk.jfr.Event");
+                annotationElement = lookup.findConstructor(annotationElementClass, MethodType.methodType(void.class, Class.class, Object.class));
+                valueDescriptor = lookup.findConstructor(valueDescriptorClass, MethodType.methodType(void.class, Class.class, String.class));
+                create = lookup.findStatic(eventFactoryClass, "create", MethodType.methodType(eventFactoryClass, List.class, List.class));
+                getEventType = lookup.findVirtual(eventFactoryClass, "getEventType", MethodType.methodType(eventTypeClass));
+                isEnabled = lookup.findVirtual(eventTypeClass, "isEnabled", MethodType.methodType(boolean.class));
+                newEvent = lookup.findVirtual(eventFactoryClass, "newEvent", MethodType.methodType(eventClass));
+                begin = lookup.findVirtual(eventClass, "begin", MethodType.methodType(void.class));
+                set = lookup.findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class));
+                commit = lookup.findVirtual(eventClass, "commit", MethodType.methodType(void.class));
+                available = true;
+            } catch (ReflectiveOperationException | RuntimeException e)
+            {
+                LOGGER.debug("Flight Recorder events are not available on this Java runtime", e);
+                available = false;
+            }
+            AVAILABLE = available;
+            ANNOTATION_ELEMENT = annotationElement;
+            VALUE_DESCRIPTOR = valueDescriptor;
+            CREATE = create;
+            GET_EVENT_TYPE = getEventType;
+            IS_ENABLED = isEnabled;
+            NEW_EVENT = newEvent;
+            BEGIN = begin;
+            SET = set;
+            COMMIT = commit;
+        }
+
+        private Jfr()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Creates a {@code jdk.jfr.AnnotationElement}.
+         *
+         * @param type  The fully qualified name of the annotation type.
+         * @param value The value of the annotation.
+         * @return The annotation element.
+         * @throws Throwable If the annotation element could not be created.
+         * @since 0.2.4
+         */
+        @NotNull
+        static Object annotation(@NotNull String type, @NotNull Object value) throws Throwable
+        {
+            return ANNOTATION_ELEMENT.invoke(Class.forName(type), value);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cf.kayon.core.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The Flight Recorder event types emitted by Kayon.
+ * <p>
+ * All of them are in the category {@code Kayon}. Events that occur for every result of an operation ({@link #RECONSTRUCT},
+ * {@link #DECLINE}) are only committed if they took at least a millisecond; all others are always committed.
+ * To record them, start the JVM with {@code -XX:StartFlightRecording} (Java 11 or newer), or start a recording with {@code jcmd}.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+public final class FlightRecorderEvents
+{
+    /**
+     * A query of nouns. Fields: {@code kind} ({@code form}, {@code batch} or {@code root}), {@code form} (the normalized form, the
+     * root word expression or the number of batched forms), {@code rowsScanned} ({@code -1} for root queries, which are filtered by the
+     * database) and {@code rowsReturned}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    public static final FlightRecorderEventType QUERY = new FlightRecorderEventType(
+            "kayon.Query", "Query", "0 ns",
+            new String[]{ "kind", "form", "rowsScanned", "rowsReturned" },
+            new Class<?>[]{ String.class, String.class, long.class, long.class });
+
+    /**
+     * The reconstruction of a noun from a database row. Fields: {@code rootWord}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    public static final FlightRecorderEventType RECONSTRUCT = new FlightRecorderEventType(
+            "kayon.Reconstruct", "Reconstruct", "1 ms",
+            new String[]{ "rootWord" },
+            new Class<?>[]{ String.class });
+
+    /**
+     * The declining of all forms of a noun or adjective. Fields: {@code vocab} ({@code noun} or {@code adjective}), {@code rootWord} and
+     * {@code declension} (the simple class name of the declension, if any).
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    public static final FlightRecorderEventType DECLINE = new FlightRecorderEventType(
+            "kayon.Decline", "Decline", "1 ms",
+            new String[]{ "vocab", "rootWord", "declension" },
+            new Class<?>[]{ String.class, String.class, String.class });
+
+    /**
+     * The execution of a batch of saved nouns. Fields: {@code nouns}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    public static final FlightRecorderEventType SAVE = new FlightRecorderEventType(
+            "kayon.Save", "Save", "0 ns",
+            new String[]{ "nouns" },
+            new Class<?>[]{ long.class });
+
+    /**
+     * The construction of the view of a search result. Fields: {@code rootWord}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    public static final FlightRecorderEventType NODE_BUILD = new FlightRecorderEventType(
+            "kayon.NodeBuild", "Node Build", "0 ns",
+            new String[]{ "rootWord" },
+            new Class<?>[]{ String.class });
+
+    private FlightRecorderEvents()
+    {
+        throw new UnsupportedOperationException();
+    }
+}
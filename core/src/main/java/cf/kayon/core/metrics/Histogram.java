@@ -0,0 +1,109 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.metrics;
+
+import cf.kayon.core.util.LatencyHistogram;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Records the distribution of values, like the number of nouns saved per batch.
+ * <p>
+ * Histograms of {@link Metrics#isEnabled() disabled} metrics do not record anything.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public final class Histogram implements Metric
+{
+    /**
+     * The histogram of disabled metrics.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    static final Histogram DISABLED = new Histogram(false);
+
+    /**
+     * Whether this histogram records.
+     *
+     * @since 0.2.4
+     */
+    private final boolean enabled;
+
+    /**
+     * The recorded values.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final LatencyHistogram values = new LatencyHistogram();
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param enabled Whether the histogram records.
+     * @since 0.2.4
+     */
+    Histogram(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value The value.
+     * @throws IllegalArgumentException If {@code value} is negative and this histogram is enabled.
+     * @since 0.2.4
+     */
+    public void record(long value)
+    {
+        if (enabled)
+            values.record(value);
+    }
+
+    /**
+     * Gets the recorded values.
+     *
+     * @return The values. Must not be modified.
+     * @since 0.2.4
+     */
+    @NotNull
+    public LatencyHistogram getValues()
+    {
+        return values;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void snapshot(@NotNull String name, @NotNull Map<String, Number> into)
+    {
+        into.put(name + ".count", values.getCount());
+        into.put(name + ".mean", values.getMean());
+        into.put(name + ".p50", values.getValueAtPercentile(50));
+        into.put(name + ".p99", values.getValueAtPercentile(99));
+        into.put(name + ".max", values.getMax());
+    }
+}
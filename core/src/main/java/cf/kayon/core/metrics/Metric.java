@@ -0,0 +1,41 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * A metric that can be read as one or more named numbers.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+interface Metric
+{
+    /**
+     * Puts the current values of this metric into a map.
+     *
+     * @param name The name of this metric. The names of the values are either this name or start with this name and a dot.
+     * @param into The map to put the values into.
+     * @since 0.2.4
+     */
+    void snapshot(@NotNull String name, @NotNull Map<String, Number> into);
+}
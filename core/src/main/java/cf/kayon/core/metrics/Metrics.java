@@ -0,0 +1,308 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.metrics;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A registry of named metrics: {@link Counter counters}, {@link Timer timers}, {@link Histogram histograms} and gauges.
+ * <p>
+ * Metrics are created on first use and shared by name, so callers may look them up every time or keep them in fields. Names are
+ * dot-separated, starting with the component, like {@code sql.query.form}.
+ * <p>
+ * If metrics are disabled, all lookups return shared instances that do not record anything (timers do not even read the clock), so
+ * instrumented code costs next to nothing.
+ * <p>
+ * Enabled metrics can be exported as a periodic log line and as the MBean {@code cf.kayon:type=Metrics,name=<n>}, whose attributes are the
+ * values of the {@link #snapshot() snapshot}.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class Metrics implements AutoCloseable
+{
+    @NotNull
+    private static final Logger LOGGER = LoggerFactory.getLogger(Metrics.class);
+
+    /**
+     * The number of registered MBeans, used to name them.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final AtomicInteger MBEANS = new AtomicInteger();
+
+    /**
+     * Whether metrics are recorded.
+     *
+     * @since 0.2.4
+     */
+    private final boolean enabled;
+
+    /**
+     * The metrics, by name.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * The executor logging the metrics periodically, if any.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final ScheduledExecutorService reporter;
+
+    /**
+     * The name of the registered MBean, if any.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final ObjectName mBeanName;
+
+    /**
+     * Constructs a new instance that is not exported.
+     *
+     * @param enabled Whether metrics are recorded.
+     * @since 0.2.4
+     */
+    public Metrics(boolean enabled)
+    {
+        this.enabled = enabled;
+        this.reporter = null;
+        this.mBeanName = null;
+    }
+
+    /**
+     * Constructs a new instance configured by the {@code metrics} section of a config.
+     *
+     * @param config The config.
+     * @throws ConfigException.BadValue If {@code metrics.logInterval} is negative.
+     * @throws NullPointerException     If {@code config} is {@code null}.
+     * @since 0.2.4
+     */
+    public Metrics(@NotNull Config config)
+    {
+        enabled = config.getBoolean("metrics.enabled");
+        long logInterval = config.getDuration("metrics.logInterval", TimeUnit.MILLISECONDS);
+        if (logInterval < 0)
+            throw new ConfigException.BadValue(config.origin(), "metrics.logInterval", "Must not be negative");
+
+        if (enabled && logInterval > 0)
+        {
+            reporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("Kayon metrics").setDaemon(true).build());
+            reporter.scheduleAtFixedRate(() -> LOGGER.info("Metrics: " + this), logInterval, logInterval, TimeUnit.MILLISECONDS);
+        } else
+            reporter = null;
+
+        ObjectName name = null;
+        if (enabled && config.getBoolean("metrics.jmx"))
+        {
+            try
+            {
+                name = new ObjectName("cf.kayon:type=Metrics,name=" + MBEANS.getAndIncrement());
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(this), name);
+            } catch (JMException e)
+            {
+                LOGGER.error("Could not register the metrics MBean", e);
+                name = null;
+            }
+        }
+        mBeanName = name;
+    }
+
+    /**
+     * Returns whether metrics are recorded.
+     * <p>
+     * Code computing values only for metrics (like counting rows) can check this first.
+     *
+     * @return Whether metrics are enabled.
+     * @since 0.2.4
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Gets or creates a counter.
+     *
+     * @param name The name.
+     * @return The counter.
+     * @throws NullPointerException     If {@code name} is {@code null}.
+     * @throws IllegalArgumentException If {@code name} is {@link String#isEmpty() empty}.
+     * @throws ClassCastException       If a metric of another type has been registered with the same name.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Counter counter(@NotNull String name)
+    {
+        checkNotEmpty(name);
+        return enabled ? (Counter) metrics.computeIfAbsent(name, key -> new Counter(true)) : Counter.DISABLED;
+    }
+
+    /**
+     * Gets or creates a timer.
+     *
+     * @param name The name.
+     * @return The timer.
+     * @throws NullPointerException     If {@code name} is {@code null}.
+     * @throws IllegalArgumentException If {@code name} is {@link String#isEmpty() empty}.
+     * @throws ClassCastException       If a metric of another type has been registered with the same name.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Timer timer(@NotNull String name)
+    {
+        checkNotEmpty(name);
+        return enabled ? (Timer) metrics.computeIfAbsent(name, key -> new Timer(true)) : Timer.DISABLED;
+    }
+
+    /**
+     * Gets or creates a histogram.
+     *
+     * @param name The name.
+     * @return The histogram.
+     * @throws NullPointerException     If {@code name} is {@code null}.
+     * @throws IllegalArgumentException If {@code name} is {@link String#isEmpty() empty}.
+     * @throws ClassCastException       If a metric of another type has been registered with the same name.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Histogram histogram(@NotNull String name)
+    {
+        checkNotEmpty(name);
+        return enabled ? (Histogram) metrics.computeIfAbsent(name, key -> new Histogram(true)) : Histogram.DISABLED;
+    }
+
+    /**
+     * Registers a gauge, a value that is read when the metrics are exported, like the length of a queue.
+     * <p>
+     * A gauge registered with the same name before is replaced. If metrics are disabled, nothing is registered.
+     *
+     * @param name  The name.
+     * @param value The function reading the value. Must be thread-safe.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code name} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    public void gauge(@NotNull String name, @NotNull LongSupplier value)
+    {
+        checkNotEmpty(name);
+        checkNotNull(value);
+        if (enabled)
+            metrics.put(name, (metricName, into) -> into.put(metricName, value.getAsLong()));
+    }
+
+    /**
+     * Reads the current values of all metrics.
+     *
+     * @return The values, sorted by name. Empty if metrics are disabled.
+     * @since 0.2.4
+     */
+    @NotNull
+    public SortedMap<String, Number> snapshot()
+    {
+        SortedMap<String, Number> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Metric> entry : metrics.entrySet())
+        {
+            try
+            {
+                entry.getValue().snapshot(entry.getKey(), snapshot);
+            } catch (RuntimeException e) // a broken gauge must not break exporting the others
+            {
+                LOGGER.warn("Could not read metric " + entry.getKey(), e);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Stops logging the metrics and unregisters the MBean.
+     *
+     * @since 0.2.4
+     */
+    @Override
+    public void close()
+    {
+        if (reporter != null)
+            reporter.shutdown();
+        if (mBeanName != null)
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(mBeanName);
+            } catch (JMException e)
+            {
+                LOGGER.warn("Could not unregister the metrics MBean", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link #snapshot() snapshot} as a single line of {@code name=value} pairs.
+     *
+     * @return The metrics.
+     * @since 0.2.4
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        snapshot().forEach((name, value) -> {
+            if (builder.length() > 0)
+                builder.append(", ");
+            builder.append(name).append('=');
+            if (value instanceof Double)
+                builder.append(String.format(Locale.ROOT, "%.1f", value.doubleValue()));
+            else
+                builder.append(value);
+        });
+        return builder.toString();
+    }
+}
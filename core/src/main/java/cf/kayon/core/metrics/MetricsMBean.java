@@ -0,0 +1,108 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Exposes the {@link Metrics#snapshot() snapshot} of a metrics registry as read-only MBean attributes.
+ * <p>
+ * Metrics are created on first use, so the attributes are read from a new snapshot every time, including the {@link #getMBeanInfo() MBean info}.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+final class MetricsMBean implements DynamicMBean
+{
+    /**
+     * The exposed metrics.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Metrics metrics;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param metrics The metrics to expose.
+     * @since 0.2.4
+     */
+    MetricsMBean(@NotNull Metrics metrics)
+    {
+        this.metrics = checkNotNull(metrics);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException
+    {
+        Number value = metrics.snapshot().get(attribute);
+        if (value == null)
+            throw new AttributeNotFoundException(attribute);
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes)
+    {
+        Map<String, Number> snapshot = metrics.snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes)
+        {
+            Number value = snapshot.get(attribute);
+            if (value != null)
+                list.add(new Attribute(attribute, value));
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException
+    {
+        throw new AttributeNotFoundException("Metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes)
+    {
+        return new AttributeList(); // read-only, nothing set
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException
+    {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo()
+    {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        metrics.snapshot().forEach((name, value) -> attributes.add(
+                new MBeanAttributeInfo(name, value.getClass().getName(), name, true, false, false)));
+        return new MBeanInfo(Metrics.class.getName(), "Kayon metrics", attributes.toArray(new MBeanAttributeInfo[attributes.size()]), null, null, null);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.metrics;
+
+import cf.kayon.core.util.LatencyHistogram;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Records how long an operation takes.
+ * <p>
+ * Usage:
+ * <pre>{@code
+ * long start = timer.start();
+ * try
+ * {
+ *     ...
+ * } finally
+ * {
+ *     timer.stop(start);
+ * }
+ * }</pre>
+ * Timers of {@link Metrics#isEnabled() disabled} metrics do not even read the clock.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public final class Timer implements Metric
+{
+    /**
+     * The timer of disabled metrics.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    static final Timer DISABLED = new Timer(false);
+
+    /**
+     * Whether this timer records.
+     *
+     * @since 0.2.4
+     */
+    private final boolean enabled;
+
+    /**
+     * The recorded durations in nanoseconds.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final LatencyHistogram durations = new LatencyHistogram();
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param enabled Whether the timer records.
+     * @since 0.2.4
+     */
+    Timer(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return The start time to pass to {@link #stop(long)}.
+     * @since 0.2.4
+     */
+    public long start()
+    {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Stops timing an operation and records its duration.
+     *
+     * @param start The start time returned by {@link #start()}.
+     * @since 0.2.4
+     */
+    public void stop(long start)
+    {
+        if (enabled)
+            durations.record(Math.max(0, System.nanoTime() - start));
+    }
+
+    /**
+     * Records the duration of an operation.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @throws IllegalArgumentException If {@code nanos} is negative and this timer is enabled.
+     * @since 0.2.4
+     */
+    public void record(long nanos)
+    {
+        if (enabled)
+            durations.record(nanos);
+    }
+
+    /**
+     * Gets the recorded durations.
+     *
+     * @return The durations in nanoseconds. Must not be modified.
+     * @since 0.2.4
+     */
+    @NotNull
+    public LatencyHistogram getDurations()
+    {
+        return durations;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The durations are in microseconds.
+     *
+     * @since 0.2.4
+     */
+    @Override
+    public void snapshot(@NotNull String name, @NotNull Map<String, Number> into)
+    {
+        into.put(name + ".count", durations.getCount());
+        into.put(name + ".meanMicros", durations.getMean() / 1000);
+        into.put(name + ".p50Micros", durations.getValueAtPercentile(50) / 1000);
+        into.put(name + ".p99Micros", durations.getValueAtPercentile(99) / 1000);
+        into.put(name + ".maxMicros", durations.getMax() / 1000);
+    }
+}
@@ -19,6 +19,9 @@
 package cf.kayon.core.noun;
 
 import cf.kayon.core.*;
+import cf.kayon.core.metrics.FlightRecorderEvent;
+import cf.kayon.core.metrics.FlightRecorderEvents;
+import cf.kayon.core.metrics.Timer;
 import cf.kayon.core.util.NotTested;
 import cf.kayon.core.util.Tested;
 import com.google.common.base.MoreObjects;
@@ -31,6 +34,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static cf.kayon.core.util.StringUtil.checkNotEmpty;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -126,13 +130,13 @@ public class Noun extends StandardVocab implements DeepCopyable<Noun>
     @Nullable
     private NounDeclension nounDeclension;
 
-    {
-        addPropertyChangeListener(evt -> {
-            String propertyName = evt.getPropertyName();
-            if (propertyName.equals("gender") || propertyName.equals("rootWord") || propertyName.equals("nounDeclension") || propertyName.endsWith("_defined"))
-                _declineIntoBuffer();
-        });
-    }
+    /**
+     * Whether the declined forms have to be declined again once the currently running edit transaction commits.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("this")
+    private boolean declinePending;
 
     /**
      * Constructs a new Noun.
@@ -208,9 +212,9 @@ public class Noun extends StandardVocab implements DeepCopyable<Noun>
     {
         checkNotNull(nounForm);
         if (form == null || form.isEmpty())
-            getPropertyChangeSupport().firePropertyChange(nounForm.getPropertyName("defined"), definedForms.remove(nounForm), form);
+            firePropertyChange(nounForm.getPropertyName("defined"), definedForms.remove(nounForm), form);
         else
-            getPropertyChangeSupport().firePropertyChange(nounForm.getPropertyName("defined"), definedForms.put(nounForm, form), form);
+            firePropertyChange(nounForm.getPropertyName("defined"), definedForms.put(nounForm, form), form);
     }
 
     /**
@@ -301,6 +305,9 @@ public class Noun extends StandardVocab implements DeepCopyable<Noun>
     @NotTested
     private synchronized void _declineIntoBuffer()
     {
+        Timer timer = getContext().getMetrics().timer("noun.decline");
+        long start = timer.start();
+        FlightRecorderEvent event = FlightRecorderEvents.DECLINE.begin();
         for (NounForm nounForm : NounForm.values())
             if (this.nounDeclension != null)
             {
@@ -312,11 +319,74 @@ public class Noun extends StandardVocab implements DeepCopyable<Noun>
                 {
                     newValue = null;
                 }
-                getPropertyChangeSupport().firePropertyChange(nounForm.getPropertyName("declined"),
-                                                              newValue != null ? this.declinedForms.put(nounForm, newValue) : this.declinedForms.remove(nounForm),
-                                                              newValue);
+                firePropertyChange(nounForm.getPropertyName("declined"),
+                                   newValue != null ? this.declinedForms.put(nounForm, newValue) : this.declinedForms.remove(nounForm),
+                                   newValue);
             } else
-                getPropertyChangeSupport().firePropertyChange(nounForm.getPropertyName("declined"), this.declinedForms.remove(nounForm), null);
+                firePropertyChange(nounForm.getPropertyName("declined"), this.declinedForms.remove(nounForm), null);
+        timer.stop(start);
+        if (event.isEnabled())
+            event.set("vocab", "noun")
+                 .set("rootWord", rootWord)
+                 .set("declension", nounDeclension != null ? nounDeclension.getClass().getSimpleName() : null)
+                 .commit();
+    }
+
+    /**
+     * Called if a declined form changing property has changed.
+     * <p>
+     * If an edit transaction is running, declining is deferred until the transaction commits. Otherwise, the forms are declined right away.
+     *
+     * @since 0.2.4
+     */
+    private synchronized void invalidateDeclinedForms()
+    {
+        if (isEditing())
+            declinePending = true;
+        else
+            _declineIntoBuffer();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Declines the forms of this noun if a declined form changing property has changed during the transaction.
+     *
+     * @since 0.2.4
+     */
+    @Override
+    protected synchronized void commitEdit()
+    {
+        if (declinePending)
+        {
+            declinePending = false;
+            _declineIntoBuffer();
+        }
+    }
+
+    /**
+     * Edits this noun atomically.
+     * <p>
+     * All changes made by the editor are applied while holding the lock of this noun. The declined forms are only declined once after the editor has
+     * finished, and listeners are notified once per changed property afterwards (with the value from before the edit as the old value).
+     * Properties that have been changed back to their original value are not reported at all.
+     * <p>
+     * Edits may be nested; only the outermost edit fires events.
+     * <p>
+     * If the editor throws, the changes made up to then are kept, declined and reported before the exception is rethrown.
+     *
+     * @param editor The editor to apply to this noun.
+     * @throws NullPointerException If {@code editor} is {@code null}.
+     * @since 0.2.4
+     */
+    @Tested("cf.kayon.core.noun.NounTest.testEditCoalescesEvents")
+    @Tested("cf.kayon.core.noun.NounTest.testEditRevertedChange")
+    @Tested("cf.kayon.core.noun.NounTest.testEditNested")
+    @Tested("cf.kayon.core.noun.NounTest.testEditThrows")
+    public void edit(@NotNull Consumer<? super Noun> editor)
+    {
+        checkNotNull(editor);
+        runEdit(() -> editor.accept(this));
     }
 
     /**
@@ -343,7 +413,8 @@ public class Noun extends StandardVocab implements DeepCopyable<Noun>
     {
         Gender oldGender = this.gender;
         this.gender = gender;
-        getPropertyChangeSupport().firePropertyChange("gender", oldGender, gender);
+        invalidateDeclinedForms();
+        firePropertyChange("gender", oldGender, gender);
     }
 
     /**
@@ -379,7 +450,8 @@ public class Noun extends StandardVocab implements DeepCopyable<Noun>
         checkNotEmpty(rootWord);
         String oldRootWord = this.rootWord;
         this.rootWord = rootWord;
-        getPropertyChangeSupport().firePropertyChange("rootWord", oldRootWord, rootWord);
+        invalidateDeclinedForms();
+        firePropertyChange("rootWord", oldRootWord, rootWord);
     }
 
     /**
@@ -406,7 +478,8 @@ public class Noun extends StandardVocab implements DeepCopyable<Noun>
     {
         NounDeclension oldNounDeclension = this.nounDeclension;
         this.nounDeclension = nounDeclension;
-        getPropertyChangeSupport().firePropertyChange("nounDeclension", oldNounDeclension, nounDeclension);
+        invalidateDeclinedForms();
+        firePropertyChange("nounDeclension", oldNounDeclension, nounDeclension);
     }
 
     /**
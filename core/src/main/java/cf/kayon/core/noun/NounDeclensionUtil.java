@@ -20,6 +20,7 @@ package cf.kayon.core.noun;
 
 import cf.kayon.core.Case;
 import cf.kayon.core.Count;
+import cf.kayon.core.DeclensionRegistry;
 import cf.kayon.core.util.Tested;
 import com.google.common.collect.ImmutableMap;
 import net.jcip.annotations.Immutable;
@@ -120,7 +121,10 @@ public class NounDeclensionUtil
     }
 
     /**
-     * Reflectively reconstructs a NounDeclension by invoking its {@code public static NounDeclension getInstance()} method.
+     * Reconstructs a NounDeclension by its class name.
+     * <p>
+     * Declensions registered in the {@link DeclensionRegistry} are resolved without reflection. For any other class,
+     * the NounDeclension is reflectively reconstructed by invoking its {@code public static NounDeclension getInstance()} method.
      *
      * @param className The name of the class.
      * @return A NounDeclension. {@code null} if the reconstruction was not successful or the class name was {@code null}.
@@ -133,6 +137,9 @@ public class NounDeclensionUtil
     {
         if (className == null)
             return null;
+        NounDeclension registered = DeclensionRegistry.nounDeclensionForName(className);
+        if (registered != null)
+            return registered;
         try
         {
             Class<?> clazz = Class.forName(className);
@@ -121,6 +121,14 @@ public class NounForm
     @NotNull
     private final String toStringRepresentation;
 
+    /**
+     * The index of this NounForm in {@link #values()}.
+     *
+     * @since 0.2.4
+     */
+    @SuppressWarnings("FieldNotUsedInToString")
+    private final int ordinal;
+
     /**
      * Constructs a new NounForm.
      * <p>
@@ -142,6 +150,7 @@ public class NounForm
         this.propertyName = caze + "_" + count + "_";
         this.toStringRepresentation = StringUtils.capitalize(caze.name().toLowerCase().substring(0, 3)) +
                                       StringUtils.capitalize(count.name().toLowerCase().substring(0, 2));
+        this.ordinal = count.ordinal() * Case.values().length + caze.ordinal();
     }
 
     /**
@@ -189,6 +198,21 @@ public class NounForm
         return allValues;
     }
 
+    /**
+     * Returns the index of this NounForm in the list returned by {@link #values()}.
+     * <p>
+     * The index is stable as long as no cases or counts are added, so it may be used as a compact persistent key.
+     *
+     * @return The index, in the range {@code 0} to {@code values().size() - 1}.
+     * @since 0.2.4
+     */
+    @Contract(pure = true)
+    @Tested("cf.kayon.core.noun.NounFormTest.testOrdinal")
+    public int ordinal()
+    {
+        return ordinal;
+    }
+
     /**
      * @since 0.0.1
      */
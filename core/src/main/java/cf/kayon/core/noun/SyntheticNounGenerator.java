@@ -0,0 +1,487 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.noun;
+
+import cf.kayon.core.Contexed;
+import cf.kayon.core.DeclensionRegistry;
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.repository.RepositoryException;
+import cf.kayon.core.repository.VocabRepository;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.ConfigException;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Generates random nouns for test and load test databases.
+ * <p>
+ * The nouns resemble Latin vocabulary: Root words are built from Latin syllables, and declensions and genders follow their approximate
+ * frequencies in Latin (most nouns belong to the a- and o-declension, a-declension nouns are mostly feminine, and so on).
+ * <p>
+ * Nouns are generated in batches of {@code generator.batchSize} nouns. Every batch uses its own {@link SplittableRandom}, derived from the
+ * seed and the index of the batch only, so the same seed and batch size always produce the same nouns (including their UUIDs),
+ * no matter how many threads generate them and in which order.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class SyntheticNounGenerator extends Contexed
+{
+    /**
+     * The increment between the states of {@link SplittableRandom} (the golden ratio), used to address the seeds of batches.
+     *
+     * @since 0.2.4
+     */
+    private static final long BATCH_SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The relative frequencies of the declensions, by simple class name. Declensions not listed here get the weight {@code 1}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final Map<String, Integer> DECLENSION_WEIGHTS = ImmutableMap.<String, Integer>builder()
+            .put("ANounDeclension", 30)
+            .put("ONounDeclension", 26)
+            .put("ORNounDeclension", 3)
+            .put("ConsonantNounDeclension", 20)
+            .put("INounDeclension", 7)
+            .put("MixedNounDeclension", 6)
+            .put("UNounDeclension", 5)
+            .put("ENounDeclension", 3)
+            .build();
+
+    /**
+     * The relative frequencies of the genders (in the order of {@link Gender#values()}), by simple class name of the declension.
+     * Declensions not listed here use {@link #DEFAULT_GENDER_WEIGHTS}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final Map<String, int[]> GENDER_WEIGHTS = ImmutableMap.<String, int[]>builder()
+            .put("ANounDeclension", genderWeights(5, 95, 0))
+            .put("ONounDeclension", genderWeights(55, 3, 42))
+            .put("ORNounDeclension", genderWeights(100, 0, 0))
+            .put("ConsonantNounDeclension", genderWeights(40, 40, 20))
+            .put("INounDeclension", genderWeights(20, 50, 30))
+            .put("MixedNounDeclension", genderWeights(30, 60, 10))
+            .put("UNounDeclension", genderWeights(75, 15, 10))
+            .put("ENounDeclension", genderWeights(5, 95, 0))
+            .build();
+
+    /**
+     * The relative frequencies of the genders of declensions not listed in {@link #GENDER_WEIGHTS}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final int[] DEFAULT_GENDER_WEIGHTS = genderWeights(1, 1, 1);
+
+    /**
+     * The onsets of syllables. The empty onset appears several times to make it more frequent.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final String[] ONSETS = {"", "", "", "b", "c", "c", "d", "f", "g", "h", "l", "l", "m", "m", "n", "p", "qu", "r", "r", "s",
+                                            "s", "t", "t", "v", "cr", "fl", "gr", "pr", "st", "tr"};
+
+    /**
+     * The nuclei of syllables.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final String[] NUCLEI = {"a", "a", "e", "e", "i", "i", "o", "u", "u", "ae", "au"};
+
+    /**
+     * The consonants ending root words.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final String[] CODAS = {"b", "c", "d", "g", "l", "m", "n", "p", "r", "s", "t", "v", "ll", "nd", "nt", "rb", "rt", "st", "x"};
+
+    /**
+     * The number of nouns per batch.
+     *
+     * @since 0.2.4
+     */
+    private final int batchSize;
+
+    /**
+     * The number of threads of {@link #generate(VocabRepository, long, long, LongPredicate)}.
+     *
+     * @since 0.2.4
+     */
+    private final int threads;
+
+    /**
+     * The registered noun declensions.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final List<NounDeclension> nounDeclensions;
+
+    /**
+     * The cumulative weights of {@link #nounDeclensions}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final int[] cumulativeDeclensionWeights;
+
+    /**
+     * The cumulative weights of the genders allowed by every declension of {@link #nounDeclensions}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final int[][] cumulativeGenderWeights;
+
+    /**
+     * Constructs a new instance.
+     * <p>
+     * The settings are retrieved from the {@code generator} section of the config of the context at construct time, and the declensions
+     * from the {@link DeclensionRegistry}.
+     *
+     * @param context The {@link KayonContext} for this instance.
+     * @throws ConfigException.BadValue If the batch size is not positive or the number of threads is negative.
+     * @throws IllegalStateException    If no registered noun declension allows any gender.
+     * @since 0.2.4
+     */
+    public SyntheticNounGenerator(@NotNull KayonContext context)
+    {
+        this(context, batchSize(context), threads(context));
+    }
+
+    /**
+     * Constructs a new instance with the specified settings instead of the ones of the config.
+     *
+     * @param context   The {@link KayonContext} for this instance.
+     * @param batchSize The number of nouns per batch.
+     * @param threads   The number of threads generating nouns. {@code 0} means the number of processors.
+     * @throws IllegalArgumentException If {@code batchSize} is not positive or {@code threads} is negative.
+     * @throws IllegalStateException    If no registered noun declension allows any gender.
+     * @since 0.2.4
+     */
+    public SyntheticNounGenerator(@NotNull KayonContext context, int batchSize, int threads)
+    {
+        super(context);
+        checkArgument(batchSize > 0, "batchSize must be positive");
+        checkArgument(threads >= 0, "threads must not be negative");
+        this.batchSize = batchSize;
+        this.threads = threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+
+        nounDeclensions = new ArrayList<>(DeclensionRegistry.getNounDeclensions());
+        cumulativeDeclensionWeights = new int[nounDeclensions.size()];
+        cumulativeGenderWeights = new int[nounDeclensions.size()][];
+        int declensionTotal = 0;
+        for (int i = 0; i < nounDeclensions.size(); i++)
+        {
+            NounDeclension nounDeclension = nounDeclensions.get(i);
+            String name = nounDeclension.getClass().getSimpleName();
+            int[] genderWeights = GENDER_WEIGHTS.getOrDefault(name, DEFAULT_GENDER_WEIGHTS);
+            int[] cumulative = new int[Gender.values().length];
+            int genderTotal = 0;
+            for (Gender gender : Gender.values())
+            {
+                if (nounDeclension.allowsGender(gender))
+                    genderTotal += Math.max(genderWeights[gender.ordinal()], 1);
+                cumulative[gender.ordinal()] = genderTotal;
+            }
+            cumulativeGenderWeights[i] = cumulative;
+            if (genderTotal > 0) // never pick declensions allowing no gender
+                declensionTotal += DECLENSION_WEIGHTS.getOrDefault(name, 1);
+            cumulativeDeclensionWeights[i] = declensionTotal;
+        }
+        if (declensionTotal == 0)
+            throw new IllegalStateException("No registered noun declension allows any gender");
+    }
+
+    /**
+     * Reads the batch size from the config of a context.
+     *
+     * @param context The context.
+     * @return The batch size.
+     * @throws ConfigException.BadValue If the batch size is not positive.
+     * @since 0.2.4
+     */
+    private static int batchSize(@NotNull KayonContext context)
+    {
+        int batchSize = context.getConfig().getInt("generator.batchSize");
+        if (batchSize < 1)
+            throw new ConfigException.BadValue(context.getConfig().origin(), "generator.batchSize", "Must be positive");
+        return batchSize;
+    }
+
+    /**
+     * Reads the number of threads from the config of a context.
+     *
+     * @param context The context.
+     * @return The number of threads, {@code 0} meaning the number of processors.
+     * @throws ConfigException.BadValue If the number of threads is negative.
+     * @since 0.2.4
+     */
+    private static int threads(@NotNull KayonContext context)
+    {
+        int threads = context.getConfig().getInt("generator.threads");
+        if (threads < 0)
+            throw new ConfigException.BadValue(context.getConfig().origin(), "generator.threads", "Must not be negative");
+        return threads;
+    }
+
+    /**
+     * Builds gender weights in the order of {@link Gender#values()}.
+     *
+     * @param masculine The weight of {@link Gender#MASCULINE}.
+     * @param feminine  The weight of {@link Gender#FEMININE}.
+     * @param neuter    The weight of {@link Gender#NEUTER}.
+     * @return The weights.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static int[] genderWeights(int masculine, int feminine, int neuter)
+    {
+        int[] weights = new int[Gender.values().length];
+        weights[Gender.MASCULINE.ordinal()] = masculine;
+        weights[Gender.FEMININE.ordinal()] = feminine;
+        weights[Gender.NEUTER.ordinal()] = neuter;
+        return weights;
+    }
+
+    /**
+     * Gets the number of nouns per batch.
+     *
+     * @return The batch size.
+     * @since 0.2.4
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Generates a single noun.
+     *
+     * @param random The source of randomness.
+     * @return The noun, with an initialized UUID.
+     * @throws NullPointerException If {@code random} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Noun generate(@NotNull SplittableRandom random)
+    {
+        int declensionIndex = pick(cumulativeDeclensionWeights, random);
+        NounDeclension nounDeclension = nounDeclensions.get(declensionIndex);
+        Gender gender = Gender.values()[pick(cumulativeGenderWeights[declensionIndex], random)];
+
+        Noun noun = new Noun(getContext(), nounDeclension, gender, generateRootWord(random));
+        // version 4 (random) UUID, but reproducible and without contending for the secure random of UUID.randomUUID()
+        noun.initializeUuid(new UUID((random.nextLong() & ~0xF000L) | 0x4000L, (random.nextLong() & ~(3L << 62)) | (1L << 63)));
+        return noun;
+    }
+
+    /**
+     * Generates a root word of one to three Latin syllables, ending with a consonant.
+     * <p>
+     * Subclasses may override this method to generate other root words. Implementations must only use {@code random} as source of
+     * randomness, or generated nouns are not reproducible.
+     *
+     * @param random The source of randomness.
+     * @return The root word, in lowercase. Must not be empty.
+     * @since 0.2.4
+     */
+    @NotNull
+    protected String generateRootWord(@NotNull SplittableRandom random)
+    {
+        StringBuilder rootWord = new StringBuilder(12);
+        double syllables = random.nextDouble();
+        for (int i = syllables < 0.25 ? 1 : syllables < 0.8 ? 2 : 3; i > 0; i--)
+            rootWord.append(ONSETS[random.nextInt(ONSETS.length)]).append(NUCLEI[random.nextInt(NUCLEI.length)]);
+        return rootWord.append(CODAS[random.nextInt(CODAS.length)]).toString();
+    }
+
+    /**
+     * Generates a batch of nouns.
+     *
+     * @param seed       The seed.
+     * @param batchIndex The index of the batch.
+     * @param size       The number of nouns.
+     * @return The nouns. The same arguments always return the same nouns.
+     * @throws IllegalArgumentException If {@code batchIndex} or {@code size} is negative.
+     * @since 0.2.4
+     */
+    @NotNull
+    public List<Noun> generateBatch(long seed, long batchIndex, int size)
+    {
+        checkArgument(batchIndex >= 0, "batchIndex must not be negative");
+        checkArgument(size >= 0, "size must not be negative");
+        // Seeding with seed + batchIndex * increment directly would only shift the same sequence by batchIndex values,
+        // so the mixed value of that state (like the nextLong() of a generator at that state) is used as seed instead
+        SplittableRandom random = new SplittableRandom(new SplittableRandom(seed + batchIndex * BATCH_SEED_INCREMENT).nextLong());
+        List<Noun> batch = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            batch.add(generate(random));
+        return batch;
+    }
+
+    /**
+     * Generates nouns as a stream. The stream can be processed in parallel.
+     *
+     * @param count The number of nouns.
+     * @param seed  The seed.
+     * @return The nouns, in the same order for the same seed and batch size.
+     * @throws IllegalArgumentException If {@code count} is negative.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Stream<Noun> stream(long count, long seed)
+    {
+        checkArgument(count >= 0, "count must not be negative");
+        long batches = (count + batchSize - 1) / batchSize;
+        return LongStream.range(0, batches).boxed().flatMap(batchIndex -> generateBatch(seed, batchIndex, batchLength(count, batchIndex)).stream());
+    }
+
+    /**
+     * Generates nouns and saves them to a repository, a batch at once.
+     * <p>
+     * {@code generator.threads} threads generate batches in parallel. Every thread saves its batches itself with
+     * {@link VocabRepository#saveAll(java.util.Collection)}; saving is serialized by repositories that share a single connection, but
+     * generating and declining the next batches continues meanwhile.
+     *
+     * @param repository The repository to save the nouns to.
+     * @param count      The number of nouns.
+     * @param seed       The seed.
+     * @param progress   Called after every saved batch with the total number of nouns saved so far, from the thread that saved it.
+     *                   Returning {@code false} stops the generation after the batches being saved. May be {@code null}.
+     * @return The number of nouns saved. Less than {@code count} if stopped by {@code progress}.
+     * @throws RepositoryException      If a batch could not be saved. The generation is stopped.
+     * @throws InterruptedException     If the calling thread is interrupted while waiting for the threads. The generation is stopped.
+     * @throws IllegalArgumentException If {@code count} is negative.
+     * @throws NullPointerException     If {@code repository} is {@code null}.
+     * @since 0.2.4
+     */
+    public long generate(@NotNull VocabRepository repository, long count, long seed, @Nullable LongPredicate progress)
+            throws RepositoryException, InterruptedException
+    {
+        checkNotNull(repository);
+        checkArgument(count >= 0, "count must not be negative");
+        long batches = (count + batchSize - 1) / batchSize;
+        AtomicLong nextBatch = new AtomicLong();
+        AtomicLong saved = new AtomicLong();
+        AtomicBoolean stopped = new AtomicBoolean();
+
+        int workers = (int) Math.min(threads, Math.max(batches, 1));
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "Kayon generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<Void>> futures = new ArrayList<>(workers);
+        try
+        {
+            for (int i = 0; i < workers; i++)
+                futures.add(executor.submit(() -> {
+                    long batchIndex;
+                    while (!stopped.get() && (batchIndex = nextBatch.getAndIncrement()) < batches)
+                    {
+                        List<Noun> batch = generateBatch(seed, batchIndex, batchLength(count, batchIndex));
+                        repository.saveAll(batch);
+                        long total = saved.addAndGet(batch.size());
+                        if (progress != null && !progress.test(total))
+                            stopped.set(true);
+                    }
+                    return null;
+                }));
+            for (Future<Void> future : futures)
+                future.get();
+        } catch (ExecutionException e)
+        {
+            stopped.set(true);
+            if (e.getCause() instanceof RepositoryException)
+                throw (RepositoryException) e.getCause();
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e)
+        {
+            stopped.set(true);
+            throw e;
+        } finally
+        {
+            executor.shutdown(); // never interrupt the workers, they may be accessing the database
+        }
+        return saved.get();
+    }
+
+    /**
+     * Gets the number of nouns of a batch.
+     *
+     * @param count      The total number of nouns.
+     * @param batchIndex The index of the batch.
+     * @return The number of nouns.
+     * @since 0.2.4
+     */
+    private int batchLength(long count, long batchIndex)
+    {
+        return (int) Math.min(batchSize, count - batchIndex * batchSize);
+    }
+
+    /**
+     * Picks an index by cumulative weights.
+     *
+     * @param cumulativeWeights The cumulative weights; the last one is the total.
+     * @param random            The source of randomness.
+     * @return The index.
+     * @since 0.2.4
+     */
+    private static int pick(@NotNull int[] cumulativeWeights, @NotNull SplittableRandom random)
+    {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++)
+            if (value < cumulativeWeights[i])
+                return i;
+        throw new AssertionError();
+    }
+}
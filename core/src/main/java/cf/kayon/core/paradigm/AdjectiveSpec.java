@@ -0,0 +1,129 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.paradigm;
+
+import cf.kayon.core.adjective.AdjectiveDeclension;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Describes the data needed to decline an adjective: its AdjectiveDeclension and root word.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class AdjectiveSpec
+{
+    /**
+     * The AdjectiveDeclension.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final AdjectiveDeclension adjectiveDeclension;
+
+    /**
+     * The root word.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final String rootWord;
+
+    /**
+     * Constructs a new AdjectiveSpec.
+     *
+     * @param adjectiveDeclension The AdjectiveDeclension.
+     * @param rootWord            The root word.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code rootWord} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    public AdjectiveSpec(@NotNull AdjectiveDeclension adjectiveDeclension, @NotNull String rootWord)
+    {
+        checkNotNull(adjectiveDeclension);
+        checkNotEmpty(rootWord);
+        this.adjectiveDeclension = adjectiveDeclension;
+        this.rootWord = rootWord;
+    }
+
+    /**
+     * Gets the AdjectiveDeclension.
+     *
+     * @return The AdjectiveDeclension.
+     * @since 0.2.4
+     */
+    @NotNull
+    public AdjectiveDeclension getAdjectiveDeclension()
+    {
+        return adjectiveDeclension;
+    }
+
+    /**
+     * Gets the root word.
+     *
+     * @return The root word.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String getRootWord()
+    {
+        return rootWord;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (!(o instanceof AdjectiveSpec)) return false;
+        AdjectiveSpec that = (AdjectiveSpec) o;
+        return Objects.equal(adjectiveDeclension, that.adjectiveDeclension) &&
+               Objects.equal(rootWord, that.rootWord);
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(adjectiveDeclension, rootWord);
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("adjectiveDeclension", adjectiveDeclension)
+                          .add("rootWord", rootWord)
+                          .toString();
+    }
+}
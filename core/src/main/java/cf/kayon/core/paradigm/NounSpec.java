@@ -0,0 +1,155 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.paradigm;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.noun.NounDeclension;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Describes the data needed to decline a noun: its NounDeclension, gender and root word.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class NounSpec
+{
+    /**
+     * The NounDeclension.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final NounDeclension nounDeclension;
+
+    /**
+     * The gender.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Gender gender;
+
+    /**
+     * The root word.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final String rootWord;
+
+    /**
+     * Constructs a new NounSpec.
+     *
+     * @param nounDeclension The NounDeclension.
+     * @param gender         The gender.
+     * @param rootWord       The root word.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code rootWord} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    public NounSpec(@NotNull NounDeclension nounDeclension, @NotNull Gender gender, @NotNull String rootWord)
+    {
+        checkNotNull(nounDeclension);
+        checkNotNull(gender);
+        checkNotEmpty(rootWord);
+        this.nounDeclension = nounDeclension;
+        this.gender = gender;
+        this.rootWord = rootWord;
+    }
+
+    /**
+     * Gets the NounDeclension.
+     *
+     * @return The NounDeclension.
+     * @since 0.2.4
+     */
+    @NotNull
+    public NounDeclension getNounDeclension()
+    {
+        return nounDeclension;
+    }
+
+    /**
+     * Gets the gender.
+     *
+     * @return The gender.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Gender getGender()
+    {
+        return gender;
+    }
+
+    /**
+     * Gets the root word.
+     *
+     * @return The root word.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String getRootWord()
+    {
+        return rootWord;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (!(o instanceof NounSpec)) return false;
+        NounSpec that = (NounSpec) o;
+        return gender == that.gender &&
+               Objects.equal(nounDeclension, that.nounDeclension) &&
+               Objects.equal(rootWord, that.rootWord);
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public int hashCode()
+    {
+        return Objects.hashCode(nounDeclension, gender, rootWord);
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("nounDeclension", nounDeclension)
+                          .add("gender", gender)
+                          .add("rootWord", rootWord)
+                          .toString();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.paradigm;
+
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The declined forms of many words, stored in one flat array.
+ * <p>
+ * The forms of entry {@code e} occupy the indices {@code e * width} to {@code (e + 1) * width - 1}, ordered like the list of
+ * {@link #getFormTypes() form types} ({@link cf.kayon.core.noun.NounForm#values()} or {@link cf.kayon.core.adjective.AdjectiveForm#values()}).
+ * Entries are ordered like the specs they were declined from.
+ *
+ * @param <F> The type of the forms ({@link cf.kayon.core.noun.NounForm} or {@link cf.kayon.core.adjective.AdjectiveForm}).
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class ParadigmTable<F>
+{
+    /**
+     * The form types, in table order.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final List<F> formTypes;
+
+    /**
+     * Maps a form type to its index in {@link #formTypes}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final ToIntFunction<? super F> ordinalFunction;
+
+    /**
+     * The forms. {@code null} elements are forms that could not be declined.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final String[] forms;
+
+    /**
+     * Constructs a new instance.
+     * <p>
+     * The array is not copied; it must not be modified afterwards.
+     *
+     * @param formTypes       The form types, in table order.
+     * @param ordinalFunction Maps a form type to its index in {@code formTypes}.
+     * @param forms           The forms.
+     * @since 0.2.4
+     */
+    ParadigmTable(@NotNull List<F> formTypes, @NotNull ToIntFunction<? super F> ordinalFunction, @NotNull String[] forms)
+    {
+        this.formTypes = formTypes;
+        this.ordinalFunction = ordinalFunction;
+        this.forms = forms;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return The number of entries.
+     * @since 0.2.4
+     */
+    public int size()
+    {
+        return forms.length / formTypes.size();
+    }
+
+    /**
+     * Gets the number of forms per entry.
+     *
+     * @return The width.
+     * @since 0.2.4
+     */
+    public int getWidth()
+    {
+        return formTypes.size();
+    }
+
+    /**
+     * Gets the form types, in table order.
+     *
+     * @return The form types.
+     * @since 0.2.4
+     */
+    @NotNull
+    public List<F> getFormTypes()
+    {
+        return formTypes;
+    }
+
+    /**
+     * Gets a declined form.
+     *
+     * @param entry    The entry index.
+     * @param formType The form type.
+     * @return The declined form. {@code null} if the form could not be declined.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @throws NullPointerException      If {@code formType} is {@code null}.
+     * @since 0.2.4
+     */
+    @Nullable
+    public String get(int entry, @NotNull F formType)
+    {
+        checkNotNull(formType);
+        return get(entry, ordinalFunction.applyAsInt(formType));
+    }
+
+    /**
+     * Gets a declined form by the index of its form type.
+     *
+     * @param entry       The entry index.
+     * @param formOrdinal The index of the form type in {@link #getFormTypes()}.
+     * @return The declined form. {@code null} if the form could not be declined.
+     * @throws IndexOutOfBoundsException If there is no such entry or form type.
+     * @since 0.2.4
+     */
+    @Nullable
+    public String get(int entry, int formOrdinal)
+    {
+        if (entry < 0 || entry >= size())
+            throw new IndexOutOfBoundsException("entry " + entry + " (size " + size() + ")");
+        if (formOrdinal < 0 || formOrdinal >= getWidth())
+            throw new IndexOutOfBoundsException("formOrdinal " + formOrdinal + " (width " + getWidth() + ")");
+        return forms[entry * getWidth() + formOrdinal];
+    }
+
+    /**
+     * Gets all forms of an entry.
+     *
+     * @param entry The entry index.
+     * @return A new array with the forms of the entry, ordered like {@link #getFormTypes()}.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String[] getForms(int entry)
+    {
+        if (entry < 0 || entry >= size())
+            throw new IndexOutOfBoundsException("entry " + entry + " (size " + size() + ")");
+        return Arrays.copyOfRange(forms, entry * getWidth(), (entry + 1) * getWidth());
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.paradigm;
+
+import cf.kayon.core.FormingException;
+import cf.kayon.core.adjective.AdjectiveForm;
+import cf.kayon.core.noun.NounForm;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Declines many nouns or adjectives at once.
+ * <p>
+ * The specs are split into ranges which are declined in parallel by a {@link ForkJoinPool}. Every task writes the forms of its range
+ * into a disjoint part of one preallocated array, so the tasks share no mutable state and need no locking.
+ * Forms that could not be declined (the NounDeclension or AdjectiveDeclension threw a {@link FormingException}) are {@code null}.
+ * <p>
+ * Unlike {@link cf.kayon.core.noun.Noun} and {@link cf.kayon.core.adjective.Adjective}, this does not consider defined forms.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+public class Paradigms
+{
+    /**
+     * The number of tasks per worker thread to split the specs into, so idle workers can steal work from slower ones.
+     *
+     * @since 0.2.4
+     */
+    private static final int TASKS_PER_THREAD = 8;
+
+    /**
+     * The minimum number of specs declined by a single task.
+     *
+     * @since 0.2.4
+     */
+    private static final int MINIMUM_CHUNK = 64;
+
+    /**
+     * A private constructor to prevent instantiation of this class.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private Paradigms()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Declines all forms of the specified nouns in the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param specs The nouns.
+     * @return The forms, with one entry per spec, ordered like {@code specs}.
+     * @throws NullPointerException If {@code specs} or any of its elements is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static ParadigmTable<NounForm> declineNouns(@NotNull Stream<? extends NounSpec> specs)
+    {
+        return declineNouns(collect(specs), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Declines all forms of the specified nouns.
+     *
+     * @param specs The nouns.
+     * @param pool  The pool to decline in.
+     * @return The forms, with one entry per spec, ordered like {@code specs}.
+     * @throws NullPointerException If any of the arguments or any element of {@code specs} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static ParadigmTable<NounForm> declineNouns(@NotNull List<? extends NounSpec> specs, @NotNull ForkJoinPool pool)
+    {
+        checkNotNull(specs);
+        checkNotNull(pool);
+        List<NounForm> nounForms = NounForm.values();
+        int width = nounForms.size();
+        String[] forms = new String[specs.size() * width];
+        pool.invoke(new RangeTask(0, specs.size(), chunkSize(specs.size(), pool), (from, to) -> {
+            for (int entry = from; entry < to; entry++)
+            {
+                NounSpec spec = checkNotNull(specs.get(entry));
+                for (NounForm nounForm : nounForms)
+                {
+                    try
+                    {
+                        forms[entry * width + nounForm.ordinal()] = spec.getNounDeclension().decline(nounForm, spec.getGender(), spec.getRootWord());
+                    } catch (FormingException ignored)
+                    {
+                        // leave null
+                    }
+                }
+            }
+        }));
+        return new ParadigmTable<>(nounForms, NounForm::ordinal, forms);
+    }
+
+    /**
+     * Declines all forms of the specified adjectives in the {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @param specs The adjectives.
+     * @return The forms, with one entry per spec, ordered like {@code specs}.
+     * @throws NullPointerException If {@code specs} or any of its elements is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static ParadigmTable<AdjectiveForm> declineAdjectives(@NotNull Stream<? extends AdjectiveSpec> specs)
+    {
+        return declineAdjectives(collect(specs), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Declines all forms of the specified adjectives.
+     *
+     * @param specs The adjectives.
+     * @param pool  The pool to decline in.
+     * @return The forms, with one entry per spec, ordered like {@code specs}.
+     * @throws NullPointerException If any of the arguments or any element of {@code specs} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static ParadigmTable<AdjectiveForm> declineAdjectives(@NotNull List<? extends AdjectiveSpec> specs, @NotNull ForkJoinPool pool)
+    {
+        checkNotNull(specs);
+        checkNotNull(pool);
+        List<AdjectiveForm> adjectiveForms = AdjectiveForm.values();
+        int width = adjectiveForms.size();
+        String[] forms = new String[specs.size() * width];
+        pool.invoke(new RangeTask(0, specs.size(), chunkSize(specs.size(), pool), (from, to) -> {
+            for (int entry = from; entry < to; entry++)
+            {
+                AdjectiveSpec spec = checkNotNull(specs.get(entry));
+                for (AdjectiveForm adjectiveForm : adjectiveForms)
+                {
+                    try
+                    {
+                        forms[entry * width + adjectiveForm.ordinal()] = spec.getAdjectiveDeclension().decline(adjectiveForm, spec.getRootWord());
+                    } catch (FormingException ignored)
+                    {
+                        // leave null
+                    }
+                }
+            }
+        }));
+        return new ParadigmTable<>(adjectiveForms, AdjectiveForm::ordinal, forms);
+    }
+
+    /**
+     * Collects a stream into a random access list, in parallel if the stream is parallel.
+     *
+     * @param specs The stream.
+     * @param <T>   The type of the elements.
+     * @return A list of the elements.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static <T> List<T> collect(@NotNull Stream<T> specs)
+    {
+        checkNotNull(specs);
+        return specs.collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the number of specs declined by a single task.
+     *
+     * @param size The number of specs.
+     * @param pool The pool.
+     * @return The chunk size.
+     * @since 0.2.4
+     */
+    private static int chunkSize(int size, @NotNull ForkJoinPool pool)
+    {
+        return Math.max(MINIMUM_CHUNK, size / (pool.getParallelism() * TASKS_PER_THREAD));
+    }
+
+    /**
+     * Processes a range of indices.
+     *
+     * @since 0.2.4
+     */
+    @FunctionalInterface
+    private interface RangeConsumer
+    {
+        /**
+         * Processes a range of indices.
+         *
+         * @param from The first index (inclusive).
+         * @param to   The last index (exclusive).
+         * @since 0.2.4
+         */
+        void accept(int from, int to);
+    }
+
+    /**
+     * Splits a range in halves until it is at most one chunk long, then processes it.
+     *
+     * @since 0.2.4
+     */
+    private static final class RangeTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The range.
+         *
+         * @since 0.2.4
+         */
+        private final int from, to;
+
+        /**
+         * The maximum length of a range that is processed without splitting.
+         *
+         * @since 0.2.4
+         */
+        private final int chunkSize;
+
+        /**
+         * The consumer processing the ranges.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final RangeConsumer consumer;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param from      The first index (inclusive).
+         * @param to        The last index (exclusive).
+         * @param chunkSize The maximum length of a range that is processed without splitting.
+         * @param consumer  The consumer processing the ranges.
+         * @since 0.2.4
+         */
+        RangeTask(int from, int to, int chunkSize, @NotNull RangeConsumer consumer)
+        {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.consumer = consumer;
+        }
+
+        /**
+         * @since 0.2.4
+         */
+        @Override
+        protected void compute()
+        {
+            if (to - from <= chunkSize)
+            {
+                consumer.accept(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(from, middle, chunkSize, consumer), new RangeTask(middle, to, chunkSize, consumer));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * Contains a stateless bulk API for declining many words at once, without constructing {@link cf.kayon.core.noun.Noun} or
+ * {@link cf.kayon.core.adjective.Adjective} objects.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+package cf.kayon.core.paradigm;
@@ -0,0 +1,324 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.util.Flow;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Publishes the nouns found by a blocking query of a {@link VocabRepository}.
+ * <p>
+ * Every subscription runs the query on the executor when it first requests items and then delivers the results as far as they are requested.
+ * Items and signals are delivered on the executor; subscribers should hand off expensive work.
+ *
+ * @author Ruben Anders
+ * @see VocabRepository#publishNouns(String, Executor)
+ * @see VocabRepository#publishNounsByRootWord(String, Executor)
+ * @since 0.2.4
+ */
+@ThreadSafe
+final class BlockingQueryPublisher implements Flow.Publisher<Noun>
+{
+    /**
+     * The logger.
+     *
+     * @since 0.2.4
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(BlockingQueryPublisher.class);
+
+    /**
+     * The query.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Query query;
+
+    /**
+     * The executor the query is run and the results are delivered on.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Executor executor;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param query    The query.
+     * @param executor The executor the query is run and the results are delivered on.
+     * @since 0.2.4
+     */
+    BlockingQueryPublisher(@NotNull Query query, @NotNull Executor executor)
+    {
+        this.query = checkNotNull(query);
+        this.executor = checkNotNull(executor);
+    }
+
+    /**
+     * Subscribes a subscriber. The query is run when the subscriber first requests items.
+     *
+     * @param subscriber The subscriber.
+     * @throws NullPointerException If {@code subscriber} is {@code null}.
+     * @since 0.2.4
+     */
+    @Override
+    public void subscribe(@NotNull Flow.Subscriber<? super Noun> subscriber)
+    {
+        subscriber.onSubscribe(new QuerySubscription(checkNotNull(subscriber)));
+    }
+
+    /**
+     * A blocking query writing its results to a queue, like {@link VocabRepository#queryNouns(String, BlockingQueue)}.
+     *
+     * @since 0.2.4
+     */
+    @FunctionalInterface
+    interface Query
+    {
+        /**
+         * Runs the query.
+         *
+         * @param writeTo The queue to write the results to.
+         * @throws RepositoryException  If the query failed.
+         * @throws InterruptedException If a write to the queue was interrupted.
+         * @since 0.2.4
+         */
+        void run(@NotNull BlockingQueue<? super Noun> writeTo) throws RepositoryException, InterruptedException;
+    }
+
+    /**
+     * A subscription to the results of the query.
+     * <p>
+     * All work is done by {@link #run()}, which is scheduled whenever demand is added or the subscription is cancelled and never runs
+     * concurrently with itself.
+     *
+     * @since 0.2.4
+     */
+    private final class QuerySubscription implements Flow.Subscription, Runnable
+    {
+        /**
+         * The subscriber.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final Flow.Subscriber<? super Noun> subscriber;
+
+        /**
+         * The number of items requested but not yet delivered. {@link Long#MAX_VALUE} means unbounded.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final AtomicLong demand = new AtomicLong();
+
+        /**
+         * The number of times {@link #run()} has been scheduled without having caught up.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final AtomicInteger missed = new AtomicInteger();
+
+        /**
+         * Whether the subscription has been cancelled.
+         *
+         * @since 0.2.4
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * The error caused by an invalid request, or {@code null}.
+         *
+         * @since 0.2.4
+         */
+        @Nullable
+        private volatile Throwable requestError;
+
+        /**
+         * Whether a terminal signal has been delivered or the subscription has been cancelled. Only accessed by {@link #run()}.
+         *
+         * @since 0.2.4
+         */
+        private boolean done;
+
+        /**
+         * The results not delivered yet, or {@code null} if the query has not been run yet. Only accessed by {@link #run()}.
+         *
+         * @since 0.2.4
+         */
+        @Nullable
+        private Iterator<Noun> results;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param subscriber The subscriber.
+         * @since 0.2.4
+         */
+        QuerySubscription(@NotNull Flow.Subscriber<? super Noun> subscriber)
+        {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0)
+            {
+                requestError = new IllegalArgumentException("Non-positive request: " + n);
+            } else
+            {
+                long current;
+                long updated;
+                do
+                {
+                    current = demand.get();
+                    updated = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!demand.compareAndSet(current, updated));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel()
+        {
+            cancelled = true;
+            schedule();
+        }
+
+        /**
+         * Schedules {@link #run()} unless it is already running, in which case it loops once more.
+         *
+         * @since 0.2.4
+         */
+        private void schedule()
+        {
+            if (missed.getAndIncrement() != 0)
+                return;
+            try
+            {
+                executor.execute(this);
+            } catch (RejectedExecutionException e)
+            {
+                // run() is not running, so the terminal signal can be delivered here
+                missed.set(0);
+                if (!done)
+                    terminate(e);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            int missedRuns = 1;
+            do
+            {
+                drain();
+                missedRuns = missed.addAndGet(-missedRuns);
+            } while (missedRuns != 0);
+        }
+
+        /**
+         * Delivers as many results as have been requested, or the terminal signal.
+         *
+         * @since 0.2.4
+         */
+        private void drain()
+        {
+            if (done)
+                return;
+            try
+            {
+                @Nullable
+                Throwable error = requestError;
+                if (error != null)
+                {
+                    terminate(error);
+                    return;
+                }
+                while (!cancelled)
+                {
+                    if (results == null)
+                    {
+                        if (demand.get() == 0)
+                            return;
+                        LinkedBlockingQueue<Noun> queue = new LinkedBlockingQueue<>();
+                        query.run(queue);
+                        results = new ArrayList<>(queue).iterator();
+                    }
+                    if (!results.hasNext())
+                    {
+                        results = null;
+                        done = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (demand.get() == 0)
+                        return;
+                    if (demand.get() != Long.MAX_VALUE)
+                        demand.decrementAndGet();
+                    subscriber.onNext(results.next());
+                }
+                results = null;
+                done = true;
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                terminate(e);
+            } catch (Throwable t)
+            {
+                terminate(t);
+            }
+        }
+
+        /**
+         * Discards the results and delivers an error to the subscriber unless the subscription has been cancelled.
+         *
+         * @param throwable The error.
+         * @since 0.2.4
+         */
+        private void terminate(@NotNull Throwable throwable)
+        {
+            results = null;
+            done = true;
+            if (!cancelled)
+                subscriber.onError(throwable);
+            else
+                LOGGER.debug("Error after cancellation", throwable);
+        }
+    }
+}
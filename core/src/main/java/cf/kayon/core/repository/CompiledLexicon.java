@@ -0,0 +1,758 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.CaseHandling;
+import cf.kayon.core.DeclensionRegistry;
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.sql.SQLUtil;
+import cf.kayon.core.util.StringUtil;
+import com.google.common.primitives.UnsignedBytes;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An immutable lexicon file answering form and root word lookups directly from a memory mapping.
+ * <p>
+ * A lexicon is {@link #compile(Iterable, Path) compiled} once from a set of nouns and can then be {@link #open(Path) opened} in constant
+ * time by any number of processes, which share the mapped pages through the page cache of the operating system.
+ * Lookups binary search the mapped buffer and return plain {@code int}s; {@link Noun} objects are only created by {@link #toNoun(KayonContext, int)}.
+ * <p>
+ * The nouns of a lexicon are addressed by their <em>entry index</em> ({@code 0} to {@link #size()} exclusive).
+ * A form lookup returns <em>postings</em>, each packing an entry index and the {@link NounForm#ordinal() ordinal} of the matching form
+ * (see {@link #entryOf(int)} and {@link #nounFormOf(int)}).
+ * <p>
+ * File layout (all numbers big-endian, all offsets relative to the start of the string pool):
+ * <pre>
+ * header     int magic ({@value #MAGIC}), short version ({@value #VERSION}), short reserved,
+ *            int entry count, int form count, int posting count, int pool size
+ * entries    fixed-size records of {@value #ENTRY_SIZE} bytes:
+ *            long UUID most significant bits, long UUID least significant bits, byte gender ID, byte declension ID (0 if none),
+ *            short bit mask of the defined forms, int root word offset, int normalized root word offset, int translations offset,
+ *            12 ints with the offsets of the effective forms (-1 if there is no form)
+ * forms      (form count + 1) slots of int normalized form offset and int index of the first posting, sorted by the UTF-8 bytes
+ *            of the normalized forms; the last slot only holds the posting count
+ * postings   ints ({@code entry index << 4 | form ordinal}), grouped by form
+ * roots      ints (entry indices), sorted by the UTF-8 bytes of the normalized root words
+ * pool       strings (int byte length and UTF-8 bytes) and translation tables (short count, then pairs of language tag and translation offsets)
+ * </pre>
+ * Normalized strings are {@link StringUtil#unSpecialString(String) stripped of special characters} and lowercase.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class CompiledLexicon
+{
+    /**
+     * The magic number at the start of every lexicon file.
+     *
+     * @since 0.2.4
+     */
+    public static final int MAGIC = 0x4B594E4C; // KYNL
+
+    /**
+     * The version of the file layout written by this class.
+     *
+     * @since 0.2.4
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * The size of the header in bytes.
+     *
+     * @since 0.2.4
+     */
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * The size of an entry record in bytes.
+     *
+     * @since 0.2.4
+     */
+    public static final int ENTRY_SIZE = 80;
+
+    /**
+     * The offset of the first form offset within an entry record.
+     *
+     * @since 0.2.4
+     */
+    private static final int ENTRY_FORMS = 32;
+
+    /**
+     * The mapped file. Only absolute reads are performed on it, so it can be shared by all threads.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final ByteBuffer buffer;
+
+    /**
+     * The number of entries.
+     *
+     * @since 0.2.4
+     */
+    private final int entryCount;
+
+    /**
+     * The number of distinct normalized forms.
+     *
+     * @since 0.2.4
+     */
+    private final int formCount;
+
+    /**
+     * The absolute positions of the sections.
+     *
+     * @since 0.2.4
+     */
+    private final int formsPosition, postingsPosition, rootsPosition, poolPosition;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param buffer The mapped file.
+     * @throws IOException If the buffer does not contain a valid lexicon.
+     * @since 0.2.4
+     */
+    private CompiledLexicon(@NotNull ByteBuffer buffer) throws IOException
+    {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IOException("Not a lexicon file");
+        if (buffer.getShort(4) != VERSION)
+            throw new IOException("Unsupported lexicon version " + buffer.getShort(4));
+        this.buffer = buffer;
+        entryCount = buffer.getInt(8);
+        formCount = buffer.getInt(12);
+        int postingCount = buffer.getInt(16);
+        int poolSize = buffer.getInt(20);
+        formsPosition = HEADER_SIZE + entryCount * ENTRY_SIZE;
+        postingsPosition = formsPosition + (formCount + 1) * 8;
+        rootsPosition = postingsPosition + postingCount * 4;
+        poolPosition = rootsPosition + entryCount * 4;
+        if (entryCount < 0 || formCount < 0 || postingCount < 0 || poolSize < 0 || poolPosition + poolSize != buffer.limit())
+            throw new IOException("Corrupt lexicon file (section sizes do not match the file size)");
+    }
+
+    /**
+     * Opens a lexicon file.
+     *
+     * @param path The path of the lexicon file.
+     * @return The opened lexicon.
+     * @throws IOException          If the file could not be mapped or is not a valid lexicon file.
+     * @throws NullPointerException If {@code path} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static CompiledLexicon open(@NotNull Path path) throws IOException
+    {
+        checkNotNull(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            // The mapping stays valid after closing the channel
+            return new CompiledLexicon(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e)
+        {
+            throw new IOException("Could not open lexicon " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compiles a lexicon file.
+     * <p>
+     * If the file already exists, it is overwritten. The entries of nouns without a UUID get a random UUID; the nouns themselves are not modified.
+     *
+     * @param nouns The nouns to compile.
+     * @param path  The path of the lexicon file.
+     * @throws IOException              If the file could not be written.
+     * @throws IllegalArgumentException If the NounDeclension of any noun is not registered in the {@link DeclensionRegistry}.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    public static void compile(@NotNull Iterable<? extends Noun> nouns, @NotNull Path path) throws IOException
+    {
+        checkNotNull(nouns);
+        checkNotNull(path);
+        new Compiler().compile(nouns, path);
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return The number of entries.
+     * @since 0.2.4
+     */
+    public int size()
+    {
+        return entryCount;
+    }
+
+    /**
+     * Gets the entry index of a posting.
+     *
+     * @param posting The posting.
+     * @return The entry index.
+     * @since 0.2.4
+     */
+    public static int entryOf(int posting)
+    {
+        return posting >>> 4;
+    }
+
+    /**
+     * Gets the form of a posting.
+     *
+     * @param posting The posting.
+     * @return The NounForm.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static NounForm nounFormOf(int posting)
+    {
+        return NounForm.values().get(posting & 0xF);
+    }
+
+    /**
+     * Looks up all entries having a form that equals the specified form after normalization.
+     *
+     * @param form The form to search. May be any kind of special form (and may be raw user input).
+     * @return The postings of the form, ordered by entry index. Empty if no entry has the form.
+     * @throws NullPointerException     If {@code form} is {@code null}.
+     * @throws IllegalArgumentException If {@code form} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public int[] lookupForm(@NotNull String form)
+    {
+        byte[] key = normalizedBytes(form);
+        int low = 0, high = formCount - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            int comparison = compareToPool(buffer.getInt(formsPosition + middle * 8), key);
+            if (comparison < 0)
+                low = middle + 1;
+            else if (comparison > 0)
+                high = middle - 1;
+            else
+            {
+                int start = buffer.getInt(formsPosition + middle * 8 + 4);
+                int end = buffer.getInt(formsPosition + middle * 8 + 12);
+                int[] postings = new int[end - start];
+                for (int i = 0; i < postings.length; i++)
+                    postings[i] = buffer.getInt(postingsPosition + (start + i) * 4);
+                return postings;
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Looks up all entries whose root word equals the specified root word after normalization.
+     *
+     * @param rootWord The root word to search. May be any kind of special form (and may be raw user input).
+     * @return The entry indices, in no particular order. Empty if no entry has the root word.
+     * @throws NullPointerException     If {@code rootWord} is {@code null}.
+     * @throws IllegalArgumentException If {@code rootWord} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public int[] lookupRootWord(@NotNull String rootWord)
+    {
+        byte[] key = normalizedBytes(rootWord);
+        // Find the first root that is not smaller than the key
+        int low = 0, high = entryCount;
+        while (low < high)
+        {
+            int middle = (low + high) >>> 1;
+            if (compareToPool(normalizedRootOffset(buffer.getInt(rootsPosition + middle * 4)), key) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        int end = low;
+        while (end < entryCount && compareToPool(normalizedRootOffset(buffer.getInt(rootsPosition + end * 4)), key) == 0)
+            end++;
+        int[] entries = new int[end - low];
+        for (int i = 0; i < entries.length; i++)
+            entries[i] = buffer.getInt(rootsPosition + (low + i) * 4);
+        return entries;
+    }
+
+    /**
+     * Gets the UUID of an entry.
+     *
+     * @param entry The entry index.
+     * @return The UUID.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @since 0.2.4
+     */
+    @NotNull
+    public UUID uuid(int entry)
+    {
+        int position = entryPosition(entry);
+        return new UUID(buffer.getLong(position), buffer.getLong(position + 8));
+    }
+
+    /**
+     * Gets the gender of an entry.
+     *
+     * @param entry The entry index.
+     * @return The gender.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Gender gender(int entry)
+    {
+        return SQLUtil.genderForId(buffer.get(entryPosition(entry) + 16));
+    }
+
+    /**
+     * Gets the NounDeclension of an entry.
+     *
+     * @param entry The entry index.
+     * @return The NounDeclension. {@code null} if the noun has no NounDeclension.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @throws IllegalArgumentException  If the NounDeclension is not registered in the {@link DeclensionRegistry} of this runtime.
+     * @since 0.2.4
+     */
+    @Nullable
+    public NounDeclension nounDeclension(int entry)
+    {
+        byte id = buffer.get(entryPosition(entry) + 17);
+        return id == 0 ? null : DeclensionRegistry.nounDeclensionForId(id);
+    }
+
+    /**
+     * Gets the root word of an entry.
+     *
+     * @param entry The entry index.
+     * @return The root word.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @since 0.2.4
+     */
+    @NotNull
+    public String rootWord(int entry)
+    {
+        return poolString(buffer.getInt(entryPosition(entry) + 20));
+    }
+
+    /**
+     * Gets an effective form (defined or declined) of an entry.
+     *
+     * @param entry    The entry index.
+     * @param nounForm The form.
+     * @return The form. {@code null} if the noun does not have that form.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @throws NullPointerException      If {@code nounForm} is {@code null}.
+     * @since 0.2.4
+     */
+    @Nullable
+    public String form(int entry, @NotNull NounForm nounForm)
+    {
+        int offset = buffer.getInt(entryPosition(entry) + ENTRY_FORMS + nounForm.ordinal() * 4);
+        return offset < 0 ? null : poolString(offset);
+    }
+
+    /**
+     * Returns whether a form of an entry is defined (as opposed to declined).
+     *
+     * @param entry    The entry index.
+     * @param nounForm The form.
+     * @return Whether the form is defined.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @throws NullPointerException      If {@code nounForm} is {@code null}.
+     * @since 0.2.4
+     */
+    public boolean isDefined(int entry, @NotNull NounForm nounForm)
+    {
+        return (buffer.getShort(entryPosition(entry) + 18) & (1 << nounForm.ordinal())) != 0;
+    }
+
+    /**
+     * Gets the translations of an entry.
+     *
+     * @param entry The entry index.
+     * @return A new map of the translations.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Map<Locale, String> translations(int entry)
+    {
+        int position = poolPosition + buffer.getInt(entryPosition(entry) + 28);
+        int count = buffer.getShort(position) & 0xFFFF;
+        Map<Locale, String> translations = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++)
+        {
+            Locale locale = Locale.forLanguageTag(poolString(buffer.getInt(position + 2 + i * 8)));
+            translations.put(locale, poolString(buffer.getInt(position + 6 + i * 8)));
+        }
+        return translations;
+    }
+
+    /**
+     * Reconstructs the noun of an entry.
+     *
+     * @param context The {@link KayonContext} for the noun.
+     * @param entry   The entry index.
+     * @return A new noun, {@link Noun#markClean() marked clean}.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @throws NullPointerException      If {@code context} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Noun toNoun(@NotNull KayonContext context, int entry)
+    {
+        checkNotNull(context);
+        Noun noun = new Noun(context, nounDeclension(entry), gender(entry), rootWord(entry));
+        noun.initializeUuid(uuid(entry));
+        noun.setTranslations(translations(entry));
+        for (NounForm nounForm : NounForm.values())
+            if (isDefined(entry, nounForm))
+                noun.setDefinedForm(nounForm, form(entry, nounForm));
+        noun.markClean();
+        return noun;
+    }
+
+    /**
+     * Gets the absolute position of an entry record.
+     *
+     * @param entry The entry index.
+     * @return The position.
+     * @throws IndexOutOfBoundsException If there is no such entry.
+     * @since 0.2.4
+     */
+    private int entryPosition(int entry)
+    {
+        if (entry < 0 || entry >= entryCount)
+            throw new IndexOutOfBoundsException("entry " + entry + " (size " + entryCount + ")");
+        return HEADER_SIZE + entry * ENTRY_SIZE;
+    }
+
+    /**
+     * Gets the pool offset of the normalized root word of an entry.
+     *
+     * @param entry The entry index.
+     * @return The pool offset.
+     * @since 0.2.4
+     */
+    private int normalizedRootOffset(int entry)
+    {
+        return buffer.getInt(HEADER_SIZE + entry * ENTRY_SIZE + 24);
+    }
+
+    /**
+     * Decodes a string of the pool.
+     *
+     * @param offset The pool offset of the string.
+     * @return The string.
+     * @since 0.2.4
+     */
+    @NotNull
+    private String poolString(int offset)
+    {
+        int position = poolPosition + offset;
+        byte[] bytes = new byte[buffer.getInt(position)];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = buffer.get(position + 4 + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares a string of the pool with a key by their UTF-8 bytes, without decoding the string.
+     *
+     * @param offset The pool offset of the string.
+     * @param key    The UTF-8 bytes of the key.
+     * @return A negative number, zero or a positive number if the string is smaller than, equal to or greater than the key.
+     * @since 0.2.4
+     */
+    private int compareToPool(int offset, @NotNull byte[] key)
+    {
+        int position = poolPosition + offset;
+        int length = buffer.getInt(position);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++)
+        {
+            int comparison = UnsignedBytes.compare(buffer.get(position + 4 + i), key[i]);
+            if (comparison != 0)
+                return comparison;
+        }
+        return length - key.length;
+    }
+
+    /**
+     * Normalizes a string and encodes it as UTF-8.
+     *
+     * @param string The string.
+     * @return The UTF-8 bytes of the normalized string.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    private static byte[] normalizedBytes(@NotNull String string)
+    {
+        checkNotEmpty(string);
+        return StringUtil.unSpecialString(string.toLowerCase()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Collects the data of the nouns and writes the lexicon file.
+     *
+     * @since 0.2.4
+     */
+    private static final class Compiler
+    {
+        /**
+         * The string pool and translation tables.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+
+        /**
+         * The writer of {@link #poolBytes}.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final DataOutputStream pool = new DataOutputStream(poolBytes);
+
+        /**
+         * The pool offsets of all strings written to the pool, so that equal strings are stored once.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final Map<String, Integer> stringOffsets = new HashMap<>();
+
+        /**
+         * The entry records.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+
+        /**
+         * The writer of {@link #entryBytes}.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final DataOutputStream entries = new DataOutputStream(entryBytes);
+
+        /**
+         * The postings, mapped by the UTF-8 bytes of their normalized forms.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final SortedMap<byte[], List<Integer>> postings = new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+
+        /**
+         * The UTF-8 bytes of the normalized root words, by entry index.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final List<byte[]> normalizedRoots = new ArrayList<>();
+
+        /**
+         * Compiles the lexicon.
+         *
+         * @param nouns The nouns.
+         * @param path  The path of the lexicon file.
+         * @throws IOException If the file could not be written.
+         * @since 0.2.4
+         */
+        void compile(@NotNull Iterable<? extends Noun> nouns, @NotNull Path path) throws IOException
+        {
+            for (Noun noun : nouns)
+                addEntry(checkNotNull(noun));
+
+            int entryCount = normalizedRoots.size();
+            int postingCount = 0;
+            for (List<Integer> formPostings : postings.values())
+                postingCount += formPostings.size();
+            Integer[] roots = new Integer[entryCount];
+            for (int i = 0; i < entryCount; i++)
+                roots[i] = i;
+            Arrays.sort(roots, (a, b) -> UnsignedBytes.lexicographicalComparator().compare(normalizedRoots.get(a), normalizedRoots.get(b)));
+            int[] formOffsets = new int[postings.size()];
+            int index = 0;
+            for (byte[] form : postings.keySet())
+                formOffsets[index++] = poolString(new String(form, StandardCharsets.UTF_8));
+            pool.flush();
+            long fileSize = HEADER_SIZE + (long) entryCount * ENTRY_SIZE + (postings.size() + 1L) * 8 + postingCount * 4L + entryCount * 4L + poolBytes.size();
+            if (fileSize > Integer.MAX_VALUE)
+                throw new IOException("Lexicon too large to be mapped (" + fileSize + " bytes)");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16)))
+            {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeShort(0);
+                out.writeInt(entryCount);
+                out.writeInt(postings.size());
+                out.writeInt(postingCount);
+                out.writeInt(poolBytes.size());
+
+                entries.flush();
+                entryBytes.writeTo(out);
+
+                index = 0;
+                int postingIndex = 0;
+                for (List<Integer> formPostings : postings.values())
+                {
+                    out.writeInt(formOffsets[index++]);
+                    out.writeInt(postingIndex);
+                    postingIndex += formPostings.size();
+                }
+                out.writeInt(-1);
+                out.writeInt(postingIndex);
+
+                for (List<Integer> formPostings : postings.values())
+                    for (int posting : formPostings)
+                        out.writeInt(posting);
+
+                for (int root : roots)
+                    out.writeInt(root);
+
+                poolBytes.writeTo(out);
+            }
+        }
+
+        /**
+         * Adds the entry record and postings of a noun.
+         *
+         * @param noun The noun.
+         * @throws IOException If the record could not be written.
+         * @since 0.2.4
+         */
+        private void addEntry(@NotNull Noun noun) throws IOException
+        {
+            int entry = normalizedRoots.size();
+            //noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (noun)
+            {
+                UUID uuid = noun.getUuid();
+                if (uuid == null)
+                    uuid = UUID.randomUUID(); // for the entry only, the noun stays unsaved
+                entries.writeLong(uuid.getMostSignificantBits());
+                entries.writeLong(uuid.getLeastSignificantBits());
+                entries.writeByte(SQLUtil.idForGender(noun.getGender()));
+                NounDeclension nounDeclension = noun.getNounDeclension();
+                entries.writeByte(nounDeclension == null ? 0 : DeclensionRegistry.idForNounDeclension(nounDeclension));
+                int definedMask = 0;
+                for (NounForm nounForm : NounForm.values())
+                    if (noun.getDefinedForm(nounForm) != null)
+                        definedMask |= 1 << nounForm.ordinal();
+                entries.writeShort(definedMask);
+
+                String rootWord = noun.getRootWord();
+                String normalizedRoot = StringUtil.unSpecialString(rootWord.toLowerCase());
+                entries.writeInt(poolString(rootWord));
+                entries.writeInt(poolString(normalizedRoot));
+                normalizedRoots.add(normalizedRoot.getBytes(StandardCharsets.UTF_8));
+                entries.writeInt(poolTranslations(noun.getTranslations()));
+
+                for (NounForm nounForm : NounForm.values())
+                {
+                    String form = noun.getForm(nounForm);
+                    if (form == null)
+                    {
+                        entries.writeInt(-1);
+                        continue;
+                    }
+                    entries.writeInt(poolString(form));
+                    byte[] normalizedForm = StringUtil.unSpecialString(form.toLowerCase()).getBytes(StandardCharsets.UTF_8);
+                    postings.computeIfAbsent(normalizedForm, key -> new ArrayList<>()).add(entry << 4 | nounForm.ordinal());
+                }
+            }
+        }
+
+        /**
+         * Writes a string to the pool unless it has been written before.
+         *
+         * @param string The string.
+         * @return The pool offset of the string.
+         * @throws IOException If the string could not be written.
+         * @since 0.2.4
+         */
+        private int poolString(@NotNull String string) throws IOException
+        {
+            Integer offset = stringOffsets.get(string);
+            if (offset == null)
+            {
+                offset = pool.size();
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                pool.writeInt(bytes.length);
+                pool.write(bytes);
+                stringOffsets.put(string, offset);
+            }
+            return offset;
+        }
+
+        /**
+         * Writes a translation table to the pool.
+         *
+         * @param translations The translations. Entries with {@code null} values are skipped.
+         * @return The pool offset of the table.
+         * @throws IOException If the table could not be written.
+         * @since 0.2.4
+         */
+        private int poolTranslations(@NotNull Map<Locale, String> translations) throws IOException
+        {
+            List<int[]> pairs = new ArrayList<>(translations.size());
+            for (Map.Entry<Locale, String> translation : new HashMap<>(translations).entrySet())
+                if (translation.getValue() != null)
+                    pairs.add(new int[]{poolString(translation.getKey().toLanguageTag()), poolString(translation.getValue())});
+            int offset = pool.size();
+            pool.writeShort(pairs.size());
+            for (int[] pair : pairs)
+            {
+                pool.writeInt(pair[0]);
+                pool.writeInt(pair[1]);
+            }
+            return offset;
+        }
+    }
+}
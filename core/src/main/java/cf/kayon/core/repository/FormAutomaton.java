@@ -0,0 +1,941 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.CaseHandling;
+import cf.kayon.core.adjective.Adjective;
+import cf.kayon.core.adjective.AdjectiveForm;
+import cf.kayon.core.adjective.ComparisonDegree;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.util.StringUtil;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A minimal acyclic finite-state automaton (DAWG) over lowercase surface forms, mapping each form to a list of packed outputs.
+ * <p>
+ * Equal suffixes of different forms (like {@code -ōrum} or {@code -ibus}) share their states, so the automaton is much smaller than the
+ * strings it accepts. The outputs are not stored in the states. Instead, every accepted form has a number (its index in lexicographic order),
+ * which is computed while walking the automaton by counting the forms skipped on the way (perfect hashing), and indexes the output table.
+ * Since all forms sharing a prefix have consecutive numbers, {@link #lookupPrefix(String) prefix lookups} return a contiguous range of outputs.
+ * <p>
+ * Outputs pack an entry ID chosen by the caller and a form ordinal (the {@link NounForm#ordinal() NounForm ordinal} or the
+ * {@link AdjectiveForm#ordinal() AdjectiveForm ordinal}), see {@link #entryOf(int)} and {@link #formOrdinalOf(int)}.
+ * <p>
+ * Instances are created by a {@link Builder} or a {@link SortedBuilder} and are immutable.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class FormAutomaton
+{
+    /**
+     * The first transition of each state. The transitions of state {@code s} are {@code firstTransition[s]} (inclusive) to
+     * {@code firstTransition[s + 1]} (exclusive), sorted by label.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final int[] firstTransition;
+
+    /**
+     * The number of forms accepted by the sub-automaton starting at each state.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final int[] formCount;
+
+    /**
+     * Whether each state is final.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final BitSet finalStates;
+
+    /**
+     * The labels of the transitions.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final char[] labels;
+
+    /**
+     * The target states of the transitions.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final int[] targets;
+
+    /**
+     * The number of forms skipped by following each transition: the forms of the preceding transitions of the same state plus one
+     * if the state is final.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final int[] skipped;
+
+    /**
+     * The first output of each form. The outputs of form {@code f} are {@code firstOutput[f]} (inclusive) to {@code firstOutput[f + 1]} (exclusive).
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final int[] firstOutput;
+
+    /**
+     * The outputs, grouped by form.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final int[] outputs;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @since 0.2.4
+     */
+    private FormAutomaton(@NotNull int[] firstTransition, @NotNull int[] formCount, @NotNull BitSet finalStates, @NotNull char[] labels,
+                          @NotNull int[] targets, @NotNull int[] skipped, @NotNull int[] firstOutput, @NotNull int[] outputs)
+    {
+        this.firstTransition = firstTransition;
+        this.formCount = formCount;
+        this.finalStates = finalStates;
+        this.labels = labels;
+        this.targets = targets;
+        this.skipped = skipped;
+        this.firstOutput = firstOutput;
+        this.outputs = outputs;
+    }
+
+    /**
+     * Packs an entry ID and a form ordinal into an output.
+     *
+     * @param entry       The entry ID. Must be between {@code 0} and {@code 2^23 - 1}.
+     * @param formOrdinal The form ordinal. Must be between {@code 0} and {@code 255}.
+     * @return The output.
+     * @throws IllegalArgumentException If any of the arguments is out of range.
+     * @since 0.2.4
+     */
+    public static int output(int entry, int formOrdinal)
+    {
+        if (entry < 0 || entry >= 1 << 23)
+            throw new IllegalArgumentException("entry out of range: " + entry);
+        if (formOrdinal < 0 || formOrdinal > 0xFF)
+            throw new IllegalArgumentException("formOrdinal out of range: " + formOrdinal);
+        return entry << 8 | formOrdinal;
+    }
+
+    /**
+     * Gets the entry ID of an output.
+     *
+     * @param output The output.
+     * @return The entry ID.
+     * @since 0.2.4
+     */
+    public static int entryOf(int output)
+    {
+        return output >>> 8;
+    }
+
+    /**
+     * Gets the form ordinal of an output.
+     *
+     * @param output The output.
+     * @return The form ordinal.
+     * @since 0.2.4
+     */
+    public static int formOrdinalOf(int output)
+    {
+        return output & 0xFF;
+    }
+
+    /**
+     * Gets the number of distinct forms accepted by this automaton.
+     *
+     * @return The number of forms.
+     * @since 0.2.4
+     */
+    public int size()
+    {
+        return formCount[0];
+    }
+
+    /**
+     * Gets the number of states of this automaton.
+     *
+     * @return The number of states.
+     * @since 0.2.4
+     */
+    public int stateCount()
+    {
+        return formCount.length;
+    }
+
+    /**
+     * Gets the number of transitions of this automaton.
+     *
+     * @return The number of transitions.
+     * @since 0.2.4
+     */
+    public int transitionCount()
+    {
+        return labels.length;
+    }
+
+    /**
+     * Looks up the outputs of a form.
+     *
+     * @param form The form. Special characters have to match exactly, case is ignored.
+     * @return The outputs of the form, in the order they were added. Empty if the form is not accepted.
+     * @throws NullPointerException     If {@code form} is {@code null}.
+     * @throws IllegalArgumentException If {@code form} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public int[] lookup(@NotNull String form)
+    {
+        checkNotEmpty(form);
+        String lowerCase = form.toLowerCase();
+        int state = 0, number = 0;
+        for (int i = 0; i < lowerCase.length(); i++)
+        {
+            int transition = findTransition(state, lowerCase.charAt(i));
+            if (transition < 0)
+                return new int[0];
+            number += skipped[transition];
+            state = targets[transition];
+        }
+        if (!finalStates.get(state))
+            return new int[0];
+        return Arrays.copyOfRange(outputs, firstOutput[number], firstOutput[number + 1]);
+    }
+
+    /**
+     * Looks up the outputs of all forms that equal a form when ignoring special characters, like {@link StringUtil#anySpecialRegex(String)}.
+     * For example, {@code "servo"} and {@code "servŏ"} both find {@code "servō"}.
+     *
+     * @param form The form. Case is ignored.
+     * @return The outputs of all matching forms, ordered by form. Empty if no form matches.
+     * @throws NullPointerException     If {@code form} is {@code null}.
+     * @throws IllegalArgumentException If {@code form} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public int[] lookupIgnoringSpecialChars(@NotNull String form)
+    {
+        checkNotEmpty(form);
+        String normalized = StringUtil.unSpecialString(form.toLowerCase());
+        IntList result = new IntList();
+        collectIgnoringSpecialChars(normalized, 0, 0, 0, result);
+        return result.toArray();
+    }
+
+    /**
+     * Recursively follows all transitions matching the remaining characters of a normalized form or any of their special variants.
+     *
+     * @param normalized The normalized form.
+     * @param index      The index of the next character to match.
+     * @param state      The current state.
+     * @param number     The number of forms skipped so far.
+     * @param result     The list to add the outputs to.
+     * @since 0.2.4
+     */
+    private void collectIgnoringSpecialChars(@NotNull String normalized, int index, int state, int number, @NotNull IntList result)
+    {
+        if (index == normalized.length())
+        {
+            if (finalStates.get(state))
+                result.addAll(outputs, firstOutput[number], firstOutput[number + 1]);
+            return;
+        }
+        char current = normalized.charAt(index);
+        // Variants in label order, so the outputs are ordered by form
+        char[] variants = variantsOf(current);
+        for (char variant : variants)
+        {
+            int transition = findTransition(state, variant);
+            if (transition >= 0)
+                collectIgnoringSpecialChars(normalized, index + 1, targets[transition], number + skipped[transition], result);
+        }
+    }
+
+    /**
+     * Gets a character and its lowercase lengthened and shortened variants, sorted.
+     *
+     * @param normalChar The normal character.
+     * @return The variants.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static char[] variantsOf(char normalChar)
+    {
+        Character lengthened = StringUtil.specialCharsTable.get(true, normalChar);
+        Character shortened = StringUtil.specialCharsTable.get(false, normalChar);
+        if (lengthened == null || shortened == null)
+            return new char[]{normalChar};
+        char[] variants = {normalChar, lengthened, shortened};
+        Arrays.sort(variants);
+        return variants;
+    }
+
+    /**
+     * Looks up the outputs of all forms starting with a prefix.
+     *
+     * @param prefix The prefix. Special characters have to match exactly, case is ignored. May be empty to get all outputs.
+     * @return The outputs of all forms starting with the prefix, ordered by form.
+     * @throws NullPointerException If {@code prefix} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public int[] lookupPrefix(@NotNull String prefix)
+    {
+        checkNotNull(prefix);
+        int state = prefixState(prefix.toLowerCase());
+        if (state < 0)
+            return new int[0];
+        int number = prefixNumber(prefix.toLowerCase());
+        // The forms below a state have consecutive numbers
+        return Arrays.copyOfRange(outputs, firstOutput[number], firstOutput[number + formCount[state]]);
+    }
+
+    /**
+     * Gets the forms starting with a prefix, in lexicographic order.
+     *
+     * @param prefix The prefix. Special characters have to match exactly, case is ignored. May be empty.
+     * @param limit  The maximum number of forms to return.
+     * @return The forms, in lowercase.
+     * @throws NullPointerException     If {@code prefix} is {@code null}.
+     * @throws IllegalArgumentException If {@code limit} is negative.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public List<String> formsWithPrefix(@NotNull String prefix, int limit)
+    {
+        checkNotNull(prefix);
+        if (limit < 0)
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        String lowerCase = prefix.toLowerCase();
+        int state = prefixState(lowerCase);
+        List<String> forms = new ArrayList<>();
+        if (state >= 0)
+            collectForms(state, new StringBuilder(lowerCase), limit, forms);
+        return forms;
+    }
+
+    /**
+     * Recursively collects the forms below a state in lexicographic order.
+     *
+     * @param state   The state.
+     * @param current The characters leading to the state.
+     * @param limit   The maximum number of forms to collect.
+     * @param forms   The list to add the forms to.
+     * @since 0.2.4
+     */
+    private void collectForms(int state, @NotNull StringBuilder current, int limit, @NotNull List<String> forms)
+    {
+        if (forms.size() >= limit)
+            return;
+        if (finalStates.get(state))
+            forms.add(current.toString());
+        for (int transition = firstTransition[state]; transition < firstTransition[state + 1] && forms.size() < limit; transition++)
+        {
+            current.append(labels[transition]);
+            collectForms(targets[transition], current, limit, forms);
+            current.setLength(current.length() - 1);
+        }
+    }
+
+    /**
+     * Follows the transitions of a lowercase prefix.
+     *
+     * @param prefix The prefix.
+     * @return The state reached or {@code -1} if there is no such state.
+     * @since 0.2.4
+     */
+    private int prefixState(@NotNull String prefix)
+    {
+        int state = 0;
+        for (int i = 0; i < prefix.length() && state >= 0; i++)
+        {
+            int transition = findTransition(state, prefix.charAt(i));
+            state = transition < 0 ? -1 : targets[transition];
+        }
+        return state;
+    }
+
+    /**
+     * Counts the forms skipped while following the transitions of an accepted lowercase prefix.
+     *
+     * @param prefix The prefix. Must lead to a state.
+     * @return The number of the first form starting with the prefix.
+     * @since 0.2.4
+     */
+    private int prefixNumber(@NotNull String prefix)
+    {
+        int state = 0, number = 0;
+        for (int i = 0; i < prefix.length(); i++)
+        {
+            int transition = findTransition(state, prefix.charAt(i));
+            number += skipped[transition];
+            state = targets[transition];
+        }
+        return number;
+    }
+
+    /**
+     * Finds the transition of a state with a label.
+     *
+     * @param state The state.
+     * @param label The label.
+     * @return The index of the transition or a negative number if the state has no such transition.
+     * @since 0.2.4
+     */
+    private int findTransition(int state, char label)
+    {
+        int index = Arrays.binarySearch(labels, firstTransition[state], firstTransition[state + 1], label);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * A growable list of {@code int}s.
+     *
+     * @since 0.2.4
+     */
+    @NotThreadSafe
+    private static final class IntList
+    {
+        /**
+         * The elements.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private int[] elements = new int[8];
+
+        /**
+         * The number of elements.
+         *
+         * @since 0.2.4
+         */
+        private int size;
+
+        /**
+         * Adds an element.
+         *
+         * @param element The element.
+         * @since 0.2.4
+         */
+        void add(int element)
+        {
+            if (size == elements.length)
+                elements = Arrays.copyOf(elements, size * 2);
+            elements[size++] = element;
+        }
+
+        /**
+         * Adds a range of an array.
+         *
+         * @param array The array.
+         * @param from  The first index (inclusive).
+         * @param to    The last index (exclusive).
+         * @since 0.2.4
+         */
+        void addAll(@NotNull int[] array, int from, int to)
+        {
+            for (int i = from; i < to; i++)
+                add(array[i]);
+        }
+
+        /**
+         * Gets a copy of the elements.
+         *
+         * @return An array of the elements.
+         * @since 0.2.4
+         */
+        @NotNull
+        int[] toArray()
+        {
+            return Arrays.copyOf(elements, size);
+        }
+    }
+
+    /**
+     * Builds {@link FormAutomaton}s from forms added in any order.
+     * <p>
+     * Forms can be added in any order, for example while {@link VocabRepository#streamAll() streaming} a repository. They are kept as a flat
+     * list until {@link #build()} sorts them and passes them to a {@link SortedBuilder}. Sources that are already sorted should use a
+     * {@link SortedBuilder} directly, which never holds more than the minimized automaton and the most recent form.
+     *
+     * @since 0.2.4
+     */
+    @NotThreadSafe
+    public static final class Builder
+    {
+        /**
+         * The added lowercase forms, once per output.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final List<String> forms = new ArrayList<>();
+
+        /**
+         * The added outputs, parallel to {@link #forms}.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final IntList outputs = new IntList();
+
+        /**
+         * Adds an output to a form.
+         *
+         * @param form   The form. Case is ignored.
+         * @param output The output (see {@link #output(int, int)}).
+         * @return This builder.
+         * @throws NullPointerException     If {@code form} is {@code null}.
+         * @throws IllegalArgumentException If {@code form} is {@link String#isEmpty() empty}.
+         * @since 0.2.4
+         */
+        @NotNull
+        @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+        public Builder add(@NotNull String form, int output)
+        {
+            checkNotEmpty(form);
+            forms.add(form.toLowerCase());
+            outputs.add(output);
+            return this;
+        }
+
+        /**
+         * Adds all forms (defined or declined) of a noun.
+         *
+         * @param entry The entry ID of the noun.
+         * @param noun  The noun.
+         * @return This builder.
+         * @throws NullPointerException     If {@code noun} is {@code null}.
+         * @throws IllegalArgumentException If {@code entry} is out of range (see {@link #output(int, int)}).
+         * @since 0.2.4
+         */
+        @NotNull
+        public Builder addNoun(int entry, @NotNull Noun noun)
+        {
+            checkNotNull(noun);
+            for (NounForm nounForm : NounForm.values())
+            {
+                @Nullable
+                String form = noun.getForm(nounForm);
+                if (form != null && !form.isEmpty())
+                    add(form, output(entry, nounForm.ordinal()));
+            }
+            return this;
+        }
+
+        /**
+         * Adds all forms (defined or declined) of an adjective in its {@link Adjective#allows(ComparisonDegree) allowed} comparison degrees.
+         *
+         * @param entry     The entry ID of the adjective.
+         * @param adjective The adjective.
+         * @return This builder.
+         * @throws NullPointerException     If {@code adjective} is {@code null}.
+         * @throws IllegalArgumentException If {@code entry} is out of range (see {@link #output(int, int)}).
+         * @since 0.2.4
+         */
+        @NotNull
+        public Builder addAdjective(int entry, @NotNull Adjective adjective)
+        {
+            checkNotNull(adjective);
+            //noinspection SynchronizationOnLocalVariableOrMethodParameter
+            synchronized (adjective)
+            {
+                for (AdjectiveForm adjectiveForm : AdjectiveForm.values())
+                {
+                    if (!adjective.allows(adjectiveForm.getComparisonDegree()))
+                        continue;
+                    @Nullable
+                    String form = adjective.getDefinedForm(adjectiveForm);
+                    if (form == null)
+                        form = adjective.getDeclinedForm(adjectiveForm);
+                    if (form != null && !form.isEmpty())
+                        add(form, output(entry, adjectiveForm.ordinal()));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Builds the minimal automaton accepting all added forms.
+         * <p>
+         * The builder may be reused afterwards; the built automaton is not affected by later additions.
+         *
+         * @return A new automaton.
+         * @since 0.2.4
+         */
+        @NotNull
+        public FormAutomaton build()
+        {
+            Integer[] order = new Integer[forms.size()];
+            for (int i = 0; i < order.length; i++)
+                order[i] = i;
+            Arrays.sort(order, Comparator.comparing(forms::get)); // stable, so the outputs of a form stay in the order they were added
+            SortedBuilder sorted = new SortedBuilder();
+            for (int index : order)
+                sorted.add(forms.get(index), outputs.elements[index]);
+            return sorted.build();
+        }
+    }
+
+    /**
+     * Builds a {@link FormAutomaton} from forms added in ascending order, minimizing it while the forms are added (Daciuk et al.).
+     * <p>
+     * Once a form is added, the states only reachable through the previous form are replaced by equivalent states built before or
+     * registered, so the builder only holds the minimized automaton, the path of the most recent form and the outputs.
+     *
+     * @since 0.2.4
+     */
+    @NotThreadSafe
+    public static final class SortedBuilder
+    {
+        /**
+         * The root state, or {@code null} once the automaton has been built.
+         *
+         * @since 0.2.4
+         */
+        @Nullable
+        private BuildState root = new BuildState();
+
+        /**
+         * The minimized states, each mapped to itself.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final Map<BuildState, BuildState> register = new HashMap<>();
+
+        /**
+         * The most recently added lowercase form, or {@code null} if no form has been added yet.
+         *
+         * @since 0.2.4
+         */
+        @Nullable
+        private String previous;
+
+        /**
+         * The first output of each form, see {@link FormAutomaton#firstOutput}.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final IntList firstOutput = new IntList();
+
+        /**
+         * The outputs, grouped by form.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final IntList outputs = new IntList();
+
+        /**
+         * Adds an output to a form.
+         * <p>
+         * The form has to be equal to or greater than the previously added form when lowercased (see {@link String#compareTo(String)}).
+         * The outputs of an equal form are added to it.
+         *
+         * @param form   The form. Case is ignored.
+         * @param output The output (see {@link #output(int, int)}).
+         * @return This builder.
+         * @throws NullPointerException     If {@code form} is {@code null}.
+         * @throws IllegalArgumentException If {@code form} is {@link String#isEmpty() empty} or less than the previously added form.
+         * @throws IllegalStateException    If the automaton has already been built.
+         * @since 0.2.4
+         */
+        @NotNull
+        @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+        public SortedBuilder add(@NotNull String form, int output)
+        {
+            checkNotEmpty(form);
+            BuildState last = root;
+            if (last == null)
+                throw new IllegalStateException("The automaton has already been built");
+            String lowerCase = form.toLowerCase();
+            int comparison = previous == null ? 1 : lowerCase.compareTo(previous);
+            if (comparison < 0)
+                throw new IllegalArgumentException("Forms must be added in ascending order: " + lowerCase + " after " + previous);
+            if (comparison > 0)
+            {
+                int common = 0;
+                if (previous != null)
+                    while (common < previous.length() && common < lowerCase.length() && previous.charAt(common) == lowerCase.charAt(common))
+                        common++;
+                for (int i = 0; i < common; i++)
+                    last = last.lastTarget();
+                if (last.hasTransitions())
+                    replaceOrRegister(last, register);
+                for (int i = common; i < lowerCase.length(); i++)
+                    last = last.addTransition(lowerCase.charAt(i));
+                last.isFinal = true;
+                firstOutput.add(outputs.size);
+                previous = lowerCase;
+            }
+            outputs.add(output);
+            return this;
+        }
+
+        /**
+         * Builds the minimal automaton accepting all added forms.
+         * <p>
+         * No forms can be added afterwards.
+         *
+         * @return A new automaton.
+         * @throws IllegalStateException If the automaton has already been built.
+         * @since 0.2.4
+         */
+        @NotNull
+        public FormAutomaton build()
+        {
+            BuildState builtRoot = root;
+            if (builtRoot == null)
+                throw new IllegalStateException("The automaton has already been built");
+            root = null;
+            if (builtRoot.hasTransitions())
+                replaceOrRegister(builtRoot, register);
+            register.clear();
+            firstOutput.add(outputs.size);
+            return freeze(builtRoot, firstOutput.toArray(), outputs.toArray());
+        }
+
+        /**
+         * Minimizes the most recently added path below a state: Every state on the path is replaced by an equivalent registered state or
+         * registered itself.
+         *
+         * @param state    The state.
+         * @param register The registered states.
+         * @since 0.2.4
+         */
+        private static void replaceOrRegister(@NotNull BuildState state, @NotNull Map<BuildState, BuildState> register)
+        {
+            BuildState child = state.lastTarget();
+            if (child.hasTransitions())
+                replaceOrRegister(child, register);
+            BuildState equivalent = register.get(child);
+            if (equivalent != null)
+                state.targets.set(state.targets.size() - 1, equivalent);
+            else
+                register.put(child, child);
+        }
+
+        /**
+         * Numbers the states, computes the form counts and copies the automaton into arrays.
+         *
+         * @param root        The root state.
+         * @param firstOutput The first output of each form, followed by the number of outputs.
+         * @param outputs     The outputs, grouped by form.
+         * @return The automaton.
+         * @since 0.2.4
+         */
+        @NotNull
+        private static FormAutomaton freeze(@NotNull BuildState root, @NotNull int[] firstOutput, @NotNull int[] outputs)
+        {
+            List<BuildState> states = new ArrayList<>();
+            Map<BuildState, Integer> ids = new IdentityHashMap<>();
+            ids.put(root, 0);
+            states.add(root);
+            int transitionCount = 0;
+            for (int i = 0; i < states.size(); i++) // breadth-first
+                for (BuildState target : states.get(i).targets)
+                {
+                    transitionCount++;
+                    if (!ids.containsKey(target))
+                    {
+                        ids.put(target, states.size());
+                        states.add(target);
+                    }
+                }
+
+            int[] formCount = new int[states.size()];
+            countForms(root, ids, formCount, new BitSet(states.size()));
+
+            int[] firstTransition = new int[states.size() + 1];
+            BitSet finalStates = new BitSet(states.size());
+            char[] labels = new char[transitionCount];
+            int[] targets = new int[transitionCount];
+            int[] skipped = new int[transitionCount];
+            int transition = 0;
+            for (int id = 0; id < states.size(); id++)
+            {
+                BuildState state = states.get(id);
+                firstTransition[id] = transition;
+                finalStates.set(id, state.isFinal);
+                int skip = state.isFinal ? 1 : 0;
+                for (int i = 0; i < state.labels.length(); i++)
+                {
+                    int target = ids.get(state.targets.get(i));
+                    labels[transition] = state.labels.charAt(i);
+                    targets[transition] = target;
+                    skipped[transition] = skip;
+                    skip += formCount[target];
+                    transition++;
+                }
+            }
+            firstTransition[states.size()] = transition;
+
+            return new FormAutomaton(firstTransition, formCount, finalStates, labels, targets, skipped, firstOutput, outputs);
+        }
+
+        /**
+         * Computes the number of forms accepted below each state, depth-first.
+         *
+         * @param state     The state.
+         * @param ids       The state IDs.
+         * @param formCount The array to write the counts to.
+         * @param visited   The IDs of the states whose count is already known.
+         * @return The count of {@code state}.
+         * @since 0.2.4
+         */
+        private static int countForms(@NotNull BuildState state, @NotNull Map<BuildState, Integer> ids, @NotNull int[] formCount, @NotNull BitSet visited)
+        {
+            int id = ids.get(state);
+            if (visited.get(id))
+                return formCount[id];
+            int count = state.isFinal ? 1 : 0;
+            for (BuildState target : state.targets)
+                count += countForms(target, ids, formCount, visited);
+            formCount[id] = count;
+            visited.set(id);
+            return count;
+        }
+    }
+
+    /**
+     * A mutable state used while building.
+     * <p>
+     * Equality is structural (finality and outgoing transitions, with targets compared by identity), which is what the register of
+     * {@link SortedBuilder} needs. States must not be changed while they are registered.
+     *
+     * @since 0.2.4
+     */
+    @NotThreadSafe
+    private static final class BuildState
+    {
+        /**
+         * The labels of the outgoing transitions, in ascending order.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final StringBuilder labels = new StringBuilder(2);
+
+        /**
+         * The targets of the outgoing transitions.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final List<BuildState> targets = new ArrayList<>(2);
+
+        /**
+         * Whether this state is final.
+         *
+         * @since 0.2.4
+         */
+        private boolean isFinal;
+
+        /**
+         * Adds a transition to a new state. The label must be greater than the labels of all existing transitions.
+         *
+         * @param label The label.
+         * @return The new state.
+         * @since 0.2.4
+         */
+        @NotNull
+        BuildState addTransition(char label)
+        {
+            BuildState target = new BuildState();
+            labels.append(label);
+            targets.add(target);
+            return target;
+        }
+
+        /**
+         * Gets the target of the last transition.
+         *
+         * @return The target.
+         * @since 0.2.4
+         */
+        @NotNull
+        BuildState lastTarget()
+        {
+            return targets.get(targets.size() - 1);
+        }
+
+        /**
+         * Returns whether this state has outgoing transitions.
+         *
+         * @return Whether this state has transitions.
+         * @since 0.2.4
+         */
+        boolean hasTransitions()
+        {
+            return !targets.isEmpty();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) return true;
+            if (!(o instanceof BuildState)) return false;
+            BuildState that = (BuildState) o;
+            if (isFinal != that.isFinal || labels.length() != that.labels.length())
+                return false;
+            for (int i = 0; i < labels.length(); i++)
+                if (labels.charAt(i) != that.labels.charAt(i) || targets.get(i) != that.targets.get(i))
+                    return false;
+            return true;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int hash = isFinal ? 1 : 0;
+            for (int i = 0; i < labels.length(); i++)
+                hash = 31 * (31 * hash + labels.charAt(i)) + System.identityHashCode(targets.get(i));
+            return hash;
+        }
+    }
+}
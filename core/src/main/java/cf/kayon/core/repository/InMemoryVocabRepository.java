@@ -0,0 +1,264 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.Contexed;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.util.StringUtil;
+import com.google.common.base.Preconditions;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A non-persistent {@link VocabRepository} holding all vocab in memory.
+ * <p>
+ * The repository stores {@link Noun#copyDeep() deep copies} of the saved nouns and indexes their forms, so form lookups are hash lookups.
+ * Lookups never block; saves are serialized amongst each other.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class InMemoryVocabRepository extends Contexed implements VocabRepository
+{
+    /**
+     * The stored nouns, mapped by their UUIDs.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Map<UUID, Noun> nouns = new ConcurrentHashMap<>();
+
+    /**
+     * The UUIDs of the stored nouns, mapped by their {@link VocabRepositoryUtil#normalize(String) normalized} forms.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Map<String, Set<UUID>> formIndex = new ConcurrentHashMap<>();
+
+    /**
+     * The lock serializing all modifications.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Object writeLock = new Object();
+
+    /**
+     * Constructs a new, empty instance.
+     *
+     * @param context The {@link KayonContext} for this instance.
+     * @since 0.2.4
+     */
+    public InMemoryVocabRepository(@NotNull KayonContext context)
+    {
+        super(context);
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void save(@NotNull Noun noun)
+    {
+        checkNotNull(noun);
+        synchronized (writeLock)
+        {
+            store(noun);
+        }
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void saveAll(@NotNull Collection<? extends Noun> nouns)
+    {
+        checkNotNull(nouns);
+        nouns.forEach(Preconditions::checkNotNull);
+        synchronized (writeLock)
+        {
+            nouns.forEach(this::store);
+        }
+    }
+
+    /**
+     * Stores a copy of a noun and updates the form index.
+     *
+     * @param noun The noun.
+     * @since 0.2.4
+     */
+    @GuardedBy("writeLock")
+    private void store(@NotNull Noun noun)
+    {
+        Noun copy;
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (noun)
+        {
+            if (noun.getUuid() == null)
+                noun.initializeUuid(UUID.randomUUID());
+            copy = noun.copyDeep();
+            noun.markClean();
+        }
+        UUID uuid = copy.getUuid();
+        Noun previous = nouns.put(uuid, copy);
+        if (previous != null)
+            for (String form : normalizedForms(previous))
+                formIndex.computeIfPresent(form, (key, uuids) -> {
+                    uuids.remove(uuid);
+                    return uuids.isEmpty() ? null : uuids;
+                });
+        for (String form : normalizedForms(copy))
+            formIndex.computeIfAbsent(form, key -> ConcurrentHashMap.newKeySet()).add(uuid);
+    }
+
+    /**
+     * Returns all distinct normalized forms of a noun.
+     *
+     * @param noun The noun.
+     * @return A set of normalized forms.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static Set<String> normalizedForms(@NotNull Noun noun)
+    {
+        Set<String> forms = new HashSet<>();
+        for (NounForm nounForm : NounForm.values())
+        {
+            String form = noun.getForm(nounForm);
+            if (form != null)
+                forms.add(StringUtil.unSpecialString(form));
+        }
+        return forms;
+    }
+
+    /**
+     * Returns an independent copy of a stored noun.
+     *
+     * @param noun The stored noun.
+     * @return A copy, {@link Noun#markClean() marked clean}.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static Noun load(@NotNull Noun noun)
+    {
+        Noun copy = noun.copyDeep();
+        copy.markClean();
+        return copy;
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void queryNouns(@NotNull String formToSearch, @NotNull BlockingQueue<? super Noun> writeTo) throws InterruptedException
+    {
+        checkNotEmpty(formToSearch);
+        checkNotNull(writeTo);
+        Set<UUID> uuids = formIndex.get(VocabRepositoryUtil.normalize(formToSearch));
+        if (uuids == null)
+            return;
+        for (UUID uuid : uuids)
+        {
+            Noun noun = nouns.get(uuid);
+            if (noun != null)
+                writeTo.put(load(noun));
+        }
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void queryNounsByRootWord(@NotNull String rootWordToSearch, @NotNull BlockingQueue<? super Noun> writeTo) throws InterruptedException
+    {
+        checkNotEmpty(rootWordToSearch);
+        checkNotNull(writeTo);
+        Pattern pattern = Pattern.compile(StringUtil.anySpecialRegex(rootWordToSearch.toLowerCase()));
+        for (Noun noun : nouns.values())
+        {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (pattern.matcher(noun.getRootWord()).find())
+                writeTo.put(load(noun));
+        }
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void queryNounsByTranslation(@NotNull String translationToSearch, @NotNull BlockingQueue<? super Noun> writeTo) throws InterruptedException
+    {
+        checkNotEmpty(translationToSearch);
+        checkNotNull(writeTo);
+        String lowerCaseTranslation = translationToSearch.toLowerCase(Locale.ROOT);
+        for (Noun noun : nouns.values())
+        {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (VocabRepositoryUtil.matchesTranslation(noun, lowerCaseTranslation))
+                writeTo.put(load(noun));
+        }
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @NotNull
+    @Override
+    public Stream<Noun> streamAll()
+    {
+        return nouns.values().stream().map(InMemoryVocabRepository::load);
+    }
+
+    /**
+     * @return {@code false}
+     * @since 0.2.4
+     */
+    @Override
+    public boolean isReadOnly()
+    {
+        return false;
+    }
+
+    /**
+     * Returns the number of stored nouns.
+     *
+     * @return The number of nouns.
+     * @since 0.2.4
+     */
+    public int size()
+    {
+        return nouns.size();
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.Contexed;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.util.StringUtil;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A read-only {@link VocabRepository} reading a {@link CompiledLexicon} file.
+ * <p>
+ * Opening a snapshot only maps the file into memory, so it takes constant time regardless of the size of the lexicon.
+ * Form lookups are binary searches in the mapped file; {@link Noun} objects are only created for the results.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public class SnapshotVocabRepository extends Contexed implements VocabRepository
+{
+    /**
+     * The mapped lexicon.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final CompiledLexicon lexicon;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param context The {@link KayonContext} for this instance.
+     * @param lexicon The mapped lexicon.
+     * @throws NullPointerException If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    public SnapshotVocabRepository(@NotNull KayonContext context, @NotNull CompiledLexicon lexicon)
+    {
+        super(context);
+        this.lexicon = checkNotNull(lexicon);
+    }
+
+    /**
+     * Opens a snapshot file.
+     *
+     * @param context The {@link KayonContext} for the opened repository.
+     * @param path    The path of the snapshot file.
+     * @return A new repository reading the snapshot.
+     * @throws IOException          If the file could not be mapped or is not a lexicon file.
+     * @throws NullPointerException If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static SnapshotVocabRepository open(@NotNull KayonContext context, @NotNull Path path) throws IOException
+    {
+        checkNotNull(context);
+        return new SnapshotVocabRepository(context, CompiledLexicon.open(path));
+    }
+
+    /**
+     * Writes a snapshot file.
+     * <p>
+     * This is a shortcut for {@link CompiledLexicon#compile(Iterable, Path)}.
+     *
+     * @param nouns The nouns to write.
+     * @param path  The path of the snapshot file.
+     * @throws IOException              If the file could not be written.
+     * @throws IllegalArgumentException If the NounDeclension of any noun is not registered in the {@link cf.kayon.core.DeclensionRegistry}.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    public static void write(@NotNull Iterable<? extends Noun> nouns, @NotNull Path path) throws IOException
+    {
+        CompiledLexicon.compile(nouns, path);
+    }
+
+    /**
+     * Gets the lexicon read by this repository.
+     *
+     * @return The lexicon.
+     * @since 0.2.4
+     */
+    @NotNull
+    public CompiledLexicon getLexicon()
+    {
+        return lexicon;
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    @Override
+    public void save(@NotNull Noun noun)
+    {
+        throw new UnsupportedOperationException("Snapshot repositories are read-only");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    @Override
+    public void saveAll(@NotNull Collection<? extends Noun> nouns)
+    {
+        throw new UnsupportedOperationException("Snapshot repositories are read-only");
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void queryNouns(@NotNull String formToSearch, @NotNull BlockingQueue<? super Noun> writeTo) throws InterruptedException
+    {
+        checkNotEmpty(formToSearch);
+        checkNotNull(writeTo);
+        int previousEntry = -1;
+        for (int posting : lexicon.lookupForm(formToSearch))
+        {
+            int entry = CompiledLexicon.entryOf(posting);
+            if (entry != previousEntry) // Postings are ordered by entry
+                writeTo.put(lexicon.toNoun(getContext(), entry));
+            previousEntry = entry;
+        }
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void queryNounsByRootWord(@NotNull String rootWordToSearch, @NotNull BlockingQueue<? super Noun> writeTo) throws InterruptedException
+    {
+        checkNotEmpty(rootWordToSearch);
+        checkNotNull(writeTo);
+        Pattern pattern = Pattern.compile(StringUtil.anySpecialRegex(rootWordToSearch.toLowerCase()));
+        for (int entry = 0; entry < lexicon.size(); entry++)
+        {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (pattern.matcher(lexicon.rootWord(entry)).find())
+                writeTo.put(lexicon.toNoun(getContext(), entry));
+        }
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void queryNounsByTranslation(@NotNull String translationToSearch, @NotNull BlockingQueue<? super Noun> writeTo) throws InterruptedException
+    {
+        checkNotEmpty(translationToSearch);
+        checkNotNull(writeTo);
+        String lowerCaseTranslation = translationToSearch.toLowerCase(Locale.ROOT);
+        for (int entry = 0; entry < lexicon.size(); entry++)
+        {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            for (String translation : lexicon.translations(entry).values())
+                if (translation.toLowerCase(Locale.ROOT).contains(lowerCaseTranslation))
+                {
+                    writeTo.put(lexicon.toNoun(getContext(), entry));
+                    break;
+                }
+        }
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @NotNull
+    @Override
+    public Stream<Noun> streamAll()
+    {
+        return IntStream.range(0, lexicon.size()).mapToObj(entry -> lexicon.toNoun(getContext(), entry));
+    }
+
+    /**
+     * @return {@code true}
+     * @since 0.2.4
+     */
+    @Override
+    public boolean isReadOnly()
+    {
+        return true;
+    }
+}
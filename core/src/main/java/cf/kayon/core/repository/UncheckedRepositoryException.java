@@ -0,0 +1,61 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import org.jetbrains.annotations.NotNull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Wraps a {@link RepositoryException} with an unchecked exception.
+ * <p>
+ * Thrown by lazily evaluated results of a {@link VocabRepository}, like the stream returned by {@link VocabRepository#streamAll()}.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+public class UncheckedRepositoryException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param cause The {@link RepositoryException}.
+     * @throws NullPointerException If {@code cause} is {@code null}.
+     * @since 0.2.4
+     */
+    public UncheckedRepositoryException(@NotNull RepositoryException cause)
+    {
+        super(checkNotNull(cause));
+    }
+
+    /**
+     * Returns the cause of this exception.
+     *
+     * @return The {@link RepositoryException} which is the cause of this exception.
+     * @since 0.2.4
+     */
+    @NotNull
+    @Override
+    public synchronized RepositoryException getCause()
+    {
+        return (RepositoryException) super.getCause();
+    }
+}
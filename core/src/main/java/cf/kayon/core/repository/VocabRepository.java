@@ -0,0 +1,260 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.CaseHandling;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.util.Flow;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stores and looks up vocab.
+ * <p>
+ * The backend used by an application is selected by the {@code repository.type} setting (see {@link VocabRepositoryUtil#create(cf.kayon.core.KayonContext)})
+ * and is available from {@link cf.kayon.core.KayonContext#getRepository()}.
+ * <p>
+ * All lookup methods return nouns that are independent from the storage, so modifying them does not change the repository until they are saved.
+ * Returned nouns are {@link Noun#markClean() marked clean}.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public interface VocabRepository
+{
+    /**
+     * Saves a noun.
+     * <p>
+     * If the specified noun did not have a UUID before, it gets a random UUID assigned. Afterwards, the noun is {@link Noun#markClean() marked clean}.
+     *
+     * @param noun The noun to save.
+     * @throws RepositoryException           If the noun could not be saved.
+     * @throws UnsupportedOperationException If this repository is {@link #isReadOnly() read-only}.
+     * @throws NullPointerException          If {@code noun} is {@code null}.
+     * @since 0.2.4
+     */
+    void save(@NotNull Noun noun) throws RepositoryException;
+
+    /**
+     * Saves multiple nouns at once.
+     * <p>
+     * Either all or none of the nouns are saved. See {@link #save(Noun)} for more information.
+     *
+     * @param nouns The nouns to save.
+     * @throws RepositoryException           If the nouns could not be saved.
+     * @throws UnsupportedOperationException If this repository is {@link #isReadOnly() read-only}.
+     * @throws NullPointerException          If {@code nouns} or any of its elements is {@code null}.
+     * @since 0.2.4
+     */
+    void saveAll(@NotNull Collection<? extends Noun> nouns) throws RepositoryException;
+
+    /**
+     * Saves a noun on the specified executor, like {@link #save(Noun)}.
+     * <p>
+     * The default implementation runs {@link #save(Noun)} on the executor.
+     *
+     * @param noun     The noun to save.
+     * @param executor The executor to save the noun on.
+     * @return A future completed when the noun has been saved, or completed exceptionally with the {@link RepositoryException}
+     * (or the {@link UnsupportedOperationException} if this repository is {@link #isReadOnly() read-only}).
+     * @throws NullPointerException If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    default CompletableFuture<Void> saveAsync(@NotNull Noun noun, @NotNull Executor executor)
+    {
+        checkNotNull(noun);
+        checkNotNull(executor);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try
+        {
+            executor.execute(() -> {
+                try
+                {
+                    save(noun);
+                    future.complete(null);
+                } catch (Throwable t)
+                {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e)
+        {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Queries the nouns that have a form (defined or declined) matching the specified form.
+     * <p>
+     * Special characters are ignored when matching, so {@code manus} and {@code MANŪS} both find a noun with the form {@code manūs}.
+     *
+     * @param formToSearch The form to search. May be any kind of special form (and may be raw user input).
+     * @param writeTo      The {@link BlockingQueue} to write the resulting {@link Noun}s to.
+     * @throws RepositoryException      If the query failed.
+     * @throws InterruptedException     If a write to the BlockingQueue was interrupted.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code formToSearch} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    void queryNouns(@NotNull String formToSearch, @NotNull BlockingQueue<? super Noun> writeTo) throws RepositoryException, InterruptedException;
+
+    /**
+     * Queries the nouns for many forms at once, like when lemmatizing a text.
+     * <p>
+     * Every distinct form is looked up once; the results are the same as calling {@link #queryNouns(String, BlockingQueue)} for every form.
+     * The default implementation does exactly that. Implementations backed by a database override this method to resolve all forms in a single query.
+     *
+     * @param formsToSearch The forms to search. May be any kind of special forms (and may be raw user input).
+     * @return A map from every distinct form to the nouns found for it, in the iteration order of {@code formsToSearch}.
+     * Forms without results are mapped to an empty list.
+     * @throws RepositoryException      If the query failed.
+     * @throws InterruptedException     If the query was interrupted.
+     * @throws NullPointerException     If {@code formsToSearch} or any of its elements is {@code null}.
+     * @throws IllegalArgumentException If any of the forms is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    default Map<String, List<Noun>> queryNounsBatch(@NotNull Collection<String> formsToSearch) throws RepositoryException, InterruptedException
+    {
+        Map<String, List<Noun>> results = new LinkedHashMap<>();
+        for (String formToSearch : formsToSearch)
+        {
+            if (results.containsKey(formToSearch))
+                continue;
+            LinkedBlockingQueue<Noun> queue = new LinkedBlockingQueue<>();
+            queryNouns(formToSearch, queue);
+            results.put(formToSearch, new ArrayList<>(queue));
+        }
+        return results;
+    }
+
+    /**
+     * Queries the nouns whose root word contains the specified root word.
+     * <p>
+     * Special characters are ignored when matching.
+     *
+     * @param rootWordToSearch The root word to search. May be any kind of special form (and may be raw user input).
+     * @param writeTo          The {@link BlockingQueue} to write the resulting {@link Noun}s to.
+     * @throws RepositoryException      If the query failed.
+     * @throws InterruptedException     If a write to the BlockingQueue was interrupted.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code rootWordToSearch} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    void queryNounsByRootWord(@NotNull String rootWordToSearch, @NotNull BlockingQueue<? super Noun> writeTo) throws RepositoryException, InterruptedException;
+
+    /**
+     * Queries the nouns having a translation (in any locale) that contains the specified text, ignoring case.
+     *
+     * @param translationToSearch The text to search.
+     * @param writeTo             The {@link BlockingQueue} to write the resulting {@link Noun}s to.
+     * @throws RepositoryException      If the query failed.
+     * @throws InterruptedException     If a write to the BlockingQueue was interrupted.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code translationToSearch} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    void queryNounsByTranslation(@NotNull String translationToSearch, @NotNull BlockingQueue<? super Noun> writeTo)
+            throws RepositoryException, InterruptedException;
+
+    /**
+     * Publishes the nouns found by the specified form, like {@link #queryNouns(String, BlockingQueue)}.
+     * <p>
+     * The query is run (again) for every subscriber when it first requests items. The query is run and the items and signals are delivered on the
+     * specified executor. If the query fails, the subscriber receives the failure.
+     * <p>
+     * The default implementation runs {@link #queryNouns(String, BlockingQueue)} and delivers its results as far as they are requested.
+     * Implementations backed by a database override this method to read the results only as far as they are requested.
+     *
+     * @param formToSearch The form to search. May be any kind of special form (and may be raw user input).
+     * @param executor     The executor to run the query on.
+     * @return The publisher.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code formToSearch} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    default Flow.Publisher<Noun> publishNouns(@NotNull String formToSearch, @NotNull Executor executor)
+    {
+        checkNotEmpty(formToSearch);
+        return new BlockingQueryPublisher(writeTo -> queryNouns(formToSearch, writeTo), executor);
+    }
+
+    /**
+     * Publishes the nouns found by the specified root word, like {@link #publishNouns(String, Executor)}.
+     * <p>
+     * The default implementation runs {@link #queryNounsByRootWord(String, BlockingQueue)} and delivers its results as far as they are requested.
+     *
+     * @param rootWordToSearch The root word to search. May be any kind of special form (and may be raw user input).
+     * @param executor         The executor to run the query on.
+     * @return The publisher.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code rootWordToSearch} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    default Flow.Publisher<Noun> publishNounsByRootWord(@NotNull String rootWordToSearch, @NotNull Executor executor)
+    {
+        checkNotEmpty(rootWordToSearch);
+        return new BlockingQueryPublisher(writeTo -> queryNounsByRootWord(rootWordToSearch, writeTo), executor);
+    }
+
+    /**
+     * Returns a sequential stream of all nouns in this repository.
+     * <p>
+     * The stream is evaluated lazily, so implementations do not have to hold all nouns in memory at once. If the repository fails while the stream is
+     * consumed, an {@link UncheckedRepositoryException} is thrown.
+     *
+     * @return A stream of nouns.
+     * @throws RepositoryException If the stream could not be opened.
+     * @since 0.2.4
+     */
+    @NotNull
+    Stream<Noun> streamAll() throws RepositoryException;
+
+    /**
+     * Returns whether this repository is read-only.
+     * <p>
+     * The save methods of read-only repositories throw an {@link UnsupportedOperationException}.
+     *
+     * @return Whether this repository is read-only.
+     * @since 0.2.4
+     */
+    boolean isReadOnly();
+}
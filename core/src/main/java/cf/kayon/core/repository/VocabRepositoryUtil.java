@@ -0,0 +1,161 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.CaseHandling;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.sql.SQLVocabRepository;
+import cf.kayon.core.util.StringUtil;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Provides static utilities for {@link VocabRepository}s.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public class VocabRepositoryUtil
+{
+    /**
+     * A private constructor to prevent instantiation of this class.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private VocabRepositoryUtil()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates the repository configured by the {@code repository.type} setting of the config of a context.
+     * <p>
+     * Possible types are:
+     * <ul>
+     * <li>{@code sql}: A {@link SQLVocabRepository} backed by the database connection of the context.</li>
+     * <li>{@code memory}: An empty {@link InMemoryVocabRepository}.</li>
+     * <li>{@code snapshot}: A read-only {@link SnapshotVocabRepository} mapping the file configured by {@code repository.snapshot.path}.</li>
+     * </ul>
+     *
+     * @param context The context.
+     * @return A new repository.
+     * @throws ConfigException.BadValue If the type is unknown or the snapshot file could not be opened.
+     * @throws NullPointerException     If {@code context} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static VocabRepository create(@NotNull KayonContext context)
+    {
+        checkNotNull(context);
+        Config config = context.getConfig();
+        String type = config.getString("repository.type");
+        switch (type)
+        {
+            case "sql":
+                return new SQLVocabRepository(context);
+            case "memory":
+                return new InMemoryVocabRepository(context);
+            case "snapshot":
+                String path = config.getString("repository.snapshot.path");
+                try
+                {
+                    return SnapshotVocabRepository.open(context, Paths.get(path));
+                } catch (IOException e)
+                {
+                    throw new ConfigException.BadValue(config.origin(), "repository.snapshot.path", "Snapshot file could not be opened (see cause below)", e);
+                }
+            default:
+                throw new ConfigException.BadValue(config.origin(), "repository.type", "Unknown repository type: " + type);
+        }
+    }
+
+    /**
+     * Normalizes a form for lookups by converting it to lowercase and {@link StringUtil#unSpecialString(String) removing all special characters}.
+     *
+     * @param form The form.
+     * @return The normalized form.
+     * @throws NullPointerException     If {@code form} is {@code null}.
+     * @throws IllegalArgumentException If {@code form} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public static String normalize(@NotNull String form)
+    {
+        checkNotEmpty(form);
+        return StringUtil.unSpecialString(form.toLowerCase());
+    }
+
+    /**
+     * Returns whether any form (defined or declined) of a noun matches a {@link #normalize(String) normalized} form.
+     *
+     * @param noun           The noun.
+     * @param normalizedForm The normalized form.
+     * @return Whether any form matches.
+     * @throws NullPointerException If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    public static boolean matchesForm(@NotNull Noun noun, @NotNull String normalizedForm)
+    {
+        checkNotNull(noun);
+        checkNotNull(normalizedForm);
+        for (NounForm nounForm : NounForm.values())
+        {
+            String form = noun.getForm(nounForm);
+            if (form != null && StringUtil.unSpecialString(form).equals(normalizedForm))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether any translation of a noun contains the specified text, ignoring case.
+     *
+     * @param noun                 The noun.
+     * @param lowerCaseTranslation The text to search, in lowercase.
+     * @return Whether any translation matches.
+     * @throws NullPointerException If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    public static boolean matchesTranslation(@NotNull Noun noun, @NotNull String lowerCaseTranslation)
+    {
+        checkNotNull(noun);
+        checkNotNull(lowerCaseTranslation);
+        synchronized (noun.getTranslations())
+        {
+            for (String translation : noun.getTranslations().values())
+                if (translation != null && translation.toLowerCase(Locale.ROOT).contains(lowerCaseTranslation))
+                    return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.repository.WorkloadSimulator.Operation;
+import cf.kayon.core.util.LatencyHistogram;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The result of a {@link WorkloadSimulator} run: the throughput, errors and latencies of every operation during the recorded time.
+ * <p>
+ * {@link #toString()} returns a table with one line per operation, with the latencies in milliseconds.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public final class WorkloadReport
+{
+    /**
+     * The latencies in nanoseconds, by operation. Not modified after construction.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Map<Operation, LatencyHistogram> latencies;
+
+    /**
+     * The number of failed operations, by operation.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Map<Operation, Long> errors;
+
+    /**
+     * The number of reader threads.
+     *
+     * @since 0.2.4
+     */
+    private final int readers;
+
+    /**
+     * The number of writer threads.
+     *
+     * @since 0.2.4
+     */
+    private final int writers;
+
+    /**
+     * The recorded time in nanoseconds.
+     *
+     * @since 0.2.4
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param latencies    The latencies in nanoseconds, by operation. Must contain every operation and must not be modified afterwards.
+     * @param errors       The number of failed operations, by operation. Must contain every operation.
+     * @param readers      The number of reader threads.
+     * @param writers      The number of writer threads.
+     * @param elapsedNanos The recorded time in nanoseconds.
+     * @since 0.2.4
+     */
+    WorkloadReport(@NotNull Map<Operation, LatencyHistogram> latencies, @NotNull Map<Operation, Long> errors, int readers, int writers,
+                   long elapsedNanos)
+    {
+        this.latencies = new EnumMap<>(latencies);
+        this.errors = new EnumMap<>(errors);
+        this.readers = readers;
+        this.writers = writers;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the latencies of an operation.
+     *
+     * @param operation The operation.
+     * @return The latencies in nanoseconds. Must not be modified.
+     * @throws NullPointerException If {@code operation} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public LatencyHistogram getLatencies(@NotNull Operation operation)
+    {
+        return latencies.get(checkNotNull(operation));
+    }
+
+    /**
+     * Gets the number of successful executions of an operation.
+     *
+     * @param operation The operation.
+     * @return The number of executions.
+     * @throws NullPointerException If {@code operation} is {@code null}.
+     * @since 0.2.4
+     */
+    public long getCount(@NotNull Operation operation)
+    {
+        return getLatencies(operation).getCount();
+    }
+
+    /**
+     * Gets the number of failed executions of an operation.
+     *
+     * @param operation The operation.
+     * @return The number of errors.
+     * @throws NullPointerException If {@code operation} is {@code null}.
+     * @since 0.2.4
+     */
+    public long getErrors(@NotNull Operation operation)
+    {
+        return errors.get(checkNotNull(operation));
+    }
+
+    /**
+     * Gets the number of successful executions of an operation per second.
+     *
+     * @param operation The operation.
+     * @return The throughput.
+     * @throws NullPointerException If {@code operation} is {@code null}.
+     * @since 0.2.4
+     */
+    public double getThroughput(@NotNull Operation operation)
+    {
+        return elapsedNanos <= 0 ? 0 : getCount(operation) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets the recorded time.
+     *
+     * @return The time in nanoseconds.
+     * @since 0.2.4
+     */
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "%d readers, %d writers, %.1f s%n", readers, writers, elapsedNanos / 1e9));
+        builder.append(String.format(Locale.ROOT, "%-10s %10s %8s %10s %10s %10s %10s %10s%n",
+                                     "operation", "count", "errors", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Operation operation : Operation.values())
+        {
+            LatencyHistogram histogram = latencies.get(operation);
+            builder.append(String.format(Locale.ROOT, "%-10s %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n",
+                                         operation.name().toLowerCase(Locale.ROOT), histogram.getCount(), errors.get(operation),
+                                         getThroughput(operation), histogram.getValueAtPercentile(50) / 1e6,
+                                         histogram.getValueAtPercentile(99) / 1e6, histogram.getValueAtPercentile(99.9) / 1e6,
+                                         histogram.getMax() / 1e6));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.Contexed;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.SyntheticNounGenerator;
+import cf.kayon.core.util.LatencyHistogram;
+import cf.kayon.core.util.ZipfDistribution;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Simulates many users working with a repository at the same time, to reproduce contention and to compare changes to locking and indexes.
+ * <p>
+ * Reader threads look up forms and root words, writer threads edit existing nouns and insert new (synthetic) nouns, all at the same time.
+ * The looked up forms and root words and the edited nouns are picked with a {@link ZipfDistribution Zipf distribution}, so some of them are
+ * hot, like in real use. After a warmup, the latency of every operation is recorded; the {@link WorkloadReport report} contains the
+ * throughput and latency percentiles of every {@link Operation operation}.
+ * <p>
+ * <strong>The simulation modifies the repository</strong>: Edits add a translation for the locale {@code zxx} (no linguistic content) to
+ * nouns, and inserts add synthetic nouns. Run it against a copy of the database.
+ * <p>
+ * The settings are read from a config section like the {@code workload} section of the reference config:
+ * <ul>
+ * <li>{@code readers}: The number of reader threads.</li>
+ * <li>{@code writers}: The number of writer threads.</li>
+ * <li>{@code duration}: How long the operations are recorded.</li>
+ * <li>{@code warmup}: How long the operations run before they are recorded.</li>
+ * <li>{@code rootQueryRatio}: The share of reads that query root words instead of forms.</li>
+ * <li>{@code insertRatio}: The share of writes that insert nouns instead of editing them.</li>
+ * <li>{@code zipfExponent}: The exponent of the Zipf distribution ({@code 0} is uniform).</li>
+ * <li>{@code nouns}: The maximum number of existing nouns the forms, root words and edited nouns are taken from.</li>
+ * </ul>
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class WorkloadSimulator extends Contexed
+{
+    /**
+     * The locale of the translations written by edits.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final Locale EDIT_LOCALE = new Locale("zxx");
+
+    @NotNull
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkloadSimulator.class);
+
+    /**
+     * The simulated operations.
+     *
+     * @since 0.2.4
+     */
+    public enum Operation
+    {
+        /**
+         * A {@link VocabRepository#queryNouns(String, BlockingQueue) form query}.
+         *
+         * @since 0.2.4
+         */
+        FORM_QUERY,
+        /**
+         * A {@link VocabRepository#queryNounsByRootWord(String, BlockingQueue) root word query}.
+         *
+         * @since 0.2.4
+         */
+        ROOT_QUERY,
+        /**
+         * {@link VocabRepository#save(Noun) Saving} a changed existing noun.
+         *
+         * @since 0.2.4
+         */
+        EDIT,
+        /**
+         * {@link VocabRepository#save(Noun) Saving} a new noun.
+         *
+         * @since 0.2.4
+         */
+        INSERT
+    }
+
+    /**
+     * The repository the operations are run against.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final VocabRepository repository;
+
+    /**
+     * The number of reader threads.
+     *
+     * @since 0.2.4
+     */
+    private final int readers;
+
+    /**
+     * The number of writer threads.
+     *
+     * @since 0.2.4
+     */
+    private final int writers;
+
+    /**
+     * How long the operations are recorded, in nanoseconds.
+     *
+     * @since 0.2.4
+     */
+    private final long durationNanos;
+
+    /**
+     * How long the operations run before they are recorded, in nanoseconds.
+     *
+     * @since 0.2.4
+     */
+    private final long warmupNanos;
+
+    /**
+     * The share of reads that query root words.
+     *
+     * @since 0.2.4
+     */
+    private final double rootQueryRatio;
+
+    /**
+     * The share of writes that insert nouns.
+     *
+     * @since 0.2.4
+     */
+    private final double insertRatio;
+
+    /**
+     * The exponent of the Zipf distributions.
+     *
+     * @since 0.2.4
+     */
+    private final double zipfExponent;
+
+    /**
+     * The maximum number of existing nouns used.
+     *
+     * @since 0.2.4
+     */
+    private final int nouns;
+
+    /**
+     * Constructs a new instance with the {@code workload} section of the config of the context.
+     *
+     * @param context    The {@link KayonContext} for this instance.
+     * @param repository The repository to run the operations against.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws ConfigException.BadValue If a setting is out of range.
+     * @since 0.2.4
+     */
+    public WorkloadSimulator(@NotNull KayonContext context, @NotNull VocabRepository repository)
+    {
+        this(context, repository, context.getConfig().getConfig("workload"));
+    }
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param context    The {@link KayonContext} for this instance.
+     * @param repository The repository to run the operations against.
+     * @param settings   The settings (see the class description), for example the {@code workload} section of the config with some values
+     *                   {@link Config#withValue(String, com.typesafe.config.ConfigValue) replaced}.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws ConfigException          If a setting is missing or has the wrong type.
+     * @throws ConfigException.BadValue If a setting is out of range.
+     * @since 0.2.4
+     */
+    public WorkloadSimulator(@NotNull KayonContext context, @NotNull VocabRepository repository, @NotNull Config settings)
+    {
+        super(context);
+        this.repository = checkNotNull(repository);
+        readers = settings.getInt("readers");
+        writers = settings.getInt("writers");
+        durationNanos = settings.getDuration("duration", TimeUnit.NANOSECONDS);
+        warmupNanos = settings.getDuration("warmup", TimeUnit.NANOSECONDS);
+        rootQueryRatio = settings.getDouble("rootQueryRatio");
+        insertRatio = settings.getDouble("insertRatio");
+        zipfExponent = settings.getDouble("zipfExponent");
+        nouns = settings.getInt("nouns");
+        check(settings, "readers", readers >= 0, "Must not be negative");
+        check(settings, "writers", writers >= 0, "Must not be negative");
+        check(settings, "writers", readers + writers > 0, "There must be at least one reader or writer");
+        check(settings, "duration", durationNanos > 0, "Must be positive");
+        check(settings, "warmup", warmupNanos >= 0, "Must not be negative");
+        check(settings, "rootQueryRatio", rootQueryRatio >= 0 && rootQueryRatio <= 1, "Must be between 0 and 1");
+        check(settings, "insertRatio", insertRatio >= 0 && insertRatio <= 1, "Must be between 0 and 1");
+        check(settings, "zipfExponent", zipfExponent >= 0, "Must not be negative");
+        check(settings, "nouns", nouns > 0, "Must be positive");
+    }
+
+    /**
+     * Throws a {@link ConfigException.BadValue} if a setting is out of range.
+     *
+     * @param settings The settings.
+     * @param path     The path of the setting.
+     * @param valid    Whether the setting is in range.
+     * @param message  The message of the exception.
+     * @throws ConfigException.BadValue If {@code valid} is {@code false}.
+     * @since 0.2.4
+     */
+    private static void check(@NotNull Config settings, @NotNull String path, boolean valid, @NotNull String message)
+    {
+        if (!valid)
+            throw new ConfigException.BadValue(settings.origin(), path, message);
+    }
+
+    /**
+     * Runs the simulation.
+     * <p>
+     * The calling thread blocks for the warmup and the duration. The threads are never interrupted (an interrupt would close an embedded H2
+     * database); they stop when the time is over.
+     *
+     * @param seed The seed of the random choices. Because of the concurrency, the same seed does not reproduce the same operations exactly.
+     * @return The report.
+     * @throws RepositoryException   If the nouns could not be read from the repository.
+     * @throws IllegalStateException If the repository does not contain any nouns with forms.
+     * @throws InterruptedException  If the calling thread is interrupted while waiting for the threads.
+     * @since 0.2.4
+     */
+    @NotNull
+    public WorkloadReport run(long seed) throws RepositoryException, InterruptedException
+    {
+        List<Noun> existing;
+        try (Stream<Noun> stream = repository.streamAll())
+        {
+            existing = stream.limit(nouns).collect(Collectors.toList());
+        }
+        List<String> forms = new ArrayList<>(new LinkedHashSet<>(existing.stream()
+                                                                         .flatMap(noun -> NounForm.values().stream().map(noun::getForm))
+                                                                         .filter(form -> form != null && !form.isEmpty())
+                                                                         .collect(Collectors.toList())));
+        if (forms.isEmpty())
+            throw new IllegalStateException("The repository does not contain any nouns with forms (see SyntheticNounGenerator)");
+        Random shuffler = new Random(seed); // which forms and nouns are hot
+        Collections.shuffle(forms, shuffler);
+        Collections.shuffle(existing, shuffler);
+        ZipfDistribution formDistribution = new ZipfDistribution(forms.size(), zipfExponent);
+        ZipfDistribution nounDistribution = new ZipfDistribution(existing.size(), zipfExponent);
+        SyntheticNounGenerator generator = new SyntheticNounGenerator(getContext(), 1, 1);
+
+        EnumMap<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+        EnumMap<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values())
+        {
+            latencies.put(operation, new LatencyHistogram());
+            errors.put(operation, new LongAdder());
+        }
+        AtomicBoolean errorLogged = new AtomicBoolean();
+
+        ExecutorService executor = Executors.newFixedThreadPool(readers + writers, new ThreadFactoryBuilder().setDaemon(true)
+                                                                                                           .setNameFormat("Kayon workload %d")
+                                                                                                           .build());
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        List<Future<?>> futures = new ArrayList<>(readers + writers);
+        for (int i = 0; i < readers + writers; i++)
+        {
+            boolean writer = i >= readers;
+            SplittableRandom random = seeds.split();
+            futures.add(executor.submit(() -> {
+                LinkedBlockingQueue<Noun> results = new LinkedBlockingQueue<>();
+                long operationStart;
+                while ((operationStart = System.nanoTime()) < end)
+                {
+                    Operation operation;
+                    if (writer)
+                        operation = random.nextDouble() < insertRatio ? Operation.INSERT : Operation.EDIT;
+                    else
+                        operation = random.nextDouble() < rootQueryRatio ? Operation.ROOT_QUERY : Operation.FORM_QUERY;
+                    boolean failed = false;
+                    try
+                    {
+                        switch (operation)
+                        {
+                            case FORM_QUERY:
+                                repository.queryNouns(forms.get(formDistribution.sample(random.nextDouble())), results);
+                                break;
+                            case ROOT_QUERY:
+                                repository.queryNounsByRootWord(existing.get(nounDistribution.sample(random.nextDouble())).getRootWord(), results);
+                                break;
+                            case EDIT:
+                                repository.save(edit(existing.get(nounDistribution.sample(random.nextDouble())), random));
+                                break;
+                            case INSERT:
+                                repository.save(generator.generate(random));
+                                break;
+                        }
+                    } catch (RepositoryException e)
+                    {
+                        failed = true;
+                        if (errorLogged.compareAndSet(false, true))
+                            LOGGER.warn("Operation " + operation + " failed (further failures are only counted)", e);
+                    }
+                    long operationEnd = System.nanoTime();
+                    results.clear();
+                    if (operationStart - measureFrom >= 0)
+                    {
+                        if (failed)
+                            errors.get(operation).increment();
+                        else
+                            latencies.get(operation).record(operationEnd - operationStart);
+                    }
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+        for (Future<?> future : futures)
+        {
+            try
+            {
+                future.get();
+            } catch (ExecutionException e)
+            {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                if (cause instanceof Error)
+                    throw (Error) cause;
+                throw new IllegalStateException("Workload thread failed", cause);
+            }
+        }
+        long elapsed = System.nanoTime() - measureFrom;
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        errors.forEach((operation, count) -> errorCounts.put(operation, count.sum()));
+        return new WorkloadReport(latencies, errorCounts, readers, writers, elapsed);
+    }
+
+    /**
+     * Changes a noun like an edit would, by setting the translation for {@link #EDIT_LOCALE}.
+     *
+     * @param noun   The noun.
+     * @param random The random to pick the translation.
+     * @return The noun.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static Noun edit(@NotNull Noun noun, @NotNull SplittableRandom random)
+    {
+        synchronized (noun)
+        {
+            Map<Locale, String> translations = new HashMap<>(noun.getTranslations());
+            translations.put(EDIT_LOCALE, "workload " + random.nextInt(1_000_000));
+            noun.setTranslations(translations);
+        }
+        return noun;
+    }
+}
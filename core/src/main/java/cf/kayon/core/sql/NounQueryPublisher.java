@@ -0,0 +1,526 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.sql;
+
+import cf.kayon.core.metrics.Counter;
+import cf.kayon.core.metrics.FlightRecorderEvent;
+import cf.kayon.core.metrics.FlightRecorderEvents;
+import cf.kayon.core.metrics.Metrics;
+import cf.kayon.core.metrics.Timer;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.util.Flow;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Publishes the nouns found by a query.
+ * <p>
+ * Every subscription runs the query on its own statement and reads the results from the open cursor only as far as they are requested,
+ * in chunks of at most {@link #CHUNK_SIZE} rows. The connection is locked while reading a chunk only, so other database operations
+ * can run while the subscriber is not ready. Items and signals are delivered on the executor; subscribers should hand off expensive work.
+ * <p>
+ * The statement is closed when all results have been delivered, when the query fails and when the subscription is cancelled.
+ * A subscription that is neither completed nor cancelled keeps its statement open until the connection is closed.
+ * <p>
+ * When its statement is closed, every subscription records its query like {@link NounSQLFactory#queryNouns(String, java.util.concurrent.BlockingQueue)}
+ * and {@link NounSQLFactory#queryNounsByRootWord(String, java.util.concurrent.BlockingQueue)} do: in the {@code sql.query.form} or {@code sql.query.root} timer and,
+ * for form queries, the scanned and returned rows counters. The time recorded is the time spent running the query and reading its results,
+ * without the time waiting for demand. A {@link FlightRecorderEvents#QUERY kayon.Query} event spans from executing the query to closing the
+ * statement, and queries taking longer than its threshold in total are reported to the {@link SlowQueryLog} of the factory.
+ *
+ * @author Ruben Anders
+ * @see NounSQLFactory#publishNouns(String)
+ * @see NounSQLFactory#publishNounsByRootWord(String)
+ * @since 0.2.4
+ */
+@ThreadSafe
+class NounQueryPublisher implements Flow.Publisher<Noun>
+{
+    /**
+     * The logger.
+     *
+     * @since 0.2.4
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(NounQueryPublisher.class);
+
+    /**
+     * The maximum number of rows read at once while holding the lock on the connection.
+     *
+     * @since 0.2.4
+     */
+    static final int CHUNK_SIZE = 256;
+
+    /**
+     * The factory reconstructing the nouns.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final NounSQLFactory factory;
+
+    /**
+     * The query, taking a single string parameter.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final String sql;
+
+    /**
+     * The parameter of the query.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final String parameter;
+
+    /**
+     * Only nouns having a form matching this pattern are published, or all nouns if {@code null}.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final Pattern formPattern;
+
+    /**
+     * The executor the results are read and delivered on.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Executor executor;
+
+    /**
+     * Times the subscriptions to the query ({@code sql.query.form} or {@code sql.query.root}).
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Timer queryTimer;
+
+    /**
+     * Counts the rows read by form queries, or {@code null} for root word queries.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final Counter rowsScannedCounter;
+
+    /**
+     * Counts the rows of form queries whose forms matched, or {@code null} for root word queries.
+     *
+     * @since 0.2.4
+     */
+    @Nullable
+    private final Counter rowsReturnedCounter;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param factory     The factory reconstructing the nouns.
+     * @param sql         The query, taking a single string parameter.
+     * @param parameter   The parameter of the query.
+     * @param formPattern Only nouns having a form matching this pattern are published, or all nouns if {@code null}.
+     *                    Also tells form queries (with a pattern) from root word queries (without one) in the metrics.
+     * @param executor    The executor the results are read and delivered on.
+     * @since 0.2.4
+     */
+    NounQueryPublisher(@NotNull NounSQLFactory factory, @NotNull String sql, @NotNull String parameter, @Nullable Pattern formPattern,
+                       @NotNull Executor executor)
+    {
+        this.factory = checkNotNull(factory);
+        this.sql = checkNotNull(sql);
+        this.parameter = checkNotNull(parameter);
+        this.formPattern = formPattern;
+        this.executor = checkNotNull(executor);
+        Metrics metrics = factory.getContext().getMetrics();
+        queryTimer = metrics.timer(formPattern != null ? "sql.query.form" : "sql.query.root");
+        rowsScannedCounter = formPattern != null ? metrics.counter("sql.query.form.rowsScanned") : null;
+        rowsReturnedCounter = formPattern != null ? metrics.counter("sql.query.form.rowsReturned") : null;
+    }
+
+    /**
+     * Subscribes a subscriber. The query is run when the subscriber first requests items.
+     *
+     * @param subscriber The subscriber.
+     * @throws NullPointerException If {@code subscriber} is {@code null}.
+     * @since 0.2.4
+     */
+    @Override
+    public void subscribe(@NotNull Flow.Subscriber<? super Noun> subscriber)
+    {
+        subscriber.onSubscribe(new NounSubscription(checkNotNull(subscriber)));
+    }
+
+    /**
+     * A subscription to the results of the query.
+     * <p>
+     * All work is done by {@link #run()}, which is scheduled whenever demand is added or the subscription is cancelled and never runs
+     * concurrently with itself.
+     *
+     * @since 0.2.4
+     */
+    private final class NounSubscription implements Flow.Subscription, Runnable
+    {
+        /**
+         * The subscriber.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final Flow.Subscriber<? super Noun> subscriber;
+
+        /**
+         * The number of items requested but not yet delivered. {@link Long#MAX_VALUE} means unbounded.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final AtomicLong demand = new AtomicLong();
+
+        /**
+         * The number of times {@link #run()} has been scheduled without having caught up.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final AtomicInteger missed = new AtomicInteger();
+
+        /**
+         * Whether the subscription has been cancelled.
+         *
+         * @since 0.2.4
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * The error caused by an invalid request, or {@code null}.
+         *
+         * @since 0.2.4
+         */
+        @Nullable
+        private volatile Throwable requestError;
+
+        /**
+         * Whether a terminal signal has been delivered or the subscription has been cancelled and cleaned up.
+         * Only accessed by {@link #run()}.
+         *
+         * @since 0.2.4
+         */
+        private boolean done;
+
+        /**
+         * Whether the cursor has no more rows. Only accessed by {@link #run()}.
+         *
+         * @since 0.2.4
+         */
+        private boolean exhausted;
+
+        /**
+         * The statement of this subscription, or {@code null} if the query has not been run yet.
+         *
+         * @since 0.2.4
+         */
+        @GuardedBy("factory.getContext().getConnection()")
+        @Nullable
+        private PreparedStatement statement;
+
+        /**
+         * The cursor of this subscription, or {@code null} if the query has not been run yet.
+         *
+         * @since 0.2.4
+         */
+        @GuardedBy("factory.getContext().getConnection()")
+        @Nullable
+        private ResultSet results;
+
+        /**
+         * The time spent running the query and reading its results in nanoseconds.
+         *
+         * @since 0.2.4
+         */
+        @GuardedBy("factory.getContext().getConnection()")
+        private long queryNanos;
+
+        /**
+         * The flight recorder event of the query, or {@code null} if the query has not been run yet.
+         *
+         * @since 0.2.4
+         */
+        @GuardedBy("factory.getContext().getConnection()")
+        @Nullable
+        private FlightRecorderEvent event;
+
+        /**
+         * The number of rows read from the cursor.
+         *
+         * @since 0.2.4
+         */
+        @GuardedBy("factory.getContext().getConnection()")
+        private long rowsScanned;
+
+        /**
+         * The number of nouns read from the cursor that matched the form pattern.
+         *
+         * @since 0.2.4
+         */
+        @GuardedBy("factory.getContext().getConnection()")
+        private long rowsReturned;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param subscriber The subscriber.
+         * @since 0.2.4
+         */
+        NounSubscription(@NotNull Flow.Subscriber<? super Noun> subscriber)
+        {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0)
+            {
+                requestError = new IllegalArgumentException("Non-positive request: " + n);
+            } else
+            {
+                long current;
+                long updated;
+                do
+                {
+                    current = demand.get();
+                    updated = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!demand.compareAndSet(current, updated));
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel()
+        {
+            cancelled = true;
+            schedule();
+        }
+
+        /**
+         * Schedules {@link #run()} unless it is already running, in which case it loops once more.
+         *
+         * @since 0.2.4
+         */
+        private void schedule()
+        {
+            if (missed.getAndIncrement() != 0)
+                return;
+            try
+            {
+                executor.execute(this);
+            } catch (RejectedExecutionException e)
+            {
+                // run() is not running, so the terminal signal can be delivered here
+                missed.set(0);
+                if (!done)
+                    terminate(e);
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            int missedRuns = 1;
+            do
+            {
+                drain();
+                missedRuns = missed.addAndGet(-missedRuns);
+            } while (missedRuns != 0);
+        }
+
+        /**
+         * Delivers as many results as have been requested, or the terminal signal.
+         *
+         * @since 0.2.4
+         */
+        private void drain()
+        {
+            if (done)
+                return;
+            try
+            {
+                @Nullable
+                Throwable error = requestError;
+                if (error != null)
+                {
+                    terminate(error);
+                    return;
+                }
+                while (!cancelled && (demand.get() > 0 || exhausted))
+                {
+                    if (exhausted)
+                    {
+                        close();
+                        done = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    for (Noun noun : fetch((int) Math.min(demand.get(), CHUNK_SIZE)))
+                    {
+                        if (cancelled)
+                            break;
+                        if (demand.get() != Long.MAX_VALUE)
+                            demand.decrementAndGet();
+                        subscriber.onNext(noun);
+                    }
+                }
+                if (cancelled)
+                {
+                    close();
+                    done = true;
+                }
+            } catch (Throwable t)
+            {
+                terminate(t);
+            }
+        }
+
+        /**
+         * Reads the next matching nouns from the cursor, running the query first if this has not been done yet.
+         * Sets {@link #exhausted} if the cursor has no more rows.
+         *
+         * @param limit The maximum number of nouns to read.
+         * @return The nouns.
+         * @throws SQLException If the query failed.
+         * @since 0.2.4
+         */
+        @NotNull
+        private List<Noun> fetch(int limit) throws SQLException
+        {
+            List<Noun> nouns = new ArrayList<>(limit);
+            Connection connection = factory.getContext().getConnection();
+            synchronized (connection)
+            {
+                long start = System.nanoTime();
+                try
+                {
+                    if (results == null)
+                    {
+                        //noinspection JDBCPrepareStatementWithNonConstantString
+                        statement = connection.prepareStatement(sql);
+                        statement.setFetchSize(CHUNK_SIZE);
+                        statement.setString(1, parameter);
+                        event = FlightRecorderEvents.QUERY.begin().set("kind", formPattern != null ? "form" : "root").set("form", parameter);
+                        results = statement.executeQuery();
+                    }
+                    while (nouns.size() < limit)
+                    {
+                        if (!results.next())
+                        {
+                            exhausted = true;
+                            break;
+                        }
+                        rowsScanned++;
+                        Noun noun = factory.constructNounFromResultSet(results);
+                        if (formPattern == null || NounSQLFactory.matchesAnyForm(noun, formPattern))
+                        {
+                            rowsReturned++;
+                            nouns.add(noun);
+                        }
+                    }
+                } finally
+                {
+                    queryNanos += System.nanoTime() - start;
+                }
+            }
+            return nouns;
+        }
+
+        /**
+         * Closes the statement, if any, and delivers an error to the subscriber unless the subscription has been cancelled.
+         *
+         * @param throwable The error.
+         * @since 0.2.4
+         */
+        private void terminate(@NotNull Throwable throwable)
+        {
+            close();
+            done = true;
+            if (!cancelled)
+                subscriber.onError(throwable);
+            else
+                LOGGER.debug("Error after cancellation", throwable);
+        }
+
+        /**
+         * Closes the statement (and with it the cursor), if any, and records the query in the metrics and the slow query log.
+         *
+         * @since 0.2.4
+         */
+        private void close()
+        {
+            synchronized (factory.getContext().getConnection())
+            {
+                if (statement == null)
+                    return;
+                queryTimer.record(queryNanos);
+                if (rowsScannedCounter != null && rowsReturnedCounter != null)
+                {
+                    rowsScannedCounter.add(rowsScanned);
+                    rowsReturnedCounter.add(rowsReturned);
+                }
+                if (event != null)
+                {
+                    // The root word is matched by the database, so the number of scanned rows is unknown
+                    event.set("rowsScanned", formPattern != null ? rowsScanned : -1L).set("rowsReturned", rowsReturned).commit();
+                    event = null;
+                }
+                factory.getSlowQueryLog().checkDuration(queryNanos, sql, new Object[]{ parameter }, formPattern != null ? formPattern.pattern() : null,
+                                                        formPattern != null ? rowsScanned : -1, rowsReturned);
+                try
+                {
+                    statement.close();
+                } catch (SQLException e)
+                {
+                    LOGGER.warn("Could not close query statement", e);
+                } finally
+                {
+                    statement = null;
+                    results = null;
+                }
+            }
+        }
+    }
+}
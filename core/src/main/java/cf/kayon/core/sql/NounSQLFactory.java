@@ -20,28 +20,45 @@ package cf.kayon.core.sql;
 
 import cf.kayon.core.CaseHandling;
 import cf.kayon.core.Contexed;
+import cf.kayon.core.DeclensionRegistry;
 import cf.kayon.core.Gender;
 import cf.kayon.core.KayonContext;
+import cf.kayon.core.StandardVocab;
+import cf.kayon.core.metrics.Counter;
+import cf.kayon.core.metrics.FlightRecorderEvent;
+import cf.kayon.core.metrics.FlightRecorderEvents;
+import cf.kayon.core.metrics.Histogram;
+import cf.kayon.core.metrics.Metrics;
+import cf.kayon.core.metrics.Timer;
 import cf.kayon.core.noun.Noun;
 import cf.kayon.core.noun.NounDeclension;
-import cf.kayon.core.noun.NounDeclensionUtil;
 import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.util.Flow;
 import cf.kayon.core.util.StringUtil;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.typesafe.config.ConfigException;
+import net.jcip.annotations.GuardedBy;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.Locale;
-import java.util.Map;
-import java.util.UUID;
+import java.sql.Types;
+import java.util.*;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import static cf.kayon.core.util.StringUtil.checkNotEmpty;
@@ -57,6 +74,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class NounSQLFactory extends Contexed
 {
+    /**
+     * The columns of the {@code NOUNS} table that can be written by partial updates, in table order (the UUID column is omitted).
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final List<String> UPDATABLE_COLUMNS = ImmutableList.of("ROOTWORD", "GENDER", "NOUNDECLENSION", "TRANSLATIONS",
+                                                                         "NOMSGDEF", "GENSGDEF", "DATSGDEF", "ACCSGDEF", "ABLSGDEF", "VOCSGDEF",
+                                                                         "NOMPLDEF", "GENPLDEF", "DATPLDEF", "ACCPLDEF", "ABLPLDEF", "VOCPLDEF");
+
 
     /**
      * The SQL string for inserting a {@link Noun} into a database.
@@ -82,6 +109,44 @@ public class NounSQLFactory extends Contexed
      * @since 0.2.3
      */
     private final String rootQuerySql;
+    /**
+     * The SQL string for inserting a form of a {@link Noun} into the form index.
+     *
+     * @since 0.2.4
+     */
+    private final String formInsertSql;
+    /**
+     * The SQL string for removing a form of a {@link Noun} from the form index.
+     *
+     * @since 0.2.4
+     */
+    private final String formDeleteSql;
+    /**
+     * The SQL template for updating some columns of a {@link Noun} in a database.
+     * The {@code %s} placeholder is replaced by the column assignments.
+     *
+     * @since 0.2.4
+     */
+    private final String updateSql;
+    /**
+     * The SQL string for querying the first page of all {@link Noun}s, ordered by UUID.
+     *
+     * @since 0.2.4
+     */
+    private final String pageStartSql;
+    /**
+     * The SQL string for querying the page of all {@link Noun}s after a UUID, ordered by UUID.
+     *
+     * @since 0.2.4
+     */
+    private final String pageSql;
+
+    /**
+     * The SQL statement to query nouns by many normalized forms at once.
+     *
+     * @since 0.2.4
+     */
+    private final String batchQuerySql;
     /**
      * The SQL statement for inserting a {@link Noun} into a database.
      *
@@ -100,6 +165,161 @@ public class NounSQLFactory extends Contexed
      * @since 0.2.3
      */
     private volatile PreparedStatement rootQueryStatement;
+    /**
+     * The SQL statement for inserting a form of a {@link Noun} into the form index.
+     *
+     * @since 0.2.4
+     */
+    private volatile PreparedStatement formInsertStatement;
+    /**
+     * The SQL statement for removing a form of a {@link Noun} from the form index.
+     *
+     * @since 0.2.4
+     */
+    private volatile PreparedStatement formDeleteStatement;
+    /**
+     * The SQL statement for querying the first page of all {@link Noun}s, ordered by UUID.
+     *
+     * @since 0.2.4
+     */
+    private volatile PreparedStatement pageStartStatement;
+    /**
+     * The SQL statement for querying the page of all {@link Noun}s after a UUID, ordered by UUID.
+     *
+     * @since 0.2.4
+     */
+    private volatile PreparedStatement pageStatement;
+
+    /**
+     * The prepared statement of {@link #batchQuerySql}.
+     *
+     * @since 0.2.4
+     */
+    private volatile PreparedStatement batchQueryStatement;
+    /**
+     * The compiled update statements, keyed by the bit mask of the columns they write (see {@link #UPDATABLE_COLUMNS}).
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("getContext().getConnection()")
+    @NotNull
+    private final Map<Integer, PreparedStatement> updateStatements = new HashMap<>();
+    /**
+     * The update statements that have statements in their batch.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("getContext().getConnection()")
+    @NotNull
+    private final Set<PreparedStatement> pendingUpdateStatements = new LinkedHashSet<>();
+
+    /**
+     * The nouns in the statement batch, to be {@link StandardVocab#markClean(StandardVocab.CleanState) marked clean} once the batch has been
+     * executed and committed (see {@link #completeSaves()}).
+     * <p>
+     * Keyed by identity, as nouns are mutable.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("getContext().getConnection()")
+    @NotNull
+    private final Map<Noun, PendingSave> pendingSaves = new IdentityHashMap<>();
+
+    /**
+     * Runs the asynchronous operations.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The number of nouns in the statement batch, recorded in {@link #batchSizes} when the batch is executed.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("getContext().getConnection()")
+    private int batchedNouns;
+
+    /**
+     * Times {@link #constructNounFromResultSet(ResultSet)}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Timer reconstructTimer;
+
+    /**
+     * Times form queries, including reconstructing and filtering the results.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Timer formQueryTimer;
+
+    /**
+     * Times batch form queries.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Timer batchQueryTimer;
+
+    /**
+     * Times root word queries.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Timer rootQueryTimer;
+
+    /**
+     * Times how long queries wait for space in the queues the results are written to.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Timer resultQueueWaitTimer;
+
+    /**
+     * Counts the rows found by the index lookup of form queries.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Counter formRowsScanned;
+
+    /**
+     * Counts the rows of form queries whose forms matched and that were returned.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Counter formRowsReturned;
+
+    /**
+     * Times executing statement batches.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Timer saveTimer;
+
+    /**
+     * Records the number of nouns per executed statement batch.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Histogram batchSizes;
+
+    /**
+     * Logs slow form, batch and root word queries.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final SlowQueryLog slowQueryLog;
 
     /**
      * Constructs a new instance.
@@ -116,6 +336,34 @@ public class NounSQLFactory extends Contexed
         querySql = context.getConfig().getString("database.statements.query");
         setupSql = context.getConfig().getString("database.statements.setup");
         rootQuerySql = context.getConfig().getString("database.statements.rootQuery");
+        formInsertSql = context.getConfig().getString("database.statements.formInsert");
+        formDeleteSql = context.getConfig().getString("database.statements.formDelete");
+        updateSql = context.getConfig().getString("database.statements.update");
+        pageStartSql = context.getConfig().getString("database.statements.pageStart");
+        pageSql = context.getConfig().getString("database.statements.page");
+        batchQuerySql = context.getConfig().getString("database.statements.batchQuery");
+
+        int threads = context.getConfig().getInt("database.executor.threads");
+        if (threads < 1)
+            throw new ConfigException.BadValue(context.getConfig().origin(), "database.executor.threads", "Must be positive");
+        executor = new ThreadPoolExecutor(threads, threads, context.getConfig().getDuration("database.executor.keepAlive", TimeUnit.MILLISECONDS),
+                                          TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                                          new ThreadFactoryBuilder().setNameFormat("Kayon database %d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+
+        Metrics metrics = context.getMetrics();
+        reconstructTimer = metrics.timer("sql.reconstruct");
+        formQueryTimer = metrics.timer("sql.query.form");
+        batchQueryTimer = metrics.timer("sql.query.batch");
+        rootQueryTimer = metrics.timer("sql.query.root");
+        resultQueueWaitTimer = metrics.timer("sql.query.resultQueueWait");
+        formRowsScanned = metrics.counter("sql.query.form.rowsScanned");
+        formRowsReturned = metrics.counter("sql.query.form.rowsReturned");
+        saveTimer = metrics.timer("sql.save");
+        batchSizes = metrics.histogram("sql.save.batchSize");
+        metrics.gauge("sql.executor.queueDepth", () -> executor.getQueue().size());
+        metrics.gauge("sql.executor.active", executor::getActiveCount);
+        slowQueryLog = new SlowQueryLog(context);
     }
 
     /**
@@ -139,6 +387,17 @@ public class NounSQLFactory extends Contexed
                 queryStatement = getContext().getConnection().prepareStatement(querySql);
                 currentPath = "database.statements.rootQuery";
                 rootQueryStatement = getContext().getConnection().prepareStatement(rootQuerySql);
+                currentPath = "database.statements.formInsert";
+                formInsertStatement = getContext().getConnection().prepareStatement(formInsertSql);
+                currentPath = "database.statements.formDelete";
+                formDeleteStatement = getContext().getConnection().prepareStatement(formDeleteSql);
+                currentPath = "database.statements.pageStart";
+                pageStartStatement = getContext().getConnection().prepareStatement(pageStartSql);
+                currentPath = "database.statements.page";
+                pageStatement = getContext().getConnection().prepareStatement(pageSql);
+                currentPath = "database.statements.batchQuery";
+                //noinspection JDBCPrepareStatementWithNonConstantString
+                batchQueryStatement = getContext().getConnection().prepareStatement(batchQuerySql);
             }
         } catch (SQLException e)
         {
@@ -174,6 +433,18 @@ public class NounSQLFactory extends Contexed
      * <p>
      * If the specified noun did not have UUID before, it gets a random UUID assigned.
      * <p>
+     * The NounDeclension of the noun is persisted by its {@link DeclensionRegistry} ID, so it has to be registered.
+     * <p>
+     * If the noun is {@link Noun#isPersistent() persistent} (it has been loaded from or saved to the database before), only the
+     * {@link Noun#getDirtyProperties() changed} columns and index rows are written. Otherwise, the whole row is written.
+     * <p>
+     * The noun is only {@link Noun#markClean(StandardVocab.CleanState) marked clean} (and gets its new UUID) once the statements have been executed
+     * and committed; changes made to it in between stay dirty. If the connection is in auto-commit mode, this happens when the batch is executed.
+     * Otherwise, the caller owns the transaction and has to call {@link #completeSaves()} after committing it or {@link #abortSaves()} after
+     * rolling it back.
+     * <p>
+     * If the save fails, all batched statements are discarded, none of the batched nouns are marked clean and the exception is rethrown.
+     * <p>
      * Thread safety notice:
      * External synchronization may be necessary to prevent other threads from messing with the batch created by this method.
      * External code should lock on {@link KayonContext#getConnection()}, like this:
@@ -193,47 +464,342 @@ public class NounSQLFactory extends Contexed
      *
      * @param noun    The noun to save.
      * @param doBatch {@code true} to add the insert statement to the batch or {@code false} if the statement should
-     *                be executed now (will also execute any old statements added to the batch).
-     * @throws SQLException If there are any issues when executing the SQL update against the database connection.
+     *                be executed now (will also execute any old statements added to the batch). All batched statements are executed in a single
+     *                transaction.
+     * @throws SQLException             If there are any issues when executing the SQL update against the database connection.
+     * @throws IllegalArgumentException If the NounDeclension of {@code noun} is not registered in the {@link DeclensionRegistry}.
      * @since 0.2.3
      */
     @Contract("null, true -> fail")
     public void saveNounToDatabase(@Nullable Noun noun, boolean doBatch) throws SQLException
     {
+        if (noun == null && doBatch)
+            throw new IllegalArgumentException("noun == null and doBatch == true not allowed");
         synchronized (getContext().getConnection())
         {
-            if (noun != null)
+            try
             {
-                insertStatement.setString(1, noun.getRootWord());
-                UUID uuid = noun.getUuid();
-                if (uuid == null)
+                if (noun != null)
                 {
-                    uuid = UUID.randomUUID();
-                    noun.initializeUuid(uuid);
+                    //noinspection NestedSynchronizedStatement
+                    synchronized (noun) // no modifications between writing the noun and capturing its clean state
+                    {
+                        PendingSave pending = pendingSaves.get(noun);
+                        UUID assignedUuid = null;
+                        if (noun.isPersistent())
+                            addUpdateToBatch(noun);
+                        else
+                        {
+                            UUID uuid = noun.getUuid();
+                            if (uuid == null)
+                            {
+                                // A noun saved twice in the same batch keeps its row
+                                assignedUuid = pending != null && pending.assignedUuid != null ? pending.assignedUuid : UUID.randomUUID();
+                                uuid = assignedUuid;
+                            }
+                            addInsertToBatch(noun, uuid);
+                        }
+                        pendingSaves.put(noun, new PendingSave(assignedUuid, noun.captureCleanState()));
+                    }
+                    batchedNouns++;
                 }
-                insertStatement.setObject(2, uuid.toString());
-                insertStatement.setByte(3, SQLUtil.idForGender(noun.getGender()));
-                if (noun.getNounDeclension() != null)
-                    insertStatement.setString(4, noun.getNounDeclension().getClass().getName()); // Full class name
-                else
-                    insertStatement.setString(4, null);
-                insertStatement.setObject(5, noun.getTranslations());
-                int counter = 6;
-                for (NounForm nounForm : NounForm.values())
+                if (!doBatch)
+                {
+                    batchSizes.record(batchedNouns);
+                    FlightRecorderEvent event = FlightRecorderEvents.SAVE.begin().set("nouns", (long) batchedNouns);
+                    batchedNouns = 0;
+                    long start = saveTimer.start();
+                    boolean committed;
+                    try
+                    {
+                        committed = executeBatchesInTransaction();
+                    } finally
+                    {
+                        saveTimer.stop(start);
+                        event.commit();
+                    }
+                    if (committed)
+                        completeSaves();
+                }
+            } catch (SQLException | RuntimeException e)
+            {
+                try
                 {
-                    @Nullable
-                    String formOrNull = noun.getForm(nounForm);
-                    @Nullable
-                    String definedForm = noun.getDefinedForm(nounForm);
+                    abortSaves();
+                } catch (SQLException suppressed)
+                {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+        }
+    }
 
-                    insertStatement.setString(counter + 12, definedForm);
-                    insertStatement.setString(counter++, formOrNull);
+    /**
+     * Marks the nouns of the executed statement batch clean, after the transaction they were written in has been committed.
+     * <p>
+     * Only has to be called by code managing the transactions of the connection itself (see {@link #saveNounToDatabase(Noun, boolean)}).
+     *
+     * @since 0.2.4
+     */
+    public void completeSaves()
+    {
+        synchronized (getContext().getConnection())
+        {
+            for (Map.Entry<Noun, PendingSave> entry : pendingSaves.entrySet())
+            {
+                Noun noun = entry.getKey();
+                PendingSave pending = entry.getValue();
+                if (pending.assignedUuid != null)
+                {
+                    if (noun.getUuid() == null)
+                        noun.initializeUuid(pending.assignedUuid);
+                    else if (!noun.getUuid().equals(pending.assignedUuid))
+                        continue; // Initialized by someone else in the meantime, so the written row is not the row of the noun
                 }
-                insertStatement.addBatch();
-            } else if (doBatch)
-                throw new IllegalArgumentException("noun == null and doBatch == true not allowed");
-            if (!doBatch)
-                insertStatement.executeBatch();
+                noun.markClean(pending.state);
+            }
+            pendingSaves.clear();
+        }
+    }
+
+    /**
+     * Discards the statement batch, after it has failed or the transaction it was written in has been rolled back.
+     * None of its nouns are marked clean.
+     * <p>
+     * Only has to be called by code managing the transactions of the connection itself (see {@link #saveNounToDatabase(Noun, boolean)}).
+     *
+     * @throws SQLException If the batches could not be cleared.
+     * @since 0.2.4
+     */
+    public void abortSaves() throws SQLException
+    {
+        synchronized (getContext().getConnection())
+        {
+            pendingSaves.clear();
+            batchedNouns = 0;
+            pendingUpdateStatements.clear();
+            for (PreparedStatement updateStatement : updateStatements.values())
+                updateStatement.clearBatch();
+            insertStatement.clearBatch();
+            formDeleteStatement.clearBatch();
+            formInsertStatement.clearBatch();
+        }
+    }
+
+    /**
+     * Executes the statement batches.
+     * <p>
+     * The batches are executed in a single transaction: If the connection is in auto-commit mode, a transaction is started and committed
+     * (or rolled back on failure) by this method, so a failure can not leave a noun without its index rows. Otherwise, the batches become part of
+     * the transaction of the caller.
+     * <p>
+     * Callers have to synchronize on the connection.
+     *
+     * @return Whether the transaction has been committed by this method.
+     * @throws SQLException If any of the batches could not be executed.
+     * @since 0.2.4
+     */
+    private boolean executeBatchesInTransaction() throws SQLException
+    {
+        Connection connection = getContext().getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit)
+            connection.setAutoCommit(false);
+        try
+        {
+            // The nouns have to exist before their forms can reference them
+            insertStatement.executeBatch();
+            for (PreparedStatement updateStatement : pendingUpdateStatements)
+                updateStatement.executeBatch();
+            pendingUpdateStatements.clear();
+            formDeleteStatement.executeBatch();
+            formInsertStatement.executeBatch();
+            if (autoCommit)
+                connection.commit();
+            return autoCommit;
+        } catch (SQLException | RuntimeException e)
+        {
+            if (autoCommit)
+                connection.rollback();
+            throw e;
+        } finally
+        {
+            if (autoCommit)
+                connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Adds the statements writing all data of a noun to the batch.
+     * <p>
+     * Callers have to synchronize on the connection.
+     *
+     * @param noun The noun to save.
+     * @param uuid The UUID of the noun, or the UUID it is going to be assigned once it has been saved.
+     * @throws SQLException             If there are any issues when adding the statements to the batch.
+     * @throws IllegalArgumentException If the NounDeclension of {@code noun} is not registered in the {@link DeclensionRegistry}.
+     * @since 0.2.4
+     */
+    private void addInsertToBatch(@NotNull Noun noun, @NotNull UUID uuid) throws SQLException
+    {
+        for (int column = 0; column < UPDATABLE_COLUMNS.size(); column++)
+            setColumnParameter(insertStatement, column == 0 ? 1 : column + 2, noun, column); // UUID is the second column
+        insertStatement.setObject(2, uuid.toString());
+        for (NounForm nounForm : NounForm.values())
+            addFormToBatch(noun, uuid, nounForm);
+        insertStatement.addBatch();
+    }
+
+    /**
+     * Adds the statements writing the {@link Noun#getDirtyProperties() changed data} of a persistent noun to the batch.
+     * <p>
+     * Only the changed columns of the {@code NOUNS} table and the changed rows of the {@code NOUNFORMS} index are written.
+     * <p>
+     * Callers have to synchronize on the connection.
+     *
+     * @param noun The noun to save.
+     * @throws SQLException             If there are any issues when compiling the update statement or adding the statements to the batch.
+     * @throws IllegalArgumentException If the NounDeclension of {@code noun} is not registered in the {@link DeclensionRegistry}.
+     * @since 0.2.4
+     */
+    private void addUpdateToBatch(@NotNull Noun noun) throws SQLException
+    {
+        UUID uuid = noun.getUuid();
+        assert uuid != null; // persistent nouns always have an UUID
+        Set<String> dirtyProperties = noun.getDirtyProperties();
+        if (dirtyProperties.isEmpty())
+            return;
+
+        int columnMask = 0;
+        if (dirtyProperties.contains("rootWord"))
+            columnMask |= 1;
+        if (dirtyProperties.contains("gender"))
+            columnMask |= 1 << 1;
+        if (dirtyProperties.contains("nounDeclension"))
+            columnMask |= 1 << 2;
+        if (dirtyProperties.contains("translations"))
+            columnMask |= 1 << 3;
+        for (NounForm nounForm : NounForm.values())
+        {
+            boolean defined = dirtyProperties.contains(nounForm.getPropertyName("defined"));
+            if (defined)
+                columnMask |= 1 << (4 + nounForm.ordinal());
+            if (defined || dirtyProperties.contains(nounForm.getPropertyName("declined")))
+                addFormToBatch(noun, uuid, nounForm);
+        }
+
+        if (columnMask != 0)
+        {
+            PreparedStatement updateStatement = updateStatementFor(columnMask);
+            int parameterIndex = 1;
+            for (int column = 0; column < UPDATABLE_COLUMNS.size(); column++)
+                if ((columnMask & (1 << column)) != 0)
+                    setColumnParameter(updateStatement, parameterIndex++, noun, column);
+            updateStatement.setObject(parameterIndex, uuid.toString());
+            updateStatement.addBatch();
+            pendingUpdateStatements.add(updateStatement);
+        }
+    }
+
+    /**
+     * Gets the compiled update statement writing the specified columns, compiling it if it has not been compiled before.
+     * <p>
+     * Callers have to synchronize on the connection.
+     *
+     * @param columnMask A bit mask of the columns to write. The bits correspond to the indices of {@link #UPDATABLE_COLUMNS}.
+     * @return The update statement. Its last parameter is the UUID of the noun to update.
+     * @throws SQLException If the statement could not be compiled.
+     * @since 0.2.4
+     */
+    @NotNull
+    private PreparedStatement updateStatementFor(int columnMask) throws SQLException
+    {
+        PreparedStatement updateStatement = updateStatements.get(columnMask);
+        if (updateStatement == null)
+        {
+            StringJoiner assignments = new StringJoiner(", ");
+            for (int column = 0; column < UPDATABLE_COLUMNS.size(); column++)
+                if ((columnMask & (1 << column)) != 0)
+                    assignments.add(UPDATABLE_COLUMNS.get(column) + " = ?");
+            String sql = String.format(updateSql, assignments);
+            try
+            {
+                updateStatement = getContext().getConnection().prepareStatement(sql);
+            } catch (SQLException e)
+            {
+                throw new ConfigException.BadValue(getContext().getConfig().origin(), "database.statements.update",
+                                                   "See cause below (Invalid SQL statement in config could not be compiled)!", e);
+            }
+            updateStatements.put(columnMask, updateStatement);
+        }
+        return updateStatement;
+    }
+
+    /**
+     * Sets a statement parameter to the value of one of the {@link #UPDATABLE_COLUMNS} of a noun.
+     *
+     * @param statement      The statement.
+     * @param parameterIndex The index of the parameter to set.
+     * @param noun           The noun.
+     * @param column         The index of the column in {@link #UPDATABLE_COLUMNS}.
+     * @throws SQLException             If the parameter could not be set.
+     * @throws IllegalArgumentException If the NounDeclension of {@code noun} is not registered in the {@link DeclensionRegistry}.
+     * @since 0.2.4
+     */
+    private static void setColumnParameter(@NotNull PreparedStatement statement, int parameterIndex, @NotNull Noun noun, int column) throws SQLException
+    {
+        switch (column)
+        {
+            case 0:
+                statement.setString(parameterIndex, noun.getRootWord());
+                break;
+            case 1:
+                statement.setByte(parameterIndex, SQLUtil.idForGender(noun.getGender()));
+                break;
+            case 2:
+                @Nullable
+                NounDeclension nounDeclension = noun.getNounDeclension();
+                if (nounDeclension != null)
+                    statement.setByte(parameterIndex, DeclensionRegistry.idForNounDeclension(nounDeclension));
+                else
+                    statement.setNull(parameterIndex, Types.TINYINT);
+                break;
+            case 3:
+                statement.setObject(parameterIndex, noun.getTranslations());
+                break;
+            default:
+                statement.setString(parameterIndex, noun.getDefinedForm(NounForm.values().get(column - 4)));
+        }
+    }
+
+    /**
+     * Adds the statement writing the current effective form of a noun into the {@code NOUNFORMS} index to the batch.
+     * <p>
+     * Declined forms are derivable and are only stored in this index.
+     *
+     * @param noun     The noun.
+     * @param uuid     The UUID of the noun.
+     * @param nounForm The form to write.
+     * @throws SQLException If the statement could not be added to the batch.
+     * @since 0.2.4
+     */
+    private void addFormToBatch(@NotNull Noun noun, @NotNull UUID uuid, @NotNull NounForm nounForm) throws SQLException
+    {
+        @Nullable
+        String formOrNull = noun.getForm(nounForm);
+        if (formOrNull != null)
+        {
+            formInsertStatement.setObject(1, uuid.toString());
+            formInsertStatement.setByte(2, (byte) nounForm.ordinal());
+            formInsertStatement.setString(3, formOrNull);
+            formInsertStatement.setString(4, StringUtil.unSpecialString(formOrNull));
+            formInsertStatement.addBatch();
+        } else
+        {
+            formDeleteStatement.setObject(1, uuid.toString());
+            formDeleteStatement.setByte(2, (byte) nounForm.ordinal());
+            formDeleteStatement.addBatch();
         }
     }
 
@@ -251,6 +817,8 @@ public class NounSQLFactory extends Contexed
      * <p>
      * The passed {@link ResultSet} will not be closed by this method.
      * It is the task of the caller to close the {@link ResultSet} after it is done with all operations.
+     * <p>
+     * The reconstructed noun is {@link Noun#markClean() marked clean}, so saving it later only writes the changes made to it.
      *
      * @param resultSet The {@link ResultSet} with the row selected to read from.
      * @return A reconstructed {@link Noun}.
@@ -263,6 +831,8 @@ public class NounSQLFactory extends Contexed
     @CaseHandling(CaseHandling.CaseType.LOWERCASE_ONLY)
     public Noun constructNounFromResultSet(@NotNull ResultSet resultSet) throws SQLException
     {
+        long start = reconstructTimer.start();
+        FlightRecorderEvent event = FlightRecorderEvents.RECONSTRUCT.begin();
         synchronized (getContext().getConnection())
         {
             @NotNull
@@ -271,18 +841,23 @@ public class NounSQLFactory extends Contexed
             UUID uuid = (UUID) resultSet.getObject(2);
             @NotNull
             Gender gender = SQLUtil.genderForId(resultSet.getByte(3));
-            NounDeclension nounDeclension = NounDeclensionUtil.forName(resultSet.getString(4));
+            byte nounDeclensionId = resultSet.getByte(4);
+            @Nullable
+            NounDeclension nounDeclension = resultSet.wasNull() ? null : DeclensionRegistry.nounDeclensionForId(nounDeclensionId);
             Map<Locale, String> translations = (Map<Locale, String>) resultSet.getObject(5);
             Noun noun = new Noun(getContext(), nounDeclension, gender, rootWord);
             noun.setTranslations(translations);
             noun.initializeUuid(uuid);
-            int counter = 18;
+            int counter = 6;
             for (NounForm nounForm : NounForm.values())
             {
                 @Nullable
                 String formOrNull = resultSet.getString(counter++);
                 noun.setDefinedForm(nounForm, formOrNull);
             }
+            noun.markClean();
+            reconstructTimer.stop(start);
+            event.set("rootWord", rootWord).commit();
             return noun;
         }
     }
@@ -295,7 +870,7 @@ public class NounSQLFactory extends Contexed
 
     /**
      * Queries the {@link Noun}s out of a database connection by the specified form.
-     * Searches in the table {@code NOUNS} (Unless the application is configured differently).
+     * Looks up the form in the table {@code NOUNFORMS} (Unless the application is configured differently).
      *
      * @param formToSearch The form to search. May be any kind of special form (and may be raw user input).
      * @param writeTo      The {@link BlockingQueue} to write the resulting {@link Noun}s to.
@@ -312,9 +887,9 @@ public class NounSQLFactory extends Contexed
         checkNotNull(writeTo);
 
         // 1. MAnŪs -> manūs
-        // 2. manūs -> man[uūŭ]s
-        String regex = StringUtil.anySpecialRegex(formToSearch.toLowerCase());
-        queryNounsFromRegex(regex, writeTo);
+        // 2. manūs -> manus (index lookup) and man[uūŭ]s (verification)
+        String lowerCase = formToSearch.toLowerCase();
+        queryNounsFromNormalizedForm(StringUtil.unSpecialString(lowerCase), StringUtil.anySpecialRegex(lowerCase), writeTo);
     }
 
     /*
@@ -325,45 +900,186 @@ public class NounSQLFactory extends Contexed
 
     /**
      * Queries the {@link Noun}s out of a database connection by the specified form.
-     * Searches in the table {@code NOUNS} (Unless the application is configured differently).
+     * Looks up the form in the table {@code NOUNFORMS} (Unless the application is configured differently).
      *
-     * @param regex   The form's regular expression (typically as returned by {@link StringUtil#anySpecialRegex(String)}).
-     * @param writeTo The {@link BlockingQueue} to write the resulting {@link Noun}s to.
+     * @param normalizedForm The form without any special characters (typically as returned by {@link StringUtil#unSpecialString(String)}).
+     * @param regex          The form's regular expression (typically as returned by {@link StringUtil#anySpecialRegex(String)}).
+     *                       Results of the index lookup are only written to the queue if any of their forms matches this expression.
+     * @param writeTo        The {@link BlockingQueue} to write the resulting {@link Noun}s to.
      * @throws SQLException             If a error in executing the query occurs.
      * @throws InterruptedException     If a write to the BlockingQueue was interrupted.
      * @throws NullPointerException     If any of the arguments is {@code null}.
-     * @throws IllegalArgumentException If {@code regex} is {@link String#isEmpty() empty}.
-     * @since 0.2.3
+     * @throws IllegalArgumentException If {@code normalizedForm} or {@code regex} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
      */
     @CaseHandling(CaseHandling.CaseType.LOWERCASE_ONLY)
-    private void queryNounsFromRegex(@NotNull String regex, @NotNull BlockingQueue<? super Noun> writeTo) throws SQLException, InterruptedException
+    private void queryNounsFromNormalizedForm(@NotNull String normalizedForm, @NotNull String regex, @NotNull BlockingQueue<? super Noun> writeTo)
+            throws SQLException, InterruptedException
     {
+        checkNotEmpty(normalizedForm);
         checkNotEmpty(regex);
         checkNotNull(writeTo);
-        synchronized (getContext().getConnection())
+        long start = formQueryTimer.start();
+        FlightRecorderEvent event = FlightRecorderEvents.QUERY.begin().set("kind", "form").set("form", normalizedForm);
+        long scanned = 0;
+        long returned = 0;
+        try
         {
-            queryStatement.setString(1, regex);
-            Pattern pattern = Pattern.compile(regex);
-            try (ResultSet results = queryStatement.executeQuery())
+            synchronized (getContext().getConnection())
             {
-                while (results.next())
+                long slowQueryStart = slowQueryLog.start();
+                queryStatement.setString(1, normalizedForm);
+                Pattern pattern = Pattern.compile(regex);
+                try (ResultSet results = queryStatement.executeQuery())
                 {
-                    if (Thread.interrupted())
-                        throw new InterruptedException();
-                    Noun currentResult = constructNounFromResultSet(results);
-                    for (NounForm nounForm : NounForm.values())
+                    while (results.next())
                     {
-                        String form = currentResult.getForm(nounForm);
-                        if (form != null && pattern.matcher(form).matches())
+                        if (Thread.interrupted())
+                            throw new InterruptedException();
+                        scanned++;
+                        Noun currentResult = constructNounFromResultSet(results);
+                        for (NounForm nounForm : NounForm.values())
                         {
-                            writeTo.put(currentResult);
-                            break; // break out of nested for iteration loop, jump to next result
+                            String form = currentResult.getForm(nounForm);
+                            if (form != null && pattern.matcher(form).matches())
+                            {
+                                returned++;
+                                put(writeTo, currentResult);
+                                break; // break out of nested for iteration loop, jump to next result
+                            }
                         }
+
                     }
+                }
+                slowQueryLog.check(slowQueryStart, querySql, new Object[]{ normalizedForm }, regex, scanned, returned);
+            }
+        } finally
+        {
+            formRowsScanned.add(scanned);
+            formRowsReturned.add(returned);
+            formQueryTimer.stop(start);
+            event.set("rowsScanned", scanned).set("rowsReturned", returned).commit();
+        }
+    }
 
+    /*
+     * Thread safety notice
+     *
+     * Method is synchronized on the connection object. (only for the time of database operations)
+     */
+
+    /**
+     * Queries the {@link Noun}s for many forms at once.
+     * <p>
+     * The forms are deduplicated and normalized once, then all of them are resolved by a single query joining the normalized forms with the
+     * {@code NOUNFORMS} index (Unless the application is configured differently). Every matching noun is reconstructed only once,
+     * even if it matches multiple of the forms.
+     * <p>
+     * The results are the same as calling {@link #queryNouns(String, BlockingQueue)} for every form.
+     *
+     * @param formsToSearch The forms to search. May be any kind of special forms (and may be raw user input).
+     * @return A map from every distinct form to the nouns found for it, in the iteration order of {@code formsToSearch}.
+     * Forms without results are mapped to an empty list.
+     * @throws SQLException             If a error in executing the query occurs.
+     * @throws NullPointerException     If {@code formsToSearch} or any of its elements is {@code null}.
+     * @throws IllegalArgumentException If any of the forms is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public Map<String, List<Noun>> queryNounsBatch(@NotNull Collection<String> formsToSearch) throws SQLException
+    {
+        checkNotNull(formsToSearch);
+        Map<String, List<Noun>> results = new LinkedHashMap<>();
+        Map<String, List<String>> formsByNormalized = new HashMap<>();
+        Map<String, Pattern> patterns = new HashMap<>();
+        for (String formToSearch : formsToSearch)
+        {
+            checkNotEmpty(formToSearch);
+            if (results.containsKey(formToSearch))
+                continue;
+            results.put(formToSearch, new ArrayList<>());
+            String lowerCase = formToSearch.toLowerCase();
+            formsByNormalized.computeIfAbsent(StringUtil.unSpecialString(lowerCase), key -> new ArrayList<>()).add(formToSearch);
+            patterns.put(formToSearch, Pattern.compile(StringUtil.anySpecialRegex(lowerCase)));
+        }
+        if (formsByNormalized.isEmpty())
+            return results;
+
+        Map<UUID, Noun> reconstructed = new HashMap<>();
+        long start = batchQueryTimer.start();
+        FlightRecorderEvent event = FlightRecorderEvents.QUERY.begin().set("kind", "batch").set("form", String.valueOf(results.size()));
+        long scanned = 0;
+        try
+        {
+            synchronized (getContext().getConnection())
+            {
+                long slowQueryStart = slowQueryLog.start();
+                Object[] normalizedForms = formsByNormalized.keySet().toArray();
+                batchQueryStatement.setObject(1, normalizedForms);
+                try (ResultSet resultSet = batchQueryStatement.executeQuery())
+                {
+                    int normalizedColumn = resultSet.getMetaData().getColumnCount();
+                    while (resultSet.next())
+                    {
+                        scanned++;
+                        UUID uuid = (UUID) resultSet.getObject(2);
+                        Noun noun = reconstructed.get(uuid);
+                        if (noun == null)
+                        {
+                            noun = constructNounFromResultSet(resultSet);
+                            reconstructed.put(uuid, noun);
+                        }
+                        List<String> forms = formsByNormalized.get(resultSet.getString(normalizedColumn));
+                        if (forms == null)
+                            continue;
+                        for (String form : forms)
+                            if (matchesAnyForm(noun, patterns.get(form)))
+                                results.get(form).add(noun);
+                    }
                 }
+                slowQueryLog.check(slowQueryStart, batchQuerySql, new Object[]{ normalizedForms }, null, scanned, reconstructed.size());
             }
+        } finally
+        {
+            batchQueryTimer.stop(start);
+            event.set("rowsScanned", scanned).set("rowsReturned", (long) reconstructed.size()).commit();
         }
+        return results;
+    }
+
+    /**
+     * Writes a result to a queue, recording how long it had to wait for space.
+     *
+     * @param writeTo The queue.
+     * @param noun    The result.
+     * @throws InterruptedException If interrupted while waiting.
+     * @since 0.2.4
+     */
+    private void put(@NotNull BlockingQueue<? super Noun> writeTo, @NotNull Noun noun) throws InterruptedException
+    {
+        long start = resultQueueWaitTimer.start();
+        writeTo.put(noun);
+        resultQueueWaitTimer.stop(start);
+    }
+
+    /**
+     * Returns whether any form of a noun matches a pattern.
+     *
+     * @param noun    The noun.
+     * @param pattern The pattern.
+     * @return Whether any form matches.
+     * @since 0.2.4
+     */
+    static boolean matchesAnyForm(@NotNull Noun noun, @NotNull Pattern pattern)
+    {
+        for (NounForm nounForm : NounForm.values())
+        {
+            String form = noun.getForm(nounForm);
+            if (form != null && pattern.matcher(form).matches())
+                return true;
+        }
+        return false;
     }
 
     /*
@@ -419,19 +1135,33 @@ public class NounSQLFactory extends Contexed
     {
         checkNotEmpty(regexRootWord);
         checkNotNull(writeTo);
-        synchronized (getContext().getConnection())
+        long start = rootQueryTimer.start();
+        FlightRecorderEvent event = FlightRecorderEvents.QUERY.begin().set("kind", "root").set("form", regexRootWord);
+        long returned = 0;
+        try
         {
-            rootQueryStatement.setString(1, regexRootWord);
-            try (ResultSet results = rootQueryStatement.executeQuery())
+            synchronized (getContext().getConnection())
             {
-                while (results.next())
+                long slowQueryStart = slowQueryLog.start();
+                rootQueryStatement.setString(1, regexRootWord);
+                try (ResultSet results = rootQueryStatement.executeQuery())
                 {
-                    if (Thread.interrupted())
-                        throw new InterruptedException();
-                    Noun currentResult = constructNounFromResultSet(results);
-                    writeTo.put(currentResult);
+                    while (results.next())
+                    {
+                        if (Thread.interrupted())
+                            throw new InterruptedException();
+                        returned++;
+                        Noun currentResult = constructNounFromResultSet(results);
+                        put(writeTo, currentResult);
+                    }
                 }
+                // The root word is matched by the database, so the number of scanned rows is unknown
+                slowQueryLog.check(slowQueryStart, rootQuerySql, new Object[]{ regexRootWord }, null, -1, returned);
             }
+        } finally
+        {
+            rootQueryTimer.stop(start);
+            event.set("rowsScanned", -1L).set("rowsReturned", returned).commit();
         }
     }
 
@@ -442,9 +1172,56 @@ public class NounSQLFactory extends Contexed
      */
 
     /**
-     * Makes sure that the {@code NOUNS} table exists in the specified connection to a database.
+     * Queries a page of all {@link Noun}s in the database, ordered by their UUID.
      * <p>
-     * If the {@code NOUNS} table already exists, nothing is changed.
+     * Pages are addressed by the UUID of the last noun of the previous page instead of an offset, so reading all pages is linear in the
+     * number of nouns and pages stay consistent while nouns are added.
+     *
+     * @param after The UUID of the last noun of the previous page or {@code null} to query the first page.
+     * @param limit The maximum number of nouns in the page.
+     * @return The nouns of the page. If fewer than {@code limit} nouns are returned, there are no more pages.
+     * @throws SQLException             If a error in executing the query occurs.
+     * @throws IllegalArgumentException If {@code limit} is not positive.
+     * @since 0.2.4
+     */
+    @NotNull
+    public List<Noun> queryPage(@Nullable UUID after, int limit) throws SQLException
+    {
+        if (limit <= 0)
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        synchronized (getContext().getConnection())
+        {
+            PreparedStatement statement;
+            if (after == null)
+            {
+                statement = pageStartStatement;
+                statement.setInt(1, limit);
+            } else
+            {
+                statement = pageStatement;
+                statement.setObject(1, after);
+                statement.setInt(2, limit);
+            }
+            List<Noun> page = new ArrayList<>(Math.min(limit, 1024));
+            try (ResultSet results = statement.executeQuery())
+            {
+                while (results.next())
+                    page.add(constructNounFromResultSet(results));
+            }
+            return page;
+        }
+    }
+
+    /*
+     * Thread safety notice
+     *
+     * Method is synchronized on the connection object.
+     */
+
+    /**
+     * Makes sure that the {@code NOUNS} and {@code NOUNFORMS} tables exist in the specified connection to a database.
+     * <p>
+     * If the {@code NOUNS} table already exists, it is migrated to the current table layout if it has been created by an older version.
      *
      * @throws SQLException If there were any errors when executing the SQL statements.
      * @since 0.0.1
@@ -457,6 +1234,314 @@ public class NounSQLFactory extends Contexed
             {
                 statement.execute(setupSql);
             }
+            NounTableMigration.migrate(getContext().getConnection());
+        }
+    }
+
+    /**
+     * Gets the log of the slow queries of this factory.
+     *
+     * @return The slow query log.
+     * @since 0.2.4
+     */
+    @NotNull
+    SlowQueryLog getSlowQueryLog()
+    {
+        return slowQueryLog;
+    }
+
+    /**
+     * Gets the executor running the asynchronous operations of this factory, like {@link #saveAsync(Noun)}.
+     * <p>
+     * The executor has a fixed number of daemon threads ({@code database.executor.threads}), which are started on demand and
+     * terminate when idle. Since all database operations are serialized on the connection, more than one thread only helps
+     * if the callers do expensive work in the same executor (for example by using the {@code *Async} methods of {@link CompletableFuture}).
+     *
+     * @return The executor.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+
+    /**
+     * Saves a noun to the database on the {@link #getExecutor() database executor}.
+     *
+     * @param noun The noun to save.
+     * @return A future completed when the noun has been saved, or completed exceptionally with the {@link SQLException}.
+     * @throws NullPointerException If {@code noun} is {@code null}.
+     * @see #saveNounToDatabase(Noun)
+     * @since 0.2.4
+     */
+    @NotNull
+    public CompletableFuture<Void> saveAsync(@NotNull Noun noun)
+    {
+        return saveAsync(noun, executor);
+    }
+
+    /**
+     * Saves a noun to the database on the specified executor.
+     *
+     * @param noun     The noun to save.
+     * @param executor The executor to save the noun on.
+     * @return A future completed when the noun has been saved, or completed exceptionally with the {@link SQLException}.
+     * @throws NullPointerException If any of the arguments is {@code null}.
+     * @see #saveNounToDatabase(Noun)
+     * @since 0.2.4
+     */
+    @NotNull
+    public CompletableFuture<Void> saveAsync(@NotNull Noun noun, @NotNull Executor executor)
+    {
+        checkNotNull(noun);
+        return submit(() -> {
+            saveNounToDatabase(noun);
+            return null;
+        }, executor);
+    }
+
+    /**
+     * Queries the nouns by the specified form on the {@link #getExecutor() database executor}.
+     *
+     * @param formToSearch The form to search. May be any kind of special form (and may be raw user input).
+     * @return A future completed with the nouns found, or completed exceptionally with the {@link SQLException}.
+     * @throws NullPointerException     If {@code formToSearch} is {@code null}.
+     * @throws IllegalArgumentException If {@code formToSearch} is {@link String#isEmpty() empty}.
+     * @see #queryNouns(String, BlockingQueue)
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public CompletableFuture<List<Noun>> queryNounsAsync(@NotNull String formToSearch)
+    {
+        checkNotEmpty(formToSearch);
+        return submit(() -> {
+            LinkedBlockingQueue<Noun> results = new LinkedBlockingQueue<>();
+            queryNouns(formToSearch, results);
+            return new ArrayList<>(results);
+        });
+    }
+
+    /**
+     * Queries the nouns for many forms at once on the {@link #getExecutor() database executor}.
+     *
+     * @param formsToSearch The forms to search. May be any kind of special forms (and may be raw user input).
+     * @return A future completed with the nouns found for every distinct form, or completed exceptionally with the {@link SQLException}.
+     * @throws NullPointerException     If {@code formsToSearch} or any of its elements is {@code null}.
+     * @throws IllegalArgumentException If any of the forms is {@link String#isEmpty() empty}.
+     * @see #queryNounsBatch(Collection)
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public CompletableFuture<Map<String, List<Noun>>> queryNounsBatchAsync(@NotNull Collection<String> formsToSearch)
+    {
+        List<String> forms = new ArrayList<>(formsToSearch); // the caller may modify the collection afterwards
+        for (String form : forms)
+            checkNotEmpty(form);
+        return submit(() -> queryNounsBatch(forms));
+    }
+
+    /**
+     * Queries the nouns by the specified root word on the {@link #getExecutor() database executor}.
+     *
+     * @param rootWordToSearch The root word to search. May be any kind of special form (and may be raw user input).
+     * @return A future completed with the nouns found, or completed exceptionally with the {@link SQLException}.
+     * @throws NullPointerException     If {@code rootWordToSearch} is {@code null}.
+     * @throws IllegalArgumentException If {@code rootWordToSearch} is {@link String#isEmpty() empty}.
+     * @see #queryNounsByRootWord(String, BlockingQueue)
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public CompletableFuture<List<Noun>> queryByRootAsync(@NotNull String rootWordToSearch)
+    {
+        checkNotEmpty(rootWordToSearch);
+        return submit(() -> {
+            LinkedBlockingQueue<Noun> results = new LinkedBlockingQueue<>();
+            queryNounsByRootWord(rootWordToSearch, results);
+            return new ArrayList<>(results);
+        });
+    }
+
+    /**
+     * Publishes the nouns found by the specified form.
+     * <p>
+     * The query is run (again) for every subscriber when it first requests items, and the results are read from the database only as far
+     * as they are requested. Cancelling a subscription closes its database cursor. Items and signals are delivered on the
+     * {@link #getExecutor() database executor}.
+     *
+     * @param formToSearch The form to search. May be any kind of special form (and may be raw user input).
+     * @return The publisher.
+     * @throws NullPointerException     If {@code formToSearch} is {@code null}.
+     * @throws IllegalArgumentException If {@code formToSearch} is {@link String#isEmpty() empty}.
+     * @see #queryNouns(String, BlockingQueue)
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public Flow.Publisher<Noun> publishNouns(@NotNull String formToSearch)
+    {
+        return publishNouns(formToSearch, executor);
+    }
+
+    /**
+     * Publishes the nouns found by the specified form, like {@link #publishNouns(String)}, but runs the query and delivers the items
+     * and signals on the specified executor.
+     *
+     * @param formToSearch The form to search. May be any kind of special form (and may be raw user input).
+     * @param executor     The executor to run the query on.
+     * @return The publisher.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code formToSearch} is {@link String#isEmpty() empty}.
+     * @see #queryNouns(String, BlockingQueue)
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public Flow.Publisher<Noun> publishNouns(@NotNull String formToSearch, @NotNull Executor executor)
+    {
+        checkNotEmpty(formToSearch);
+        String lowerCase = formToSearch.toLowerCase();
+        return new NounQueryPublisher(this, querySql, StringUtil.unSpecialString(lowerCase),
+                                      Pattern.compile(StringUtil.anySpecialRegex(lowerCase)), executor);
+    }
+
+    /**
+     * Publishes the nouns found by the specified root word, like {@link #publishNouns(String)}.
+     *
+     * @param rootWordToSearch The root word to search. May be any kind of special form (and may be raw user input).
+     * @return The publisher.
+     * @throws NullPointerException     If {@code rootWordToSearch} is {@code null}.
+     * @throws IllegalArgumentException If {@code rootWordToSearch} is {@link String#isEmpty() empty}.
+     * @see #queryNounsByRootWord(String, BlockingQueue)
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public Flow.Publisher<Noun> publishNounsByRootWord(@NotNull String rootWordToSearch)
+    {
+        return publishNounsByRootWord(rootWordToSearch, executor);
+    }
+
+    /**
+     * Publishes the nouns found by the specified root word on the specified executor, like {@link #publishNouns(String, Executor)}.
+     *
+     * @param rootWordToSearch The root word to search. May be any kind of special form (and may be raw user input).
+     * @param executor         The executor to run the query on.
+     * @return The publisher.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code rootWordToSearch} is {@link String#isEmpty() empty}.
+     * @see #queryNounsByRootWord(String, BlockingQueue)
+     * @since 0.2.4
+     */
+    @NotNull
+    @CaseHandling(CaseHandling.CaseType.LOWERCASE_AND_UPPERCASE)
+    public Flow.Publisher<Noun> publishNounsByRootWord(@NotNull String rootWordToSearch, @NotNull Executor executor)
+    {
+        checkNotEmpty(rootWordToSearch);
+        return new NounQueryPublisher(this, rootQuerySql, StringUtil.anySpecialRegex(rootWordToSearch.toLowerCase()), null, executor);
+    }
+
+    /**
+     * Runs a database operation on the {@link #getExecutor() database executor}.
+     * <p>
+     * Cancelling the returned future does not interrupt the operation if it is already running (interrupting a thread accessing an embedded
+     * H2 database closes the database), but skips it if it has not been started yet.
+     *
+     * @param operation The operation.
+     * @param <T>       The type of the result.
+     * @return A future completed with the result of the operation, or completed exceptionally with the exception it has thrown.
+     * @since 0.2.4
+     */
+    @NotNull
+    private <T> CompletableFuture<T> submit(@NotNull SQLOperation<T> operation)
+    {
+        return submit(operation, executor);
+    }
+
+    /**
+     * Runs a database operation on the specified executor, like {@link #submit(SQLOperation)}.
+     *
+     * @param operation The operation.
+     * @param executor  The executor to run the operation on.
+     * @param <T>       The type of the result.
+     * @return A future completed with the result of the operation, or completed exceptionally with the exception it has thrown.
+     * @since 0.2.4
+     */
+    @NotNull
+    private <T> CompletableFuture<T> submit(@NotNull SQLOperation<T> operation, @NotNull Executor executor)
+    {
+        checkNotNull(executor);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try
+        {
+            executor.execute(() -> {
+                if (future.isDone())
+                    return;
+                try
+                {
+                    future.complete(operation.run());
+                } catch (Throwable t)
+                {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e)
+        {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * A database operation run by {@link #submit(SQLOperation)}.
+     *
+     * @param <T> The type of the result.
+     * @since 0.2.4
+     */
+    @FunctionalInterface
+    private interface SQLOperation<T>
+    {
+        /**
+         * Runs the operation.
+         *
+         * @return The result.
+         * @throws Exception If the operation failed.
+         * @since 0.2.4
+         */
+        T run() throws Exception;
+    }
+
+    /**
+     * A noun in the statement batch.
+     *
+     * @author Ruben Anders
+     * @since 0.2.4
+     */
+    private static final class PendingSave
+    {
+        /**
+         * The UUID the noun was written with and is going to be assigned, or {@code null} if it already had one.
+         *
+         * @since 0.2.4
+         */
+        @Nullable
+        final UUID assignedUuid;
+
+        /**
+         * The state the noun was written in.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        final StandardVocab.CleanState state;
+
+        PendingSave(@Nullable UUID assignedUuid, @NotNull StandardVocab.CleanState state)
+        {
+            this.assignedUuid = assignedUuid;
+            this.state = state;
         }
     }
 
@@ -474,6 +1559,8 @@ public class NounSQLFactory extends Contexed
                Objects.equal(querySql, that.querySql) &&
                Objects.equal(setupSql, that.setupSql) &&
                Objects.equal(rootQuerySql, that.rootQuerySql) &&
+               Objects.equal(formInsertSql, that.formInsertSql) &&
+               Objects.equal(formDeleteSql, that.formDeleteSql) &&
                Objects.equal(insertStatement, that.insertStatement) &&
                Objects.equal(queryStatement, that.queryStatement);
     }
@@ -484,7 +1571,8 @@ public class NounSQLFactory extends Contexed
     @Override
     public int hashCode()
     {
-        return Objects.hashCode(super.hashCode(), insertSql, querySql, setupSql, rootQuerySql, insertStatement, queryStatement);
+        return Objects.hashCode(super.hashCode(), insertSql, querySql, setupSql, rootQuerySql, formInsertSql, formDeleteSql, insertStatement,
+                                queryStatement);
     }
 
     /**
@@ -498,6 +1586,8 @@ public class NounSQLFactory extends Contexed
                           .add("querySql", querySql)
                           .add("setupSql", setupSql)
                           .add("rootQuerySql", rootQuerySql)
+                          .add("formInsertSql", formInsertSql)
+                          .add("formDeleteSql", formDeleteSql)
                           .add("insertStatement", insertStatement)
                           .add("queryStatement", queryStatement)
                           .toString();
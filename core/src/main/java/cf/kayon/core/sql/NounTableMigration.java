@@ -0,0 +1,230 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.sql;
+
+import cf.kayon.core.DeclensionRegistry;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.util.StringUtil;
+import com.google.common.collect.ImmutableList;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Migrates {@code NOUNS} tables created by older versions of Kayon to the current table layout.
+ * <p>
+ * All migrations detect on their own whether they are necessary, so running them against an up-to-date table does not change anything.
+ * <p>
+ * The {@code NOUNFORMS} table has to exist before migrating.
+ * <p>
+ * Callers have to synchronize on the connection.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+final class NounTableMigration
+{
+    /**
+     * The names of the legacy columns holding the effective forms of a noun, in the order of {@link NounForm#values()}.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final List<String> LEGACY_FORM_COLUMNS = ImmutableList.of("NOMSG", "GENSG", "DATSG", "ACCSG", "ABLSG", "VOCSG",
+                                                                            "NOMPL", "GENPL", "DATPL", "ACCPL", "ABLPL", "VOCPL");
+
+    /**
+     * The number of nouns whose forms are written to the {@code NOUNFORMS} index in one batch when migrating the legacy form columns.
+     *
+     * @since 0.2.4
+     */
+    private static final int MIGRATION_BATCH_ROWS = 1000;
+
+    /**
+     * A private constructor to prevent instantiation of this class.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private NounTableMigration()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Runs all necessary migrations on the {@code NOUNS} table of a connection.
+     *
+     * @param connection The connection.
+     * @throws SQLException         If there were any errors when executing the SQL statements.
+     * @throws NullPointerException If {@code connection} is {@code null}.
+     * @since 0.2.4
+     */
+    static void migrate(@NotNull Connection connection) throws SQLException
+    {
+        checkNotNull(connection);
+        migrateDeclensionIds(connection);
+        migrateDeclinedForms(connection);
+    }
+
+    /**
+     * Returns the SQL type of a column of the {@code NOUNS} table.
+     *
+     * @param connection The connection.
+     * @param column     The name of the column.
+     * @return The type of the column as in {@link Types}. {@code null} if there is no such column.
+     * @throws SQLException If the metadata could not be retrieved.
+     * @since 0.2.4
+     */
+    @Nullable
+    static Integer columnType(@NotNull Connection connection, @NotNull String column) throws SQLException
+    {
+        try (ResultSet columns = connection.getMetaData().getColumns(null, null, "NOUNS", column))
+        {
+            return columns.next() ? columns.getInt("DATA_TYPE") : null;
+        }
+    }
+
+    /**
+     * Converts the {@code NOUNDECLENSION} column from fully qualified class names ({@code VARCHAR}) to {@link DeclensionRegistry} IDs ({@code TINYINT}).
+     * <p>
+     * If any class name does not resolve to a registered declension, the migration fails before changing the table.
+     * <p>
+     * H2 commits every DDL statement on its own, so every step checks whether it has already been done.
+     * A migration that failed halfway resumes where it stopped.
+     *
+     * @param connection The connection.
+     * @throws SQLException If a class name does not resolve to a registered declension or if there were any errors when executing the SQL statements.
+     * @since 0.2.4
+     */
+    private static void migrateDeclensionIds(@NotNull Connection connection) throws SQLException
+    {
+        Integer type = columnType(connection, "NOUNDECLENSION");
+        boolean hasIdColumn = columnType(connection, "NOUNDECLENSIONID") != null;
+        if (type == null ? !hasIdColumn : type != Types.VARCHAR)
+            return;
+
+        try (Statement statement = connection.createStatement())
+        {
+            if (type != null)
+            {
+                Map<String, Byte> ids = new LinkedHashMap<>();
+                List<String> unresolved = new ArrayList<>();
+                try (ResultSet results = statement.executeQuery("SELECT DISTINCT NOUNDECLENSION FROM NOUNS WHERE NOUNDECLENSION IS NOT NULL;"))
+                {
+                    while (results.next())
+                    {
+                        String className = results.getString(1);
+                        NounDeclension nounDeclension = DeclensionRegistry.nounDeclensionForName(className);
+                        if (nounDeclension == null)
+                            unresolved.add(className);
+                        else
+                            ids.put(className, DeclensionRegistry.idForNounDeclension(nounDeclension));
+                    }
+                }
+                if (!unresolved.isEmpty())
+                    throw new SQLException("Cannot migrate the NOUNDECLENSION column of NOUNS: No noun declension is registered for " +
+                                           String.join(", ", unresolved));
+
+                if (!hasIdColumn)
+                    statement.execute("ALTER TABLE NOUNS ADD COLUMN NOUNDECLENSIONID TINYINT AFTER NOUNDECLENSION;");
+
+                try (PreparedStatement update = connection.prepareStatement("UPDATE NOUNS SET NOUNDECLENSIONID = ? WHERE NOUNDECLENSION = ?;"))
+                {
+                    for (Map.Entry<String, Byte> id : ids.entrySet())
+                    {
+                        update.setByte(1, id.getValue());
+                        update.setString(2, id.getKey());
+                        update.executeUpdate();
+                    }
+                }
+
+                statement.execute("ALTER TABLE NOUNS DROP COLUMN NOUNDECLENSION;");
+            }
+            statement.execute("ALTER TABLE NOUNS ALTER COLUMN NOUNDECLENSIONID RENAME TO NOUNDECLENSION;");
+        }
+    }
+
+    /**
+     * Moves the effective forms of all nouns from the legacy {@code NOMSG} to {@code VOCPL} columns of the {@code NOUNS} table into the
+     * {@code NOUNFORMS} index and drops these columns afterwards.
+     * <p>
+     * The forms are written in batches of {@link #MIGRATION_BATCH_ROWS} nouns.
+     * If only some of the legacy columns are left, a previous migration has already moved the forms but failed while dropping the columns,
+     * so only the remaining columns are dropped.
+     *
+     * @param connection The connection.
+     * @throws SQLException If there were any errors when executing the SQL statements.
+     * @since 0.2.4
+     */
+    private static void migrateDeclinedForms(@NotNull Connection connection) throws SQLException
+    {
+        List<String> legacyColumns = new ArrayList<>();
+        for (String column : LEGACY_FORM_COLUMNS)
+            if (columnType(connection, column) != null)
+                legacyColumns.add(column);
+        if (legacyColumns.isEmpty())
+            return;
+
+        try (Statement statement = connection.createStatement())
+        {
+            if (legacyColumns.size() == LEGACY_FORM_COLUMNS.size())
+            {
+                try (PreparedStatement insert = connection.prepareStatement("MERGE INTO NOUNFORMS VALUES (?, ?, ?, ?);");
+                     ResultSet results = statement.executeQuery("SELECT UUID, " + String.join(", ", LEGACY_FORM_COLUMNS) + " FROM NOUNS;"))
+                {
+                    int batchedRows = 0;
+                    while (results.next())
+                    {
+                        Object uuid = results.getObject(1);
+                        for (NounForm nounForm : NounForm.values())
+                        {
+                            String form = results.getString(nounForm.ordinal() + 2);
+                            if (form == null)
+                                continue;
+                            insert.setObject(1, uuid);
+                            insert.setByte(2, (byte) nounForm.ordinal());
+                            insert.setString(3, form);
+                            insert.setString(4, StringUtil.unSpecialString(form));
+                            insert.addBatch();
+                        }
+                        if (++batchedRows == MIGRATION_BATCH_ROWS)
+                        {
+                            insert.executeBatch();
+                            batchedRows = 0;
+                        }
+                    }
+                    insert.executeBatch();
+                }
+            }
+
+            for (String column : legacyColumns)
+                statement.execute("ALTER TABLE NOUNS DROP COLUMN " + column + ";");
+        }
+    }
+}
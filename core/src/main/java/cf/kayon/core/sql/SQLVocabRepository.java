@@ -0,0 +1,339 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.sql;
+
+import cf.kayon.core.Contexed;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.repository.RepositoryException;
+import cf.kayon.core.repository.UncheckedRepositoryException;
+import cf.kayon.core.repository.VocabRepository;
+import cf.kayon.core.repository.VocabRepositoryUtil;
+import cf.kayon.core.util.Flow;
+import net.jcip.annotations.NotThreadSafe;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A {@link VocabRepository} backed by the database connection of a {@link KayonContext}.
+ * <p>
+ * All operations are delegated to the {@link NounSQLFactory} of the context, so its statements have to be
+ * {@link NounSQLFactory#compileStatements() compiled} before this repository is used.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class SQLVocabRepository extends Contexed implements VocabRepository
+{
+    /**
+     * The number of nouns read at once by {@link #streamAll()}.
+     *
+     * @since 0.2.4
+     */
+    private final int pageSize;
+
+    /**
+     * Constructs a new instance.
+     * <p>
+     * The page size is retrieved from the {@code repository.pageSize} setting of the config of the context at construct time.
+     *
+     * @param context The {@link KayonContext} for this instance.
+     * @since 0.2.4
+     */
+    public SQLVocabRepository(@NotNull KayonContext context)
+    {
+        super(context);
+        pageSize = context.getConfig().getInt("repository.pageSize");
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void save(@NotNull Noun noun) throws RepositoryException
+    {
+        checkNotNull(noun);
+        try
+        {
+            getContext().getNounSQLFactory().saveNounToDatabase(noun);
+        } catch (SQLException e)
+        {
+            throw new RepositoryException("Could not save noun", e);
+        }
+    }
+
+    /*
+     * Thread safety notice
+     *
+     * Method is synchronized on the connection object.
+     */
+
+    /**
+     * Saves all nouns in a single transaction.
+     * <p>
+     * If any of the nouns could not be saved, the transaction is rolled back and none of the nouns are saved. They are neither marked clean
+     * nor assigned a UUID then, so they can be saved again.
+     *
+     * @since 0.2.4
+     */
+    @Override
+    public void saveAll(@NotNull Collection<? extends Noun> nouns) throws RepositoryException
+    {
+        checkNotNull(nouns);
+        if (nouns.isEmpty())
+            return;
+        Connection connection = getContext().getConnection();
+        synchronized (connection)
+        {
+            try
+            {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try
+                {
+                    Iterator<? extends Noun> iterator = nouns.iterator();
+                    while (iterator.hasNext())
+                        getContext().getNounSQLFactory().saveNounToDatabase(checkNotNull(iterator.next()), iterator.hasNext());
+                    connection.commit();
+                    getContext().getNounSQLFactory().completeSaves();
+                } catch (SQLException | RuntimeException e)
+                {
+                    connection.rollback();
+                    getContext().getNounSQLFactory().abortSaves();
+                    throw e;
+                } finally
+                {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e)
+            {
+                throw new RepositoryException("Could not save nouns", e);
+            }
+        }
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void queryNouns(@NotNull String formToSearch, @NotNull BlockingQueue<? super Noun> writeTo) throws RepositoryException, InterruptedException
+    {
+        try
+        {
+            getContext().getNounSQLFactory().queryNouns(formToSearch, writeTo);
+        } catch (SQLException e)
+        {
+            throw new RepositoryException("Could not query nouns", e);
+        }
+    }
+
+    /**
+     * All forms are resolved by a single query (see {@link NounSQLFactory#queryNounsBatch(Collection)}).
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    @Override
+    public Map<String, List<Noun>> queryNounsBatch(@NotNull Collection<String> formsToSearch) throws RepositoryException
+    {
+        try
+        {
+            return getContext().getNounSQLFactory().queryNounsBatch(formsToSearch);
+        } catch (SQLException e)
+        {
+            throw new RepositoryException("Could not query nouns", e);
+        }
+    }
+
+    /**
+     * @since 0.2.4
+     */
+    @Override
+    public void queryNounsByRootWord(@NotNull String rootWordToSearch, @NotNull BlockingQueue<? super Noun> writeTo)
+            throws RepositoryException, InterruptedException
+    {
+        try
+        {
+            getContext().getNounSQLFactory().queryNounsByRootWord(rootWordToSearch, writeTo);
+        } catch (SQLException e)
+        {
+            throw new RepositoryException("Could not query nouns", e);
+        }
+    }
+
+    /**
+     * The results are read from the database only as far as they are requested (see {@link NounSQLFactory#publishNouns(String, Executor)}).
+     * Failures are delivered as {@link SQLException}s.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    @Override
+    public Flow.Publisher<Noun> publishNouns(@NotNull String formToSearch, @NotNull Executor executor)
+    {
+        return getContext().getNounSQLFactory().publishNouns(formToSearch, executor);
+    }
+
+    /**
+     * The results are read from the database only as far as they are requested (see {@link NounSQLFactory#publishNounsByRootWord(String, Executor)}).
+     * Failures are delivered as {@link SQLException}s.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    @Override
+    public Flow.Publisher<Noun> publishNounsByRootWord(@NotNull String rootWordToSearch, @NotNull Executor executor)
+    {
+        return getContext().getNounSQLFactory().publishNounsByRootWord(rootWordToSearch, executor);
+    }
+
+    /**
+     * There is no index on translations, so all nouns are {@link #streamAll() streamed} and filtered.
+     *
+     * @since 0.2.4
+     */
+    @Override
+    public void queryNounsByTranslation(@NotNull String translationToSearch, @NotNull BlockingQueue<? super Noun> writeTo)
+            throws RepositoryException, InterruptedException
+    {
+        checkNotEmpty(translationToSearch);
+        checkNotNull(writeTo);
+        String lowerCaseTranslation = translationToSearch.toLowerCase(Locale.ROOT);
+        try
+        {
+            Iterator<Noun> iterator = new PageIterator();
+            while (iterator.hasNext())
+            {
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+                Noun noun = iterator.next();
+                if (VocabRepositoryUtil.matchesTranslation(noun, lowerCaseTranslation))
+                    writeTo.put(noun);
+            }
+        } catch (UncheckedRepositoryException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The nouns are read lazily, {@code repository.pageSize} nouns at a time (see {@link NounSQLFactory#queryPage(UUID, int)}).
+     * Failures while reading a page are thrown as {@link UncheckedRepositoryException}s by the stream.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    @Override
+    public Stream<Noun> streamAll()
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new PageIterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * @return {@code false}
+     * @since 0.2.4
+     */
+    @Override
+    public boolean isReadOnly()
+    {
+        return false;
+    }
+
+    /**
+     * Iterates over all nouns in the database, reading them page by page.
+     *
+     * @since 0.2.4
+     */
+    @NotThreadSafe
+    private final class PageIterator implements Iterator<Noun>
+    {
+        /**
+         * The current page.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private Iterator<Noun> page = Collections.emptyIterator();
+
+        /**
+         * The UUID of the last noun read or {@code null} if no page has been read yet.
+         *
+         * @since 0.2.4
+         */
+        @Nullable
+        private UUID last;
+
+        /**
+         * Whether the last page read was the last page in the database.
+         *
+         * @since 0.2.4
+         */
+        private boolean exhausted;
+
+        /**
+         * @throws UncheckedRepositoryException If the next page could not be read.
+         * @since 0.2.4
+         */
+        @Override
+        public boolean hasNext()
+        {
+            if (!page.hasNext() && !exhausted)
+            {
+                List<Noun> nextPage;
+                try
+                {
+                    nextPage = getContext().getNounSQLFactory().queryPage(last, pageSize);
+                } catch (SQLException e)
+                {
+                    throw new UncheckedRepositoryException(new RepositoryException("Could not read page after " + last, e));
+                }
+                exhausted = nextPage.size() < pageSize;
+                if (!nextPage.isEmpty())
+                    last = nextPage.get(nextPage.size() - 1).getUuid();
+                page = nextPage.iterator();
+            }
+            return page.hasNext();
+        }
+
+        /**
+         * @throws UncheckedRepositoryException If the next page could not be read.
+         * @since 0.2.4
+         */
+        @Override
+        public Noun next()
+        {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return page.next();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cf.kayon.core.sql;
+
+import cf.kayon.core.Contexed;
+import cf.kayon.core.KayonContext;
+import com.typesafe.config.ConfigException;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Logs queries that took longer than a threshold, with their SQL, parameters, row counts and the query plan of H2.
+ * <p>
+ * The plan is captured by running the query again with {@code EXPLAIN ANALYZE}, which shows whether it used an index or scanned a whole
+ * table, and how many rows it read. As this doubles the cost of an already slow query, at most one query is logged per
+ * {@code minInterval}; the number of slow queries suppressed in between is part of the next log message.
+ * <p>
+ * Configured by the section {@code database.slowQuery}:
+ * <ul>
+ * <li>{@code threshold}: The duration from which on queries are logged. {@code 0} disables the log.</li>
+ * <li>{@code explain}: Whether to capture the plan.</li>
+ * <li>{@code minInterval}: The minimum time between two log messages.</li>
+ * </ul>
+ * Usage, while holding the lock on the connection:
+ * <pre>{@code
+ * long start = slowQueryLog.start();
+ * ... // execute the query and read the results
+ * slowQueryLog.check(start, sql, parameters, filter, rowsScanned, rowsReturned);
+ * }</pre>
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class SlowQueryLog extends Contexed
+{
+    @NotNull
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    /**
+     * The duration in nanoseconds from which on queries are logged, or {@code 0} if the log is disabled.
+     *
+     * @since 0.2.4
+     */
+    private final long thresholdNanos;
+
+    /**
+     * Whether to capture the plan of logged queries.
+     *
+     * @since 0.2.4
+     */
+    private final boolean explain;
+
+    /**
+     * The minimum time between two log messages in nanoseconds.
+     *
+     * @since 0.2.4
+     */
+    private final long minIntervalNanos;
+
+    /**
+     * The {@link System#nanoTime()} of the last log message, or {@link Long#MIN_VALUE} if nothing was logged yet.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final AtomicLong lastLogged = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * The number of slow queries not logged since the last log message.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * Constructs a new instance.
+     * <p>
+     * The settings are read from the section {@code database.slowQuery} of the config of the context.
+     *
+     * @param context The {@link KayonContext} for this instance.
+     * @throws ConfigException.BadValue If {@code threshold} or {@code minInterval} is negative.
+     * @since 0.2.4
+     */
+    public SlowQueryLog(@NotNull KayonContext context)
+    {
+        super(context);
+        thresholdNanos = context.getConfig().getDuration("database.slowQuery.threshold", TimeUnit.NANOSECONDS);
+        if (thresholdNanos < 0)
+            throw new ConfigException.BadValue(context.getConfig().origin(), "database.slowQuery.threshold", "Must not be negative");
+        explain = context.getConfig().getBoolean("database.slowQuery.explain");
+        minIntervalNanos = context.getConfig().getDuration("database.slowQuery.minInterval", TimeUnit.NANOSECONDS);
+        if (minIntervalNanos < 0)
+            throw new ConfigException.BadValue(context.getConfig().origin(), "database.slowQuery.minInterval", "Must not be negative");
+    }
+
+    /**
+     * Returns whether this log is enabled.
+     *
+     * @return Whether the threshold is positive.
+     * @since 0.2.4
+     */
+    public boolean isEnabled()
+    {
+        return thresholdNanos > 0;
+    }
+
+    /**
+     * Starts timing a query.
+     *
+     * @return The start time to pass to {@link #check(long, String, Object[], String, long, long)}.
+     * @since 0.2.4
+     */
+    public long start()
+    {
+        return isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /*
+     * Thread safety notice
+     *
+     * Has to be called while holding the lock on the connection object, as the query plan is captured on the connection.
+     */
+
+    /**
+     * Logs a query if it took longer than the threshold and no other query was logged within the minimum interval.
+     *
+     * @param start        The start time returned by {@link #start()}.
+     * @param sql          The SQL of the query.
+     * @param parameters   The parameters bound to the query, in order.
+     * @param filter       The regular expression the results were filtered by after the query, if any.
+     * @param rowsScanned  The number of rows the query returned, or {@code -1} if unknown (if the rows are filtered by the database itself).
+     * @param rowsReturned The number of results left after filtering.
+     * @return The logged message, or {@code null} if the query was not logged.
+     * @throws NullPointerException     If {@code sql} or {@code parameters} is {@code null}.
+     * @throws IllegalArgumentException If {@code sql} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @Nullable
+    public String check(long start, @NotNull String sql, @NotNull Object[] parameters, @Nullable String filter, long rowsScanned,
+                        long rowsReturned)
+    {
+        return checkDuration(isEnabled() ? System.nanoTime() - start : 0, sql, parameters, filter, rowsScanned, rowsReturned);
+    }
+
+    /**
+     * Logs a query if it took longer than the threshold and no other query was logged within the minimum interval.
+     * <p>
+     * Unlike {@link #check(long, String, Object[], String, long, long)}, this method takes the duration of the query itself,
+     * for queries whose time is not a single span (like the ones of {@link NounQueryPublisher}, which are read in chunks).
+     *
+     * @param duration     The time the query took in nanoseconds.
+     * @param sql          The SQL of the query.
+     * @param parameters   The parameters bound to the query, in order.
+     * @param filter       The regular expression the results were filtered by after the query, if any.
+     * @param rowsScanned  The number of rows the query returned, or {@code -1} if unknown (if the rows are filtered by the database itself).
+     * @param rowsReturned The number of results left after filtering.
+     * @return The logged message, or {@code null} if the query was not logged.
+     * @throws NullPointerException     If {@code sql} or {@code parameters} is {@code null}.
+     * @throws IllegalArgumentException If {@code sql} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @Nullable
+    public String checkDuration(long duration, @NotNull String sql, @NotNull Object[] parameters, @Nullable String filter, long rowsScanned,
+                                long rowsReturned)
+    {
+        checkNotEmpty(sql);
+        checkNotNull(parameters);
+        if (!isEnabled())
+            return null;
+        long now = System.nanoTime();
+        if (duration < thresholdNanos)
+            return null;
+        long last = lastLogged.get();
+        if ((last != Long.MIN_VALUE && now - last < minIntervalNanos) || !lastLogged.compareAndSet(last, now))
+        {
+            suppressed.incrementAndGet();
+            return null;
+        }
+
+        StringBuilder message = new StringBuilder("Slow query took ").append(TimeUnit.NANOSECONDS.toMillis(duration)).append(" ms (");
+        if (rowsScanned >= 0)
+            message.append("rows scanned: ").append(rowsScanned).append(", ");
+        message.append("rows returned: ").append(rowsReturned).append("): ")
+               .append(sql).append(" parameters: ").append(Arrays.deepToString(parameters));
+        if (filter != null)
+            message.append(" filter: ").append(filter);
+        long suppressedQueries = suppressed.getAndSet(0);
+        if (suppressedQueries > 0)
+            message.append(" (").append(suppressedQueries).append(" slow queries suppressed before)");
+        if (explain)
+            message.append(System.lineSeparator()).append(explain(sql, parameters));
+        String result = message.toString();
+        LOGGER.warn(result);
+        return result;
+    }
+
+    /**
+     * Captures the plan of a query by running it with {@code EXPLAIN ANALYZE}.
+     *
+     * @param sql        The SQL of the query.
+     * @param parameters The parameters to bind.
+     * @return The plan, or a note why it could not be captured.
+     * @since 0.2.4
+     */
+    @NotNull
+    private String explain(@NotNull String sql, @NotNull Object[] parameters)
+    {
+        try (PreparedStatement statement = getContext().getConnection().prepareStatement("EXPLAIN ANALYZE " + sql))
+        {
+            for (int i = 0; i < parameters.length; i++)
+                statement.setObject(i + 1, parameters[i]);
+            StringBuilder plan = new StringBuilder("Plan:");
+            try (ResultSet resultSet = statement.executeQuery())
+            {
+                while (resultSet.next())
+                    plan.append(System.lineSeparator()).append(resultSet.getString(1));
+            }
+            return plan.toString();
+        } catch (SQLException e)
+        {
+            return "Plan unavailable: " + e.getMessage();
+        }
+    }
+}
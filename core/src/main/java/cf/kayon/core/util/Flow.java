@@ -0,0 +1,131 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Interfaces for demand-driven streams of items, with the same contract as {@code java.util.concurrent.Flow} of Java 9.
+ * <p>
+ * Kayon targets Java 8, which lacks these interfaces. They are declared here with the same names and semantics, so any
+ * implementation of the <a href="http://www.reactive-streams.org/">reactive streams</a> specification can be adapted by delegation,
+ * and the declarations can be replaced by the JDK's ones once Java 9 is required.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+public final class Flow
+{
+    /**
+     * Private constructor to prevent instantiation.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private Flow()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * A producer of items received by subscribers.
+     * Every subscriber receives the same items (unless it cancels or fails) in the same order, but only as many as it has requested.
+     *
+     * @param <T> The type of the items.
+     * @since 0.2.4
+     */
+    @FunctionalInterface
+    public interface Publisher<T>
+    {
+        /**
+         * Adds a subscriber. The publisher calls {@link Subscriber#onSubscribe(Subscription)} exactly once.
+         * A subscriber must not be subscribed more than once.
+         *
+         * @param subscriber The subscriber.
+         * @throws NullPointerException If {@code subscriber} is {@code null}.
+         * @since 0.2.4
+         */
+        void subscribe(@NotNull Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of items. The methods of a subscriber are called in sequence, never concurrently.
+     *
+     * @param <T> The type of the items.
+     * @since 0.2.4
+     */
+    public interface Subscriber<T>
+    {
+        /**
+         * Called before any other method of the subscriber, with the subscription to request items from or cancel.
+         * No items are received until they are {@link Subscription#request(long) requested}.
+         *
+         * @param subscription The subscription.
+         * @since 0.2.4
+         */
+        void onSubscribe(@NotNull Subscription subscription);
+
+        /**
+         * Called with the next item. Only called if there is outstanding demand.
+         *
+         * @param item The item.
+         * @since 0.2.4
+         */
+        void onNext(@NotNull T item);
+
+        /**
+         * Called if the subscription failed. No other method is called afterwards.
+         *
+         * @param throwable The failure.
+         * @since 0.2.4
+         */
+        void onError(@NotNull Throwable throwable);
+
+        /**
+         * Called when all items have been received. No other method is called afterwards.
+         *
+         * @since 0.2.4
+         */
+        void onComplete();
+    }
+
+    /**
+     * The link between a {@link Publisher} and one of its {@link Subscriber}s.
+     *
+     * @since 0.2.4
+     */
+    public interface Subscription
+    {
+        /**
+         * Adds to the number of items the subscriber is ready to receive.
+         * A non-positive number causes {@link Subscriber#onError(Throwable)} to be called with an {@link IllegalArgumentException}.
+         *
+         * @param n The number of items. {@link Long#MAX_VALUE} effectively requests all items.
+         * @since 0.2.4
+         */
+        void request(long n);
+
+        /**
+         * Stops receiving items. Items may still be received for a short time afterwards.
+         *
+         * @since 0.2.4
+         */
+        void cancel();
+    }
+}
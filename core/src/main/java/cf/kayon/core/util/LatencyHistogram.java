@@ -0,0 +1,240 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.util;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Records latencies (or any other non-negative values) with bounded memory and a bounded relative error, like HdrHistogram.
+ * <p>
+ * Values below {@code 256} are counted exactly. Larger values are counted in buckets of {@code 128} sub-buckets per power of two, so a value
+ * read back from the histogram is at most about 0.8 % larger than the recorded value. Memory use is constant (about 60 KB), no matter how
+ * many values are recorded.
+ * <p>
+ * Recording is lock-free, so many threads can record into the same histogram.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class LatencyHistogram
+{
+    /**
+     * The number of bits of the sub-bucket index. Values are counted with {@code SUB_BUCKET_BITS + 1} significant bits.
+     *
+     * @since 0.2.4
+     */
+    private static final int SUB_BUCKET_BITS = 7;
+
+    /**
+     * The number of sub-buckets per power of two.
+     *
+     * @since 0.2.4
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of buckets for values up to {@link Long#MAX_VALUE}.
+     *
+     * @since 0.2.4
+     */
+    private static final int BUCKETS = 2 * SUB_BUCKETS + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    /**
+     * The counts by bucket.
+     *
+     * @since 0.2.4
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The number of recorded values.
+     *
+     * @since 0.2.4
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * The sum of the recorded values.
+     *
+     * @since 0.2.4
+     */
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * The largest recorded value.
+     *
+     * @since 0.2.4
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Gets the bucket of a value.
+     *
+     * @param value The value, not negative.
+     * @return The index of the bucket.
+     * @since 0.2.4
+     */
+    private static int bucket(long value)
+    {
+        if (value < 2 * SUB_BUCKETS)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS; // value >>> shift is in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        return 2 * SUB_BUCKETS + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Gets the largest value counted in a bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The largest value.
+     * @since 0.2.4
+     */
+    private static long highestValue(int bucket)
+    {
+        if (bucket < 2 * SUB_BUCKETS)
+            return bucket;
+        int shift = (bucket - 2 * SUB_BUCKETS) / SUB_BUCKETS + 1;
+        long lowest = (long) ((bucket - 2 * SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value The value, for example a latency in nanoseconds.
+     * @throws IllegalArgumentException If {@code value} is negative.
+     * @since 0.2.4
+     */
+    public void record(long value)
+    {
+        checkArgument(value >= 0, "value must not be negative");
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Adds all values recorded by another histogram to this histogram.
+     * <p>
+     * Values recorded into {@code other} at the same time may or may not be added.
+     *
+     * @param other The other histogram.
+     * @throws NullPointerException If {@code other} is {@code null}.
+     * @since 0.2.4
+     */
+    public void add(LatencyHistogram other)
+    {
+        checkNotNull(other);
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            long bucketCount = other.counts.get(i);
+            if (bucketCount != 0)
+                counts.addAndGet(i, bucketCount);
+        }
+        count.add(other.count.sum());
+        sum.add(other.sum.sum());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return The number of values.
+     * @since 0.2.4
+     */
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return The largest value, or {@code 0} if no value has been recorded.
+     * @since 0.2.4
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Gets the mean of the recorded values. Unlike the percentiles, the mean is exact.
+     *
+     * @return The mean, or {@code 0} if no value has been recorded.
+     * @since 0.2.4
+     */
+    public double getMean()
+    {
+        long values = count.sum();
+        return values == 0 ? 0 : (double) sum.sum() / values;
+    }
+
+    /**
+     * Gets the value at a percentile, that is the smallest value that the specified percentage of the recorded values is less than or equal to.
+     * <p>
+     * The result is the largest value of the bucket the percentile falls into, but never larger than {@link #getMax()}.
+     *
+     * @param percentile The percentile, between {@code 0} and {@code 100}. {@code 100} returns the {@link #getMax() maximum}.
+     * @return The value, or {@code 0} if no value has been recorded.
+     * @throws IllegalArgumentException If {@code percentile} is out of range.
+     * @since 0.2.4
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        checkArgument(percentile >= 0 && percentile <= 100, "percentile out of range");
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            total += snapshot[i] = counts.get(i);
+        if (total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return Math.min(highestValue(i), max.get());
+        }
+        return max.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LatencyHistogram{" +
+               "count=" + getCount() +
+               ", mean=" + getMean() +
+               ", p50=" + getValueAtPercentile(50) +
+               ", p99=" + getValueAtPercentile(99) +
+               ", p99.9=" + getValueAtPercentile(99.9) +
+               ", max=" + getMax() +
+               '}';
+    }
+}
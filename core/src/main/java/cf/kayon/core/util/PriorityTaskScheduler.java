@@ -0,0 +1,317 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.util;
+
+import com.google.common.base.MoreObjects;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Schedules tasks of different priority ({@link Lane lanes}) onto a shared executor.
+ * <p>
+ * Every lane has its own limit of tasks running at once. Tasks exceeding the limit wait in their lane and are handed to the executor
+ * when a task of the same lane has finished; waiting tasks of higher lanes are always handed over first. Long running tasks of lower lanes
+ * (like bulk jobs) should call {@link #yieldToHigherLanes(Lane)} between their batches, so they give way to the database connection
+ * and the processors while tasks of higher lanes are running or waiting.
+ * <p>
+ * The limits are read from the {@code maxConcurrent} section at the path given at construct time, with a key per lane
+ * ({@code interactive}, {@code save} and {@code bulk}). The maximum time a task yields at once is read from {@code maxYield}.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class PriorityTaskScheduler
+{
+    /**
+     * The lanes of tasks, in descending priority.
+     *
+     * @since 0.2.4
+     */
+    public enum Lane
+    {
+        /**
+         * Tasks the user is waiting for, like lookups.
+         *
+         * @since 0.2.4
+         */
+        INTERACTIVE,
+
+        /**
+         * Tasks persisting changes of the user.
+         *
+         * @since 0.2.4
+         */
+        SAVE,
+
+        /**
+         * Long running background jobs, like generating or importing nouns.
+         *
+         * @since 0.2.4
+         */
+        BULK
+    }
+
+    /**
+     * The executor running the tasks.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Executor executor;
+
+    /**
+     * The maximum number of running tasks, by lane ordinal.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final int[] maxConcurrent;
+
+    /**
+     * The maximum time a task yields at once, in nanoseconds.
+     *
+     * @since 0.2.4
+     */
+    private final long maxYieldNanos;
+
+    /**
+     * The waiting tasks, by lane ordinal.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("this")
+    @NotNull
+    private final List<ArrayDeque<Runnable>> waiting;
+
+    /**
+     * The number of running tasks, by lane ordinal.
+     *
+     * @since 0.2.4
+     */
+    @GuardedBy("this")
+    @NotNull
+    private final int[] running;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param config   The configuration.
+     * @param path     The path of the scheduler section in the configuration, like {@code gui.scheduler}.
+     * @param executor The executor running the tasks. Should be able to run the sum of all lane limits at once.
+     * @throws ConfigException.BadValue If any limit is not positive or {@code maxYield} is negative.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    @SuppressWarnings("unchecked")
+    public PriorityTaskScheduler(@NotNull Config config, @NotNull String path, @NotNull Executor executor)
+    {
+        this.executor = checkNotNull(executor);
+        Config section = config.getConfig(path);
+        Lane[] lanes = Lane.values();
+        maxConcurrent = new int[lanes.length];
+        waiting = new ArrayList<>(lanes.length);
+        running = new int[lanes.length];
+        for (Lane lane : lanes)
+        {
+            String key = "maxConcurrent." + lane.name().toLowerCase(Locale.ROOT);
+            int limit = section.getInt(key);
+            if (limit < 1)
+                throw new ConfigException.BadValue(section.origin(), path + '.' + key, "Must be positive");
+            maxConcurrent[lane.ordinal()] = limit;
+            waiting.add(new ArrayDeque<>()); // lanes are iterated in ordinal order
+        }
+        maxYieldNanos = section.getDuration("maxYield", TimeUnit.NANOSECONDS);
+        if (maxYieldNanos < 0)
+            throw new ConfigException.BadValue(section.origin(), path + ".maxYield", "Must not be negative");
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param lane The lane of the task.
+     * @param task The task.
+     * @throws RejectedExecutionException If the task is handed to the executor at once and the executor rejects it.
+     * @throws NullPointerException       If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    public void execute(@NotNull Lane lane, @NotNull Runnable task)
+    {
+        checkNotNull(lane);
+        checkNotNull(task);
+        synchronized (this)
+        {
+            waiting.get(lane.ordinal()).addLast(task);
+            dispatch();
+        }
+    }
+
+    /**
+     * Gets an executor scheduling its tasks in a lane.
+     *
+     * @param lane The lane.
+     * @return The executor.
+     * @throws NullPointerException If {@code lane} is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public Executor lane(@NotNull Lane lane)
+    {
+        checkNotNull(lane);
+        return task -> execute(lane, task);
+    }
+
+    /**
+     * Waits while tasks of higher lanes than the specified one are running or waiting, but at most {@code maxYield}.
+     * Returns immediately if there are none.
+     *
+     * @param lane The lane of the calling task.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     * @throws NullPointerException If {@code lane} is {@code null}.
+     * @since 0.2.4
+     */
+    public void yieldToHigherLanes(@NotNull Lane lane) throws InterruptedException
+    {
+        checkNotNull(lane);
+        long deadline = System.nanoTime() + maxYieldNanos;
+        synchronized (this)
+        {
+            while (isBusyAbove(lane))
+            {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    return;
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of running tasks of a lane.
+     *
+     * @param lane The lane.
+     * @return The number of running tasks.
+     * @since 0.2.4
+     */
+    public synchronized int getRunning(@NotNull Lane lane)
+    {
+        return running[lane.ordinal()];
+    }
+
+    /**
+     * Gets the number of tasks of a lane waiting for a slot.
+     *
+     * @param lane The lane.
+     * @return The number of waiting tasks.
+     * @since 0.2.4
+     */
+    public synchronized int getWaiting(@NotNull Lane lane)
+    {
+        return waiting.get(lane.ordinal()).size();
+    }
+
+    /**
+     * Checks whether any tasks of higher lanes than the specified one are running or waiting.
+     *
+     * @param lane The lane.
+     * @return Whether there are such tasks.
+     * @since 0.2.4
+     */
+    @GuardedBy("this")
+    private boolean isBusyAbove(@NotNull Lane lane)
+    {
+        for (int i = 0; i < lane.ordinal(); i++)
+            if (running[i] > 0 || !waiting.get(i).isEmpty())
+                return true;
+        return false;
+    }
+
+    /**
+     * Hands waiting tasks to the executor, higher lanes first, as far as the limits of their lanes allow.
+     *
+     * @throws RejectedExecutionException If the executor rejects a task. The task is dropped.
+     * @since 0.2.4
+     */
+    @GuardedBy("this")
+    private void dispatch()
+    {
+        for (int lane = 0; lane < waiting.size(); lane++)
+        {
+            while (running[lane] < maxConcurrent[lane] && !waiting.get(lane).isEmpty())
+            {
+                Runnable task = waiting.get(lane).pollFirst();
+                final int ordinal = lane;
+                running[lane]++;
+                try
+                {
+                    executor.execute(() -> {
+                        try
+                        {
+                            task.run();
+                        } finally
+                        {
+                            finished(ordinal);
+                        }
+                    });
+                } catch (RejectedExecutionException e)
+                {
+                    running[lane]--;
+                    notifyAll();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Called when a task has finished.
+     *
+     * @param lane The lane ordinal of the task.
+     * @since 0.2.4
+     */
+    private synchronized void finished(int lane)
+    {
+        running[lane]--;
+        notifyAll();
+        dispatch();
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("maxConcurrent", Arrays.toString(maxConcurrent))
+                          .add("running", Arrays.toString(running))
+                          .toString();
+    }
+}
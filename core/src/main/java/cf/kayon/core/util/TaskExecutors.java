@@ -0,0 +1,361 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Creates the executors for background tasks (GUI tasks and batch jobs) as configured.
+ * <p>
+ * An executor section of the configuration has the following keys:
+ * <ul>
+ * <li>{@code mode}: {@code fixed} for a pool of {@code poolSize} platform threads with a queue of {@code queueSize} tasks, which rejects
+ * tasks when the queue is full, or {@code virtual} for a new virtual thread per task with at most {@code maxConcurrent} tasks running
+ * at once. Virtual threads require Java 21; on older runtimes, {@code virtual} falls back to a pool of {@code maxConcurrent} threads with
+ * an unbounded queue, which never rejects tasks either.</li>
+ * <li>{@code poolSize}, {@code queueSize}, {@code keepAliveTime}: The settings of the {@code fixed} mode. {@code keepAliveTime} is also
+ * used by the fallback of the {@code virtual} mode.</li>
+ * <li>{@code maxConcurrent}: The maximum number of tasks running at once in the {@code virtual} mode. Further tasks wait (cheaply, on their
+ * own virtual thread) until a running task has finished, so blocking database work does not oversubscribe the database or the CPU.</li>
+ * </ul>
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+public final class TaskExecutors
+{
+    /**
+     * The logger.
+     *
+     * @since 0.2.4
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskExecutors.class);
+
+    /**
+     * Private constructor to prevent instantiation.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private TaskExecutors()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates an executor as configured.
+     * <p>
+     * Failures of tasks are passed to the failure handler, including failures of tasks submitted as {@link Callable} or {@link Future},
+     * which would otherwise only be visible to the code getting their result. Cancellations are not considered failures.
+     *
+     * @param config         The configuration.
+     * @param path           The path of the executor section in the configuration, like {@code gui.executor}.
+     * @param threadName     The name of the threads, followed by their number.
+     * @param failureHandler Receives the failures of tasks.
+     * @return The executor.
+     * @throws ConfigException.BadValue If the executor section is invalid.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static ExecutorService newExecutor(@NotNull Config config, @NotNull String path, @NotNull String threadName,
+                                              @NotNull Consumer<? super Throwable> failureHandler)
+    {
+        checkNotNull(threadName);
+        checkNotNull(failureHandler);
+        Config section = config.getConfig(path);
+        String mode = section.getString("mode");
+        switch (mode)
+        {
+            case "fixed":
+                int poolSize = positive(section, path, "poolSize");
+                ThreadPoolExecutor fixed = new ReportingThreadPoolExecutor(poolSize, section.getDuration("keepAliveTime", TimeUnit.NANOSECONDS),
+                                                                           new ArrayBlockingQueue<>(positive(section, path, "queueSize")),
+                                                                           threadFactory(threadName), failureHandler);
+                fixed.allowCoreThreadTimeOut(true);
+                return fixed;
+            case "virtual":
+                int maxConcurrent = positive(section, path, "maxConcurrent");
+                @Nullable
+                ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+                if (virtual != null)
+                    return new BoundedExecutorService(virtual, maxConcurrent, failureHandler);
+                LOGGER.warn("Virtual threads are not available on this Java runtime, using a pool of " + maxConcurrent + " threads for " + path);
+                ThreadPoolExecutor fallback = new ReportingThreadPoolExecutor(maxConcurrent, section.getDuration("keepAliveTime", TimeUnit.NANOSECONDS),
+                                                                              new LinkedBlockingQueue<>(), threadFactory(threadName), failureHandler);
+                fallback.allowCoreThreadTimeOut(true);
+                return fallback;
+            default:
+                throw new ConfigException.BadValue(config.origin(), path + ".mode", "Unknown executor mode: " + mode);
+        }
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread per task, if the Java runtime supports virtual threads.
+     * <p>
+     * The method is looked up reflectively, as Kayon is compiled for Java 8.
+     *
+     * @return The executor, or {@code null} if virtual threads are not available.
+     * @since 0.2.4
+     */
+    @Nullable
+    static ExecutorService newVirtualThreadPerTaskExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e)
+        {
+            return null;
+        } catch (InvocationTargetException e)
+        {
+            if (e.getCause() instanceof UnsupportedOperationException)
+                return null; // preview feature (Java 19 and 20) not enabled
+            throw new IllegalStateException("Could not create virtual thread executor", e.getCause());
+        } catch (IllegalAccessException e)
+        {
+            throw new IllegalStateException("Could not create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Gets a positive integer value of an executor section.
+     *
+     * @param section The executor section.
+     * @param path    The path of the executor section, for error messages.
+     * @param key     The key of the value.
+     * @return The value.
+     * @throws ConfigException.BadValue If the value is not positive.
+     * @since 0.2.4
+     */
+    private static int positive(@NotNull Config section, @NotNull String path, @NotNull String key)
+    {
+        int value = section.getInt(key);
+        if (value < 1)
+            throw new ConfigException.BadValue(section.origin(), path + '.' + key, "Must be positive");
+        return value;
+    }
+
+    /**
+     * Creates a factory for daemon threads.
+     *
+     * @param threadName The name of the threads, followed by their number.
+     * @return The factory.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static ThreadFactory threadFactory(@NotNull String threadName)
+    {
+        return new ThreadFactoryBuilder().setNameFormat(threadName.replace("%", "%%") + " %d").setDaemon(true).build();
+    }
+
+    /**
+     * Passes the failure of a task that has been run to a failure handler.
+     *
+     * @param task           The task.
+     * @param throwable      The exception thrown by {@link Runnable#run()}, or {@code null}.
+     * @param failureHandler The failure handler.
+     * @since 0.2.4
+     */
+    static void reportFailure(@NotNull Runnable task, @Nullable Throwable throwable, @NotNull Consumer<? super Throwable> failureHandler)
+    {
+        if (throwable == null && task instanceof Future<?> && ((Future<?>) task).isDone())
+        {
+            try
+            {
+                ((Future<?>) task).get();
+            } catch (CancellationException e)
+            {
+                LOGGER.info("Task was cancelled: (NOT AN ERROR!)", e);
+            } catch (ExecutionException e)
+            {
+                throwable = e.getCause();
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt(); // cannot happen, the future is done
+            }
+        }
+        if (throwable != null)
+            failureHandler.accept(throwable);
+    }
+
+    /**
+     * A thread pool passing the failures of its tasks to a failure handler.
+     *
+     * @since 0.2.4
+     */
+    private static final class ReportingThreadPoolExecutor extends ThreadPoolExecutor
+    {
+        /**
+         * Receives the failures of tasks.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final Consumer<? super Throwable> failureHandler;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param poolSize       The number of threads.
+         * @param keepAliveNanos How long idle threads are kept alive.
+         * @param queue          The queue of tasks waiting for a thread.
+         * @param threadFactory  The thread factory.
+         * @param failureHandler Receives the failures of tasks.
+         * @since 0.2.4
+         */
+        ReportingThreadPoolExecutor(int poolSize, long keepAliveNanos, @NotNull BlockingQueue<Runnable> queue, @NotNull ThreadFactory threadFactory,
+                                    @NotNull Consumer<? super Throwable> failureHandler)
+        {
+            super(poolSize, poolSize, keepAliveNanos, TimeUnit.NANOSECONDS, queue, threadFactory);
+            this.failureHandler = failureHandler;
+        }
+
+        @Override
+        protected void afterExecute(Runnable r, Throwable t)
+        {
+            super.afterExecute(r, t);
+            reportFailure(r, t, failureHandler);
+        }
+    }
+
+    /**
+     * An executor service limiting the number of tasks running at once in another executor service with a semaphore.
+     * <p>
+     * Tasks are handed to the delegate immediately and wait for a permit on their own thread, which is cheap for virtual threads.
+     *
+     * @since 0.2.4
+     */
+    static final class BoundedExecutorService extends AbstractExecutorService
+    {
+        /**
+         * The executor service running the tasks.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final ExecutorService delegate;
+
+        /**
+         * The permits for running tasks.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final Semaphore permits;
+
+        /**
+         * Receives the failures of tasks.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final Consumer<? super Throwable> failureHandler;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param delegate       The executor service running the tasks.
+         * @param maxConcurrent  The maximum number of tasks running at once.
+         * @param failureHandler Receives the failures of tasks.
+         * @since 0.2.4
+         */
+        BoundedExecutorService(@NotNull ExecutorService delegate, int maxConcurrent, @NotNull Consumer<? super Throwable> failureHandler)
+        {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrent);
+            this.failureHandler = failureHandler;
+        }
+
+        @Override
+        public void execute(@NotNull Runnable command)
+        {
+            checkNotNull(command);
+            delegate.execute(() -> {
+                try
+                {
+                    permits.acquire();
+                } catch (InterruptedException e)
+                {
+                    // Only happens on shutdownNow(), the task is dropped like a queued task of a thread pool
+                    if (command instanceof Future<?>)
+                        ((Future<?>) command).cancel(false);
+                    return;
+                }
+                Throwable thrown = null;
+                try
+                {
+                    command.run();
+                } catch (RuntimeException | Error e)
+                {
+                    thrown = e;
+                    throw e;
+                } finally
+                {
+                    permits.release();
+                    reportFailure(command, thrown, failureHandler);
+                }
+            });
+        }
+
+        @Override
+        public void shutdown()
+        {
+            delegate.shutdown();
+        }
+
+        @NotNull
+        @Override
+        public List<Runnable> shutdownNow()
+        {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown()
+        {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated()
+        {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException
+        {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.util;
+
+import net.jcip.annotations.Immutable;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Picks ranks from a Zipf distribution: The probability of rank {@code k} (counting from {@code 0}) is proportional to
+ * {@code 1 / (k + 1)^exponent}.
+ * <p>
+ * With an exponent of about {@code 1}, this models how often words are looked up: a few forms are looked up all the time, most very rarely.
+ * An exponent of {@code 0} is the uniform distribution.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@Immutable
+public class ZipfDistribution
+{
+    /**
+     * The cumulative probabilities of the ranks. The last one is {@code 1}.
+     *
+     * @since 0.2.4
+     */
+    private final double[] cumulative;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param size     The number of ranks.
+     * @param exponent The exponent.
+     * @throws IllegalArgumentException If {@code size} is not positive or {@code exponent} is negative.
+     * @since 0.2.4
+     */
+    public ZipfDistribution(int size, double exponent)
+    {
+        checkArgument(size > 0, "size must be positive");
+        checkArgument(exponent >= 0, "exponent must not be negative");
+        cumulative = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++)
+            cumulative[rank] = total += Math.pow(rank + 1, -exponent);
+        for (int rank = 0; rank < size; rank++)
+            cumulative[rank] /= total;
+        cumulative[size - 1] = 1;
+    }
+
+    /**
+     * Gets the number of ranks.
+     *
+     * @return The number of ranks.
+     * @since 0.2.4
+     */
+    public int size()
+    {
+        return cumulative.length;
+    }
+
+    /**
+     * Gets the probability of a rank.
+     *
+     * @param rank The rank.
+     * @return The probability.
+     * @throws IndexOutOfBoundsException If {@code rank} is out of range.
+     * @since 0.2.4
+     */
+    public double probability(int rank)
+    {
+        return rank == 0 ? cumulative[0] : cumulative[rank] - cumulative[rank - 1];
+    }
+
+    /**
+     * Picks a rank.
+     *
+     * @param uniform A uniformly distributed random number between {@code 0} (inclusive) and {@code 1} (exclusive), like
+     *                {@link java.util.SplittableRandom#nextDouble()}.
+     * @return The rank, between {@code 0} (the most probable) and {@link #size()} (exclusive).
+     * @throws IllegalArgumentException If {@code uniform} is out of range.
+     * @since 0.2.4
+     */
+    public int sample(double uniform)
+    {
+        checkArgument(uniform >= 0 && uniform < 1, "uniform out of range");
+        int index = Arrays.binarySearch(cumulative, uniform);
+        // uniform < 1 == cumulative[size - 1], so the insertion point is always in range
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
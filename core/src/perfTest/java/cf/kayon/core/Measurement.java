@@ -0,0 +1,93 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Accumulates the wall-clock time and the heap allocations of the current thread over one or more measured sections.
+ * <p>
+ * Allocations are only measured if the JVM supports per-thread allocation counting ({@code com.sun.management.ThreadMXBean}).
+ *
+ * @since 0.2.4
+ */
+@NotThreadSafe
+public class Measurement
+{
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private long nanos;
+
+    private long bytes;
+
+    private long startNanos;
+
+    private long startBytes;
+
+    public void start()
+    {
+        startBytes = allocatedBytes();
+        startNanos = System.nanoTime();
+    }
+
+    public void stop()
+    {
+        nanos += System.nanoTime() - startNanos;
+        long allocated = allocatedBytes();
+        bytes = allocated < 0 || startBytes < 0 ? -1 : bytes + allocated - startBytes;
+    }
+
+    /**
+     * @param units The number of units (nouns, queries) processed in all measured sections.
+     * @return The nanoseconds per unit.
+     */
+    public double nanosPer(long units)
+    {
+        return (double) nanos / units;
+    }
+
+    /**
+     * @param units The number of units (nouns, queries) processed in all measured sections.
+     * @return The allocated bytes per unit, or a negative value if allocations could not be measured.
+     */
+    public double bytesPer(long units)
+    {
+        return bytes < 0 ? -1 : (double) bytes / units;
+    }
+
+    public long getNanos()
+    {
+        return nanos;
+    }
+
+    public long getMillis()
+    {
+        return nanos / 1_000_000;
+    }
+
+    private static long allocatedBytes()
+    {
+        if (THREADS instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core;
+
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Compares the results of performance tests with stored baselines.
+ * <p>
+ * The behavior is controlled by system properties (set by the {@code perfTest} Gradle task):
+ * <ul>
+ * <li>{@code kayon.perf.baselines}: The properties file the baselines are read from (and recorded to).
+ * A result without a baseline fails the check, so a size or an operation can not silently go unchecked.</li>
+ * <li>{@code kayon.perf.tolerance}: How much worse than its baseline a timing may be, as a fraction (default {@code 0.25}, that is 25 %).
+ * The timings are medians of several repetitions, but still vary between runs on the same machine.</li>
+ * <li>{@code kayon.perf.allocationTolerance}: How much worse than its baseline an allocation result may be (default {@code 0.1}).
+ * Allocations hardly vary between runs.</li>
+ * <li>{@code kayon.perf.record}: If {@code true}, the results replace the baselines instead of being checked.</li>
+ * <li>{@code kayon.perf.results}: A properties file all results are written to, to archive them.</li>
+ * </ul>
+ *
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class PerformanceBaselines
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(PerformanceBaselines.class);
+
+    @Nullable
+    private final File baselineFile = file("kayon.perf.baselines");
+
+    @Nullable
+    private final File resultFile = file("kayon.perf.results");
+
+    private final double tolerance = Double.parseDouble(System.getProperty("kayon.perf.tolerance", "0.25"));
+
+    private final double allocationTolerance = Double.parseDouble(System.getProperty("kayon.perf.allocationTolerance", "0.1"));
+
+    private final boolean record = Boolean.getBoolean("kayon.perf.record");
+
+    @NotNull
+    private final Properties baselines = new Properties();
+
+    @NotNull
+    private final Properties results = new Properties();
+
+    public PerformanceBaselines()
+    {
+        if (baselineFile != null && baselineFile.isFile())
+        {
+            try (Reader reader = new InputStreamReader(new FileInputStream(baselineFile), StandardCharsets.UTF_8))
+            {
+                baselines.load(reader);
+            } catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Nullable
+    private static File file(@NotNull String property)
+    {
+        String path = System.getProperty(property);
+        return path == null || path.isEmpty() ? null : new File(path);
+    }
+
+    /**
+     * Records a result and checks it against its baseline.
+     * <p>
+     * Lower results are better. Negative results mean that the value could not be measured and are ignored.
+     *
+     * @param key    The key of the result, like {@code save.10000.nanos}.
+     * @param result The result.
+     * @return A message describing the regression or the missing baseline, or {@code null} if there is none (or the baselines are being
+     * recorded).
+     */
+    @Nullable
+    public synchronized String check(@NotNull String key, double result)
+    {
+        if (result < 0)
+            return null;
+        results.setProperty(key, String.format("%.1f", result));
+        String baseline = baselines.getProperty(key);
+        if (record)
+        {
+            LOGGER.info(key + " = " + String.format("%.1f", result) + " (recorded)");
+            return null;
+        }
+        if (baseline == null)
+        {
+            String message = String.format("%s has no baseline in %s (result %.1f): record it with -PperfRecord or leave the size out with -PperfSizes",
+                                           key, baselineFile, result);
+            LOGGER.error(message);
+            return message;
+        }
+        double limit = Double.parseDouble(baseline) * (1 + (key.endsWith(".bytes") ? allocationTolerance : tolerance));
+        LOGGER.info(key + " = " + String.format("%.1f", result) + " (baseline " + baseline + ")");
+        if (result > limit)
+            return String.format("%s regressed: %.1f, baseline %s, allowed up to %.1f", key, result, baseline, limit);
+        return null;
+    }
+
+    /**
+     * Writes the results to the result file and, if the baselines are being recorded, to the baseline file.
+     *
+     * @throws IOException If writing fails.
+     */
+    public synchronized void write() throws IOException
+    {
+        if (resultFile != null)
+            store(results, resultFile);
+        if (record && baselineFile != null)
+        {
+            baselines.putAll(results);
+            store(baselines, baselineFile);
+        }
+    }
+
+    private static void store(@NotNull Properties properties, @NotNull File file) throws IOException
+    {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Could not create " + parent);
+        // Sorted and without a timestamp, so recorded baselines can be diffed
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))
+        {
+            writer.println("# Kayon performance test results (lower is better): nanoseconds and allocated bytes per noun or query");
+            writer.println("# Baselines are recorded with ./gradlew :KayonCore:perfTest -PperfRecord");
+            new TreeMap<>(properties).forEach((key, value) -> writer.println(key + "=" + value));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core;
+
+import net.jcip.annotations.NotThreadSafe;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects repeated {@link Measurement}s of the same operation and reduces them to their medians, which are not thrown off by single
+ * outliers like a garbage collection.
+ *
+ * @since 0.2.4
+ */
+@NotThreadSafe
+public class Samples
+{
+    @NotNull
+    private final List<Double> nanos = new ArrayList<>();
+
+    @NotNull
+    private final List<Double> bytes = new ArrayList<>();
+
+    private long millis;
+
+    /**
+     * @param measurement The measurement of one repetition.
+     * @param units       The number of units (nouns, queries) processed in the repetition.
+     */
+    public void add(@NotNull Measurement measurement, long units)
+    {
+        nanos.add(measurement.nanosPer(units));
+        bytes.add(measurement.bytesPer(units));
+        millis += measurement.getMillis();
+    }
+
+    /**
+     * @return The median of the nanoseconds per unit.
+     */
+    public double medianNanos()
+    {
+        return median(nanos);
+    }
+
+    /**
+     * @return The median of the allocated bytes per unit, or a negative value if allocations could not be measured.
+     */
+    public double medianBytes()
+    {
+        return bytes.contains(-1.0) ? -1 : median(bytes);
+    }
+
+    public int size()
+    {
+        return nanos.size();
+    }
+
+    /**
+     * @return The total time of all repetitions.
+     */
+    public long getMillis()
+    {
+        return millis;
+    }
+
+    private static double median(@NotNull List<Double> values)
+    {
+        if (values.isEmpty())
+            throw new IllegalStateException("No samples");
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.sql;
+
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.Measurement;
+import cf.kayon.core.PerformanceBaselines;
+import cf.kayon.core.Samples;
+import cf.kayon.core.TestContextUtil;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.SyntheticNounGenerator;
+import cf.kayon.core.repository.VocabRepository;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Builds databases of synthetic nouns (10k and 100k by default, see kayon.perf.sizes) and measures saving, reconstructing,
+ * form queries and root word queries. Saving is sampled per batch, the other operations are repeated at least kayon.perf.rounds times
+ * after a warmup round. The median of the samples is checked against its baseline, see PerformanceBaselines.
+ */
+@RunWith(Parameterized.class)
+public class DatabasePerformanceTest
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabasePerformanceTest.class);
+
+    private static final PerformanceBaselines BASELINES = new PerformanceBaselines();
+
+    private static final long SEED = 42;
+
+    private static final int FORM_QUERIES = 100;
+
+    private static final int ROOT_QUERIES = 20;
+
+    private static final int WARMUP_SIZE = 5000;
+
+    private static final int WARMUP_ROUNDS = 4;
+
+    private static final int ROUNDS = Integer.getInteger("kayon.perf.rounds", 5);
+
+    private static final long MIN_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private static final int MAX_ROUNDS = 200;
+
+    private final int size;
+
+    private KayonContext context;
+
+    public DatabasePerformanceTest(int size)
+    {
+        this.size = size;
+    }
+
+    @Parameters
+    public static Collection<Object[]> sizes()
+    {
+        List<Object[]> sizes = new ArrayList<>();
+        for (String size : System.getProperty("kayon.perf.sizes", "10000,100000").split(","))
+            sizes.add(new Object[]{Integer.parseInt(size.trim())});
+        return sizes;
+    }
+
+    @Before
+    public void setUp()
+    {
+        context = TestContextUtil.newTestingContext();
+    }
+
+    @After
+    public void tearDown()
+    {
+        TestContextUtil.closeContext(context);
+    }
+
+    /*
+     * Without a warmup, the results of the first size would include the JIT compilation. A single small run is not enough for the
+     * compiler to settle, so the warmup is repeated on fresh databases.
+     */
+    @BeforeClass
+    public static void warmUp() throws Exception
+    {
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+        {
+            KayonContext context = TestContextUtil.newTestingContext();
+            try
+            {
+                new DatabasePerformanceTest(WARMUP_SIZE).run(context, false);
+            } finally
+            {
+                TestContextUtil.closeContext(context);
+            }
+        }
+    }
+
+    @AfterClass
+    public static void writeResults() throws IOException
+    {
+        BASELINES.write();
+    }
+
+    /*
+     * One test per size, because building the database is what takes the time.
+     * All results are checked before failing, so every regression is reported (and recorded) at once.
+     */
+    @Test
+    public void testDatabase() throws Exception
+    {
+        run(context, true);
+    }
+
+    private void run(KayonContext context, boolean check) throws Exception
+    {
+        VocabRepository repository = context.getRepository();
+        SyntheticNounGenerator generator = new SyntheticNounGenerator(context);
+        List<String> forms = new ArrayList<>(FORM_QUERIES);
+        List<String> rootWords = new ArrayList<>(ROOT_QUERIES);
+        List<String> regressions = new ArrayList<>();
+
+        // Every batch is one sample
+        Samples save = new Samples();
+        int saved = 0;
+        for (long batchIndex = 0; saved < size; batchIndex++)
+        {
+            // Generating is not measured, only saving
+            List<Noun> batch = generator.generateBatch(SEED, batchIndex, Math.min(generator.getBatchSize(), size - saved));
+            for (Noun noun : batch)
+            {
+                if (saved % Math.max(1, size / FORM_QUERIES) == 0 && forms.size() < FORM_QUERIES)
+                    forms.add(anyForm(noun, forms.size()));
+                if (saved % Math.max(1, size / ROOT_QUERIES) == 0 && rootWords.size() < ROOT_QUERIES)
+                    rootWords.add(noun.getRootWord());
+                saved++;
+            }
+            Measurement measurement = new Measurement();
+            measurement.start();
+            repository.saveAll(batch);
+            measurement.stop();
+            save.add(measurement, batch.size());
+        }
+        if (check)
+            check("save", save, regressions);
+
+        Samples reconstruct = repeat(() -> {
+            long reconstructed;
+            try (Stream<Noun> stream = repository.streamAll())
+            {
+                reconstructed = stream.count();
+            }
+            assertEquals(size, reconstructed);
+        }, size);
+        if (check)
+            check("reconstruct", reconstruct, regressions);
+
+        Samples formQuery = repeat(() -> {
+            for (String form : forms)
+            {
+                LinkedBlockingQueue<Noun> results = new LinkedBlockingQueue<>();
+                repository.queryNouns(form, results);
+                assertFalse("No noun found for " + form, results.isEmpty());
+            }
+        }, forms.size());
+        if (check)
+            check("formQuery", formQuery, regressions);
+
+        Samples rootQuery = repeat(() -> {
+            for (String rootWord : rootWords)
+            {
+                LinkedBlockingQueue<Noun> results = new LinkedBlockingQueue<>();
+                repository.queryNounsByRootWord(rootWord, results);
+                assertFalse("No noun found for " + rootWord, results.isEmpty());
+            }
+        }, rootWords.size());
+        if (check)
+            check("rootQuery", rootQuery, regressions);
+
+        assertTrue(String.join("\n", regressions), regressions.isEmpty());
+    }
+
+    /*
+     * Runs an operation once to warm up the caches of this database, then measured at least ROUNDS times. Fast operations are repeated
+     * until they have been measured for MIN_NANOS, as the median of a few short rounds still varies a lot.
+     */
+    private static Samples repeat(Operation operation, long units) throws Exception
+    {
+        operation.run();
+        Samples samples = new Samples();
+        long measuredNanos = 0;
+        for (int round = 0; round < MAX_ROUNDS && (round < ROUNDS || measuredNanos < MIN_NANOS); round++)
+        {
+            Measurement measurement = new Measurement();
+            measurement.start();
+            operation.run();
+            measurement.stop();
+            samples.add(measurement, units);
+            measuredNanos += measurement.getNanos();
+        }
+        return samples;
+    }
+
+    /*
+     * Cycles through the forms, so all of them are queried. Not every declension has every form.
+     */
+    private static String anyForm(Noun noun, int offset)
+    {
+        List<NounForm> nounForms = NounForm.values();
+        for (int i = 0; i < nounForms.size(); i++)
+        {
+            String form = noun.getForm(nounForms.get((offset + i) % nounForms.size()));
+            if (form != null)
+                return form;
+        }
+        throw new AssertionError("Noun without forms: " + noun);
+    }
+
+    private void check(String operation, Samples samples, List<String> regressions)
+    {
+        LOGGER.info(operation + " with " + size + " nouns took " + samples.getMillis() + " ms for " + samples.size() + " samples");
+        String key = operation + '.' + size;
+        String regression = BASELINES.check(key + ".nanos", samples.medianNanos());
+        if (regression != null)
+            regressions.add(regression);
+        regression = BASELINES.check(key + ".bytes", samples.medianBytes());
+        if (regression != null)
+            regressions.add(regression);
+    }
+
+    @FunctionalInterface
+    private interface Operation
+    {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core;
+
+import cf.kayon.core.adjective.AdjectiveDeclension;
+import cf.kayon.core.adjective.impl.OAAdjectiveDeclension;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.noun.impl.ANounDeclension;
+import cf.kayon.core.noun.impl.ENounDeclension;
+import cf.kayon.core.noun.NounTest;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class DeclensionRegistryTest
+{
+    @Test
+    public void testNounDeclensionIds() throws Exception
+    {
+        List<NounDeclension> nounDeclensions = DeclensionRegistry.getNounDeclensions();
+        assertEquals(8, nounDeclensions.size());
+        Set<Byte> ids = new HashSet<>();
+        for (NounDeclension nounDeclension : nounDeclensions)
+        {
+            byte id = DeclensionRegistry.idForNounDeclension(nounDeclension);
+            assertTrue(ids.add(id));
+            assertSame(nounDeclension, DeclensionRegistry.nounDeclensionForId(id));
+        }
+
+        // IDs are persisted and must never change
+        assertEquals(1, DeclensionRegistry.idForNounDeclension(ANounDeclension.getInstance()));
+        assertEquals(8, DeclensionRegistry.idForNounDeclension(ENounDeclension.getInstance()));
+        assertNull(DeclensionRegistry.nounDeclensionForId((byte) 0));
+    }
+
+    @Test
+    public void testAdjectiveDeclensionIds() throws Exception
+    {
+        List<AdjectiveDeclension> adjectiveDeclensions = DeclensionRegistry.getAdjectiveDeclensions();
+        assertEquals(5, adjectiveDeclensions.size());
+        for (AdjectiveDeclension adjectiveDeclension : adjectiveDeclensions)
+            assertSame(adjectiveDeclension, DeclensionRegistry.adjectiveDeclensionForId(DeclensionRegistry.idForAdjectiveDeclension(adjectiveDeclension)));
+        assertEquals(1, DeclensionRegistry.idForAdjectiveDeclension(OAAdjectiveDeclension.getInstance()));
+    }
+
+    @Test
+    public void testNounDeclensionForName() throws Exception
+    {
+        assertSame(ANounDeclension.getInstance(), DeclensionRegistry.nounDeclensionForName("cf.kayon.core.noun.impl.ANounDeclension"));
+        assertNull(DeclensionRegistry.nounDeclensionForName("cf.kayon.non.existent.class.NonExistentDeclension"));
+        assertNull(DeclensionRegistry.nounDeclensionForName(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnregistered() throws Exception
+    {
+        DeclensionRegistry.idForNounDeclension(NounTest.STATIC_NOUN_DECLENSION);
+    }
+}
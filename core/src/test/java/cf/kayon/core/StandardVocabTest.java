@@ -20,6 +20,7 @@ package cf.kayon.core;
 
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -93,6 +94,46 @@ public class StandardVocabTest
         assertEquals("NaNNaNNaNNaN", vocab.getTranslation(new Locale("en", "AU")));
     }
 
+    @Test
+    public void testDirtyTracking() throws Exception
+    {
+        KayonContext context = TestContextUtil.newTestingContext();
+        StandardVocab vocab = new StandardVocab(context);
+        assertFalse(vocab.isPersistent());
+        assertTrue(vocab.isDirty());
+
+        vocab.initializeUuid(UUID.randomUUID());
+        assertEquals(Collections.singleton("uuid"), vocab.getDirtyProperties());
+
+        vocab.markClean();
+        assertTrue(vocab.isPersistent());
+        assertFalse(vocab.isDirty());
+        assertTrue(vocab.getDirtyProperties().isEmpty());
+
+        vocab.getTranslations().put(new Locale("de"), "abc");
+        assertEquals(Collections.singleton("translations"), vocab.getDirtyProperties());
+        vocab.getTranslations().remove(new Locale("de"));
+        assertFalse(vocab.isDirty());
+    }
+
+    @Test
+    public void testDeferredMarkClean() throws Exception
+    {
+        KayonContext context = TestContextUtil.newTestingContext();
+        StandardVocab vocab = new StandardVocab(context);
+        vocab.getTranslations().put(new Locale("de"), "abc");
+        StandardVocab.CleanState state = vocab.captureCleanState();
+
+        vocab.getTranslations().put(new Locale("en"), "def");
+        vocab.initializeUuid(UUID.randomUUID());
+        vocab.markClean(state);
+        assertTrue(vocab.isPersistent());
+        assertEquals(Collections.singleton("translations"), vocab.getDirtyProperties());
+
+        vocab.getTranslations().remove(new Locale("en"));
+        assertFalse(vocab.isDirty());
+    }
+
     private Map<Locale, String> getSampleMap()
     {
         Map<Locale, String> map = new HashMap<>();
@@ -67,6 +67,7 @@ public class TestContextUtil
     {
         if (context != null)
         {
+            context.close();
             try
             {
                 context.getConnection().close();
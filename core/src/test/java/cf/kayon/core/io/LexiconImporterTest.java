@@ -0,0 +1,197 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.io;
+
+import cf.kayon.core.*;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.impl.ANounDeclension;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import cf.kayon.core.repository.InMemoryVocabRepository;
+import cf.kayon.core.repository.RepositoryException;
+import cf.kayon.core.repository.UncheckedRepositoryException;
+import com.typesafe.config.ConfigValueFactory;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class LexiconImporterTest
+{
+    private KayonContext context;
+
+    private Path path;
+
+    private Path checkpoint;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        KayonContext testingContext = TestContextUtil.newTestingContext();
+        context = new KayonContext(testingContext.getConnection(),
+                                   testingContext.getConfig().withValue("import.batchSize", ConfigValueFactory.fromAnyRef(5)));
+        testingContext.close(); // only its connection is used
+        path = Files.createTempFile("kayon", ".import");
+        checkpoint = path.resolveSibling(path.getFileName() + ".checkpoint");
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        TestContextUtil.closeContext(context);
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(checkpoint);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        InMemoryVocabRepository exported = new InMemoryVocabRepository(context);
+        Noun servus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+        servus.setDefinedForm(NounForm.of(Case.VOCATIVE, Count.SINGULAR), "a,\"b\"");
+        Noun rosa = new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ros");
+        exported.saveAll(Arrays.asList(servus, rosa));
+
+        for (ExportFormat format : ExportFormat.values())
+        {
+            new ParadigmExporter(context).export(exported, path, format, null);
+            InMemoryVocabRepository imported = new InMemoryVocabRepository(context);
+            ImportStatistics statistics = new LexiconImporter(context).importFile(imported, path, format, null, null);
+            assertEquals(2, statistics.getItems());
+            assertEquals(0, statistics.getRejected());
+
+            Map<Object, Noun> byUuid = imported.streamAll().collect(Collectors.toMap(Noun::getUuid, noun -> noun));
+            assertEquals(2, byUuid.size());
+            Noun importedServus = byUuid.get(servus.getUuid());
+            assertEquals("serv", importedServus.getRootWord());
+            assertSame(ONounDeclension.getInstance(), importedServus.getNounDeclension());
+            assertEquals("a,\"b\"", importedServus.getForm(NounForm.of(Case.VOCATIVE, Count.SINGULAR)));
+            assertEquals("servōrum", importedServus.getForm(NounForm.of(Case.GENITIVE, Count.PLURAL)));
+            assertEquals(Gender.FEMININE, byUuid.get(rosa.getUuid()).getGender());
+        }
+    }
+
+    @Test
+    public void testInferenceAndRejection() throws Exception
+    {
+        Files.write(path, Arrays.asList(
+                "{\"gender\":\"FEMININE\",\"case\":\"NOMINATIVE\",\"count\":\"SINGULAR\",\"form\":\"ancilla\",\"translation.de\":\"Magd\"}",
+                "{\"gender\":\"MASCULINE\",\"declension\":\"ONounDeclension\",\"case\":\"GENITIVE\",\"count\":\"PLURAL\",\"form\":\"dominōrum\"}",
+                "{\"gender\":\"MASCULINE\",\"declension\":\"NoSuchDeclension\",\"rootWord\":\"x\"}",
+                "{\"rootWord\":\"x\"}",
+                "{\"gender\":\"FEMININE\",\"rootWord\":\"ros\",\"declension\":\"ANounDeclension\",\"case\":\"NOMINATIVE\",\"count\":\"SINGULAR\",\"form\":\"rosus\"}",
+                "{\"gender\":\"MASCULINE\",\"rootWord\":\"serv\",\"case\":\"GENITIVE\",\"count\":\"PLURAL\",\"form\":\"servōrum\"}",
+                "{\"gender\":\"MASCULINE\",\"rootWord\":\"xyz\",\"case\":\"NOMINATIVE\",\"count\":\"SINGULAR\",\"form\":\"qqq\"}",
+                "not json"), StandardCharsets.UTF_8);
+
+        InMemoryVocabRepository repository = new InMemoryVocabRepository(context);
+        ImportStatistics statistics = new LexiconImporter(context).importFile(repository, path, ExportFormat.JSONL, null, null);
+        assertEquals(8, statistics.getLines());
+        assertEquals(3, statistics.getItems());
+        assertEquals(5, statistics.getRejected());
+        assertEquals(5, statistics.getProblems().size());
+        assertTrue(statistics.getProblems().get(0).startsWith("line 3: "));
+
+        List<String> rootWords = repository.streamAll().map(Noun::getRootWord).sorted().collect(Collectors.toList());
+        assertEquals(Arrays.asList("ancill", "domin", "serv"), rootWords);
+        Noun ancilla = repository.streamAll().filter(noun -> noun.getRootWord().equals("ancill")).findFirst().get();
+        assertSame(ANounDeclension.getInstance(), ancilla.getNounDeclension());
+        assertEquals("Magd", ancilla.getTranslations().get(java.util.Locale.GERMAN));
+        Noun servus = repository.streamAll().filter(noun -> noun.getRootWord().equals("serv")).findFirst().get();
+        assertSame(ONounDeclension.getInstance(), servus.getNounDeclension()); // inferred although the root word is given
+
+        // Replaying the same file does not create duplicates
+        new LexiconImporter(context).importFile(repository, path, ExportFormat.JSONL, null, null);
+        assertEquals(3, repository.size());
+    }
+
+    @Test
+    public void testCheckpointResume() throws Exception
+    {
+        InMemoryVocabRepository exported = new InMemoryVocabRepository(context);
+        for (int i = 0; i < 3; i++)
+            exported.save(new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv" + i));
+        new ParadigmExporter(context).export(exported, path, ExportFormat.CSV, null); // 36 rows, 8 batches of 5 lines
+
+        FailingRepository repository = new FailingRepository(context);
+        try
+        {
+            new LexiconImporter(context).importFile(repository, path, ExportFormat.CSV, checkpoint, null);
+            fail();
+        } catch (RepositoryException expected)
+        {
+        }
+        assertTrue(Files.exists(checkpoint));
+        assertEquals(1, repository.size());
+
+        repository.failing = false;
+        ImportStatistics statistics = new LexiconImporter(context).importFile(repository, path, ExportFormat.CSV, checkpoint, null);
+        assertEquals(3, statistics.getItems());
+        assertEquals(37, statistics.getLines());
+        assertEquals(3, repository.size());
+        assertFalse(Files.exists(checkpoint));
+    }
+
+    @Test
+    public void testLineParser()
+    {
+        assertEquals(Arrays.asList("a", "", "b,\"c\"", ""), LineParser.parseCsvLine("a,,\"b,\"\"c\"\"\","));
+        Map<String, String> object = LineParser.parseJsonObject("{ \"a\" : \"x\\\"\\u0041\", \"b\":true, \"c\":null, \"d\":12 }");
+        assertEquals(3, object.size());
+        assertEquals("x\"A", object.get("a"));
+        assertEquals("true", object.get("b"));
+        assertEquals("12", object.get("d"));
+        try
+        {
+            LineParser.parseCsvLine("\"unterminated");
+            fail();
+        } catch (IllegalArgumentException expected)
+        {
+        }
+    }
+
+    private static class FailingRepository extends InMemoryVocabRepository
+    {
+        volatile boolean failing = true;
+
+        FailingRepository(@NotNull KayonContext context)
+        {
+            super(context);
+        }
+
+        @Override
+        public void saveAll(@NotNull Collection<? extends Noun> nouns)
+        {
+            if (failing && size() > 0 && !nouns.isEmpty())
+                throw new UncheckedRepositoryException(new RepositoryException("Simulated failure"));
+            super.saveAll(nouns);
+        }
+    }
+}
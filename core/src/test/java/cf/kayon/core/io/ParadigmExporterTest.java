@@ -0,0 +1,111 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.io;
+
+import cf.kayon.core.*;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import cf.kayon.core.repository.InMemoryVocabRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ParadigmExporterTest
+{
+    private KayonContext context;
+
+    private Path path;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        context = TestContextUtil.newTestingContext();
+        path = Files.createTempFile("kayon", ".export");
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        TestContextUtil.closeContext(context);
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testCsv() throws Exception
+    {
+        InMemoryVocabRepository repository = new InMemoryVocabRepository(context);
+        Noun servus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+        servus.setDefinedForm(NounForm.of(Case.VOCATIVE, Count.SINGULAR), "a,\"b\"");
+        repository.save(servus);
+        Noun empty = new Noun(context, Gender.NEUTER, "xyz"); // no declension, no forms
+        repository.save(empty);
+
+        List<ExportStatistics> progress = new ArrayList<>();
+        ExportStatistics statistics = new ParadigmExporter(context).export(repository, path, ExportFormat.CSV, progress::add);
+        assertEquals(2, statistics.getItems());
+        assertEquals(12, statistics.getRows());
+        assertEquals(Files.size(path), statistics.getBytes());
+        assertEquals(1, progress.size());
+
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        assertEquals(13, lines.size());
+        assertEquals("uuid,rootWord,gender,declension,case,count,form,defined", lines.get(0));
+        assertEquals(servus.getUuid() + ",serv,MASCULINE,ONounDeclension,NOMINATIVE,SINGULAR,servus,false", lines.get(1));
+        assertTrue(lines.contains(servus.getUuid() + ",serv,MASCULINE,ONounDeclension,VOCATIVE,SINGULAR,\"a,\"\"b\"\"\",true"));
+        assertTrue(lines.contains(servus.getUuid() + ",serv,MASCULINE,ONounDeclension,GENITIVE,PLURAL,servōrum,false"));
+    }
+
+    @Test
+    public void testJsonLines() throws Exception
+    {
+        InMemoryVocabRepository repository = new InMemoryVocabRepository(context);
+        List<Noun> nouns = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) // more than one batch
+            nouns.add(new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv" + i));
+        repository.saveAll(nouns);
+
+        ExportStatistics statistics = new ParadigmExporter(context).export(repository, path, ExportFormat.JSONL, null);
+        assertEquals(2500, statistics.getItems());
+        assertEquals(2500 * 12, statistics.getRows());
+
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        assertEquals(2500 * 12, lines.size());
+        for (String line : lines)
+        {
+            assertTrue(line.startsWith("{\"uuid\":\""));
+            assertTrue(line.endsWith(",\"defined\":false}"));
+        }
+    }
+
+    @Test
+    public void testJsonEscaping()
+    {
+        assertEquals("\"a\\\"b\\\\c\\n\\u0001\"", ExportFormat.appendJsonString(new StringBuilder(), "a\"b\\c\n\u0001").toString());
+        assertEquals("plain", ExportFormat.appendCsvValue(new StringBuilder(), "plain").toString());
+    }
+}
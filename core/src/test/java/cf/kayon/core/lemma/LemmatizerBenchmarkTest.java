@@ -0,0 +1,118 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.lemma;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.TestContextUtil;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.impl.ANounDeclension;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LemmatizerBenchmarkTest
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(LemmatizerBenchmarkTest.class);
+
+    private static final int NOUNS = 500;
+
+    private static final int LINES = 5000;
+
+    private static final int TOKENS_PER_LINE = 12;
+
+    private KayonContext context;
+
+    private final List<String> vocabulary = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception
+    {
+        context = TestContextUtil.newTestingContext();
+        List<Noun> nouns = new ArrayList<>(NOUNS);
+        for (int i = 0; i < NOUNS; i++)
+        {
+            Noun noun = i % 2 == 0 ? new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill" + suffix(i))
+                                   : new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv" + suffix(i));
+            nouns.add(noun);
+            for (NounForm nounForm : NounForm.values())
+                vocabulary.add(noun.getForm(nounForm));
+        }
+        context.getRepository().saveAll(nouns);
+        for (int i = 0; i < NOUNS; i++)
+            vocabulary.add("ignotum" + suffix(i)); // unknown words
+    }
+
+    private static String suffix(int number)
+    {
+        StringBuilder suffix = new StringBuilder();
+        do
+        {
+            suffix.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return suffix.toString();
+    }
+
+    @After
+    public void tearDown()
+    {
+        TestContextUtil.closeContext(context);
+    }
+
+    /*
+     * Logging the throughput, so it is possible to compare it between versions.
+     */
+    @Test
+    public void testThroughput() throws Exception
+    {
+        Random random = new Random(42);
+        StringBuilder corpus = new StringBuilder(LINES * TOKENS_PER_LINE * 10);
+        for (int line = 0; line < LINES; line++)
+        {
+            for (int token = 0; token < TOKENS_PER_LINE; token++)
+                corpus.append(vocabulary.get(random.nextInt(vocabulary.size()))).append(token % 5 == 4 ? ", " : " ");
+            corpus.append('\n');
+        }
+
+        Lemmatizer lemmatizer = new Lemmatizer(context);
+        long[] delivered = new long[1];
+        LemmatizationStatistics statistics = lemmatizer.lemmatize(new BufferedReader(new StringReader(corpus.toString())),
+                                                                  annotatedToken -> delivered[0]++, ForkJoinPool.commonPool());
+        LOGGER.info("Lemmatized synthetic corpus: " + statistics);
+        assertEquals(LINES * TOKENS_PER_LINE, statistics.getTokens());
+        assertEquals(statistics.getTokens(), delivered[0]);
+        assertTrue(statistics.getKnownTokens() > 0);
+        assertTrue(statistics.getTokensPerSecond() > 0);
+    }
+}
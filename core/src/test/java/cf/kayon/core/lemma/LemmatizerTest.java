@@ -0,0 +1,139 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.lemma;
+
+import cf.kayon.core.*;
+import cf.kayon.core.adjective.Adjective;
+import cf.kayon.core.adjective.AdjectiveForm;
+import cf.kayon.core.adjective.ComparisonDegree;
+import cf.kayon.core.adjective.impl.OAAdjectiveDeclension;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.impl.ANounDeclension;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import com.typesafe.config.ConfigValueFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class LemmatizerTest
+{
+    private KayonContext context;
+
+    private Lemmatizer lemmatizer;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        KayonContext testingContext = TestContextUtil.newTestingContext();
+        context = new KayonContext(testingContext.getConnection(),
+                                   testingContext.getConfig()
+                                                 .withValue("lemmatizer.chunkLines", ConfigValueFactory.fromAnyRef(2))
+                                                 .withValue("lemmatizer.chunksInFlight", ConfigValueFactory.fromAnyRef(2)));
+        testingContext.close(); // only its connection is used
+        context.getNounSQLFactory().compileStatements();
+        context.getRepository().saveAll(Arrays.asList(new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv"),
+                                                      new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill")));
+        Adjective bonus = new Adjective(context, OAAdjectiveDeclension.getInstance(), "bon");
+        lemmatizer = new Lemmatizer(context, context.getRepository(), Collections.singletonList(bonus));
+    }
+
+    @After
+    public void tearDown()
+    {
+        TestContextUtil.closeContext(context);
+    }
+
+    @Test
+    public void testTokenize()
+    {
+        List<Token> tokens = Tokenizer.tokenize("Servus, ancillae bona\u0304 dat! 42", 7);
+        assertEquals(Arrays.asList(new Token(7, 0, "Servus"), new Token(7, 8, "ancillae"), new Token(7, 17, "bon\u0101"), new Token(7, 23, "dat")), tokens);
+        assertTrue(Tokenizer.tokenize(" ,.; ", 1).isEmpty());
+        assertEquals(Collections.singletonList(new Token(1, 0, "mūrŭs")), Tokenizer.tokenize("mūrŭs", 1));
+    }
+
+    @Test
+    public void testAnnotate() throws Exception
+    {
+        List<AnnotatedToken> annotated = lemmatizer.annotate("Servus ancillae\nbonā dat");
+        assertEquals(4, annotated.size());
+
+        List<Candidate> servus = annotated.get(0).getCandidates();
+        assertEquals(1, servus.size());
+        assertEquals("servus", servus.get(0).getLemma());
+        assertEquals(NounForm.of(Case.NOMINATIVE, Count.SINGULAR), servus.get(0).getNounForm());
+        assertNull(servus.get(0).getAdjectiveForm());
+
+        List<String> ancillae = annotated.get(1).getCandidates().stream().map(Candidate::getFormName).sorted().collect(Collectors.toList());
+        assertEquals(Arrays.asList("DatSi", "GenSi", "NomPl", "VocPl"), ancillae);
+
+        AnnotatedToken bona = annotated.get(2);
+        assertEquals(2, bona.getToken().getLine());
+        assertTrue(bona.getCandidates().stream().allMatch(candidate -> candidate.getLemma().equals("bonus")));
+        List<AdjectiveForm> adjectiveForms = bona.getCandidates().stream().map(Candidate::getAdjectiveForm).collect(Collectors.toList());
+        assertTrue(adjectiveForms.contains(AdjectiveForm.of(ComparisonDegree.POSITIVE, Count.SINGULAR, Gender.FEMININE, Case.NOMINATIVE)));
+        assertTrue(adjectiveForms.contains(AdjectiveForm.of(ComparisonDegree.POSITIVE, Count.SINGULAR, Gender.FEMININE, Case.ABLATIVE)));
+        assertTrue(adjectiveForms.contains(AdjectiveForm.of(ComparisonDegree.POSITIVE, Count.PLURAL, Gender.NEUTER, Case.ACCUSATIVE)));
+
+        assertTrue(annotated.get(3).getCandidates().isEmpty());
+    }
+
+    @Test
+    public void testLemmatizeFile() throws Exception
+    {
+        Path source = Files.createTempFile("kayon", ".txt");
+        Path target = Files.createTempFile("kayon", ".tsv");
+        try
+        {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 25; i++) // 13 chunks, more than chunksInFlight
+                lines.add(i % 2 == 0 ? "servus " + i + " ancillam" : "");
+            Files.write(source, lines, StandardCharsets.UTF_8);
+
+            LemmatizationStatistics statistics = lemmatizer.lemmatize(source, target);
+            assertEquals(25, statistics.getLines());
+            assertEquals(26, statistics.getTokens());
+            assertEquals(26, statistics.getKnownTokens());
+
+            List<String> rows = Files.readAllLines(target, StandardCharsets.UTF_8);
+            assertEquals(26, rows.size());
+            for (int i = 0; i < 13; i++)
+            {
+                assertEquals((i * 2 + 1) + "\t0\tservus\tservus NomSi", rows.get(i * 2));
+                assertTrue(rows.get(i * 2 + 1).endsWith("\tancillam\tancilla AccSi"));
+            }
+        } finally
+        {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(target);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cf.kayon.core.metrics;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.Assert.*;
+
+public class FlightRecorderEventsTest
+{
+    @Test
+    public void testNotRecording()
+    {
+        assertFalse(FlightRecorderEvents.QUERY.isEnabled());
+        FlightRecorderEvent event = FlightRecorderEvents.QUERY.begin();
+        assertSame(FlightRecorderEvent.DISABLED, event);
+        event.set("noSuchField", 1).commit();
+    }
+
+    @Test
+    public void testRecording() throws Exception
+    {
+        Assume.assumeTrue(FlightRecorderEvents.QUERY.isAvailable());
+        // The Flight Recorder API is only available on Java 9+, so it is used reflectively just like in the main code
+        Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingClass.newInstance();
+        for (String name : Arrays.asList("kayon.Query", "kayon.Save", "kayon.Decline"))
+        {
+            Object settings = recordingClass.getMethod("enable", String.class).invoke(recording, name);
+            settings.getClass().getMethod("withThreshold", java.time.Duration.class).invoke(settings, java.time.Duration.ZERO);
+        }
+        Path file = Files.createTempFile("kayon", ".jfr");
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:jfr");
+             KayonContext context = new KayonContext(connection, ConfigFactory.load()))
+        {
+            context.getNounSQLFactory().setupDatabaseForNouns();
+            context.getNounSQLFactory().compileStatements();
+            recordingClass.getMethod("start").invoke(recording);
+            assertTrue(FlightRecorderEvents.QUERY.isEnabled());
+            context.getRepository().saveAll(Arrays.asList(new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv"),
+                                                          new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "amic")));
+            context.getRepository().queryNouns("servo", new LinkedBlockingQueue<>());
+            MetricsTest.drain(context.getNounSQLFactory().publishNouns("amico"));
+            recordingClass.getMethod("stop").invoke(recording);
+            recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+
+            List<String> seen = new ArrayList<>();
+            List<Object> queried = new ArrayList<>();
+            List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile").getMethod("readAllEvents", Path.class).invoke(null, file);
+            for (Object event : events)
+            {
+                Object type = event.getClass().getMethod("getEventType").invoke(event);
+                String name = (String) type.getClass().getMethod("getName").invoke(type);
+                seen.add(name);
+                if (name.equals("kayon.Query"))
+                {
+                    java.lang.reflect.Method getValue = event.getClass().getMethod("getValue", String.class);
+                    assertEquals("form", getValue.invoke(event, "kind"));
+                    queried.add(getValue.invoke(event, "form"));
+                    assertEquals(1L, getValue.invoke(event, "rowsReturned"));
+                } else if (name.equals("kayon.Save"))
+                    assertEquals(2L, event.getClass().getMethod("getLong", String.class).invoke(event, "nouns"));
+            }
+            assertEquals(new HashSet<>(Arrays.asList("servo", "amico")), new HashSet<>(queried));
+            assertTrue(seen.toString(), seen.contains("kayon.Save"));
+            assertTrue(seen.toString(), seen.contains("kayon.Decline"));
+        } finally
+        {
+            recordingClass.getMethod("close").invoke(recording);
+            Files.deleteIfExists(file);
+        }
+    }
+}
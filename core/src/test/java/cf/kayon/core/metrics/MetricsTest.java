@@ -0,0 +1,191 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.metrics;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import cf.kayon.core.util.Flow;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest
+{
+    @Test
+    public void testDisabled()
+    {
+        Metrics metrics = new Metrics(false);
+        assertSame(Counter.DISABLED, metrics.counter("a"));
+        assertSame(Timer.DISABLED, metrics.timer("b"));
+        assertSame(Histogram.DISABLED, metrics.histogram("c"));
+        metrics.counter("a").increment();
+        metrics.timer("b").stop(metrics.timer("b").start());
+        metrics.histogram("c").record(5);
+        metrics.gauge("d", () -> 1);
+        assertEquals(0, metrics.counter("a").getCount());
+        assertEquals(0, metrics.timer("b").getDurations().getCount());
+        assertTrue(metrics.snapshot().isEmpty());
+    }
+
+    @Test
+    public void testEnabled()
+    {
+        Metrics metrics = new Metrics(true);
+        assertSame(metrics.counter("a"), metrics.counter("a"));
+        metrics.counter("a").add(3);
+        metrics.timer("b").record(2_000_000);
+        metrics.histogram("c").record(7);
+        metrics.gauge("d", () -> 42);
+        Map<String, Number> snapshot = metrics.snapshot();
+        assertEquals(3L, snapshot.get("a"));
+        assertEquals(1L, snapshot.get("b.count"));
+        assertEquals(2000L, snapshot.get("b.p99Micros"));
+        assertEquals(7L, snapshot.get("c.max"));
+        assertEquals(42L, snapshot.get("d"));
+        assertTrue(metrics.toString(), metrics.toString().startsWith("a=3, b.count=1, "));
+        try
+        {
+            metrics.timer("a");
+            fail();
+        } catch (ClassCastException ignored) {}
+    }
+
+    @Test
+    public void testJmx() throws Exception
+    {
+        Config config = ConfigFactory.parseString("metrics { enabled: true, logInterval: 1h, jmx: true }").withFallback(ConfigFactory.load());
+        try (Metrics metrics = new Metrics(config))
+        {
+            metrics.counter("test.counter").add(5);
+            List<ObjectName> names = Arrays.asList(ManagementFactory.getPlatformMBeanServer().queryNames(new ObjectName("cf.kayon:type=Metrics,*"), null)
+                                                                   .toArray(new ObjectName[0]));
+            assertFalse(names.isEmpty());
+            boolean found = false;
+            for (ObjectName name : names)
+                if (Long.valueOf(5).equals(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "test.counter")))
+                    found = true;
+            assertTrue(found);
+        }
+        assertTrue(ManagementFactory.getPlatformMBeanServer().queryNames(new ObjectName("cf.kayon:type=Metrics,*"), null).isEmpty());
+    }
+
+    @Test
+    public void testContextClose() throws Exception
+    {
+        Config config = ConfigFactory.parseString("metrics { enabled: true, jmx: true }").withFallback(ConfigFactory.load());
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:"))
+        {
+            KayonContext context = new KayonContext(connection, config);
+            assertFalse(ManagementFactory.getPlatformMBeanServer().queryNames(new ObjectName("cf.kayon:type=Metrics,*"), null).isEmpty());
+            context.close();
+            assertTrue(ManagementFactory.getPlatformMBeanServer().queryNames(new ObjectName("cf.kayon:type=Metrics,*"), null).isEmpty());
+            assertFalse(connection.isClosed());
+        }
+    }
+
+    @Test
+    public void testInstrumentation() throws Exception
+    {
+        Config config = ConfigFactory.parseString("metrics.enabled: true").withFallback(ConfigFactory.load());
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:metrics");
+             KayonContext context = new KayonContext(connection, config))
+        {
+            context.getNounSQLFactory().setupDatabaseForNouns();
+            context.getNounSQLFactory().compileStatements();
+            context.getRepository().saveAll(Arrays.asList(new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv"),
+                                                          new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "amic")));
+            context.getRepository().queryNouns("servo", new LinkedBlockingQueue<>());
+
+            Map<String, Number> snapshot = context.getMetrics().snapshot();
+            assertEquals(3L, snapshot.get("noun.decline.count")); // including the reconstructed result
+            assertEquals(2L, snapshot.get("sql.save.batchSize.max"));
+            assertEquals(1L, snapshot.get("sql.query.form.count"));
+            assertEquals(1L, snapshot.get("sql.query.form.rowsReturned"));
+            assertTrue(snapshot.get("sql.query.form.rowsScanned").longValue() >= 1);
+            assertEquals(1L, snapshot.get("sql.reconstruct.count"));
+            assertEquals(0L, snapshot.get("sql.executor.queueDepth"));
+        }
+    }
+
+    @Test
+    public void testPublisherInstrumentation() throws Exception
+    {
+        Config config = ConfigFactory.parseString("metrics.enabled: true").withFallback(ConfigFactory.load());
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:publisherMetrics");
+             KayonContext context = new KayonContext(connection, config))
+        {
+            context.getNounSQLFactory().setupDatabaseForNouns();
+            context.getNounSQLFactory().compileStatements();
+            context.getRepository().saveAll(Arrays.asList(new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv"),
+                                                          new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "amic")));
+            drain(context.getNounSQLFactory().publishNouns("servo"));
+            drain(context.getNounSQLFactory().publishNounsByRootWord("amic"));
+
+            Map<String, Number> snapshot = context.getMetrics().snapshot();
+            assertEquals(1L, snapshot.get("sql.query.form.count"));
+            assertEquals(1L, snapshot.get("sql.query.form.rowsReturned"));
+            assertTrue(snapshot.get("sql.query.form.rowsScanned").longValue() >= 1);
+            assertEquals(1L, snapshot.get("sql.query.root.count"));
+        }
+    }
+
+    static void drain(Flow.Publisher<Noun> publisher) throws Exception
+    {
+        CompletableFuture<Void> terminated = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<Noun>()
+        {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription)
+            {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Noun item) {}
+
+            @Override
+            public void onError(Throwable throwable)
+            {
+                terminated.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete()
+            {
+                terminated.complete(null);
+            }
+        });
+        terminated.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -91,6 +91,13 @@ public class NounFormTest
         assertEquals(12, i); // make sure no value is forgotten
     }
 
+    @Test
+    public void testOrdinal() throws Exception
+    {
+        for (int i = 0; i < NounForm.values().size(); i++)
+            assertEquals(i, NounForm.values().get(i).ordinal());
+    }
+
     @Test
     public void testGetCase() throws Exception
     {
@@ -25,6 +25,11 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.junit.Test;
 
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.Assert.*;
 
 @Immutable
@@ -177,4 +182,87 @@ public class NounTest
 
         assertSame(ANounDeclension.getInstance(), noun.getNounDeclension());
     }
+
+    @Test
+    public void testEditCoalescesEvents() throws Exception
+    {
+        KayonContext context = TestContextUtil.newTestingContext();
+        Noun noun = new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill");
+        List<PropertyChangeEvent> events = new ArrayList<>();
+        noun.addPropertyChangeListener(events::add);
+
+        noun.edit(n -> {
+            n.setRootWord("serv");
+            assertTrue(events.isEmpty());
+            n.setRootWord("domin");
+            n.setDefinedForm(NounForm.of(Case.GENITIVE, Count.PLURAL), "genplset");
+        });
+
+        assertEquals("domina", noun.getDeclinedForm(NounForm.of(Case.NOMINATIVE, Count.SINGULAR)));
+        List<PropertyChangeEvent> rootWordEvents = events.stream().filter(evt -> evt.getPropertyName().equals("rootWord")).collect(Collectors.toList());
+        assertEquals(1, rootWordEvents.size());
+        assertEquals("ancill", rootWordEvents.get(0).getOldValue());
+        assertEquals("domin", rootWordEvents.get(0).getNewValue());
+        assertEquals(1, events.stream().filter(evt -> evt.getPropertyName().equals("NOMINATIVE_SINGULAR_declined")).count());
+        assertEquals(1, events.stream().filter(evt -> evt.getPropertyName().equals("GENITIVE_PLURAL_defined")).count());
+    }
+
+    @Test
+    public void testEditRevertedChange() throws Exception
+    {
+        KayonContext context = TestContextUtil.newTestingContext();
+        Noun noun = new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill");
+        List<PropertyChangeEvent> events = new ArrayList<>();
+        noun.addPropertyChangeListener(events::add);
+
+        noun.edit(n -> {
+            n.setRootWord("serv");
+            n.setRootWord("ancill");
+        });
+
+        assertTrue(events.isEmpty());
+        assertEquals("ancilla", noun.getDeclinedForm(NounForm.of(Case.NOMINATIVE, Count.SINGULAR)));
+    }
+
+    @Test
+    public void testEditNested() throws Exception
+    {
+        KayonContext context = TestContextUtil.newTestingContext();
+        Noun noun = new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill");
+        List<PropertyChangeEvent> events = new ArrayList<>();
+        noun.addPropertyChangeListener(events::add);
+
+        noun.edit(n -> {
+            n.edit(inner -> inner.setRootWord("serv"));
+            assertTrue(events.isEmpty());
+            assertEquals("ancillīs", n.getDeclinedForm(NounForm.of(Case.DATIVE, Count.PLURAL)));
+        });
+
+        assertEquals("servīs", noun.getDeclinedForm(NounForm.of(Case.DATIVE, Count.PLURAL)));
+        assertEquals(1, events.stream().filter(evt -> evt.getPropertyName().equals("rootWord")).count());
+    }
+
+    @Test
+    public void testEditThrows() throws Exception
+    {
+        KayonContext context = TestContextUtil.newTestingContext();
+        Noun noun = new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill");
+        noun.markClean();
+        List<PropertyChangeEvent> events = new ArrayList<>();
+        noun.addPropertyChangeListener(events::add);
+
+        try
+        {
+            noun.edit(n -> {
+                n.setRootWord("serv");
+                throw new IllegalStateException("test");
+            });
+            fail();
+        } catch (IllegalStateException ignored) {}
+
+        assertEquals("serva", noun.getDeclinedForm(NounForm.of(Case.NOMINATIVE, Count.SINGULAR)));
+        assertEquals(1, events.stream().filter(evt -> evt.getPropertyName().equals("rootWord")).count());
+        assertEquals(1, events.stream().filter(evt -> evt.getPropertyName().equals("NOMINATIVE_SINGULAR_declined")).count());
+        assertTrue(noun.getDirtyProperties().contains("rootWord"));
+    }
 }
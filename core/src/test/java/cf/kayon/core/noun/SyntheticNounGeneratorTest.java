@@ -0,0 +1,122 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.noun;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.TestContextUtil;
+import cf.kayon.core.noun.impl.ANounDeclension;
+import cf.kayon.core.repository.InMemoryVocabRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class SyntheticNounGeneratorTest
+{
+    private KayonContext context;
+
+    @Before
+    public void setUp()
+    {
+        context = TestContextUtil.newTestingContext();
+    }
+
+    @After
+    public void tearDown()
+    {
+        TestContextUtil.closeContext(context);
+    }
+
+    private static List<String> describe(List<Noun> nouns)
+    {
+        return nouns.stream()
+                    .map(noun -> noun.getUuid() + " " + noun.getRootWord() + " " + noun.getGender() + " " + noun.getNounDeclension())
+                    .sorted()
+                    .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testReproducibleAcrossThreads() throws Exception
+    {
+        InMemoryVocabRepository single = new InMemoryVocabRepository(context);
+        InMemoryVocabRepository parallel = new InMemoryVocabRepository(context);
+        assertEquals(1000, new SyntheticNounGenerator(context, 64, 1).generate(single, 1000, 42, null));
+        assertEquals(1000, new SyntheticNounGenerator(context, 64, 4).generate(parallel, 1000, 42, null));
+
+        List<String> expected = describe(single.streamAll().collect(Collectors.toList()));
+        assertEquals(1000, expected.size());
+        assertEquals(expected, describe(parallel.streamAll().collect(Collectors.toList())));
+        assertEquals(expected, describe(new SyntheticNounGenerator(context, 64, 2).stream(1000, 42).parallel().collect(Collectors.toList())));
+        assertFalse(expected.equals(describe(new SyntheticNounGenerator(context, 64, 1).stream(1000, 43).collect(Collectors.toList()))));
+    }
+
+    @Test
+    public void testDistributions()
+    {
+        SyntheticNounGenerator generator = new SyntheticNounGenerator(context);
+        SplittableRandom random = new SplittableRandom(7);
+        int aDeclension = 0;
+        int feminineADeclension = 0;
+        for (int i = 0; i < 2000; i++)
+        {
+            Noun noun = generator.generate(random);
+            assertTrue(noun.getRootWord().matches("[a-z]+[^aeiou]"));
+            assertTrue(noun.getNounDeclension().allowsGender(noun.getGender()));
+            assertEquals(4, noun.getUuid().version());
+            if (noun.getNounDeclension() == ANounDeclension.getInstance())
+            {
+                aDeclension++;
+                if (noun.getGender() == Gender.FEMININE)
+                    feminineADeclension++;
+            }
+        }
+        assertTrue(aDeclension > 400 && aDeclension < 800); // about 30 %
+        assertTrue(feminineADeclension > aDeclension * 0.85);
+    }
+
+    @Test
+    public void testProgressStops() throws Exception
+    {
+        InMemoryVocabRepository repository = new InMemoryVocabRepository(context);
+        List<Long> reported = new ArrayList<>();
+        long saved = new SyntheticNounGenerator(context, 10, 1).generate(repository, 100, 1, total -> {
+            reported.add(total);
+            return total < 30;
+        });
+        assertEquals(30, saved);
+        assertEquals(30, repository.streamAll().count());
+        assertEquals(3, reported.size());
+    }
+
+    @Test
+    public void testPartialLastBatch() throws Exception
+    {
+        InMemoryVocabRepository repository = new InMemoryVocabRepository(context);
+        assertEquals(25, new SyntheticNounGenerator(context, 10, 3).generate(repository, 25, 5, null));
+        assertEquals(25, repository.streamAll().count());
+        assertEquals(0, new SyntheticNounGenerator(context, 10, 3).generate(repository, 0, 5, null));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.paradigm;
+
+import cf.kayon.core.*;
+import cf.kayon.core.adjective.Adjective;
+import cf.kayon.core.adjective.AdjectiveForm;
+import cf.kayon.core.adjective.impl.OAAdjectiveDeclension;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.impl.ANounDeclension;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class ParadigmsTest
+{
+    private KayonContext context;
+
+    @Before
+    public void setUp()
+    {
+        context = TestContextUtil.newTestingContext();
+    }
+
+    @After
+    public void tearDown()
+    {
+        TestContextUtil.closeContext(context);
+    }
+
+    @Test
+    public void testDeclineNouns()
+    {
+        List<NounSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+        {
+            NounDeclension nounDeclension = i % 2 == 0 ? ANounDeclension.getInstance() : ONounDeclension.getInstance();
+            Gender gender = i % 2 == 0 ? Gender.FEMININE : Gender.MASCULINE;
+            specs.add(new NounSpec(nounDeclension, gender, "radix" + i));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            ParadigmTable<NounForm> table = Paradigms.declineNouns(specs, pool);
+            assertEquals(specs.size(), table.size());
+            assertEquals(NounForm.values().size(), table.getWidth());
+            for (int i = 0; i < specs.size(); i += 97)
+            {
+                NounSpec spec = specs.get(i);
+                Noun noun = new Noun(context, spec.getNounDeclension(), spec.getGender(), spec.getRootWord());
+                for (NounForm nounForm : NounForm.values())
+                    assertEquals(noun.getDeclinedForm(nounForm), table.get(i, nounForm));
+            }
+        } finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testDeclineAdjectives()
+    {
+        ParadigmTable<AdjectiveForm> table = Paradigms.declineAdjectives(Stream.of(new AdjectiveSpec(OAAdjectiveDeclension.getInstance(), "bon"),
+                                                                                   new AdjectiveSpec(OAAdjectiveDeclension.getInstance(), "magn")));
+        assertEquals(2, table.size());
+        assertEquals(108, table.getWidth());
+        Adjective magnus = new Adjective(context, OAAdjectiveDeclension.getInstance(), "magn");
+        for (AdjectiveForm adjectiveForm : AdjectiveForm.values())
+            if (magnus.allows(adjectiveForm.getComparisonDegree()))
+                assertEquals(magnus.getDeclinedForm(adjectiveForm), table.get(1, adjectiveForm));
+        assertEquals(108, table.getForms(0).length);
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        assertEquals(0, Paradigms.declineNouns(Stream.empty()).size());
+    }
+
+    @Test
+    public void testAdjectiveFormOrdinal()
+    {
+        for (int i = 0; i < AdjectiveForm.values().size(); i++)
+            assertEquals(i, AdjectiveForm.values().get(i).ordinal());
+    }
+}
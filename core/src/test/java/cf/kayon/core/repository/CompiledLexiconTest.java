@@ -0,0 +1,140 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.*;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.impl.ANounDeclension;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class CompiledLexiconTest
+{
+    private KayonContext context;
+
+    private Path path;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        context = TestContextUtil.newTestingContext();
+        path = Files.createTempFile("kayon", ".lexicon");
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        TestContextUtil.closeContext(context);
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testLookups() throws IOException
+    {
+        Noun servus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+        servus.getTranslations().put(Locale.GERMAN, "Sklave");
+        Noun serva = new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "serv");
+        Noun dominus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "domin");
+        dominus.setDefinedForm(NounForm.of(Case.VOCATIVE, Count.SINGULAR), "Domine");
+        List<Noun> nouns = Arrays.asList(servus, serva, dominus);
+        CompiledLexicon.compile(nouns, path);
+
+        CompiledLexicon lexicon = CompiledLexicon.open(path);
+        assertEquals(3, lexicon.size());
+
+        // servō: dative and ablative singular of servus
+        int[] postings = lexicon.lookupForm("SERVŌ");
+        assertEquals(2, postings.length);
+        for (int posting : postings)
+            assertEquals(0, CompiledLexicon.entryOf(posting));
+        assertEquals(NounForm.of(Case.DATIVE, Count.SINGULAR), CompiledLexicon.nounFormOf(postings[0]));
+        assertEquals(NounForm.of(Case.ABLATIVE, Count.SINGULAR), CompiledLexicon.nounFormOf(postings[1]));
+
+        // servīs: dative and ablative plural of both nouns
+        assertEquals(4, lexicon.lookupForm("servis").length);
+        assertEquals(0, lexicon.lookupForm("serv").length);
+        assertEquals(0, lexicon.lookupForm("zzz").length);
+
+        int[] domine = lexicon.lookupForm("domine");
+        assertEquals(1, domine.length);
+        assertTrue(lexicon.isDefined(2, CompiledLexicon.nounFormOf(domine[0])));
+        assertEquals("Domine", lexicon.form(2, NounForm.of(Case.VOCATIVE, Count.SINGULAR)));
+
+        int[] roots = lexicon.lookupRootWord("Serv");
+        Arrays.sort(roots);
+        assertArrayEquals(new int[]{0, 1}, roots);
+        assertArrayEquals(new int[]{2}, lexicon.lookupRootWord("domin"));
+        assertEquals(0, lexicon.lookupRootWord("domi").length);
+
+        for (int entry = 0; entry < nouns.size(); entry++)
+        {
+            Noun reconstructed = lexicon.toNoun(context, entry);
+            assertNull(nouns.get(entry).getUuid()); // compiling does not assign UUIDs to the nouns
+            assertNotNull(reconstructed.getUuid());
+            assertEquals(lexicon.uuid(entry), reconstructed.getUuid());
+            nouns.get(entry).initializeUuid(reconstructed.getUuid());
+            assertEquals(nouns.get(entry), reconstructed);
+            assertEquals(nouns.get(entry).getTranslations(), reconstructed.getTranslations());
+            assertFalse(reconstructed.isDirty());
+        }
+    }
+
+    @Test
+    public void testSavedUuid() throws IOException
+    {
+        Noun servus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+        UUID uuid = UUID.randomUUID();
+        servus.initializeUuid(uuid);
+        CompiledLexicon.compile(Collections.singletonList(servus), path);
+        assertEquals(uuid, CompiledLexicon.open(path).uuid(0));
+    }
+
+    @Test
+    public void testEmpty() throws IOException
+    {
+        CompiledLexicon.compile(Collections.emptyList(), path);
+        CompiledLexicon lexicon = CompiledLexicon.open(path);
+        assertEquals(0, lexicon.size());
+        assertEquals(0, lexicon.lookupForm("servus").length);
+        assertEquals(0, lexicon.lookupRootWord("serv").length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException
+    {
+        CompiledLexicon.compile(Collections.singletonList(new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv")), path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        CompiledLexicon.open(path);
+    }
+}
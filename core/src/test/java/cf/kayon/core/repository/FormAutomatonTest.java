@@ -0,0 +1,190 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.*;
+import cf.kayon.core.adjective.Adjective;
+import cf.kayon.core.adjective.AdjectiveForm;
+import cf.kayon.core.adjective.ComparisonDegree;
+import cf.kayon.core.adjective.impl.OAAdjectiveDeclension;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class FormAutomatonTest
+{
+    private KayonContext context;
+
+    @Before
+    public void setUp()
+    {
+        context = TestContextUtil.newTestingContext();
+    }
+
+    @After
+    public void tearDown()
+    {
+        TestContextUtil.closeContext(context);
+    }
+
+    @Test
+    public void testNounsAndAdjectives()
+    {
+        Noun servus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+        Noun dominus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "domin");
+        Adjective bonus = new Adjective(context, OAAdjectiveDeclension.getInstance(), "bon");
+        FormAutomaton automaton = new FormAutomaton.Builder().addNoun(0, servus).addNoun(1, dominus).addAdjective(2, bonus).build();
+
+        int[] servo = automaton.lookup("servō");
+        assertEquals(2, servo.length);
+        assertEquals(FormAutomaton.output(0, NounForm.of(Case.DATIVE, Count.SINGULAR).ordinal()), servo[0]);
+        assertEquals(FormAutomaton.output(0, NounForm.of(Case.ABLATIVE, Count.SINGULAR).ordinal()), servo[1]);
+        assertEquals(0, automaton.lookup("servo").length);
+        assertArrayEquals(servo, automaton.lookupIgnoringSpecialChars("SERVO"));
+        assertArrayEquals(servo, automaton.lookupIgnoringSpecialChars("servŏ"));
+
+        int[] bonorum = automaton.lookup("bonōrum");
+        assertTrue(bonorum.length > 0);
+        for (int output : bonorum)
+        {
+            assertEquals(2, FormAutomaton.entryOf(output));
+            AdjectiveForm adjectiveForm = AdjectiveForm.values().get(FormAutomaton.formOrdinalOf(output));
+            assertEquals(ComparisonDegree.POSITIVE, adjectiveForm.getComparisonDegree());
+            assertEquals(Case.GENITIVE, adjectiveForm.getCase());
+            assertEquals(Count.PLURAL, adjectiveForm.getCount());
+        }
+
+        assertEquals(sorted(Arrays.asList("servus", "servī", "servō", "servum", "serve", "servōrum", "servīs", "servōs")),
+                     automaton.formsWithPrefix("serv", 100));
+        assertEquals(2, automaton.formsWithPrefix("serv", 2).size());
+        assertEquals(Collections.emptyList(), automaton.formsWithPrefix("x", 10));
+        assertEquals(12, automaton.lookupPrefix("serv").length);
+        assertEquals(12, automaton.lookupPrefix("domin").length);
+        for (int output : automaton.lookupPrefix("domin"))
+            assertEquals(1, FormAutomaton.entryOf(output));
+    }
+
+    private static List<String> sorted(List<String> list)
+    {
+        List<String> copy = new ArrayList<>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    @Test
+    public void testAgainstMap()
+    {
+        Random random = new Random(4711);
+        String[] endings = {"a", "ae", "am", "ārum", "īs", "ōrum", "ibus", "issimus", "us", "ī", "ō", "um"};
+        Map<String, List<Integer>> expected = new TreeMap<>();
+        FormAutomaton.Builder builder = new FormAutomaton.Builder();
+        int totalLength = 0;
+        for (int i = 0; i < 2000; i++)
+        {
+            StringBuilder form = new StringBuilder();
+            int length = 1 + random.nextInt(5);
+            for (int j = 0; j < length; j++)
+                form.append((char) ('a' + random.nextInt(6)));
+            form.append(endings[random.nextInt(endings.length)]);
+            int output = FormAutomaton.output(i, random.nextInt(12));
+            builder.add(form.toString(), output);
+            expected.computeIfAbsent(form.toString(), key -> new ArrayList<>()).add(output);
+            totalLength += form.length();
+        }
+        FormAutomaton automaton = builder.build();
+
+        assertEquals(expected.size(), automaton.size());
+        assertTrue(automaton.transitionCount() < totalLength / 2);
+
+        List<Integer> all = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> entry : expected.entrySet())
+        {
+            assertEquals(entry.getKey(), entry.getValue(), toList(automaton.lookup(entry.getKey())));
+            all.addAll(entry.getValue());
+        }
+        assertEquals(all, toList(automaton.lookupPrefix("")));
+        assertEquals(new ArrayList<>(expected.keySet()), automaton.formsWithPrefix("", Integer.MAX_VALUE));
+
+        List<Integer> withPrefix = new ArrayList<>();
+        expected.forEach((form, outputs) -> {
+            if (form.startsWith("ab"))
+                withPrefix.addAll(outputs);
+        });
+        assertEquals(withPrefix, toList(automaton.lookupPrefix("ab")));
+        assertEquals(0, automaton.lookup("zzz").length);
+    }
+
+    @Test
+    public void testSortedBuilder()
+    {
+        String[] forms = {"Ancilla", "ancillae", "ancillae", "ancillārum", "servī", "servō", "servōrum", "templa", "templōrum"};
+        FormAutomaton.Builder builder = new FormAutomaton.Builder();
+        FormAutomaton.SortedBuilder sortedBuilder = new FormAutomaton.SortedBuilder();
+        for (int i = forms.length - 1; i >= 0; i--)
+            builder.add(forms[i], FormAutomaton.output(forms.length - 1 - i, 0));
+        for (int i = 0; i < forms.length; i++)
+            sortedBuilder.add(forms[i], FormAutomaton.output(i, 0));
+        FormAutomaton automaton = builder.build();
+        FormAutomaton sorted = sortedBuilder.build();
+
+        assertEquals(automaton.size(), sorted.size());
+        assertEquals(automaton.stateCount(), sorted.stateCount());
+        assertEquals(automaton.transitionCount(), sorted.transitionCount());
+        assertEquals(automaton.formsWithPrefix("", Integer.MAX_VALUE), sorted.formsWithPrefix("", Integer.MAX_VALUE));
+        assertEquals(Arrays.asList(FormAutomaton.output(1, 0), FormAutomaton.output(2, 0)), toList(sorted.lookup("ANCILLAE")));
+        // Builder keeps the outputs of a form in the order they were added
+        assertEquals(Arrays.asList(FormAutomaton.output(6, 0), FormAutomaton.output(7, 0)), toList(automaton.lookup("ancillae")));
+
+        try
+        {
+            new FormAutomaton.SortedBuilder().add("servō", 0).add("servī", 0);
+            fail();
+        } catch (IllegalArgumentException ignored) {}
+        try
+        {
+            sortedBuilder.add("vīnum", 0);
+            fail();
+        } catch (IllegalStateException ignored) {}
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        FormAutomaton automaton = new FormAutomaton.Builder().build();
+        assertEquals(0, automaton.size());
+        assertEquals(0, automaton.lookup("a").length);
+        assertEquals(0, automaton.lookupPrefix("").length);
+        assertEquals(0, automaton.lookupIgnoringSpecialChars("a").length);
+    }
+
+    private static List<Integer> toList(int[] array)
+    {
+        List<Integer> list = new ArrayList<>(array.length);
+        for (int element : array)
+            list.add(element);
+        return list;
+    }
+}
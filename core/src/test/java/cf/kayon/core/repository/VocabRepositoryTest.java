@@ -0,0 +1,230 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.*;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.impl.ANounDeclension;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import cf.kayon.core.util.Flow;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class VocabRepositoryTest
+{
+    private KayonContext context;
+
+    private List<Noun> examples;
+
+    private Path snapshotPath;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        context = TestContextUtil.newTestingContext();
+        examples = new ArrayList<>();
+
+        Noun ancilla = new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill");
+        ancilla.getTranslations().put(Locale.GERMAN, "Magd");
+        examples.add(ancilla);
+
+        Noun murus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "mūr");
+        murus.getTranslations().put(Locale.ENGLISH, "Wall");
+        murus.setDefinedForm(NounForm.of(Case.GENITIVE, Count.PLURAL), "murōrum");
+        examples.add(murus);
+
+        Noun noDeclension = new Noun(context, Gender.NEUTER, "xyz");
+        noDeclension.setDefinedForm(NounForm.of(Case.NOMINATIVE, Count.SINGULAR), "xyzā");
+        examples.add(noDeclension);
+
+        snapshotPath = Files.createTempFile("kayon", ".snapshot");
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        TestContextUtil.closeContext(context);
+        Files.deleteIfExists(snapshotPath);
+    }
+
+    private List<VocabRepository> filledRepositories() throws Exception
+    {
+        VocabRepository sql = context.getRepository();
+        sql.saveAll(examples);
+        VocabRepository memory = new InMemoryVocabRepository(context);
+        memory.saveAll(examples);
+        SnapshotVocabRepository.write(examples, snapshotPath);
+        VocabRepository snapshot = SnapshotVocabRepository.open(context, snapshotPath);
+        return Arrays.asList(sql, memory, snapshot);
+    }
+
+    private static List<Noun> drain(BlockingQueue<Noun> queue)
+    {
+        List<Noun> list = new ArrayList<>();
+        queue.drainTo(list);
+        return list;
+    }
+
+    @Test
+    public void testQueries() throws Exception
+    {
+        for (VocabRepository repository : filledRepositories())
+        {
+            String name = repository.getClass().getSimpleName();
+            BlockingQueue<Noun> queue = new LinkedBlockingQueue<>();
+
+            repository.queryNouns("ANCILLĀS", queue);
+            assertEquals(name, Collections.singletonList(examples.get(0)), drain(queue));
+
+            repository.queryNouns("murorum", queue);
+            assertEquals(name, Collections.singletonList(examples.get(1)), drain(queue));
+
+            repository.queryNouns("muris", queue);
+            assertEquals(name, Collections.singletonList(examples.get(1)), drain(queue));
+
+            repository.queryNouns("nothing", queue);
+            assertTrue(name, queue.isEmpty());
+
+            Map<String, List<Noun>> batch = repository.queryNounsBatch(Arrays.asList("murorum", "ANCILLĀS", "nothing", "murorum", "xyza"));
+            assertEquals(name, Arrays.asList("murorum", "ANCILLĀS", "nothing", "xyza"), new ArrayList<>(batch.keySet()));
+            assertEquals(name, Collections.singletonList(examples.get(1)), batch.get("murorum"));
+            assertEquals(name, Collections.singletonList(examples.get(0)), batch.get("ANCILLĀS"));
+            assertTrue(name, batch.get("nothing").isEmpty());
+            assertEquals(name, Collections.singletonList(examples.get(2)), batch.get("xyza"));
+
+            repository.queryNounsByRootWord("xyz", queue);
+            assertEquals(name, Collections.singletonList(examples.get(2)), drain(queue));
+
+            repository.queryNounsByTranslation("wall", queue);
+            assertEquals(name, Collections.singletonList(examples.get(1)), drain(queue));
+
+            List<Noun> all = repository.streamAll().collect(Collectors.toList());
+            assertEquals(name, examples.size(), all.size());
+            assertTrue(name, all.containsAll(examples));
+            assertTrue(name, all.stream().noneMatch(Noun::isDirty));
+        }
+    }
+
+    private static List<Noun> collect(Flow.Publisher<Noun> publisher) throws Exception
+    {
+        List<Noun> received = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> terminated = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<Noun>()
+        {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription)
+            {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Noun item)
+            {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable)
+            {
+                terminated.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete()
+            {
+                terminated.complete(null);
+            }
+        });
+        terminated.get(10, TimeUnit.SECONDS);
+        return received;
+    }
+
+    @Test
+    public void testPublishAndSaveAsync() throws Exception
+    {
+        Executor executor = ForkJoinPool.commonPool();
+        for (VocabRepository repository : filledRepositories())
+        {
+            String name = repository.getClass().getSimpleName();
+            assertEquals(name, Collections.singletonList(examples.get(1)), collect(repository.publishNouns("murorum", executor)));
+            assertTrue(name, collect(repository.publishNouns("nothing", executor)).isEmpty());
+            assertEquals(name, Collections.singletonList(examples.get(2)), collect(repository.publishNounsByRootWord("xyz", executor)));
+
+            Noun servus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+            try
+            {
+                repository.saveAsync(servus, executor).get(10, TimeUnit.SECONDS);
+                assertFalse(name, repository.isReadOnly());
+                assertEquals(name, Collections.singletonList(servus), collect(repository.publishNouns("servi", executor)));
+            } catch (ExecutionException e)
+            {
+                assertTrue(name, repository.isReadOnly());
+                assertTrue(name, e.getCause() instanceof UnsupportedOperationException);
+            }
+        }
+    }
+
+    @Test
+    public void testCopies() throws Exception
+    {
+        InMemoryVocabRepository repository = new InMemoryVocabRepository(context);
+        repository.saveAll(examples);
+        assertEquals(3, repository.size());
+        assertFalse(examples.get(0).isDirty());
+
+        examples.get(0).setRootWord("serv");
+        BlockingQueue<Noun> queue = new LinkedBlockingQueue<>();
+        repository.queryNouns("servae", queue);
+        assertTrue(queue.isEmpty()); // Not saved yet
+
+        repository.save(examples.get(0));
+        assertEquals(3, repository.size());
+        repository.queryNouns("servae", queue);
+        assertEquals(Collections.singletonList(examples.get(0)), drain(queue));
+        repository.queryNouns("ancillae", queue);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotReadOnly() throws Exception
+    {
+        SnapshotVocabRepository.write(examples, snapshotPath);
+        VocabRepository repository = SnapshotVocabRepository.open(context, snapshotPath);
+        assertTrue(repository.isReadOnly());
+        repository.save(examples.get(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void testSnapshotInvalidFile() throws Exception
+    {
+        Files.write(snapshotPath, new byte[]{1, 2, 3, 4, 5, 6, 7});
+        SnapshotVocabRepository.open(context, snapshotPath);
+    }
+}
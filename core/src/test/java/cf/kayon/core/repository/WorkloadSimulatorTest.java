@@ -0,0 +1,96 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.repository;
+
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.TestContextUtil;
+import cf.kayon.core.noun.SyntheticNounGenerator;
+import cf.kayon.core.repository.WorkloadSimulator.Operation;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.*;
+
+public class WorkloadSimulatorTest
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkloadSimulatorTest.class);
+
+    private KayonContext context;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        context = TestContextUtil.newTestingContext();
+    }
+
+    @After
+    public void tearDown()
+    {
+        TestContextUtil.closeContext(context);
+    }
+
+    private static Config settings(String overrides)
+    {
+        return ConfigFactory.parseString(overrides).withFallback(ConfigFactory.parseString(
+                "readers: 2, writers: 1, duration: 500ms, warmup: 100ms, rootQueryRatio: 0.2, insertRatio: 0.5, zipfExponent: 1.0, nouns: 100"));
+    }
+
+    @Test
+    public void testRun() throws Exception
+    {
+        new SyntheticNounGenerator(context, 50, 1).generate(context.getRepository(), 200, 42, null);
+        WorkloadReport report = new WorkloadSimulator(context, context.getRepository(), settings("")).run(42);
+        LOGGER.info("Workload report:\n" + report);
+        for (Operation operation : Operation.values())
+        {
+            assertTrue(operation.toString(), report.getCount(operation) > 0);
+            assertEquals(operation.toString(), 0, report.getErrors(operation));
+            assertTrue(report.getLatencies(operation).getValueAtPercentile(99) > 0);
+        }
+        assertTrue(report.getElapsedNanos() >= 500_000_000L);
+        assertTrue(report.getThroughput(Operation.FORM_QUERY) > 0);
+        // inserts during the warmup are not recorded
+        assertTrue(context.getRepository().streamAll().count() >= 200 + report.getCount(Operation.INSERT));
+    }
+
+    @Test
+    public void testBadSettings() throws Exception
+    {
+        for (String bad : new String[]{"readers: -1", "readers: 0, writers: 0", "duration: 0s", "insertRatio: 1.5", "zipfExponent: -1", "nouns: 0"})
+        {
+            try
+            {
+                new WorkloadSimulator(context, context.getRepository(), settings(bad));
+                fail(bad);
+            } catch (ConfigException.BadValue ignored) {}
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEmptyRepository() throws Exception
+    {
+        new WorkloadSimulator(context, context.getRepository(), settings("")).run(42);
+    }
+}
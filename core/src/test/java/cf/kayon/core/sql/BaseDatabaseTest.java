@@ -20,20 +20,31 @@ package cf.kayon.core.sql;
 
 import cf.kayon.core.*;
 import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounDeclension;
 import cf.kayon.core.noun.NounForm;
 import cf.kayon.core.noun.impl.ANounDeclension;
 import cf.kayon.core.noun.impl.ONounDeclension;
 import com.google.common.collect.Lists;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import static org.junit.Assert.*;
 
@@ -108,6 +119,183 @@ public class BaseDatabaseTest
         assertEquals(examples.size(), iterations);
     }
 
+    @Test
+    public void testQuery() throws SQLException, InterruptedException
+    {
+        for (Noun current : examples)
+            context.getNounSQLFactory().saveNounToDatabase(current);
+
+        BlockingQueue<Noun> queue = new LinkedBlockingQueue<>();
+        context.getNounSQLFactory().queryNouns("ancillīs", queue);
+        assertEquals(1, queue.size());
+        assertEquals(examples.get(0), queue.take());
+
+        context.getNounSQLFactory().queryNouns("Banana", queue); // defined form
+        assertEquals(1, queue.size());
+        assertEquals(examples.get(3), queue.take());
+
+        context.getNounSQLFactory().queryNouns("servi", queue); // declined form, replaced by a defined form for the dative singular
+        assertEquals(examples.get(3), queue.take());
+        context.getNounSQLFactory().queryNouns("servo", queue); // ablative singular is still declined
+        assertEquals(examples.get(3), queue.take());
+        assertTrue(queue.isEmpty());
+
+        // Redefining a form updates the index
+        examples.get(3).removeDefinedForm(NounForm.of(Case.GENITIVE, Count.PLURAL));
+        context.getNounSQLFactory().saveNounToDatabase(examples.get(3));
+        context.getNounSQLFactory().queryNouns("banana", queue);
+        assertTrue(queue.isEmpty());
+        context.getNounSQLFactory().queryNouns("servorum", queue);
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testPartialUpdate() throws SQLException, InterruptedException
+    {
+        for (Noun current : examples)
+        {
+            context.getNounSQLFactory().saveNounToDatabase(current);
+            assertFalse(current.isDirty());
+        }
+
+        Noun serv = examples.get(3);
+        // Only changed columns are written, so this external change must survive the following save
+        try (Statement statement = context.getConnection().createStatement())
+        {
+            statement.executeUpdate("UPDATE NOUNS SET ROOTWORD = 'external' WHERE UUID = '" + serv.getUuid() + "';");
+        }
+
+        serv.setDefinedForm(NounForm.of(Case.NOMINATIVE, Count.PLURAL), "servoi");
+        serv.getTranslations().put(Locale.ENGLISH, "slave");
+        assertEquals(2, serv.getDirtyProperties().size());
+        context.getNounSQLFactory().saveNounToDatabase(serv);
+        assertFalse(serv.isDirty());
+
+        try (ResultSet results = context.getConnection().createStatement().executeQuery(
+                "SELECT * FROM NOUNS WHERE UUID = '" + serv.getUuid() + "';"))
+        {
+            assertTrue(results.next());
+            Noun reconstructed = context.getNounSQLFactory().constructNounFromResultSet(results);
+            assertFalse(reconstructed.isDirty());
+            assertEquals("external", reconstructed.getRootWord());
+            assertEquals("servoi", reconstructed.getDefinedForm(NounForm.of(Case.NOMINATIVE, Count.PLURAL)));
+            assertEquals("slave", reconstructed.getTranslation(Locale.ENGLISH));
+        }
+
+        BlockingQueue<Noun> queue = new LinkedBlockingQueue<>();
+        context.getNounSQLFactory().queryNouns("servoi", queue);
+        assertEquals(1, queue.size());
+
+        // Changing the root word re-indexes the declined forms
+        serv.setRootWord("popul");
+        context.getNounSQLFactory().saveNounToDatabase(serv);
+        queue.clear();
+        context.getNounSQLFactory().queryNouns("populorum", queue);
+        assertTrue(queue.isEmpty()); // genitive plural is still defined
+        context.getNounSQLFactory().queryNouns("populo", queue);
+        assertEquals(1, queue.size());
+        assertEquals("popul", queue.take().getRootWord());
+        context.getNounSQLFactory().queryNouns("servo", queue);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testFailedSaveIsAtomic() throws SQLException, InterruptedException
+    {
+        // Fails when the index rows are written, after the noun row has been written
+        Config config = ConfigFactory.parseString("database.statements.formInsert: \"MERGE INTO NOUNFORMS VALUES (?, ?, ?, CAST(? AS INT));\"")
+                                     .withFallback(ConfigFactory.load());
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:");
+             KayonContext failingContext = new KayonContext(connection, config))
+        {
+            failingContext.getNounSQLFactory().setupDatabaseForNouns();
+            failingContext.getNounSQLFactory().compileStatements();
+            try
+            {
+                failingContext.getNounSQLFactory().saveNounToDatabase(new Noun(failingContext, ONounDeclension.getInstance(), Gender.MASCULINE, "serv"));
+                fail();
+            } catch (SQLException ignored) {}
+            assertTrue(connection.getAutoCommit());
+            try (ResultSet results = connection.createStatement().executeQuery("SELECT COUNT(*) FROM NOUNS;"))
+            {
+                assertTrue(results.next());
+                assertEquals(0, results.getInt(1)); // no noun without index rows
+            }
+        }
+    }
+
+    @Test
+    public void testFailedSaveDiscardsBatch() throws SQLException, InterruptedException
+    {
+        NounDeclension unregistered = new NounDeclension()
+        {
+            @Nullable
+            @Override
+            public Gender getPrimaryGender()
+            {
+                return ONounDeclension.getInstance().getPrimaryGender();
+            }
+
+            @NotNull
+            @Override
+            public String decline(@NotNull NounForm nounForm, @NotNull Gender gender, @NotNull String rootWord) throws FormingException
+            {
+                return ONounDeclension.getInstance().decline(nounForm, gender, rootWord);
+            }
+
+            @NotNull
+            @Override
+            public String determineRootWord(@NotNull NounForm nounForm, @NotNull Gender gender, @NotNull String declinedForm) throws FormingException
+            {
+                return ONounDeclension.getInstance().determineRootWord(nounForm, gender, declinedForm);
+            }
+
+            @Override
+            public boolean allowsGender(@NotNull Gender genderToCheck)
+            {
+                return ONounDeclension.getInstance().allowsGender(genderToCheck);
+            }
+        };
+        Noun batched = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+        context.getNounSQLFactory().saveNounToDatabase(batched, true);
+        try
+        {
+            context.getNounSQLFactory().saveNounToDatabase(new Noun(context, unregistered, Gender.MASCULINE, "mur"), false);
+            fail();
+        } catch (IllegalArgumentException ignored) {}
+        assertFalse(batched.isPersistent());
+        assertNull(batched.getUuid());
+
+        Noun saved = new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill");
+        context.getNounSQLFactory().saveNounToDatabase(saved);
+        assertTrue(saved.isPersistent());
+        assertNotNull(saved.getUuid());
+        try (ResultSet results = context.getConnection().createStatement().executeQuery("SELECT COUNT(*) FROM NOUNS;"))
+        {
+            assertTrue(results.next());
+            assertEquals(1, results.getInt(1)); // the discarded noun is not written with the next save
+        }
+    }
+
+    @Test
+    public void testInvalidBatchQueryIsReported() throws SQLException
+    {
+        Config config = ConfigFactory.parseString("database.statements.batchQuery: \"SELECT FROM NOWHERE\"").withFallback(ConfigFactory.load());
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:");
+             KayonContext failingContext = new KayonContext(connection, config))
+        {
+            failingContext.getNounSQLFactory().setupDatabaseForNouns();
+            try
+            {
+                failingContext.getNounSQLFactory().compileStatements();
+                fail();
+            } catch (ConfigException.BadValue e)
+            {
+                assertTrue(e.getMessage(), e.getMessage().contains("database.statements.batchQuery"));
+            }
+        }
+    }
+
     @After
     public void closeDatabase() throws SQLException
     {
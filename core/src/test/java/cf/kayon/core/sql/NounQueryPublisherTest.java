@@ -0,0 +1,208 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.sql;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.TestContextUtil;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import cf.kayon.core.util.Flow;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class NounQueryPublisherTest
+{
+    private static final int COUNT = NounQueryPublisher.CHUNK_SIZE + 44;
+
+    private KayonContext context;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        context = TestContextUtil.newTestingContext();
+        List<Noun> nouns = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++)
+            nouns.add(new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv" + (char) ('a' + i % 26) + (char) ('a' + i / 26)));
+        context.getRepository().saveAll(nouns);
+    }
+
+    @After
+    public void tearDown()
+    {
+        TestContextUtil.closeContext(context);
+    }
+
+    /**
+     * Waits until the executor has run everything submitted before.
+     */
+    private void awaitExecutor() throws Exception
+    {
+        CompletableFuture.runAsync(() -> {}, context.getNounSQLFactory().getExecutor()).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testBackpressure() throws Exception
+    {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        context.getNounSQLFactory().publishNounsByRootWord("serv").subscribe(subscriber);
+        awaitExecutor();
+        assertTrue(subscriber.received.isEmpty()); // nothing requested yet
+
+        subscriber.subscription.request(3);
+        awaitExecutor();
+        assertEquals(3, subscriber.received.size());
+        assertFalse(subscriber.terminated.isDone());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE); // must not overflow
+        subscriber.terminated.get(10, TimeUnit.SECONDS);
+        assertEquals(COUNT, subscriber.received.size());
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void testCancel() throws Exception
+    {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        context.getNounSQLFactory().publishNounsByRootWord("serv").subscribe(subscriber);
+        subscriber.subscription.request(5);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(5);
+        awaitExecutor();
+        assertTrue(subscriber.received.size() <= 5);
+        assertFalse(subscriber.terminated.isDone());
+
+        // the connection is still usable for other queries
+        RecordingSubscriber other = new RecordingSubscriber();
+        context.getNounSQLFactory().publishNouns("servaaus").subscribe(other);
+        other.subscription.request(Long.MAX_VALUE);
+        other.terminated.get(10, TimeUnit.SECONDS);
+        assertEquals(1, other.received.size());
+    }
+
+    @Test
+    public void testFormFilterAndEmptyResult() throws Exception
+    {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        context.getNounSQLFactory().publishNouns("SERVABŌRUM").subscribe(subscriber);
+        subscriber.subscription.request(2); // completion is only noticed when looking for the second result
+        subscriber.terminated.get(10, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonList("servab"), subscriber.rootWords());
+
+        subscriber = new RecordingSubscriber();
+        context.getNounSQLFactory().publishNouns("servabae").subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.terminated.get(10, TimeUnit.SECONDS);
+        assertTrue(subscriber.received.isEmpty());
+    }
+
+    @Test
+    public void testExecutor() throws Exception
+    {
+        AtomicInteger executed = new AtomicInteger();
+        Executor executor = task -> {
+            executed.incrementAndGet();
+            context.getNounSQLFactory().getExecutor().execute(task);
+        };
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        context.getNounSQLFactory().publishNouns("servaaus", executor).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.terminated.get(10, TimeUnit.SECONDS);
+        assertEquals(1, subscriber.received.size());
+        assertTrue(executed.get() > 0);
+    }
+
+    @Test
+    public void testErrors() throws Exception
+    {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        context.getNounSQLFactory().publishNounsByRootWord("serv").subscribe(subscriber);
+        subscriber.subscription.request(0);
+        subscriber.terminated.get(10, TimeUnit.SECONDS);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+
+        context.getConnection().createStatement().execute("DROP TABLE NOUNFORMS;");
+        subscriber = new RecordingSubscriber();
+        context.getNounSQLFactory().publishNouns("servo").subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.terminated.get(10, TimeUnit.SECONDS);
+        assertTrue(subscriber.error instanceof SQLException);
+    }
+
+    static class RecordingSubscriber implements Flow.Subscriber<Noun>
+    {
+        final List<Noun> received = Collections.synchronizedList(new ArrayList<>());
+
+        final CompletableFuture<Void> terminated = new CompletableFuture<>();
+
+        volatile Flow.Subscription subscription;
+
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription)
+        {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Noun item)
+        {
+            assertFalse(terminated.isDone());
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable)
+        {
+            error = throwable;
+            terminated.complete(null);
+        }
+
+        @Override
+        public void onComplete()
+        {
+            terminated.complete(null);
+        }
+
+        List<String> rootWords()
+        {
+            List<String> rootWords = new ArrayList<>();
+            synchronized (received)
+            {
+                for (Noun noun : received)
+                    rootWords.add(noun.getRootWord());
+            }
+            return rootWords;
+        }
+    }
+}
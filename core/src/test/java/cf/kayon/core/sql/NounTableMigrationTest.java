@@ -0,0 +1,215 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.sql;
+
+import cf.kayon.core.Case;
+import cf.kayon.core.Count;
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.TestContextUtil;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounForm;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import com.typesafe.config.ConfigFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static org.junit.Assert.*;
+
+public class NounTableMigrationTest
+{
+    private static final String LEGACY_SETUP = "CREATE TABLE NOUNS (ROOTWORD VARCHAR NOT NULL, UUID UUID PRIMARY KEY, GENDER TINYINT NOT NULL, " +
+                                               "NOUNDECLENSION VARCHAR, TRANSLATIONS OTHER NOT NULL, " +
+                                               "NOMSG VARCHAR, GENSG VARCHAR, DATSG VARCHAR, ACCSG VARCHAR, ABLSG VARCHAR, VOCSG VARCHAR, " +
+                                               "NOMPL VARCHAR, GENPL VARCHAR, DATPL VARCHAR, ACCPL VARCHAR, ABLPL VARCHAR, VOCPL VARCHAR, " +
+                                               "NOMSGDEF VARCHAR, GENSGDEF VARCHAR, DATSGDEF VARCHAR, ACCSGDEF VARCHAR, ABLSGDEF VARCHAR, VOCSGDEF VARCHAR, " +
+                                               "NOMPLDEF VARCHAR, GENPLDEF VARCHAR, DATPLDEF VARCHAR, ACCPLDEF VARCHAR, ABLPLDEF VARCHAR, VOCPLDEF VARCHAR);";
+
+    private KayonContext context;
+
+    @Before
+    public void setUp() throws SQLException
+    {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:migration" + UUID.randomUUID());
+        context = new KayonContext(connection, ConfigFactory.load());
+        try (Statement statement = connection.createStatement())
+        {
+            statement.execute(LEGACY_SETUP);
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO NOUNS (ROOTWORD, UUID, GENDER, NOUNDECLENSION, TRANSLATIONS, " +
+                                                                    "NOMSG, GENSG, GENPLDEF) VALUES (?, ?, ?, ?, ?, ?, ?, ?);"))
+        {
+            insert.setString(1, "serv");
+            insert.setObject(2, UUID.randomUUID().toString());
+            insert.setByte(3, SQLUtil.idForGender(Gender.MASCULINE));
+            insert.setString(4, "cf.kayon.core.noun.impl.ONounDeclension");
+            insert.setObject(5, new HashMap<>());
+            insert.setString(6, "servus");
+            insert.setString(7, "servī");
+            insert.setString(8, "servōrum");
+            insert.executeUpdate();
+
+            insert.setString(1, "abc");
+            insert.setObject(2, UUID.randomUUID().toString());
+            insert.setString(4, null);
+            insert.setString(6, null);
+            insert.setString(7, null);
+            insert.setString(8, null);
+            insert.executeUpdate();
+        }
+    }
+
+    @Test
+    public void testDeclensionMigration() throws SQLException
+    {
+        context.getNounSQLFactory().setupDatabaseForNouns();
+        context.getNounSQLFactory().compileStatements();
+        assertEquals(Integer.valueOf(Types.TINYINT), NounTableMigration.columnType(context.getConnection(), "NOUNDECLENSION"));
+
+        // Running the migration again does not change anything
+        context.getNounSQLFactory().setupDatabaseForNouns();
+
+        try (ResultSet results = context.getConnection().createStatement().executeQuery("SELECT * FROM NOUNS ORDER BY ROOTWORD DESC;"))
+        {
+            assertTrue(results.next());
+            Noun serv = context.getNounSQLFactory().constructNounFromResultSet(results);
+            assertEquals("serv", serv.getRootWord());
+            assertSame(ONounDeclension.getInstance(), serv.getNounDeclension());
+
+            assertTrue(results.next());
+            Noun abc = context.getNounSQLFactory().constructNounFromResultSet(results);
+            assertEquals("abc", abc.getRootWord());
+            assertNull(abc.getNounDeclension());
+
+            assertFalse(results.next());
+        }
+    }
+
+    @Test
+    public void testUnresolvedDeclensionKeepsColumn() throws SQLException
+    {
+        try (Statement statement = context.getConnection().createStatement())
+        {
+            statement.execute("UPDATE NOUNS SET NOUNDECLENSION = 'com.example.UnknownDeclension' WHERE ROOTWORD = 'abc';");
+        }
+
+        try
+        {
+            context.getNounSQLFactory().setupDatabaseForNouns();
+            fail("Expected SQLException");
+        } catch (SQLException e)
+        {
+            assertTrue(e.getMessage().contains("com.example.UnknownDeclension"));
+        }
+
+        assertEquals(Integer.valueOf(Types.VARCHAR), NounTableMigration.columnType(context.getConnection(), "NOUNDECLENSION"));
+        assertNull(NounTableMigration.columnType(context.getConnection(), "NOUNDECLENSIONID"));
+        try (ResultSet results = context.getConnection().createStatement().executeQuery("SELECT NOUNDECLENSION FROM NOUNS WHERE ROOTWORD = 'abc';"))
+        {
+            assertTrue(results.next());
+            assertEquals("com.example.UnknownDeclension", results.getString(1));
+        }
+    }
+
+    @Test
+    public void testDeclensionMigrationResumes() throws SQLException
+    {
+        // A previous migration failed after adding the ID column
+        try (Statement statement = context.getConnection().createStatement())
+        {
+            statement.execute("ALTER TABLE NOUNS ADD COLUMN NOUNDECLENSIONID TINYINT AFTER NOUNDECLENSION;");
+        }
+
+        context.getNounSQLFactory().setupDatabaseForNouns();
+        context.getNounSQLFactory().compileStatements();
+        assertEquals(Integer.valueOf(Types.TINYINT), NounTableMigration.columnType(context.getConnection(), "NOUNDECLENSION"));
+        assertNull(NounTableMigration.columnType(context.getConnection(), "NOUNDECLENSIONID"));
+
+        try (ResultSet results = context.getConnection().createStatement().executeQuery("SELECT * FROM NOUNS WHERE ROOTWORD = 'serv';"))
+        {
+            assertTrue(results.next());
+            assertSame(ONounDeclension.getInstance(), context.getNounSQLFactory().constructNounFromResultSet(results).getNounDeclension());
+        }
+    }
+
+    @Test
+    public void testDeclinedFormsMigration() throws SQLException, InterruptedException
+    {
+        context.getNounSQLFactory().setupDatabaseForNouns();
+        context.getNounSQLFactory().compileStatements();
+        assertNull(NounTableMigration.columnType(context.getConnection(), "NOMSG"));
+        assertNull(NounTableMigration.columnType(context.getConnection(), "VOCPL"));
+        assertNotNull(NounTableMigration.columnType(context.getConnection(), "GENPLDEF"));
+
+        try (ResultSet results = context.getConnection().createStatement().executeQuery(
+                "SELECT FORMINDEX, FORM, NORMALIZED FROM NOUNFORMS ORDER BY FORMINDEX;"))
+        {
+            assertTrue(results.next());
+            assertEquals(NounForm.of(Case.NOMINATIVE, Count.SINGULAR).ordinal(), results.getByte(1));
+            assertEquals("servus", results.getString(2));
+            assertTrue(results.next());
+            assertEquals(NounForm.of(Case.GENITIVE, Count.SINGULAR).ordinal(), results.getByte(1));
+            assertEquals("servī", results.getString(2));
+            assertEquals("servi", results.getString(3));
+            assertFalse(results.next());
+        }
+
+        BlockingQueue<Noun> queue = new LinkedBlockingQueue<>();
+        context.getNounSQLFactory().queryNouns("SERVI", queue);
+        assertEquals(1, queue.size());
+        Noun serv = queue.take();
+        assertEquals("servōrum", serv.getDefinedForm(NounForm.of(Case.GENITIVE, Count.PLURAL)));
+        assertEquals("servī", serv.getForm(NounForm.of(Case.GENITIVE, Count.SINGULAR)));
+    }
+
+    @Test
+    public void testDeclinedFormsMigrationResumes() throws SQLException, InterruptedException
+    {
+        // A previous migration failed after dropping some of the legacy columns
+        try (Statement statement = context.getConnection().createStatement())
+        {
+            statement.execute("ALTER TABLE NOUNS DROP COLUMN NOMSG;");
+            statement.execute("ALTER TABLE NOUNS DROP COLUMN GENSG;");
+        }
+
+        context.getNounSQLFactory().setupDatabaseForNouns();
+        context.getNounSQLFactory().compileStatements();
+        assertNull(NounTableMigration.columnType(context.getConnection(), "DATSG"));
+        assertNull(NounTableMigration.columnType(context.getConnection(), "VOCPL"));
+
+        Noun noun = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "domin");
+        context.getNounSQLFactory().saveNounToDatabase(noun);
+        BlockingQueue<Noun> queue = new LinkedBlockingQueue<>();
+        context.getNounSQLFactory().queryNouns("DOMINUS", queue);
+        assertEquals(1, queue.size());
+    }
+
+    @After
+    public void closeDatabase() throws SQLException
+    {
+        TestContextUtil.closeContext(context);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.sql;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.TestContextUtil;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.impl.ANounDeclension;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import cf.kayon.core.repository.RepositoryException;
+import com.typesafe.config.ConfigValueFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class SQLVocabRepositoryTest
+{
+    private KayonContext context;
+
+    @Before
+    public void setUp()
+    {
+        KayonContext testingContext = TestContextUtil.newTestingContext();
+        context = new KayonContext(testingContext.getConnection(),
+                                   testingContext.getConfig().withValue("repository.pageSize", ConfigValueFactory.fromAnyRef(2)));
+        testingContext.close(); // only its connection is used
+        context.getNounSQLFactory().compileStatements();
+    }
+
+    @After
+    public void tearDown()
+    {
+        TestContextUtil.closeContext(context);
+    }
+
+    @Test
+    public void testStreamAllPaging() throws Exception
+    {
+        List<Noun> nouns = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            nouns.add(new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill" + i));
+        context.getRepository().saveAll(nouns);
+
+        List<Noun> streamed = context.getRepository().streamAll().collect(Collectors.toList());
+        assertEquals(5, streamed.size());
+        assertTrue(streamed.containsAll(nouns));
+        List<UUID> uuids = streamed.stream().map(Noun::getUuid).collect(Collectors.toList());
+        List<UUID> sorted = new ArrayList<>(uuids);
+        sorted.sort(null);
+        assertEquals(sorted, uuids);
+    }
+
+    @Test
+    public void testSaveAllRollback() throws Exception
+    {
+        Noun valid = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+        Noun invalid = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "domin");
+        context.getConnection().createStatement().execute("ALTER TABLE NOUNS ADD CONSTRAINT NO_DOMIN CHECK ROOTWORD <> 'domin';");
+        try
+        {
+            context.getRepository().saveAll(Arrays.asList(valid, invalid));
+            fail();
+        } catch (RepositoryException expected)
+        {
+            assertTrue(context.getConnection().getAutoCommit());
+        }
+        assertEquals(0, context.getRepository().streamAll().count());
+    }
+
+    @Test
+    public void testSaveAllAfterRollback() throws Exception
+    {
+        Noun valid = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+        Noun invalid = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "domin");
+        Statement statement = context.getConnection().createStatement();
+        statement.execute("ALTER TABLE NOUNS ADD CONSTRAINT NO_DOMIN CHECK ROOTWORD <> 'domin';");
+        try
+        {
+            context.getRepository().saveAll(Arrays.asList(valid, invalid));
+            fail();
+        } catch (RepositoryException expected) {}
+        for (Noun noun : Arrays.asList(valid, invalid))
+        {
+            assertFalse(noun.isPersistent());
+            assertTrue(noun.isDirty());
+            assertNull(noun.getUuid());
+        }
+
+        statement.execute("ALTER TABLE NOUNS DROP CONSTRAINT NO_DOMIN;");
+        context.getRepository().saveAll(Arrays.asList(valid, invalid));
+        assertEquals(2, context.getRepository().streamAll().count());
+        for (Noun noun : Arrays.asList(valid, invalid))
+        {
+            assertTrue(noun.isPersistent());
+            assertFalse(noun.isDirty());
+            assertNotNull(noun.getUuid());
+        }
+        LinkedBlockingQueue<Noun> queue = new LinkedBlockingQueue<>();
+        context.getRepository().queryNouns("domino", queue);
+        assertEquals(Collections.singletonList(invalid.getUuid()), uuids(queue));
+    }
+
+    @Test
+    public void testQueryNounsBatch() throws Exception
+    {
+        Noun servus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+        Noun ancilla = new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill");
+        Noun templum = new Noun(context, ONounDeclension.getInstance(), Gender.NEUTER, "templ");
+        context.getRepository().saveAll(Arrays.asList(servus, ancilla, templum));
+
+        List<String> tokens = Arrays.asList("SERVUS", "servī", "ancillae", "templa", "servus", "servi", "nihil", "SERVUS");
+        Map<String, List<Noun>> results = context.getRepository().queryNounsBatch(tokens);
+        assertEquals(Arrays.asList("SERVUS", "servī", "ancillae", "templa", "servus", "servi", "nihil"), new ArrayList<>(results.keySet()));
+        for (Map.Entry<String, List<Noun>> entry : results.entrySet())
+        {
+            LinkedBlockingQueue<Noun> expected = new LinkedBlockingQueue<>();
+            context.getRepository().queryNouns(entry.getKey(), expected);
+            assertEquals(entry.getKey(), uuids(expected), uuids(entry.getValue()));
+        }
+        assertEquals(Collections.singletonList(servus.getUuid()), uuids(results.get("servi")));
+        assertEquals(Collections.singletonList(templum.getUuid()), uuids(results.get("templa")));
+        assertTrue(results.get("nihil").isEmpty());
+        assertTrue(context.getRepository().queryNounsBatch(Collections.emptyList()).isEmpty());
+    }
+
+    private static List<UUID> uuids(Collection<Noun> nouns)
+    {
+        return nouns.stream().map(Noun::getUuid).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    public void testAsync() throws Exception
+    {
+        NounSQLFactory factory = context.getNounSQLFactory();
+        Noun dominus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "domin");
+        Noun ancilla = new Noun(context, ANounDeclension.getInstance(), Gender.FEMININE, "ancill");
+        CompletableFuture.allOf(factory.saveAsync(dominus), factory.saveAsync(ancilla)).get(10, TimeUnit.SECONDS);
+
+        CompletableFuture<List<Noun>> byForm = factory.queryNounsAsync("domino");
+        CompletableFuture<List<Noun>> byRoot = factory.queryByRootAsync("ANCILL");
+        CompletableFuture<Map<String, List<Noun>>> batch = factory.queryNounsBatchAsync(Arrays.asList("ancillae", "nihil"));
+        assertEquals(Collections.singletonList(dominus), byForm.get(10, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(ancilla), byRoot.get(10, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(ancilla), batch.get(10, TimeUnit.SECONDS).get("ancillae"));
+        assertTrue(batch.get().get("nihil").isEmpty());
+
+        context.getConnection().createStatement().execute("DROP TABLE NOUNFORMS;");
+        try
+        {
+            factory.queryNounsAsync("domino").get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e)
+        {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
+}
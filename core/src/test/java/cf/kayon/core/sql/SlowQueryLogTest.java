@@ -0,0 +1,163 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cf.kayon.core.sql;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.TestContextUtil;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SlowQueryLogTest
+{
+    private static final String ROOT_QUERY = ConfigFactory.load().getString("database.statements.rootQuery");
+    private static final String FORM_QUERY = ConfigFactory.load().getString("database.statements.query");
+
+    private static KayonContext newContext(String settings) throws Exception
+    {
+        Config config = ConfigFactory.parseString("database.slowQuery { " + settings + " }").withFallback(ConfigFactory.load());
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:");
+        KayonContext context = new KayonContext(connection, config);
+        context.getNounSQLFactory().setupDatabaseForNouns();
+        context.getNounSQLFactory().compileStatements();
+        context.getRepository().saveAll(Arrays.asList(new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv"),
+                                                      new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "amic")));
+        return context;
+    }
+
+    @Test
+    public void testPlans() throws Exception
+    {
+        KayonContext context = newContext("threshold: 1ns, minInterval: 0s");
+        try
+        {
+            SlowQueryLog log = new SlowQueryLog(context);
+            synchronized (context.getConnection())
+            {
+                String message = log.check(log.start(), ROOT_QUERY, new Object[]{ "serv" }, null, -1, 1);
+                assertNotNull(message);
+                assertTrue(message, message.contains(" ms (rows returned: 1): " + ROOT_QUERY + " parameters: [serv]"));
+                assertTrue(message, message.contains("NOUNS.tableScan"));
+
+                message = log.check(log.start(), FORM_QUERY, new Object[]{ "servo" }, "serv[oōŏ]", 1, 1);
+                assertNotNull(message);
+                assertTrue(message, message.contains(" filter: serv[oōŏ]"));
+                assertTrue(message, message.contains("NOUNFORMS_NORMALIZED"));
+            }
+        } finally
+        {
+            TestContextUtil.closeContext(context);
+        }
+    }
+
+    @Test
+    public void testRateLimit() throws Exception
+    {
+        KayonContext context = newContext("threshold: 1ns, minInterval: 1h, explain: false");
+        try
+        {
+            SlowQueryLog log = new SlowQueryLog(context);
+            synchronized (context.getConnection())
+            {
+                String message = log.check(log.start(), ROOT_QUERY, new Object[]{ "serv" }, null, 1, 1);
+                assertNotNull(message);
+                assertFalse(message, message.contains("Plan:"));
+                assertNull(log.check(log.start(), ROOT_QUERY, new Object[]{ "amic" }, null, 1, 1));
+                assertNull(log.check(log.start(), ROOT_QUERY, new Object[]{ "amic" }, null, 1, 1));
+            }
+        } finally
+        {
+            TestContextUtil.closeContext(context);
+        }
+    }
+
+    @Test
+    public void testDuration() throws Exception
+    {
+        KayonContext context = newContext("threshold: 1h, minInterval: 0s, explain: false");
+        try
+        {
+            SlowQueryLog log = new SlowQueryLog(context);
+            synchronized (context.getConnection())
+            {
+                assertNull(log.checkDuration(TimeUnit.MINUTES.toNanos(59), ROOT_QUERY, new Object[]{ "serv" }, null, -1, 1));
+                String message = log.checkDuration(TimeUnit.HOURS.toNanos(2), ROOT_QUERY, new Object[]{ "serv" }, null, -1, 1);
+                assertNotNull(message);
+                assertTrue(message, message.startsWith("Slow query took 7200000 ms (rows returned: 1): "));
+            }
+        } finally
+        {
+            TestContextUtil.closeContext(context);
+        }
+    }
+
+    @Test
+    public void testPublisher() throws Exception
+    {
+        KayonContext context = newContext("threshold: 1ns, minInterval: 1h, explain: false");
+        try
+        {
+            NounQueryPublisherTest.RecordingSubscriber subscriber = new NounQueryPublisherTest.RecordingSubscriber();
+            context.getNounSQLFactory().publishNounsByRootWord("serv").subscribe(subscriber);
+            subscriber.subscription.request(Long.MAX_VALUE);
+            subscriber.terminated.get(10, TimeUnit.SECONDS);
+            synchronized (context.getConnection())
+            {
+                // The publisher query was logged, so the next slow query falls within the minimum interval
+                assertNull(context.getNounSQLFactory().getSlowQueryLog()
+                                  .checkDuration(TimeUnit.HOURS.toNanos(1), ROOT_QUERY, new Object[]{ "amic" }, null, -1, 1));
+            }
+        } finally
+        {
+            TestContextUtil.closeContext(context);
+        }
+    }
+
+    @Test
+    public void testDisabled() throws Exception
+    {
+        KayonContext context = newContext("threshold: 0s");
+        try
+        {
+            SlowQueryLog log = new SlowQueryLog(context);
+            assertFalse(log.isEnabled());
+            assertEquals(0, log.start());
+            assertNull(log.check(0, ROOT_QUERY, new Object[]{ "serv" }, null, 1, 1));
+        } finally
+        {
+            TestContextUtil.closeContext(context);
+        }
+    }
+
+    @Test(expected = ConfigException.BadValue.class)
+    public void testNegativeThreshold() throws Exception
+    {
+        newContext("threshold: -1s");
+    }
+}
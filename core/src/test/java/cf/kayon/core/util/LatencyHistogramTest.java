@@ -0,0 +1,86 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void testPercentiles()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        SplittableRandom random = new SplittableRandom(42);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = random.nextLong(1, 1_000_000_000L);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        assertEquals(values[values.length - 1], histogram.getValueAtPercentile(100));
+        for (double percentile : new double[]{0, 1, 50, 90, 99, 99.9, 99.99})
+        {
+            long exact = values[Math.max(0, (int) Math.ceil(percentile / 100 * values.length) - 1)];
+            long recorded = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + recorded + " < " + exact, recorded >= exact);
+            assertTrue(percentile + ": " + recorded + " >> " + exact, recorded <= exact * 1.008);
+        }
+    }
+
+    @Test
+    public void testSmallValuesAreExact()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 256; i++)
+            histogram.record(i);
+        assertEquals(127, histogram.getValueAtPercentile(50));
+        assertEquals(255, histogram.getValueAtPercentile(100));
+        assertEquals(127.5, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void testExtremesAndAdd()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(1000);
+        other.record(0);
+        histogram.add(other);
+        assertEquals(3, histogram.getCount());
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+        assertEquals(0, histogram.getValueAtPercentile(10));
+        long median = histogram.getValueAtPercentile(50);
+        assertTrue(median >= 1000 && median < 1008);
+        try
+        {
+            histogram.record(-1);
+            fail();
+        } catch (IllegalArgumentException ignored) {}
+    }
+}
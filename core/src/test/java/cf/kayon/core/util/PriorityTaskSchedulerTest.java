@@ -0,0 +1,163 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.util;
+
+import cf.kayon.core.util.PriorityTaskScheduler.Lane;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class PriorityTaskSchedulerTest
+{
+    private static final Config CONFIG = ConfigFactory.parseString(
+            "scheduler { maxConcurrent { interactive: 2, save: 1, bulk: 1 }, maxYield: 10s }");
+
+    private ExecutorService executor;
+
+    private PriorityTaskScheduler scheduler;
+
+    @Before
+    public void setUp()
+    {
+        executor = Executors.newCachedThreadPool();
+        scheduler = new PriorityTaskScheduler(CONFIG, "scheduler", executor);
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLaneLimitsAndPriority() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        // occupy the only bulk slot
+        scheduler.execute(Lane.BULK, () -> {
+            blocked.countDown();
+            awaitUninterruptibly(release);
+        });
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        scheduler.execute(Lane.BULK, () -> order.add("bulk"));
+        assertEquals(1, scheduler.getRunning(Lane.BULK));
+        assertEquals(1, scheduler.getWaiting(Lane.BULK));
+
+        // other lanes are not affected by the busy bulk lane
+        CountDownLatch interactiveDone = new CountDownLatch(1);
+        scheduler.lane(Lane.INTERACTIVE).execute(() -> {
+            order.add("interactive");
+            interactiveDone.countDown();
+        });
+        assertTrue(interactiveDone.await(10, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("interactive"), order);
+
+        release.countDown();
+        waitUntil(() -> scheduler.getRunning(Lane.BULK) == 0 && scheduler.getWaiting(Lane.BULK) == 0);
+        assertEquals(2, order.size());
+        assertEquals("bulk", order.get(1));
+    }
+
+    @Test
+    public void testYieldToHigherLanes() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        scheduler.execute(Lane.SAVE, () -> {
+            started.countDown();
+            awaitUninterruptibly(release);
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        scheduler.yieldToHigherLanes(Lane.INTERACTIVE); // nothing above interactive, returns at once
+        scheduler.yieldToHigherLanes(Lane.SAVE);
+
+        CountDownLatch yielded = new CountDownLatch(1);
+        Thread bulk = new Thread(() -> {
+            try
+            {
+                scheduler.yieldToHigherLanes(Lane.BULK);
+                yielded.countDown();
+            } catch (InterruptedException ignored) {}
+        });
+        bulk.start();
+        assertFalse(yielded.await(200, TimeUnit.MILLISECONDS)); // waits for the save
+        release.countDown();
+        assertTrue(yielded.await(10, TimeUnit.SECONDS));
+        bulk.join();
+    }
+
+    @Test
+    public void testMaxYield() throws Exception
+    {
+        PriorityTaskScheduler impatient = new PriorityTaskScheduler(
+                ConfigFactory.parseString("scheduler.maxYield: 50ms").withFallback(CONFIG), "scheduler", executor);
+        CountDownLatch release = new CountDownLatch(1);
+        impatient.execute(Lane.INTERACTIVE, () -> awaitUninterruptibly(release));
+        long start = System.nanoTime();
+        impatient.yieldToHigherLanes(Lane.BULK);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        release.countDown();
+    }
+
+    @Test(expected = ConfigException.BadValue.class)
+    public void testInvalidLimit()
+    {
+        new PriorityTaskScheduler(ConfigFactory.parseString("scheduler.maxConcurrent.save: 0").withFallback(CONFIG), "scheduler", executor);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean())
+        {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch)
+    {
+        while (true)
+        {
+            try
+            {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {}
+        }
+    }
+}
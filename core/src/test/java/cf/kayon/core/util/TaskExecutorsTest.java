@@ -0,0 +1,142 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.util;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigException;
+import com.typesafe.config.ConfigFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TaskExecutorsTest
+{
+    private static Config config(String mode)
+    {
+        return ConfigFactory.parseString("test.executor { mode: " + mode + ", poolSize: 2, queueSize: 2, keepAliveTime: 1s, maxConcurrent: 3 }");
+    }
+
+    @Test
+    public void testFixedRejects() throws Exception
+    {
+        ExecutorService executor = TaskExecutors.newExecutor(config("fixed"), "test.executor", "test", t -> {});
+        CountDownLatch release = new CountDownLatch(1);
+        try
+        {
+            for (int i = 0; i < 4; i++) // 2 running, 2 queued
+                executor.execute(() -> awaitUninterruptibly(release));
+            try
+            {
+                executor.execute(() -> {});
+                fail();
+            } catch (RejectedExecutionException ignored) {}
+        } finally
+        {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testVirtualBoundsConcurrency() throws Exception
+    {
+        ExecutorService executor = TaskExecutors.newExecutor(config("virtual"), "test.executor", "test", t -> {});
+        assertBounded(executor, 3);
+    }
+
+    @Test
+    public void testBoundedExecutorService() throws Exception
+    {
+        assertBounded(new TaskExecutors.BoundedExecutorService(Executors.newCachedThreadPool(), 3, t -> {}), 3);
+    }
+
+    private static void assertBounded(ExecutorService executor, int maxConcurrent) throws Exception
+    {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) // never rejected
+            futures.add(executor.submit(() -> {
+                int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet(now, Math::max);
+                try
+                {
+                    Thread.sleep(1);
+                } catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            }));
+        for (Future<?> future : futures)
+            future.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= maxConcurrent);
+    }
+
+    @Test
+    public void testFailureHandler() throws Exception
+    {
+        for (String mode : new String[]{"fixed", "virtual"})
+        {
+            List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+            ExecutorService executor = TaskExecutors.newExecutor(config(mode), "test.executor", "test", failures::add);
+            IllegalStateException exception = new IllegalStateException(mode);
+            executor.submit((Callable<Void>) () -> {
+                throw exception;
+            });
+            executor.submit(() -> {}).get(10, TimeUnit.SECONDS);
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(Collections.singletonList(exception), failures);
+        }
+    }
+
+    @Test(expected = ConfigException.BadValue.class)
+    public void testUnknownMode()
+    {
+        TaskExecutors.newExecutor(config("green"), "test.executor", "test", t -> {});
+    }
+
+    @Test(expected = ConfigException.BadValue.class)
+    public void testNonPositive()
+    {
+        TaskExecutors.newExecutor(ConfigFactory.parseString("test.executor { mode: virtual, maxConcurrent: 0 }"), "test.executor", "test", t -> {});
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch)
+    {
+        while (true)
+        {
+            try
+            {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {}
+        }
+    }
+}
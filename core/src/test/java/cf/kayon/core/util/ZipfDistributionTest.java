@@ -0,0 +1,48 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.core.util;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class ZipfDistributionTest
+{
+    @Test
+    public void testSample()
+    {
+        ZipfDistribution zipf = new ZipfDistribution(1000, 1);
+        assertEquals(1, zipf.probability(0) / zipf.probability(9) / 10, 1e-9);
+        int[] counts = new int[zipf.size()];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 100_000; i++)
+            counts[zipf.sample(random.nextDouble())]++;
+        assertEquals(zipf.probability(0) * 100_000, counts[0], 1000);
+        assertEquals(zipf.probability(1) * 100_000, counts[1], 1000);
+        assertTrue(counts[0] > counts[10] && counts[10] > counts[500]);
+        assertEquals(zipf.size() - 1, zipf.sample(Math.nextDown(1.0)));
+
+        ZipfDistribution uniform = new ZipfDistribution(4, 0);
+        assertEquals(0, uniform.sample(0));
+        assertEquals(1, uniform.sample(0.25));
+        assertEquals(3, uniform.sample(0.99));
+    }
+}
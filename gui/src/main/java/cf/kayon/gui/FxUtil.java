@@ -20,6 +20,7 @@ package cf.kayon.gui;
 
 import cf.kayon.core.KayonContext;
 import cf.kayon.core.StandardVocab;
+import cf.kayon.core.util.PriorityTaskScheduler;
 import javafx.beans.value.WritableValue;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
@@ -30,7 +31,8 @@ import org.jetbrains.annotations.Nullable;
 
 import java.beans.PropertyChangeListener;
 import java.util.ResourceBundle;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static cf.kayon.core.util.StringUtil.checkNotEmpty;
@@ -65,7 +67,23 @@ public class FxUtil
      *
      * @since 0.2.0
      */
-    public static volatile ThreadPoolExecutor executor;
+    public static volatile ExecutorService executor;
+
+    /**
+     * Receives the failures of tasks of the {@link #executor} and informs the user about them.
+     * <p>
+     * Failures of asynchronous operations completing on other threads are passed to it as well.
+     *
+     * @since 0.2.4
+     */
+    public static volatile Consumer<? super Throwable> failureHandler;
+
+    /**
+     * Schedules the tasks of the JavaFX application onto the {@link #executor} by priority.
+     *
+     * @since 0.2.4
+     */
+    public static volatile PriorityTaskScheduler scheduler;
 
     /**
      * Adds the project's logo (up to 1024x1024) to the specified stage.
@@ -100,6 +118,8 @@ public class FxUtil
      * }</pre>
      * Note that the conversion of the new value of the event to the required type of {@code property} may lead to a {@link ClassCastException} being thrown
      * when the event listener is invoked. The caller should be careful to only bind this method to properties that can only have convertible new values.
+     * <p>
+     * The property is only referenced weakly (see {@link WeakPropertyChangeListener}), so the binding does not keep the view of the property alive.
      *
      * @param vocab             The StandardVocab to bind the PropertyChangeListener to.
      * @param property          The property to write to on events.
@@ -119,28 +139,27 @@ public class FxUtil
         checkNotNull(property);
         checkNotEmpty(propertyName);
 
-        @NotNull PropertyChangeListener listener;
+        // The actions must not capture the property, as it is only referenced weakly
         if (bundle != null && resourceBundleKey != null && !resourceBundleKey.isEmpty())
         {
-            listener = evt -> property.setValue(evt.getNewValue() != null ? (T) evt.getNewValue() : (T) bundle.getObject(resourceBundleKey));
+            return new WeakPropertyChangeListener<>(vocab, propertyName, property, (target, evt) -> target.setValue(
+                    evt.getNewValue() != null ? (T) evt.getNewValue() : (T) bundle.getObject(resourceBundleKey)));
         } else
         {
-            listener = evt -> {
+            return new WeakPropertyChangeListener<>(vocab, propertyName, property, (target, evt) -> {
                 try
                 {
-                    property.setValue((T) evt.getNewValue());
+                    target.setValue((T) evt.getNewValue());
                 } catch (ClassCastException e)
                 {
-                    throw (ClassCastException) new ClassCastException("Listened property " + property +
+                    throw (ClassCastException) new ClassCastException("Listened property " + target +
                                                                       " on vocab " + vocab +
                                                                       " got inconvertible new value " + evt.getNewValue() +
                                                                       " of type " + evt.getNewValue().getClass().getCanonicalName() +
-                                                                      " (could not write to " + property + ")").initCause(e);
+                                                                      " (could not write to " + target + ")").initCause(e);
                 }
-            };
+            });
         }
-        vocab.addPropertyChangeListener(propertyName, listener);
-        return listener;
     }
 
     /**
@@ -156,6 +175,9 @@ public class FxUtil
      * <p>
      * Note that the conversion of the new value of the event to the required type of {@code transformer} may lead to a {@link ClassCastException} being thrown
      * when the event listener is invoked. The caller should be careful to only bind this method to properties that can only have convertible new values.
+     * <p>
+     * The property is only referenced weakly (see {@link WeakPropertyChangeListener}), so the binding does not keep the view of the property alive.
+     * The transformer is referenced strongly and must not capture the property.
      *
      * @param vocab        The StandardVocab to bind the PropertyChangeListener to.
      * @param property     The property to write to on events.
@@ -175,23 +197,21 @@ public class FxUtil
         checkNotEmpty(propertyName);
         checkNotNull(transformer);
 
-        @NotNull PropertyChangeListener listener = evt -> {
+        return new WeakPropertyChangeListener<>(vocab, propertyName, property, (target, evt) -> {
             Object newValue = evt.getNewValue();
             try
             {
                 P returned = transformer.apply((E) newValue);
-                property.setValue(returned);
+                target.setValue(returned);
             } catch (ClassCastException e)
             {
-                throw (ClassCastException) new ClassCastException("Listened property " + property +
+                throw (ClassCastException) new ClassCastException("Listened property " + target +
                                                                   " on vocab " + vocab +
                                                                   " got inconvertible new value " + newValue +
                                                                   " of type " + newValue.getClass().getName() +
-                                                                  " (could not write to property " + property + ")").initCause(e);
+                                                                  " (could not write to property " + target + ")").initCause(e);
 
             }
-        };
-        vocab.addPropertyChangeListener(propertyName, listener);
-        return listener;
+        });
     }
 }
@@ -0,0 +1,180 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cf.kayon.gui;
+
+import cf.kayon.core.StandardVocab;
+import javafx.beans.value.WritableValue;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.function.BiConsumer;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A PropertyChangeListener on a {@link StandardVocab} that writes to a JavaFX property it only references weakly.
+ * <p>
+ * Vocab often outlives the views displaying it (for example, if it is held by an in-memory repository), and a listener holding its property
+ * strongly would keep the property's whole scene graph alive for as long as the vocab. This listener does not: once the property has been
+ * garbage collected, the listener removes itself from the vocab, either on the next event or when stale listeners are
+ * {@link #expungeStaleListeners() expunged}, which is done whenever a new listener is constructed.
+ * <p>
+ * The action must not capture the property (or anything referencing it), as it is referenced strongly.
+ *
+ * @param <T> The type of the value of the property.
+ * @author Ruben Anders
+ * @see FxUtil#bindTo(StandardVocab, WritableValue, String, java.util.ResourceBundle, String)
+ * @since 0.2.4
+ */
+@ThreadSafe
+public final class WeakPropertyChangeListener<T> implements PropertyChangeListener
+{
+    /**
+     * The queue the references of garbage collected properties are enqueued to.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private static final ReferenceQueue<Object> STALE = new ReferenceQueue<>();
+
+    /**
+     * The weak reference to the property.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final TargetReference target;
+
+    /**
+     * Writes an event to the property.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final BiConsumer<? super WritableValue<T>, ? super PropertyChangeEvent> action;
+
+    /**
+     * Constructs a new instance and adds it to the vocab.
+     *
+     * @param vocab        The StandardVocab to listen on.
+     * @param propertyName The property name to listen on.
+     * @param property     The property to write to on events. Only referenced weakly.
+     * @param action       Writes an event to the property (passed as the first argument).
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code propertyName} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    public WeakPropertyChangeListener(@NotNull StandardVocab vocab, @NotNull @NonNls String propertyName, @NotNull WritableValue<T> property,
+                                      @NotNull BiConsumer<? super WritableValue<T>, ? super PropertyChangeEvent> action)
+    {
+        checkNotNull(vocab);
+        checkNotEmpty(propertyName);
+        checkNotNull(property);
+        checkNotNull(action);
+        expungeStaleListeners();
+        this.target = new TargetReference(property, vocab, propertyName);
+        this.action = action;
+        vocab.addPropertyChangeListener(propertyName, this);
+    }
+
+    /**
+     * Removes all listeners whose properties have been garbage collected from their vocab.
+     *
+     * @since 0.2.4
+     */
+    public static void expungeStaleListeners()
+    {
+        Reference<?> stale;
+        while ((stale = STALE.poll()) != null)
+            ((WeakPropertyChangeListener<?>.TargetReference) stale).unregister();
+    }
+
+    /**
+     * Gets the property this listener writes to.
+     *
+     * @return The property, or {@code null} if it has been garbage collected.
+     * @since 0.2.4
+     */
+    @Nullable
+    public WritableValue<T> getProperty()
+    {
+        return target.get();
+    }
+
+    @Override
+    public void propertyChange(@NotNull PropertyChangeEvent evt)
+    {
+        WritableValue<T> property = target.get();
+        if (property == null)
+            target.unregister();
+        else
+            action.accept(property, evt);
+    }
+
+    /**
+     * The weak reference to the property, which knows how to remove its listener.
+     * <p>
+     * It is referenced strongly by its listener, which is referenced by the vocab, so it stays reachable until it is enqueued.
+     *
+     * @author Ruben Anders
+     * @since 0.2.4
+     */
+    private final class TargetReference extends WeakReference<WritableValue<T>>
+    {
+        /**
+         * The vocab listened on.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final StandardVocab vocab;
+
+        /**
+         * The property name listened on.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final String propertyName;
+
+        TargetReference(@NotNull WritableValue<T> property, @NotNull StandardVocab vocab, @NotNull String propertyName)
+        {
+            super(property, STALE);
+            this.vocab = vocab;
+            this.propertyName = propertyName;
+        }
+
+        /**
+         * Removes the listener from the vocab. Does nothing if it has been removed already.
+         *
+         * @since 0.2.4
+         */
+        void unregister()
+        {
+            vocab.removePropertyChangeListener(propertyName, WeakPropertyChangeListener.this);
+        }
+    }
+}
@@ -18,21 +18,19 @@
 
 package cf.kayon.gui.extras.noungenerator;
 
-import cf.kayon.core.Gender;
 import cf.kayon.core.KayonContext;
-import cf.kayon.core.noun.Noun;
-import cf.kayon.core.noun.NounDeclension;
-import cf.kayon.gui.vocabview.nounview.DummyNounDeclension;
-import cf.kayon.gui.vocabview.nounview.NounViewController;
+import cf.kayon.core.noun.SyntheticNounGenerator;
+import cf.kayon.core.util.PriorityTaskScheduler;
+import cf.kayon.gui.FxUtil;
 import javafx.concurrent.Task;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -82,12 +80,11 @@ public class GeneratorTask extends Task<Void>
      */
     private final int count;
     /**
-     * The {@link Random} instance to use to generate the random values.
+     * The seed of the generated nouns.
      *
-     * @since 0.2.3
+     * @since 0.2.4
      */
-    @NotNull
-    private final Random random;
+    private final long seed;
 
     /**
      * Constructs a new GeneratorTask with a string seed.
@@ -97,93 +94,108 @@ public class GeneratorTask extends Task<Void>
      * @param numeric Whether to generate numeric characters in the root word.
      * @param length  The length of the generated root words.
      * @param count   The count of nouns to generate.
-     * @param seed    The seed for the {@link Random} instance. If this value is {@code null} or {@link String#isEmpty() empty}, the
-     *                {@link Random} will be instantiated without a seed - a random one will be chosen. Otherwise, the random is
-     *                instantiated with the {@link String#hashCode()} of the string.
+     * @param seed    The seed for the generated nouns. If this value is {@code null} or {@link String#isEmpty() empty}, a random seed is
+     *                chosen. Otherwise, the {@link String#hashCode()} of the string is used.
      * @throws NullPointerException If {@code context} is {@code null}.
      * @since 0.2.3
      */
     public GeneratorTask(@NotNull KayonContext context, boolean numeric, int length, int count, @Nullable @NonNls String seed)
     {
-        this(context, numeric, length, count, (seed == null || seed.isEmpty()) ? new Random() : new Random(seed.hashCode()));
+        this(context, numeric, length, count, (seed == null || seed.isEmpty()) ? new SplittableRandom().nextLong() : seed.hashCode());
     }
 
     /**
-     * Constructs a new GeneratorTask with a string seed.
+     * Constructs a new GeneratorTask with a numeric seed.
      *
      * @param context The {@link KayonContext} used to fetch configuration values and operate on the database.
      * @param numeric Whether to generate numeric characters in the root word.
      * @param length  The length of the generated root words.
      * @param count   The count of nouns to generate.
-     * @param random  The {@link Random} instance to use to generate random values.
-     * @throws NullPointerException If {@code context} or {@code random} is {@code null}.
-     * @since 0.2.3
+     * @param seed    The seed for the generated nouns. The same seed generates the same nouns (see {@link SyntheticNounGenerator}).
+     * @throws NullPointerException If {@code context} is {@code null}.
+     * @since 0.2.4
      */
-    public GeneratorTask(@NotNull KayonContext context, boolean numeric, int length, int count, @NotNull Random random)
+    public GeneratorTask(@NotNull KayonContext context, boolean numeric, int length, int count, long seed)
     {
-        checkNotNull(random);
         checkNotNull(context);
         this.context = context;
         this.numeric = numeric;
         this.length = length;
         this.count = count;
-        this.random = random;
+        this.seed = seed;
     }
 
     /**
+     * Generates the nouns in parallel with a {@link SyntheticNounGenerator}, whose declensions and genders follow their frequencies in
+     * Latin, but whose root words consist of random characters as requested.
+     *
      * @return Always {@code null}.
-     * @throws Exception Can be thrown if the execution of the SQL fails.
+     * @throws Exception Can be thrown if saving the nouns fails.
      * @since 0.2.3
      */
     @Override
     @Nullable
     protected Void call() throws Exception
     {
-        final int nounDeclensions = NounViewController.nounDeclensions.size();
-        final int genders = Gender.values().length;
-        final int batchSize = context.getConfig().getInt("gui.extras.noungenerator.batchSize");
         final boolean doLog = context.getConfig().getBoolean("gui.extras.noungenerator.log.doLog");
         final int everyAbsolute = context.getConfig().getInt("gui.extras.noungenerator.log.every");
 
         LOGGER.info("GeneratorTask running");
-        LOGGER.info("    nounDeclensions = " + nounDeclensions);
-        LOGGER.info("    genders = " + genders);
-        LOGGER.info("    batchSize = " + batchSize);
         LOGGER.info("    numeric = " + numeric);
         LOGGER.info("    length = " + length);
         LOGGER.info("    count = " + count);
+        LOGGER.info("    seed = " + seed);
 
-        for (int c = 0; c < count; )
+        SyntheticNounGenerator generator = new SyntheticNounGenerator(context)
         {
-            if (doLog && c % everyAbsolute == 0) LOGGER.info("Finished " + c + " iterations");
-            /*
-             * Generate noun
-             */
             @NotNull
-            final String rootWord = RandomStringUtils.random(length, 0, 0, true, numeric, null, random).toLowerCase();
-            @Nullable NounDeclension nounDeclension = NounViewController.nounDeclensions.get(random.nextInt(nounDeclensions));
-            nounDeclension = nounDeclension instanceof DummyNounDeclension ? null : nounDeclension;
-            @NotNull
-            final Gender gender = Gender.values()[random.nextInt(genders)];
-
-            @NotNull
-            final Noun noun = new Noun(context, nounDeclension, gender, rootWord);
-
-            /*
-             * Execute SQL (or add to batch)
-             */
-            final boolean cancelled = isCancelled() || Thread.interrupted();
-            final boolean doExecute = c % batchSize == 0 || c + 1 == count || cancelled;
-            context.getNounSQLFactory().saveNounToDatabase(noun, !doExecute);
-
-            updateProgress(++c, count);
-
-            if (cancelled)
+            @Override
+            protected String generateRootWord(@NotNull SplittableRandom random)
             {
-                cancel(true); // restore interruption status
-                return null;
+                char[] rootWord = new char[length];
+                for (int i = 0; i < length; i++)
+                {
+                    int index = random.nextInt(numeric ? 36 : 26);
+                    rootWord[i] = index < 26 ? (char) ('a' + index) : (char) ('0' + index - 26);
+                }
+                return new String(rootWord);
             }
-        }
+        };
+        AtomicLong logged = new AtomicLong();
+        long saved = generator.generate(context.getRepository(), count, seed, total -> {
+            updateProgress(total, count);
+            if (doLog && total / everyAbsolute > logged.get() / everyAbsolute)
+            {
+                logged.set(total);
+                LOGGER.info("Finished " + total + " iterations");
+            }
+            return !isCancelled() && yieldToHigherLanes();
+        });
+        if (saved < count && !isCancelled())
+            cancel(true);
         return null;
     }
+
+    /**
+     * Gives way to interactive tasks and saves between two batches
+     * (see {@link PriorityTaskScheduler#yieldToHigherLanes(PriorityTaskScheduler.Lane)}).
+     *
+     * @return {@code false} if the task has been interrupted while yielding.
+     * @since 0.2.4
+     */
+    private boolean yieldToHigherLanes()
+    {
+        @Nullable
+        PriorityTaskScheduler scheduler = FxUtil.scheduler;
+        if (scheduler == null)
+            return true;
+        try
+        {
+            scheduler.yieldToHigherLanes(PriorityTaskScheduler.Lane.BULK);
+            return true;
+        } catch (InterruptedException e)
+        {
+            return false;
+        }
+    }
 }
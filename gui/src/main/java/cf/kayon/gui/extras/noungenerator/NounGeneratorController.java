@@ -18,6 +18,7 @@
 
 package cf.kayon.gui.extras.noungenerator;
 
+import cf.kayon.core.util.PriorityTaskScheduler;
 import cf.kayon.gui.FxUtil;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -129,7 +130,7 @@ public class NounGeneratorController
             }
         });
 
-        FxUtil.executor.execute(currentTask);
+        FxUtil.scheduler.execute(PriorityTaskScheduler.Lane.BULK, currentTask);
     }
 
     @FXML
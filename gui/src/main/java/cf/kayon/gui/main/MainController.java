@@ -19,15 +19,20 @@
 package cf.kayon.gui.main;
 
 import cf.kayon.core.CaseHandling;
-import cf.kayon.core.StandardVocab;
-import cf.kayon.core.Vocab;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.repository.VocabRepository;
+import cf.kayon.core.util.Flow;
+import cf.kayon.core.util.PriorityTaskScheduler;
 import cf.kayon.gui.FxUtil;
 import cf.kayon.gui.extras.noungenerator.NounGenerator;
 import cf.kayon.gui.vocabview.nounview.NounView;
+import cf.kayon.gui.vocabview.nounview.NounViewController;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.GridPane;
@@ -41,8 +46,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Controls the main view.
@@ -105,6 +111,30 @@ public class MainController
     @FXML
     private ProgressIndicator progressIndicator;
 
+    /**
+     * The controllers of the result views in {@link #vBox}, to be {@link NounViewController#dispose() disposed} when the results are cleared.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final List<NounViewController> resultControllers = new ArrayList<>();
+
+    /**
+     * The "New noun" entry of the manage menu, disabled if the repository is read-only.
+     *
+     * @since 0.2.4
+     */
+    @FXML
+    private MenuItem newNounMenuItem;
+
+    /**
+     * The "Generate nouns..." entry of the extras menu, disabled if the repository is read-only.
+     *
+     * @since 0.2.4
+     */
+    @FXML
+    private MenuItem generateNounsMenuItem;
+
     /**
      * Handles a search button press. Bound to the button in the FXML file.
      *
@@ -145,10 +175,13 @@ public class MainController
     {
         searchButton.disableProperty().bind(searchField.textProperty().isEmpty());
         rootSearchButton.disableProperty().bind(searchField.textProperty().isEmpty());
+        boolean readOnly = FxUtil.context.getRepository().isReadOnly();
+        newNounMenuItem.setDisable(readOnly);
+        generateNounsMenuItem.setDisable(readOnly);
     }
 
     /**
-     * Queries vocab from the database. Triggered by an enter press or a button click.
+     * Queries vocab from the {@link cf.kayon.core.KayonContext#getRepository() repository}. Triggered by an enter press or a button click.
      * <p>
      * Handles both uppercase and lowercase characters.
      *
@@ -161,24 +194,41 @@ public class MainController
     {
         LOGGER.info("Querying for user input >" + searchString + "<");
         setSearchActive(true);
+        clearResults();
 
-        final ArrayBlockingQueue<Vocab> queue = new ArrayBlockingQueue<>(FxUtil.context.getConfig().getInt("gui.main.queryQueueSize"));
-        final Vocab poison = StandardVocab.newPoison();
         // delegates toLowerCase() and regex escaping
-        final QueryTask producer = new QueryTask(FxUtil.context, searchString, queue, poison, byRootWord);
-
-        int iMax = FxUtil.context.getConfig().getInt("gui.main.reconstructThreads");
-        final CountDownLatch latch = new CountDownLatch(iMax);
+        // The query runs in the interactive lane as well, so bulk tasks yield to it while it waits for or reads the connection
+        VocabRepository repository = FxUtil.context.getRepository();
+        Executor interactiveLane = FxUtil.scheduler.lane(PriorityTaskScheduler.Lane.INTERACTIVE);
+        Flow.Publisher<Noun> publisher = byRootWord ? repository.publishNounsByRootWord(searchString, interactiveLane)
+                                                    : repository.publishNouns(searchString, interactiveLane);
+        publisher.subscribe(new NodeSubscriber(this, interactiveLane, FxUtil.context.getConfig().getInt("gui.main.reconstructThreads")));
+    }
 
-        FxUtil.executor.submit(producer);
-        final ReEnabler reEnabler = new ReEnabler(latch, this);
-        FxUtil.executor.execute(reEnabler);
+    /**
+     * Adds the view of a result. To be called on the JavaFX application thread.
+     *
+     * @param node       The view.
+     * @param controller The controller of the view, {@link NounViewController#dispose() disposed} when the results are cleared.
+     * @since 0.2.4
+     */
+    /* package-local */
+    void addResult(@NotNull Node node, @NotNull NounViewController controller)
+    {
+        resultControllers.add(controller);
+        vBox.getChildren().add(node);
+    }
 
-        for (int i = 0; i < iMax; i++)
-        {
-            final NodeTask consumer = new NodeTask(vBox, queue, poison, latch);
-            FxUtil.executor.submit(consumer);
-        }
+    /**
+     * Removes and disposes the views of all results, so neither they nor their nouns are kept in memory.
+     *
+     * @since 0.2.4
+     */
+    private void clearResults()
+    {
+        resultControllers.forEach(NounViewController::dispose);
+        resultControllers.clear();
+        vBox.getChildren().clear();
     }
 
     /**
@@ -0,0 +1,213 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.gui.main;
+
+import cf.kayon.core.metrics.FlightRecorderEvent;
+import cf.kayon.core.metrics.FlightRecorderEvents;
+import cf.kayon.core.metrics.Timer;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.util.Flow;
+import cf.kayon.gui.vocabview.nounview.NounView;
+import cf.kayon.gui.vocabview.nounview.NounViewController;
+import com.google.common.base.MoreObjects;
+import javafx.application.Platform;
+import javafx.scene.Parent;
+import net.jcip.annotations.ThreadSafe;
+import org.apache.commons.lang3.tuple.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Receives the nouns of a query and {@link MainController#addResult(javafx.scene.Node, NounViewController) adds} a node for each of them to
+ * the results of the main view.
+ * <p>
+ * The nodes are created in parallel on an executor. Only as many nouns as nodes can be created at once are requested from the query,
+ * so a large result does not pile up in memory. When the query has finished and all nodes have been created, the UI of the main
+ * view is {@link MainController#resetUI() reset}.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class NodeSubscriber implements Flow.Subscriber<Noun>
+{
+    @NotNull
+    private static final Logger LOGGER = LoggerFactory.getLogger(NodeSubscriber.class);
+
+    /**
+     * The controller to add the created nodes to and to reset when done.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final MainController controller;
+
+    /**
+     * The executor creating the nodes.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Executor executor;
+
+    /**
+     * The maximum number of nodes created at once.
+     *
+     * @since 0.2.4
+     */
+    private final int parallelism;
+
+    /**
+     * The number of nodes being created, plus one until the query has finished.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    /**
+     * Whether the query has finished, by completing, failing or being cancelled.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final AtomicBoolean queryFinished = new AtomicBoolean();
+
+    /**
+     * The subscription, set before any noun is received.
+     *
+     * @since 0.2.4
+     */
+    private volatile Flow.Subscription subscription;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param controller  The controller to add the created nodes to and to reset when done.
+     * @param executor    The executor creating the nodes.
+     * @param parallelism The maximum number of nodes created at once.
+     * @throws NullPointerException     If any of the arguments is {@code null}.
+     * @throws IllegalArgumentException If {@code parallelism} is not positive.
+     * @since 0.2.4
+     */
+    public NodeSubscriber(@NotNull MainController controller, @NotNull Executor executor, int parallelism)
+    {
+        checkArgument(parallelism > 0, "parallelism must be positive");
+        this.controller = checkNotNull(controller);
+        this.executor = checkNotNull(executor);
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void onSubscribe(@NotNull Flow.Subscription subscription)
+    {
+        this.subscription = subscription;
+        subscription.request(parallelism);
+    }
+
+    @Override
+    public void onNext(@NotNull Noun noun)
+    {
+        pending.incrementAndGet();
+        try
+        {
+            executor.execute(() -> {
+                Timer timer = noun.getContext().getMetrics().timer("gui.nodeBuild");
+                long start = timer.start();
+                FlightRecorderEvent event = FlightRecorderEvents.NODE_BUILD.begin().set("rootWord", noun.getRootWord());
+                try
+                {
+                    LOGGER.debug("Making node for noun " + noun);
+                    Pair<Parent, NounViewController> view = NounView.createNewParent(noun);
+                    timer.stop(start);
+                    event.commit();
+                    Platform.runLater(() -> controller.addResult(view.getLeft(), view.getRight()));
+                } catch (IOException | RuntimeException e)
+                {
+                    LOGGER.error("Could not create node for noun " + noun, e);
+                } finally
+                {
+                    subscription.request(1);
+                    finish();
+                }
+            });
+        } catch (RejectedExecutionException e)
+        {
+            LOGGER.error("Could not create node for noun " + noun + ", cancelling query", e);
+            pending.decrementAndGet();
+            subscription.cancel();
+            finishQuery();
+        }
+    }
+
+    @Override
+    public void onError(@NotNull Throwable throwable)
+    {
+        LOGGER.error("Query failed!", throwable);
+        finishQuery();
+    }
+
+    @Override
+    public void onComplete()
+    {
+        LOGGER.info("Query completed");
+        finishQuery();
+    }
+
+    /**
+     * Marks the query as finished, unless it already has been (a cancelled query may still complete).
+     *
+     * @since 0.2.4
+     */
+    private void finishQuery()
+    {
+        if (queryFinished.compareAndSet(false, true))
+            finish();
+    }
+
+    /**
+     * Resets the UI if the query has finished and all nodes have been created.
+     *
+     * @since 0.2.4
+     */
+    private void finish()
+    {
+        if (pending.decrementAndGet() == 0)
+            controller.resetUI();
+    }
+
+    @Override
+    public String toString()
+    {
+        return MoreObjects.toStringHelper(this)
+                          .add("parallelism", parallelism)
+                          .add("pending", pending)
+                          .toString();
+    }
+}
@@ -33,7 +33,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.ResourceBundle;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -140,10 +140,11 @@ public class Splash extends Application
         KayonContext context = FxUtil.context;
         if (context != null) // If object is present, its contents are also present (null checks are performed on construct)
         {
+            context.close();
             context.getConnection().close();
         }
         @Nullable
-        ThreadPoolExecutor executor = FxUtil.executor;
+        ExecutorService executor = FxUtil.executor;
         if (executor != null)
         {
             executor.shutdown(); // Complete all tasks and terminate pool threads
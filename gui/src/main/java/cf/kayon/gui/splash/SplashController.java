@@ -20,6 +20,8 @@ package cf.kayon.gui.splash;
 
 import cf.kayon.core.KayonContext;
 import cf.kayon.core.util.ConfigurationUtil;
+import cf.kayon.core.util.PriorityTaskScheduler;
+import cf.kayon.core.util.TaskExecutors;
 import cf.kayon.gui.FxUtil;
 import cf.kayon.gui.main.Main;
 import com.typesafe.config.Config;
@@ -44,9 +46,9 @@ import java.io.File;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.ResourceBundle;
-import java.util.concurrent.*;
 
 import static cf.kayon.core.util.StringUtil.checkNotEmpty;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -164,45 +166,20 @@ public class SplashController
         try
         {
             FxUtil.context = new KayonContext(connection, config);
-            int poolSize = config.getInt("gui.executor.poolSize");
-            FxUtil.executor = new ThreadPoolExecutor(poolSize, poolSize,
-                                                     config.getDuration("gui.executor.keepAliveTime", TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS,
-                                                     new ArrayBlockingQueue<>(config.getInt("gui.executor.queueSize")))
-            {
-                @Override
-                protected void afterExecute(Runnable r, Throwable t)
-                {
-                    super.afterExecute(r, t);
-                    if (t == null && r instanceof Future<?>)
-                    {
-                        try
-                        {
-                            Future<?> future = (Future<?>) r;
-                            if (future.isDone())
-                            {
-                                future.get();
-                            }
-                        } catch (CancellationException ce)
-                        {
-                            LOGGER.info("FX Executor task was cancelled: (NOT AN ERROR!)", ce);
-                        } catch (ExecutionException ee)
-                        {
-                            t = ee.getCause();
-                        } catch (InterruptedException ie)
-                        {
-                            LOGGER.warn("FX Executor afterExecute() future.get() was interrupted?!", ie);
-                            Thread.currentThread().interrupt(); // ignore/reset (interruptions whilst trying to get future value)
-                        }
-                    }
-                    if (t != null)
-                    {
-                        // Log any exceptions thrown in the executor
-                        LOGGER.error("Exception in FX executor occurred!");
-                        splashException("PoolException", t, false); // Do not interrupt current worker
-                    }
-                }
+            FxUtil.failureHandler = t -> {
+                // Log any exceptions thrown in the executor
+                LOGGER.error("Exception in FX executor occurred!");
+                splashException("PoolException", t, false); // Do not interrupt current worker
             };
-            FxUtil.executor.allowCoreThreadTimeOut(true);
+            FxUtil.executor = TaskExecutors.newExecutor(config, "gui.executor", "Kayon GUI worker", FxUtil.failureHandler);
+            FxUtil.scheduler = new PriorityTaskScheduler(config, "gui.scheduler", FxUtil.executor);
+            PriorityTaskScheduler scheduler = FxUtil.scheduler;
+            for (PriorityTaskScheduler.Lane lane : PriorityTaskScheduler.Lane.values())
+            {
+                String name = "gui.scheduler." + lane.name().toLowerCase(Locale.ROOT);
+                FxUtil.context.getMetrics().gauge(name + ".running", () -> scheduler.getRunning(lane));
+                FxUtil.context.getMetrics().gauge(name + ".waiting", () -> scheduler.getWaiting(lane));
+            }
         } catch (Throwable t)
         {
             splashException("ApplicationConfigureFailure", t);
@@ -23,10 +23,10 @@ import cf.kayon.core.Count;
 import cf.kayon.core.noun.Noun;
 import cf.kayon.core.noun.NounDeclension;
 import cf.kayon.core.noun.NounForm;
-import cf.kayon.core.noun.impl.*;
+import cf.kayon.core.util.PriorityTaskScheduler;
 import cf.kayon.gui.FxUtil;
 import com.google.common.collect.*;
-import javafx.concurrent.Task;
+import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -49,6 +49,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 import static cf.kayon.core.util.StringUtil.checkNotEmpty;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -71,14 +74,7 @@ public class NounViewController extends Contexed
      */
     @NotNull
     public static final List<NounDeclension> nounDeclensions = ImmutableList.<NounDeclension>builder()
-            .add(ANounDeclension.getInstance())
-            .add(ONounDeclension.getInstance())
-            .add(ORNounDeclension.getInstance())
-            .add(ConsonantNounDeclension.getInstance())
-            .add(INounDeclension.getInstance())
-            .add(MixedNounDeclension.getInstance())
-            .add(UNounDeclension.getInstance())
-            .add(ENounDeclension.getInstance())
+            .addAll(DeclensionRegistry.getNounDeclensions())
             .add(DummyNounDeclension.getInstance())
             .build();
 
@@ -291,6 +287,22 @@ public class NounViewController extends Contexed
         listeners.clear();
     }
 
+    /**
+     * Disposes this view: Unregisters all listeners from the backing noun and releases it.
+     * <p>
+     * To be called on the JavaFX application thread when the view is discarded, like a search result when the results are cleared.
+     * The view must not be used afterwards.
+     *
+     * @since 0.2.4
+     */
+    public void dispose()
+    {
+        if (currentBackingNoun != null)
+            unregisterAll(currentBackingNoun);
+        currentBackingNoun = null;
+        initialBackingNoun = null;
+    }
+
     /**
      * To be called on the JavaFX application thread.
      *
@@ -335,9 +347,11 @@ public class NounViewController extends Contexed
                 register("gender", FxUtil.bindTo(currentBackingNoun, genderComboBox.valueProperty(), "gender", null, null));
                 register("nounDeclension", FxUtil.bindTo(currentBackingNoun, declensionComboBox.valueProperty(), "nounDeclension",
                                                          (NounDeclension n) -> n == null ? DummyNounDeclension.getInstance() : n));
+                // Capturing the bundle, not this controller, keeps the listener from referencing the view
+                ResourceBundle bundle = resources;
                 register("uuid", FxUtil.bindTo(currentBackingNoun, uuidValueText.textProperty(), "uuid", uuid -> {
                     if (uuid == null)
-                        return resources.getString("Text.UUID.NoneSet");
+                        return bundle.getString("Text.UUID.NoneSet");
                     return uuid.toString();
                 }));
             }
@@ -534,24 +548,22 @@ public class NounViewController extends Contexed
     private void save(@Nullable ActionEvent event)
     {
         bindNoun(this.currentBackingNoun, false, true);
-        Task<Void> nounSaveTask = new NounSaveTask(currentBackingNoun); // just uses context of noun
-        nounSaveTask.stateProperty().addListener((observable, oldValue, newValue) -> {
-            // Debugging shows that these event listeners get executed in the JavaFX application thread.
-            switch (newValue)
+        saveButton.setDisable(true);
+        resetButton.setDisable(true);
+        Executor saveLane = FxUtil.scheduler.lane(PriorityTaskScheduler.Lane.SAVE);
+        currentBackingNoun.getContext().getRepository().saveAsync(currentBackingNoun, saveLane).whenComplete((ignored, throwable) -> {
+            if (throwable != null)
             {
-                case FAILED:
-                case CANCELLED:
-                case SUCCEEDED:
-                    saveButton.setDisable(false);
-                    resetButton.setDisable(false);
-                    break;
-                default:
-                    saveButton.setDisable(true);
-                    resetButton.setDisable(true);
-                    break;
+                LOGGER.error("Could not save noun!", throwable);
+                Consumer<? super Throwable> failureHandler = FxUtil.failureHandler;
+                if (failureHandler != null)
+                    failureHandler.accept(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
             }
+            Platform.runLater(() -> {
+                saveButton.setDisable(false);
+                resetButton.setDisable(false);
+            });
         });
-        FxUtil.executor.execute(nounSaveTask);
         if (isWindowed)
             rootPane.getScene().getWindow().hide(); // Equivalent to Stage.close(), prevent unnecessary casts
     }
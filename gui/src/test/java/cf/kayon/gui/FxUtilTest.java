@@ -0,0 +1,109 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package cf.kayon.gui;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.StandardVocab;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import com.typesafe.config.ConfigFactory;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.beans.PropertyChangeSupport;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FxUtilTest
+{
+    private KayonContext context;
+    private Noun noun;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        context = new KayonContext(DriverManager.getConnection("jdbc:h2:mem:"), ConfigFactory.load());
+        noun = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv");
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        context.close();
+        context.getConnection().close();
+    }
+
+    private int listenerCount() throws Exception
+    {
+        Field field = StandardVocab.class.getDeclaredField("changeSupport");
+        field.setAccessible(true);
+        return ((PropertyChangeSupport) field.get(noun)).getPropertyChangeListeners("rootWord").length;
+    }
+
+    @Test
+    public void testBinding() throws Exception
+    {
+        StringProperty property = new SimpleStringProperty();
+        FxUtil.bindTo(noun, property, "rootWord", null, null);
+        noun.setRootWord("amic");
+        assertEquals("amic", property.get());
+
+        StringProperty transformed = new SimpleStringProperty();
+        FxUtil.bindTo(noun, transformed, "rootWord", (String rootWord) -> rootWord.toUpperCase());
+        noun.setRootWord("domin");
+        assertEquals("domin", property.get());
+        assertEquals("DOMIN", transformed.get());
+        assertEquals(2, listenerCount());
+    }
+
+    @Test
+    public void testPropertiesNotRetained() throws Exception
+    {
+        int baseline = listenerCount();
+        List<WeakReference<StringProperty>> references = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+        {
+            StringProperty property = new SimpleStringProperty();
+            FxUtil.bindTo(noun, property, "rootWord", null, null);
+            references.add(new WeakReference<>(property));
+        }
+        assertEquals(baseline + 1000, listenerCount());
+
+        // The noun is still alive, but must not keep the properties alive
+        for (int i = 0; i < 50 && references.stream().anyMatch(reference -> reference.get() != null); i++)
+        {
+            System.gc();
+            Thread.sleep(20);
+        }
+        for (WeakReference<StringProperty> reference : references)
+            assertNull(reference.get());
+
+        WeakPropertyChangeListener.expungeStaleListeners();
+        noun.setRootWord("amic"); // Removes any listeners not expunged yet
+        assertEquals(baseline, listenerCount());
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.server;
+
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.repository.VocabRepository;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static cf.kayon.core.util.StringUtil.checkNotEmpty;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Combines the form lookups of concurrent requests into {@link VocabRepository#queryNounsBatch(Collection) batch queries}.
+ * <p>
+ * A dedicated thread waits for the first lookup, then collects further lookups for at most the maximum delay or until the maximum batch size
+ * is reached, and resolves all of them with a single query. Under load, this replaces many small queries competing for the database connection
+ * with few large ones; without load, it adds at most the maximum delay to a lookup.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+final class FormBatcher implements AutoCloseable
+{
+    /**
+     * The logger.
+     *
+     * @since 0.2.4
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(FormBatcher.class);
+
+    /**
+     * The repository to look up forms in.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final VocabRepository repository;
+
+    /**
+     * The maximum number of forms per query.
+     *
+     * @since 0.2.4
+     */
+    private final int maxSize;
+
+    /**
+     * The maximum time to wait for further lookups, in nanoseconds.
+     *
+     * @since 0.2.4
+     */
+    private final long maxDelayNanos;
+
+    /**
+     * The pending lookups.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final LinkedBlockingQueue<Lookup> pending = new LinkedBlockingQueue<>();
+
+    /**
+     * The thread collecting and resolving batches.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Thread thread;
+
+    /**
+     * Whether this batcher has been closed.
+     *
+     * @since 0.2.4
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructs a new instance and starts its thread.
+     *
+     * @param repository    The repository to look up forms in.
+     * @param maxSize       The maximum number of forms per query.
+     * @param maxDelayNanos The maximum time to wait for further lookups, in nanoseconds.
+     * @throws IllegalArgumentException If {@code maxSize} is not positive or {@code maxDelayNanos} is negative.
+     * @since 0.2.4
+     */
+    FormBatcher(@NotNull VocabRepository repository, int maxSize, long maxDelayNanos)
+    {
+        if (maxSize <= 0 || maxDelayNanos < 0)
+            throw new IllegalArgumentException("Invalid batch size or delay: " + maxSize + ", " + maxDelayNanos);
+        this.repository = checkNotNull(repository);
+        this.maxSize = maxSize;
+        this.maxDelayNanos = maxDelayNanos;
+        thread = new Thread(this::run, "Kayon form batcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Looks up the nouns having a form, like {@link VocabRepository#queryNouns(String, java.util.concurrent.BlockingQueue)}.
+     *
+     * @param form The form.
+     * @return A future of the nouns, completed by the batching thread.
+     * @throws NullPointerException     If {@code form} is {@code null}.
+     * @throws IllegalArgumentException If {@code form} is {@link String#isEmpty() empty}.
+     * @since 0.2.4
+     */
+    @NotNull
+    CompletableFuture<List<Noun>> lookup(@NotNull String form)
+    {
+        checkNotEmpty(form);
+        Lookup lookup = new Lookup(form);
+        if (closed)
+            lookup.future.completeExceptionally(new CancellationException("Batcher is closed"));
+        else
+            pending.add(lookup);
+        return lookup.future;
+    }
+
+    /**
+     * Collects and resolves batches until this batcher is closed.
+     *
+     * @since 0.2.4
+     */
+    private void run()
+    {
+        List<Lookup> batch = new ArrayList<>(maxSize);
+        try
+        {
+            while (!closed)
+            {
+                Lookup first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxSize)
+                {
+                    long remaining = deadline - System.nanoTime();
+                    Lookup next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : pending.poll();
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                }
+                resolve(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e)
+        {
+            LOGGER.warn("Form batcher interrupted", e);
+        }
+        for (Lookup lookup : batch)
+            lookup.future.completeExceptionally(new CancellationException("Batcher is closed"));
+        cancelPending();
+    }
+
+    /**
+     * Resolves a batch of lookups with a single query.
+     *
+     * @param batch The lookups.
+     * @throws InterruptedException If the query was interrupted.
+     * @since 0.2.4
+     */
+    private void resolve(@NotNull List<Lookup> batch) throws InterruptedException
+    {
+        List<String> forms = new ArrayList<>(batch.size());
+        for (Lookup lookup : batch)
+            forms.add(lookup.form);
+        Map<String, List<Noun>> results;
+        try
+        {
+            results = repository.queryNounsBatch(forms);
+        } catch (InterruptedException e)
+        {
+            throw e;
+        } catch (Exception e)
+        {
+            LOGGER.warn("Batch query of " + forms.size() + " forms failed", e);
+            for (Lookup lookup : batch)
+                lookup.future.completeExceptionally(e);
+            return;
+        }
+        for (Lookup lookup : batch)
+            lookup.future.complete(results.get(lookup.form));
+    }
+
+    /**
+     * Stops the batching thread after the current batch. Pending lookups are cancelled.
+     * <p>
+     * The thread is not interrupted, since interrupting a thread accessing an embedded H2 database closes the database file.
+     *
+     * @since 0.2.4
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        try
+        {
+            thread.join();
+        } catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        cancelPending(); // Lookups added while the thread was stopping
+    }
+
+    /**
+     * Cancels all pending lookups.
+     *
+     * @since 0.2.4
+     */
+    private void cancelPending()
+    {
+        Lookup lookup;
+        while ((lookup = pending.poll()) != null)
+            lookup.future.completeExceptionally(new CancellationException("Batcher is closed"));
+    }
+
+    /**
+     * A pending lookup.
+     *
+     * @since 0.2.4
+     */
+    private static final class Lookup
+    {
+        /**
+         * The form to look up.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        final String form;
+
+        /**
+         * The future of the result.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        final CompletableFuture<List<Noun>> future = new CompletableFuture<>();
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param form The form to look up.
+         * @since 0.2.4
+         */
+        Lookup(@NotNull String form)
+        {
+            this.form = form;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.server;
+
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.noun.NounForm;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders the JSON responses of the {@link LookupServer}.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+final class Json
+{
+    /**
+     * A private constructor that always fails to prevent instantiation.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private Json()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Appends a JSON string literal.
+     *
+     * @param builder The builder to append to.
+     * @param value   The string. {@code null} is appended as {@code null}.
+     * @return The builder.
+     * @since 0.2.4
+     */
+    @NotNull
+    static StringBuilder appendString(@NotNull StringBuilder builder, @Nullable String value)
+    {
+        if (value == null)
+            return builder.append("null");
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                        builder.append(String.format("\\u%04x", (int) c));
+                    else
+                        builder.append(c);
+            }
+        }
+        return builder.append('"');
+    }
+
+    /**
+     * Appends a noun as JSON object with its UUID, root word, gender, declension (simple class name), forms (by NounForm) and translations
+     * (by language tag).
+     *
+     * @param builder The builder to append to.
+     * @param noun    The noun.
+     * @return The builder.
+     * @since 0.2.4
+     */
+    @NotNull
+    static StringBuilder appendNoun(@NotNull StringBuilder builder, @NotNull Noun noun)
+    {
+        @Nullable
+        NounDeclension nounDeclension = noun.getNounDeclension();
+        builder.append("{\"uuid\":");
+        appendString(builder, noun.getUuid() == null ? null : noun.getUuid().toString());
+        builder.append(",\"rootWord\":");
+        appendString(builder, noun.getRootWord());
+        builder.append(",\"gender\":");
+        appendString(builder, noun.getGender().name());
+        builder.append(",\"declension\":");
+        appendString(builder, nounDeclension == null ? null : nounDeclension.getClass().getSimpleName());
+        builder.append(",\"forms\":");
+        appendForms(builder, noun);
+        builder.append(",\"translations\":{");
+        boolean first = true;
+        for (Map.Entry<Locale, String> translation : noun.getTranslations().entrySet())
+        {
+            if (!first)
+                builder.append(',');
+            appendString(builder, translation.getKey().toLanguageTag()).append(':');
+            appendString(builder, translation.getValue());
+            first = false;
+        }
+        return builder.append("}}");
+    }
+
+    /**
+     * Appends the forms of a noun as JSON object, by NounForm.
+     *
+     * @param builder The builder to append to.
+     * @param noun    The noun.
+     * @return The builder.
+     * @since 0.2.4
+     */
+    @NotNull
+    static StringBuilder appendForms(@NotNull StringBuilder builder, @NotNull Noun noun)
+    {
+        builder.append('{');
+        boolean first = true;
+        for (NounForm nounForm : NounForm.values())
+        {
+            if (!first)
+                builder.append(',');
+            appendString(builder, nounForm.toString()).append(':');
+            appendString(builder, noun.getForm(nounForm));
+            first = false;
+        }
+        return builder.append('}');
+    }
+
+    /**
+     * Appends nouns as JSON array.
+     *
+     * @param builder The builder to append to.
+     * @param nouns   The nouns.
+     * @return The builder.
+     * @since 0.2.4
+     */
+    @NotNull
+    static StringBuilder appendNouns(@NotNull StringBuilder builder, @NotNull Collection<Noun> nouns)
+    {
+        builder.append('[');
+        boolean first = true;
+        for (Noun noun : nouns)
+        {
+            if (!first)
+                builder.append(',');
+            appendNoun(builder, noun);
+            first = false;
+        }
+        return builder.append(']');
+    }
+
+    /**
+     * Renders an error response.
+     *
+     * @param message The error message.
+     * @return The JSON object.
+     * @since 0.2.4
+     */
+    @NotNull
+    static String error(@NotNull String message)
+    {
+        return appendString(new StringBuilder("{\"error\":"), message).append('}').toString();
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.server;
+
+import com.google.common.io.ByteStreams;
+import net.jcip.annotations.Immutable;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Hammers a running {@link LookupServer} with form lookups and reports the latency percentiles.
+ * <p>
+ * Usage: {@code LoadTest [--url <base url>] [--threads <n>] [--duration <seconds>] [--forms <file>]}.
+ * Every thread looks up a random form out of the forms file (one form per line) in a loop until the duration is over.
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+public final class LoadTest
+{
+    /**
+     * Forms looked up if no forms file is specified.
+     *
+     * @since 0.2.4
+     */
+    private static final List<String> DEFAULT_FORMS = Arrays.asList("dominus", "domini", "domino", "dominum", "domine", "domina", "dominae",
+                                                                    "dominam", "servus", "servi", "amicus", "amici", "templum", "templa");
+
+    /**
+     * Private constructor to prevent instantiation.
+     *
+     * @throws UnsupportedOperationException always
+     * @since 0.2.4
+     */
+    private LoadTest()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Runs a load test and prints the result.
+     *
+     * @param args The arguments.
+     * @throws Exception If the load test could not be run.
+     * @since 0.2.4
+     */
+    public static void main(String[] args) throws Exception
+    {
+        URI base = URI.create("http://127.0.0.1:8290/");
+        int threads = 8;
+        long seconds = 10;
+        List<String> forms = DEFAULT_FORMS;
+        for (int i = 0; i < args.length; i++)
+        {
+            if (i + 1 >= args.length)
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            switch (args[i])
+            {
+                case "--url":
+                    base = URI.create(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--duration":
+                    seconds = Long.parseLong(args[++i]);
+                    break;
+                case "--forms":
+                    forms = new ArrayList<>();
+                    for (String line : Files.readAllLines(Paths.get(args[++i]), StandardCharsets.UTF_8))
+                        if (!line.trim().isEmpty())
+                            forms.add(line.trim());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        System.out.println(run(base, forms, threads, TimeUnit.SECONDS.toNanos(seconds)));
+    }
+
+    /**
+     * Runs a load test.
+     *
+     * @param base          The base URL of the server.
+     * @param forms         The forms to look up.
+     * @param threads       The number of concurrent clients.
+     * @param durationNanos How long to send requests.
+     * @return The result.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for the clients.
+     * @throws IllegalArgumentException If {@code forms} is empty or {@code threads} or {@code durationNanos} is not positive.
+     * @since 0.2.4
+     */
+    @NotNull
+    public static Result run(@NotNull URI base, @NotNull List<String> forms, int threads, long durationNanos) throws InterruptedException
+    {
+        checkNotNull(base);
+        checkArgument(!forms.isEmpty(), "No forms");
+        checkArgument(threads > 0, "threads must be positive");
+        checkArgument(durationNanos > 0, "durationNanos must be positive");
+        List<String> urls = new ArrayList<>(forms.size());
+        for (String form : forms)
+            urls.add(base.resolve("/forms?q=" + encode(form)).toString());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        List<Future<Client>> clients = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++)
+            clients.add(executor.submit(() -> {
+                Client client = new Client();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end)
+                    client.request(urls.get(random.nextInt(urls.size())));
+                return client;
+            }));
+        executor.shutdown();
+
+        long[] latencies = new long[0];
+        int count = 0;
+        long errors = 0;
+        for (Future<Client> future : clients)
+        {
+            Client client;
+            try
+            {
+                client = future.get();
+            } catch (ExecutionException e)
+            {
+                throw new IllegalStateException("Load test client failed", e.getCause());
+            }
+            latencies = Arrays.copyOf(latencies, count + client.count);
+            System.arraycopy(client.latencies, 0, latencies, count, client.count);
+            count += client.count;
+            errors += client.errors;
+        }
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Result(count, errors, elapsed, latencies);
+    }
+
+    /**
+     * URL-encodes a query parameter value.
+     *
+     * @param value The value.
+     * @return The encoded value.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static String encode(@NotNull String value)
+    {
+        try
+        {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e)
+        {
+            throw new AssertionError(e); // UTF-8 is always supported
+        }
+    }
+
+    /**
+     * A single client, recording the latencies of its requests. Only used by one thread.
+     *
+     * @since 0.2.4
+     */
+    private static final class Client
+    {
+        /**
+         * The latencies in nanoseconds, the first {@link #count} of which are valid.
+         *
+         * @since 0.2.4
+         */
+        long[] latencies = new long[1024];
+
+        /**
+         * The number of requests sent.
+         *
+         * @since 0.2.4
+         */
+        int count;
+
+        /**
+         * The number of requests that failed or were not answered with status 200.
+         *
+         * @since 0.2.4
+         */
+        long errors;
+
+        /**
+         * Sends a request, reads the whole response and records the latency.
+         *
+         * @param url The URL.
+         * @since 0.2.4
+         */
+        void request(@NotNull String url)
+        {
+            long start = System.nanoTime();
+            try
+            {
+                HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+                int status = connection.getResponseCode();
+                try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream())
+                {
+                    if (body != null)
+                        ByteStreams.copy(body, ByteStreams.nullOutputStream());
+                }
+                if (status != 200)
+                    errors++;
+            } catch (IOException e)
+            {
+                errors++;
+            }
+            if (count == latencies.length)
+                latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * The result of a load test.
+     *
+     * @since 0.2.4
+     */
+    @Immutable
+    public static final class Result
+    {
+        /**
+         * The number of requests sent.
+         *
+         * @since 0.2.4
+         */
+        private final long requests;
+
+        /**
+         * The number of failed requests.
+         *
+         * @since 0.2.4
+         */
+        private final long errors;
+
+        /**
+         * The total duration in nanoseconds.
+         *
+         * @since 0.2.4
+         */
+        private final long elapsedNanos;
+
+        /**
+         * The sorted latencies in nanoseconds.
+         *
+         * @since 0.2.4
+         */
+        @NotNull
+        private final long[] latencies;
+
+        /**
+         * Constructs a new instance.
+         *
+         * @param requests     The number of requests sent.
+         * @param errors       The number of failed requests.
+         * @param elapsedNanos The total duration in nanoseconds.
+         * @param latencies    The sorted latencies in nanoseconds. Not copied.
+         * @since 0.2.4
+         */
+        Result(long requests, long errors, long elapsedNanos, @NotNull long[] latencies)
+        {
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+        }
+
+        /**
+         * Gets the number of requests sent.
+         *
+         * @return The number of requests.
+         * @since 0.2.4
+         */
+        public long getRequests()
+        {
+            return requests;
+        }
+
+        /**
+         * Gets the number of requests that failed or were not answered with status 200.
+         *
+         * @return The number of errors.
+         * @since 0.2.4
+         */
+        public long getErrors()
+        {
+            return errors;
+        }
+
+        /**
+         * Gets the number of requests per second.
+         *
+         * @return The throughput.
+         * @since 0.2.4
+         */
+        public double getThroughput()
+        {
+            return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Gets a latency percentile.
+         *
+         * @param percentile The percentile, between {@code 0} and {@code 100}.
+         * @return The latency in nanoseconds, or {@code 0} if no request has been sent.
+         * @throws IllegalArgumentException If {@code percentile} is out of range.
+         * @since 0.2.4
+         */
+        public long getLatencyNanos(double percentile)
+        {
+            checkArgument(percentile >= 0 && percentile <= 100, "percentile out of range");
+            if (latencies.length == 0)
+                return 0;
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(latencies.length - 1, index))];
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%d requests, %d errors, %.1f requests/s%nlatency p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms",
+                                 requests, errors, getThroughput(), getLatencyNanos(50) / 1e6, getLatencyNanos(90) / 1e6,
+                                 getLatencyNanos(99) / 1e6, getLatencyNanos(99.9) / 1e6, getLatencyNanos(100) / 1e6);
+        }
+    }
+}
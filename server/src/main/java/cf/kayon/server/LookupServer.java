@@ -0,0 +1,561 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.server;
+
+import cf.kayon.core.Contexed;
+import cf.kayon.core.DeclensionRegistry;
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.NounDeclension;
+import cf.kayon.core.repository.RepositoryException;
+import cf.kayon.core.repository.VocabRepository;
+import cf.kayon.core.util.ConfigurationUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import net.jcip.annotations.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An HTTP server answering lookups in a {@link VocabRepository} with JSON.
+ * <p>
+ * Endpoints (all of them {@code GET}, parameters are URL query parameters):
+ * <ul>
+ * <li>{@code /forms?q=<form>&q=<form>...}: The nouns having any of the forms, as object from every form to an array of nouns.
+ * The forms may also be {@code POST}ed as request body, one per line. Forms of concurrent requests are looked up together
+ * (see {@code server.batch}).</li>
+ * <li>{@code /roots?q=<root word>}: The nouns whose root word contains the root word, as array.</li>
+ * <li>{@code /translations?q=<text>}: The nouns having a translation containing the text, as array.</li>
+ * <li>{@code /paradigm?rootWord=<root word>&gender=<gender>&declension=<declension>}: All forms of a noun that does not have to be stored,
+ * as object from form name to form.</li>
+ * </ul>
+ * Nouns are rendered as objects with the keys {@code uuid}, {@code rootWord}, {@code gender}, {@code declension}, {@code forms} and
+ * {@code translations}. Errors are reported with an HTTP error status and an object with the key {@code error}.
+ * <p>
+ * Requests are parsed by a small thread pool ({@code server.threads}). Handlers never wait for the database: Lookups are handed to the
+ * batching thread or a worker, and the response is written when the result is complete. Responses are cached by their request
+ * ({@code server.cache}).
+ *
+ * @author Ruben Anders
+ * @since 0.2.4
+ */
+@ThreadSafe
+public class LookupServer extends Contexed implements AutoCloseable
+{
+    /**
+     * The logger.
+     *
+     * @since 0.2.4
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LookupServer.class);
+
+    /**
+     * The repository to look up nouns in.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final VocabRepository repository;
+
+    /**
+     * The HTTP server.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final HttpServer server;
+
+    /**
+     * Handles requests.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final ExecutorService executor;
+
+    /**
+     * Runs the lookups that are not batched (the {@link cf.kayon.core.sql.NounSQLFactory#getExecutor() database executor}), so their blocking scans do not
+     * hold up the threads handling requests.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Executor lookupExecutor;
+
+    /**
+     * Batches form lookups.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final FormBatcher batcher;
+
+    /**
+     * The cached responses (or response parts for forms), by request.
+     *
+     * @since 0.2.4
+     */
+    @NotNull
+    private final Cache<String, String> cache;
+
+    /**
+     * Constructs a new instance serving the {@link KayonContext#getRepository() repository of the context}.
+     *
+     * @param context The {@link KayonContext} for this instance.
+     * @throws IOException If the server could not be bound to the configured address.
+     * @since 0.2.4
+     */
+    public LookupServer(@NotNull KayonContext context) throws IOException
+    {
+        this(context, context.getRepository());
+    }
+
+    /**
+     * Constructs a new instance. The server does not accept requests before it is {@link #start() started}.
+     * <p>
+     * The settings are retrieved from the {@code server} section of the config of the context at construct time.
+     *
+     * @param context    The {@link KayonContext} for this instance.
+     * @param repository The repository to serve.
+     * @throws IOException If the server could not be bound to the configured address.
+     * @since 0.2.4
+     */
+    public LookupServer(@NotNull KayonContext context, @NotNull VocabRepository repository) throws IOException
+    {
+        super(context);
+        this.repository = checkNotNull(repository);
+        Config config = context.getConfig().getConfig("server");
+        batcher = new FormBatcher(repository, config.getInt("batch.maxSize"), config.getDuration("batch.maxDelay", TimeUnit.NANOSECONDS));
+        cache = CacheBuilder.newBuilder()
+                            .maximumSize(config.getLong("cache.maxSize"))
+                            .expireAfterWrite(config.getDuration("cache.expireAfterWrite", TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                            .recordStats()
+                            .build();
+        executor = Executors.newFixedThreadPool(config.getInt("threads"), runnable -> {
+            Thread thread = new Thread(runnable, "Kayon server worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lookupExecutor = context.getNounSQLFactory().getExecutor();
+        server = HttpServer.create(new InetSocketAddress(config.getString("host"), config.getInt("port")), 0);
+        server.setExecutor(executor);
+        server.createContext("/forms", this::handleForms);
+        server.createContext("/roots", exchange -> handleQuery(exchange, "roots", repository::queryNounsByRootWord));
+        server.createContext("/translations", exchange -> handleQuery(exchange, "translations", repository::queryNounsByTranslation));
+        server.createContext("/paradigm", this::handleParadigm);
+    }
+
+    /**
+     * Starts accepting requests.
+     *
+     * @since 0.2.4
+     */
+    public void start()
+    {
+        server.start();
+        LOGGER.info("Lookup server listening on " + server.getAddress());
+    }
+
+    /**
+     * Gets the port the server is bound to.
+     *
+     * @return The port. If the configured port is {@code 0}, this is the port that has been selected.
+     * @since 0.2.4
+     */
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the statistics of the response cache.
+     *
+     * @return The statistics.
+     * @since 0.2.4
+     */
+    @NotNull
+    public CacheStats getCacheStats()
+    {
+        return cache.stats();
+    }
+
+    /**
+     * Stops the server. Requests being processed are answered, pending form lookups fail.
+     *
+     * @since 0.2.4
+     */
+    @Override
+    public void close()
+    {
+        server.stop(0);
+        batcher.close();
+        executor.shutdown();
+    }
+
+    /**
+     * Handles {@code /forms}.
+     *
+     * @param exchange The exchange.
+     * @throws IOException If the request could not be read.
+     * @since 0.2.4
+     */
+    private void handleForms(@NotNull HttpExchange exchange) throws IOException
+    {
+        Set<String> forms = new LinkedHashSet<>();
+        if (exchange.getRequestMethod().equals("POST"))
+        {
+            String body = new String(ByteStreams.toByteArray(exchange.getRequestBody()), StandardCharsets.UTF_8);
+            for (String line : body.split("\r?\n"))
+                if (!line.trim().isEmpty())
+                    forms.add(line.trim());
+        } else if (exchange.getRequestMethod().equals("GET"))
+        {
+            List<String> parameter = parseQuery(exchange).get("q");
+            if (parameter != null)
+                for (String form : parameter)
+                    if (!form.trim().isEmpty())
+                        forms.add(form.trim());
+        } else
+        {
+            respond(exchange, 405, Json.error("Method not allowed: " + exchange.getRequestMethod()));
+            return;
+        }
+        if (forms.isEmpty())
+        {
+            respond(exchange, 400, Json.error("No forms specified"));
+            return;
+        }
+
+        Map<String, CompletableFuture<String>> parts = new LinkedHashMap<>();
+        for (String form : forms)
+        {
+            String key = "forms:" + form.toLowerCase();
+            @Nullable
+            String cached = cache.getIfPresent(key);
+            parts.put(form, cached != null ? CompletableFuture.completedFuture(cached) : batcher.lookup(form).thenApply(nouns -> {
+                String part = Json.appendNouns(new StringBuilder(), nouns).toString();
+                cache.put(key, part);
+                return part;
+            }));
+        }
+        CompletableFuture.allOf(parts.values().toArray(new CompletableFuture<?>[parts.size()])).whenCompleteAsync((ignored, throwable) -> {
+            if (throwable != null)
+            {
+                respondFailure(exchange, throwable);
+                return;
+            }
+            StringBuilder response = new StringBuilder("{");
+            boolean first = true;
+            for (Map.Entry<String, CompletableFuture<String>> part : parts.entrySet())
+            {
+                if (!first)
+                    response.append(',');
+                Json.appendString(response, part.getKey()).append(':').append(part.getValue().join());
+                first = false;
+            }
+            respond(exchange, 200, response.append('}').toString());
+        }, executor);
+    }
+
+    /**
+     * Handles a query with a single parameter {@code q}, answered by an array of nouns.
+     *
+     * @param exchange The exchange.
+     * @param name     The name of the query, used in cache keys.
+     * @param query    The query.
+     * @since 0.2.4
+     */
+    private void handleQuery(@NotNull HttpExchange exchange, @NotNull String name, @NotNull Query query)
+    {
+        if (!exchange.getRequestMethod().equals("GET"))
+        {
+            respond(exchange, 405, Json.error("Method not allowed: " + exchange.getRequestMethod()));
+            return;
+        }
+        @Nullable
+        List<String> parameter = parseQuery(exchange).get("q");
+        if (parameter == null || parameter.size() != 1 || parameter.get(0).trim().isEmpty())
+        {
+            respond(exchange, 400, Json.error("Expected exactly one non-empty parameter q"));
+            return;
+        }
+        String text = parameter.get(0).trim();
+        String key = name + ':' + text.toLowerCase();
+        @Nullable
+        String cached = cache.getIfPresent(key);
+        if (cached != null)
+        {
+            respond(exchange, 200, cached);
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> {
+            LinkedBlockingQueue<Noun> results = new LinkedBlockingQueue<>();
+            try
+            {
+                query.run(text, results);
+            } catch (RepositoryException | InterruptedException e)
+            {
+                throw new CompletionException(e);
+            }
+            String response = Json.appendNouns(new StringBuilder(), results).toString();
+            cache.put(key, response);
+            return response;
+        }, lookupExecutor).whenCompleteAsync((response, throwable) -> {
+            if (throwable != null)
+                respondFailure(exchange, throwable);
+            else
+                respond(exchange, 200, response);
+        }, executor);
+    }
+
+    /**
+     * Handles {@code /paradigm}.
+     *
+     * @param exchange The exchange.
+     * @since 0.2.4
+     */
+    private void handleParadigm(@NotNull HttpExchange exchange)
+    {
+        if (!exchange.getRequestMethod().equals("GET"))
+        {
+            respond(exchange, 405, Json.error("Method not allowed: " + exchange.getRequestMethod()));
+            return;
+        }
+        Map<String, List<String>> parameters = parseQuery(exchange);
+        try
+        {
+            String rootWord = singleParameter(parameters, "rootWord");
+            String genderName = singleParameter(parameters, "gender");
+            String declensionName = singleParameter(parameters, "declension");
+            String key = "paradigm:" + rootWord + ':' + genderName.toUpperCase() + ':' + declensionName;
+            @Nullable
+            String cached = cache.getIfPresent(key);
+            if (cached == null)
+            {
+                Gender gender;
+                try
+                {
+                    gender = Gender.valueOf(genderName.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e)
+                {
+                    throw new IllegalArgumentException("Unknown gender: " + genderName, e);
+                }
+                Noun noun = new Noun(getContext(), nounDeclension(declensionName), gender, rootWord);
+                cached = Json.appendForms(new StringBuilder(), noun).toString();
+                cache.put(key, cached);
+            }
+            respond(exchange, 200, cached);
+        } catch (IllegalArgumentException e)
+        {
+            respond(exchange, 400, Json.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Gets a required parameter that may only be specified once.
+     *
+     * @param parameters The parameters.
+     * @param name       The name of the parameter.
+     * @return The value.
+     * @throws IllegalArgumentException If the parameter is missing, empty or specified multiple times.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static String singleParameter(@NotNull Map<String, List<String>> parameters, @NotNull String name)
+    {
+        @Nullable
+        List<String> values = parameters.get(name);
+        if (values == null || values.size() != 1 || values.get(0).trim().isEmpty())
+            throw new IllegalArgumentException("Expected exactly one non-empty parameter " + name);
+        return values.get(0).trim();
+    }
+
+    /**
+     * Resolves a noun declension by its simple or fully qualified class name.
+     *
+     * @param name The name.
+     * @return The noun declension.
+     * @throws IllegalArgumentException If no such noun declension is registered.
+     * @since 0.2.4
+     */
+    @NotNull
+    private static NounDeclension nounDeclension(@NotNull String name)
+    {
+        @Nullable
+        NounDeclension nounDeclension = DeclensionRegistry.nounDeclensionForName(name);
+        if (nounDeclension != null)
+            return nounDeclension;
+        for (NounDeclension candidate : DeclensionRegistry.getNounDeclensions())
+            if (candidate.getClass().getSimpleName().equalsIgnoreCase(name))
+                return candidate;
+        throw new IllegalArgumentException("Unknown declension: " + name);
+    }
+
+    /**
+     * Parses the query parameters of a request.
+     *
+     * @param exchange The exchange.
+     * @return The values of the parameters, by name.
+     * @since 0.2.4
+     */
+    @NotNull
+    static Map<String, List<String>> parseQuery(@NotNull HttpExchange exchange)
+    {
+        Map<String, List<String>> parameters = new HashMap<>();
+        @Nullable
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null)
+            return parameters;
+        try
+        {
+            for (String pair : query.split("&"))
+            {
+                if (pair.isEmpty())
+                    continue;
+                int separator = pair.indexOf('=');
+                String name = URLDecoder.decode(separator < 0 ? pair : pair.substring(0, separator), "UTF-8");
+                String value = separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), "UTF-8");
+                parameters.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+            }
+        } catch (UnsupportedEncodingException e)
+        {
+            throw new AssertionError(e); // UTF-8 is always supported
+        }
+        return parameters;
+    }
+
+    /**
+     * Answers a request with the failure of a lookup.
+     *
+     * @param exchange  The exchange.
+     * @param throwable The failure.
+     * @since 0.2.4
+     */
+    private static void respondFailure(@NotNull HttpExchange exchange, @NotNull Throwable throwable)
+    {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof IllegalArgumentException)
+        {
+            respond(exchange, 400, Json.error(String.valueOf(cause.getMessage())));
+            return;
+        }
+        LOGGER.warn("Lookup failed: " + exchange.getRequestURI(), cause);
+        respond(exchange, cause instanceof CancellationException ? 503 : 500, Json.error(String.valueOf(cause)));
+    }
+
+    /**
+     * Writes a response and closes the exchange.
+     *
+     * @param exchange The exchange.
+     * @param status   The HTTP status code.
+     * @param json     The response body.
+     * @since 0.2.4
+     */
+    private static void respond(@NotNull HttpExchange exchange, int status, @NotNull String json)
+    {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        try (OutputStream responseBody = exchange.getResponseBody())
+        {
+            exchange.sendResponseHeaders(status, body.length);
+            responseBody.write(body);
+        } catch (IOException e)
+        {
+            LOGGER.debug("Could not write response (client disconnected?)", e);
+        } finally
+        {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Runs a standalone server with the database and settings of the configuration file {@code Kayon} in the working directory
+     * (or the file given as first argument), until the process is terminated.
+     *
+     * @param args The optional configuration file.
+     * @throws Exception If the server could not be started.
+     * @since 0.2.4
+     */
+    public static void main(String[] args) throws Exception
+    {
+        Config config = ConfigFactory.load(ConfigFactory.parseFileAnySyntax(new File(args.length > 0 ? args[0] : "Kayon")));
+        Connection connection = DriverManager.getConnection(config.getString("database.url"),
+                                                            ConfigurationUtil.toProperties(config.getConfig("database.info").entrySet()));
+        KayonContext context = new KayonContext(connection, config);
+        context.getNounSQLFactory().setupDatabaseForNouns();
+        context.getNounSQLFactory().compileStatements();
+        LookupServer server = new LookupServer(context);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            context.close();
+            try
+            {
+                connection.close();
+            } catch (Exception e)
+            {
+                LOGGER.warn("Could not close the database connection", e);
+            }
+        }, "Kayon server shutdown"));
+        server.start();
+        System.out.println("Listening on " + config.getString("server.host") + ':' + server.getPort());
+    }
+
+    /**
+     * A lookup writing its results to a queue, like {@link VocabRepository#queryNounsByRootWord(String, BlockingQueue)}.
+     *
+     * @since 0.2.4
+     */
+    @FunctionalInterface
+    private interface Query
+    {
+        /**
+         * Runs the lookup.
+         *
+         * @param text    The text to look up.
+         * @param writeTo The queue to write the results to.
+         * @throws RepositoryException  If the lookup failed.
+         * @throws InterruptedException If the lookup was interrupted.
+         * @since 0.2.4
+         */
+        void run(@NotNull String text, @NotNull BlockingQueue<? super Noun> writeTo) throws RepositoryException, InterruptedException;
+    }
+}
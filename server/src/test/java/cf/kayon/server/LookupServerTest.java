@@ -0,0 +1,162 @@
+/*
+ * Kayon
+ * Copyright (C) 2015 Ruben Anders
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package cf.kayon.server;
+
+import cf.kayon.core.Gender;
+import cf.kayon.core.KayonContext;
+import cf.kayon.core.noun.Noun;
+import cf.kayon.core.noun.impl.ONounDeclension;
+import cf.kayon.core.repository.InMemoryVocabRepository;
+import com.google.common.io.ByteStreams;
+import com.typesafe.config.ConfigFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.DriverManager;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LookupServerTest
+{
+    private KayonContext context;
+
+    private LookupServer server;
+
+    private int status;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        context = new KayonContext(DriverManager.getConnection("jdbc:h2:mem:"),
+                                   ConfigFactory.parseString("server.port: 0").withFallback(ConfigFactory.load()));
+        InMemoryVocabRepository repository = new InMemoryVocabRepository(context);
+        Noun dominus = new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "domin");
+        dominus.getTranslations().put(Locale.ENGLISH, "master");
+        repository.save(dominus);
+        repository.save(new Noun(context, ONounDeclension.getInstance(), Gender.MASCULINE, "serv"));
+        server = new LookupServer(context, repository);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception
+    {
+        server.close();
+        context.close();
+        context.getConnection().close();
+    }
+
+    private String request(String method, String path, String body) throws Exception
+    {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null)
+        {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream())
+            {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        status = connection.getResponseCode();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream())
+        {
+            return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testForms() throws Exception
+    {
+        String response = request("GET", "/forms?q=domini&q=nihil", null);
+        assertEquals(200, status);
+        assertTrue(response, response.startsWith("{\"domini\":[{\"uuid\":"));
+        assertTrue(response, response.contains("\"rootWord\":\"domin\""));
+        assertTrue(response, response.endsWith(",\"nihil\":[]}"));
+
+        response = request("POST", "/forms", "servo\n\nservis\n");
+        assertEquals(200, status);
+        assertTrue(response, response.contains("\"servo\":[{"));
+        assertTrue(response, response.contains("\"servis\":[{"));
+    }
+
+    @Test
+    public void testFormsCached() throws Exception
+    {
+        String first = request("GET", "/forms?q=domino", null);
+        long hits = server.getCacheStats().hitCount();
+        assertEquals(first, request("GET", "/forms?q=DOMINO", null).replace("DOMINO", "domino"));
+        assertEquals(hits + 1, server.getCacheStats().hitCount());
+    }
+
+    @Test
+    public void testRootsAndTranslations() throws Exception
+    {
+        String response = request("GET", "/roots?q=dom", null);
+        assertEquals(200, status);
+        assertTrue(response, response.startsWith("[{") && response.contains("\"domin\""));
+        response = request("GET", "/translations?q=mast", null);
+        assertEquals(200, status);
+        assertTrue(response, response.contains("\"master\""));
+        assertEquals("[]", request("GET", "/translations?q=slave", null));
+    }
+
+    @Test
+    public void testParadigm() throws Exception
+    {
+        String response = request("GET", "/paradigm?rootWord=amic&gender=masculine&declension=ONounDeclension", null);
+        assertEquals(200, status);
+        assertTrue(response, response.contains("\"amicus\""));
+        assertTrue(response, response.contains("\"AccSi\":\"amicum\""));
+    }
+
+    @Test
+    public void testErrors() throws Exception
+    {
+        request("GET", "/forms", null);
+        assertEquals(400, status);
+        request("DELETE", "/forms?q=domini", null);
+        assertEquals(405, status);
+        String response = request("GET", "/paradigm?rootWord=amic&gender=masculine&declension=Nonsense", null);
+        assertEquals(400, status);
+        assertTrue(response, response.contains("Unknown declension"));
+        request("GET", "/nothing", null);
+        assertEquals(404, status);
+    }
+
+    @Test
+    public void testLoadTest() throws Exception
+    {
+        LoadTest.Result result = LoadTest.run(URI.create("http://127.0.0.1:" + server.getPort() + "/"),
+                                              Arrays.asList("dominus", "servi", "nihil"), 4, TimeUnit.MILLISECONDS.toNanos(300));
+        assertTrue(result.getRequests() > 0);
+        assertEquals(0, result.getErrors());
+        assertTrue(result.getLatencyNanos(50) <= result.getLatencyNanos(99));
+    }
+}